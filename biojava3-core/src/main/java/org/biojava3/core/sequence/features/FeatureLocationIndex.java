@@ -0,0 +1,138 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.core.sequence.features;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.biojava3.core.sequence.location.template.Location;
+
+/**
+ * An immutable index of features by the bio coordinates of their locations, for fast
+ * lookup of the features at a position or overlapping a range.
+ *
+ * The features are stored in order of start position (longest first for equal starts, as
+ * in {@link AbstractFeature#LOCATION_LENGTH}) with the maximum end of every subtree of the
+ * implicit balanced binary tree over that order, so a query costs O(log n + k) for k hits.
+ * Hits are returned in the same order as in the indexed list. Features without a location
+ * are not indexed.
+ *
+ * @param <F> the feature type
+ */
+public class FeatureLocationIndex<F extends FeatureInterface<?, ?>> {
+
+    private final Object[] features;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] maxEnds;
+
+    /**
+     * Index the given features.
+     * @param features features, preferably already sorted by {@link AbstractFeature#LOCATION_LENGTH}
+     */
+    public FeatureLocationIndex(List<? extends F> features) {
+        List<F> located = new ArrayList<F>(features.size());
+        boolean sorted = true;
+        int previousStart = Integer.MIN_VALUE;
+        for (F feature : features) {
+            Location location = feature.getLocations();
+            if (location == null) {
+                continue;
+            }
+            int start = location.getStart().getPosition();
+            sorted &= start >= previousStart;
+            previousStart = start;
+            located.add(feature);
+        }
+        if (!sorted) {
+            Collections.sort(located, AbstractFeature.LOCATION_LENGTH);
+        }
+        this.features = located.toArray();
+        int n = this.features.length;
+        starts = new int[n];
+        ends = new int[n];
+        maxEnds = new int[n];
+        for (int i = 0; i < n; i++) {
+            Location location = feature(i).getLocations();
+            starts[i] = location.getStart().getPosition();
+            ends[i] = location.getEnd().getPosition();
+        }
+        buildMaxEnds(0, n);
+    }
+
+    /**
+     * Return the features containing a sequence position
+     * @param bioSequencePosition
+     * @return the features with start &lt;= position &lt;= end
+     */
+    public List<F> getFeatures(int bioSequencePosition) {
+        return getFeatures(bioSequencePosition, bioSequencePosition);
+    }
+
+    /**
+     * Return the features overlapping a range of sequence positions
+     * @param bioStart first position of the range
+     * @param bioEnd last position of the range
+     * @return the features with start &lt;= bioEnd and end &gt;= bioStart
+     */
+    public List<F> getFeatures(int bioStart, int bioEnd) {
+        List<F> hits = new ArrayList<F>();
+        search(0, features.length, bioStart, bioEnd, hits);
+        return hits;
+    }
+
+    @SuppressWarnings("unchecked")
+    private F feature(int i) {
+        return (F) features[i];
+    }
+
+    private int buildMaxEnds(int lo, int hi) {
+        if (lo >= hi) {
+            return Integer.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        int max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    /**
+     * In-order walk of the subtree [lo, hi), skipping subtrees that end before bioStart
+     * and stopping at the first feature starting after bioEnd.
+     */
+    private void search(int lo, int hi, int bioStart, int bioEnd, List<F> hits) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] < bioStart) {
+                return;
+            }
+            search(lo, mid, bioStart, bioEnd, hits);
+            if (starts[mid] > bioEnd) {
+                return;
+            }
+            if (ends[mid] >= bioStart) {
+                hits.add(feature(mid));
+            }
+            lo = mid + 1;
+        }
+    }
+}
@@ -22,7 +22,6 @@
 package org.biojava3.core.sequence.io;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.LinkedHashMap;
 import org.biojava3.core.sequence.DNASequence;
@@ -32,6 +31,7 @@ import org.biojava3.core.sequence.compound.AminoAcidCompound;
 import org.biojava3.core.sequence.compound.AminoAcidCompoundSet;
 import org.biojava3.core.sequence.compound.DNACompoundSet;
 import org.biojava3.core.sequence.compound.NucleotideCompound;
+import org.biojava3.core.util.InputStreamProvider;
 
 /**
  *
@@ -68,7 +68,7 @@ public class FastaReaderHelper {
      */
     public static LinkedHashMap<String, ProteinSequence> readFastaProteinSequence(
             File file) throws Exception {
-        FileInputStream inStream = new FileInputStream(file);
+        InputStream inStream = new InputStreamProvider().getInputStream(file);
         LinkedHashMap<String, ProteinSequence> proteinSequences = readFastaProteinSequence(inStream);
         inStream.close();
         return proteinSequences;
@@ -114,7 +114,7 @@ public class FastaReaderHelper {
      */
     public static LinkedHashMap<String, DNASequence> readFastaDNASequence(
             File file) throws Exception {
-        FileInputStream inStream = new FileInputStream(file);
+        InputStream inStream = new InputStreamProvider().getInputStream(file);
         LinkedHashMap<String, DNASequence> dnaSequences = readFastaDNASequence(inStream);
         inStream.close();
         return dnaSequences;
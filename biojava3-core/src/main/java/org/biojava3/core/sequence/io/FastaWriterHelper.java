@@ -24,6 +24,7 @@ package org.biojava3.core.sequence.io;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -36,6 +37,7 @@ import org.biojava3.core.sequence.compound.NucleotideCompound;
 import org.biojava3.core.sequence.io.template.FastaHeaderFormatInterface;
 import org.biojava3.core.sequence.template.Compound;
 import org.biojava3.core.sequence.template.Sequence;
+import org.biojava3.core.util.ParallelBGZFOutputStream;
 
 /**
  * The class that should be used to write out fasta file of a sequence collection
@@ -54,7 +56,7 @@ public class FastaWriterHelper {
      */
     public static void writeProteinSequence(File file,
             Collection<ProteinSequence> proteinSequences) throws Exception {
-        FileOutputStream outputStream = new FileOutputStream(file);
+        OutputStream outputStream = openOutputStream(file);
         BufferedOutputStream bo = new BufferedOutputStream(outputStream);
         writeProteinSequence(bo, proteinSequences);
         bo.close();
@@ -86,7 +88,7 @@ public class FastaWriterHelper {
      */
 
     public static void writeGeneSequence(File file, Collection<GeneSequence> geneSequences,boolean showExonUppercase) throws Exception {
-        FileOutputStream outputStream = new FileOutputStream(file);
+        OutputStream outputStream = openOutputStream(file);
         BufferedOutputStream bo = new BufferedOutputStream(outputStream);
         writeGeneSequence(bo, geneSequences,showExonUppercase);
         bo.close();
@@ -117,7 +119,7 @@ public class FastaWriterHelper {
      */
 
     public static void writeNucleotideSequence(File file, Collection<DNASequence> dnaSequences) throws Exception {
-        FileOutputStream outputStream = new FileOutputStream(file);
+        OutputStream outputStream = openOutputStream(file);
         BufferedOutputStream bo = new BufferedOutputStream(outputStream);
         writeNucleotideSequence(bo, dnaSequences);
         bo.close();
@@ -146,7 +148,7 @@ public class FastaWriterHelper {
      * @throws Exception
      */
     public static void writeSequence(File file, Sequence<?> sequence) throws Exception {
-        FileOutputStream outputStream = new FileOutputStream(file);
+        OutputStream outputStream = openOutputStream(file);
         BufferedOutputStream bo = new BufferedOutputStream(outputStream);
         writeSequences(bo, singleSeqToCollection(sequence));
         bo.close();
@@ -163,6 +165,21 @@ public class FastaWriterHelper {
         writeSequences(outputStream, singleSeqToCollection(sequence));
     }
 
+    /**
+     * Open a file for writing. If the file name ends with .gz the output is
+     * written in the blocked gzip format, compressed in parallel.
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    private static OutputStream openOutputStream(File file) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file);
+        if (file.getName().endsWith(".gz")) {
+            return new ParallelBGZFOutputStream(outputStream);
+        }
+        return outputStream;
+    }
+
     /**
      * 
      * @param sequence
@@ -27,16 +27,17 @@ package org.biojava3.core.sequence.template;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.biojava3.core.sequence.AccessionID;
 import org.biojava3.core.sequence.Strand;
 import org.biojava3.core.sequence.TaxonomyID;
 import org.biojava3.core.sequence.features.AbstractFeature;
 import org.biojava3.core.sequence.features.DatabaseReferenceInterface;
+import org.biojava3.core.sequence.features.FeatureLocationIndex;
 import org.biojava3.core.sequence.features.FeatureInterface;
 import org.biojava3.core.sequence.features.FeaturesKeyWordInterface;
 import org.biojava3.core.sequence.loader.UniprotProxySequenceReader;
@@ -72,6 +73,10 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
             new ArrayList<FeatureInterface<AbstractSequence<C>, C>>();
     private LinkedHashMap<String, ArrayList<FeatureInterface<AbstractSequence<C>, C>>> groupedFeatures =
             new LinkedHashMap<String, ArrayList<FeatureInterface<AbstractSequence<C>, C>>>();
+    // the location indexes are built on the first lookup after a change, null if not built yet
+    private volatile FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>> featureIndex = null;
+    private ConcurrentHashMap<String, FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>>> groupedFeatureIndex =
+            new ConcurrentHashMap<String, FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>>>();
 
     public AbstractSequence() {
     }
@@ -309,17 +314,28 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
      * @return
      */
     public List<FeatureInterface<AbstractSequence<C>, C>> getFeatures(String featureType, int bioSequencePosition) {
-        ArrayList<FeatureInterface<AbstractSequence<C>, C>> featureHits =
-                new ArrayList<FeatureInterface<AbstractSequence<C>, C>>();
-        List<FeatureInterface<AbstractSequence<C>, C>> features = getFeaturesByType(featureType);
-        if (features != null) {
-            for (FeatureInterface<AbstractSequence<C>, C> feature : features) {
-                if (bioSequencePosition >= feature.getLocations().getStart().getPosition() && bioSequencePosition <= feature.getLocations().getEnd().getPosition()) {
-                    featureHits.add(feature);
-                }
-            }
+        return getFeatures(featureType, bioSequencePosition, bioSequencePosition);
+    }
+
+    /**
+     * Return features of a type overlapping a range of sequence positions, in start position order.
+     * The lookup uses an interval index that is built on the first lookup after features were added or
+     * removed, so it reflects the feature locations at that time. To move a feature, remove it and add it
+     * again; changes made directly to the lists returned by {@link #getFeatures()} are not seen.
+     * @param featureType
+     * @param bioSequenceStart first position of the range
+     * @param bioSequenceEnd last position of the range
+     * @return
+     */
+    public List<FeatureInterface<AbstractSequence<C>, C>> getFeatures(String featureType, int bioSequenceStart, int bioSequenceEnd) {
+        FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>> index = groupedFeatureIndex.get(featureType);
+        if (index == null) {
+            index = getFeatureIndex(featureType);
+        }
+        if (index == null) {
+            return new ArrayList<FeatureInterface<AbstractSequence<C>, C>>();
         }
-        return featureHits;
+        return index.getFeatures(bioSequenceStart, bioSequenceEnd);
     }
 
     /**
@@ -329,16 +345,23 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
      * @return
      */
     public List<FeatureInterface<AbstractSequence<C>, C>> getFeatures(int bioSequencePosition) {
-        ArrayList<FeatureInterface<AbstractSequence<C>, C>> featureHits =
-                new ArrayList<FeatureInterface<AbstractSequence<C>, C>>();
-        if (features != null) {
-            for (FeatureInterface<AbstractSequence<C>, C> feature : features) {
-                if (bioSequencePosition >= feature.getLocations().getStart().getPosition() && bioSequencePosition <= feature.getLocations().getEnd().getPosition()) {
-                    featureHits.add(feature);
-                }
-            }
+        return getFeatures(bioSequencePosition, bioSequencePosition);
+    }
+
+    /**
+     * Return features overlapping a range of sequence positions, in start position order. The lookup uses
+     * an interval index that is built on the first lookup after features were added or removed, see
+     * {@link #getFeatures(String, int, int)}.
+     * @param bioSequenceStart first position of the range
+     * @param bioSequenceEnd last position of the range
+     * @return
+     */
+    public List<FeatureInterface<AbstractSequence<C>, C>> getFeatures(int bioSequenceStart, int bioSequenceEnd) {
+        FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>> index = featureIndex;
+        if (index == null) {
+            index = getFeatureIndex();
         }
-        return featureHits;
+        return index.getFeatures(bioSequenceStart, bioSequenceEnd);
     }
 
     /**
@@ -369,23 +392,42 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
      * in SequenceFeaturePanel
      * @param feature
      */
-    public void addFeature(FeatureInterface<AbstractSequence<C>, C> feature) {
-        features.add(feature);
+    public synchronized void addFeature(FeatureInterface<AbstractSequence<C>, C> feature) {
+        insertSorted(features, feature);
         ArrayList<FeatureInterface<AbstractSequence<C>, C>> featureList = groupedFeatures.get(feature.getType());
         if (featureList == null) {
             featureList = new ArrayList<FeatureInterface<AbstractSequence<C>, C>>();
             groupedFeatures.put(feature.getType(), featureList);
         }
-        featureList.add(feature);
-        Collections.sort(features, AbstractFeature.LOCATION_LENGTH);
-        Collections.sort(featureList, AbstractFeature.LOCATION_LENGTH);
+        insertSorted(featureList, feature);
+        invalidateFeatureIndex(feature.getType());
+    }
+
+    /**
+     * Insert a feature behind all features that do not sort after it, which gives the same order as adding
+     * it at the end and sorting the list again, without the cost of a sort for every added feature
+     * @param list features sorted by {@link AbstractFeature#LOCATION_LENGTH}
+     * @param feature
+     */
+    private static <F extends FeatureInterface<?, ?>> void insertSorted(List<F> list, F feature) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (AbstractFeature.LOCATION_LENGTH.compare(list.get(mid), feature) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        list.add(low, feature);
     }
 
     /**
      * Remove a feature from the sequence
      * @param feature
      */
-    public void removeFeature(FeatureInterface<AbstractSequence<C>, C> feature) {
+    public synchronized void removeFeature(FeatureInterface<AbstractSequence<C>, C> feature) {
         features.remove(feature);
         ArrayList<FeatureInterface<AbstractSequence<C>, C>> featureList = groupedFeatures.get(feature.getType());
         if (featureList != null) {
@@ -394,6 +436,46 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
                 groupedFeatures.remove(feature.getType());
             }
         }
+        invalidateFeatureIndex(feature.getType());
+    }
+
+    /**
+     * Drop the location indexes of all features and of the features of one type, they are built
+     * again on the next lookup. Queries running at the same time keep using the old index.
+     * @param featureType
+     */
+    private void invalidateFeatureIndex(String featureType) {
+        featureIndex = null;
+        groupedFeatureIndex.remove(featureType);
+    }
+
+    /**
+     * Build the location index of all features, if it is not built yet
+     * @return the index
+     */
+    private synchronized FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>> getFeatureIndex() {
+        if (featureIndex == null) {
+            featureIndex = new FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>>(features);
+        }
+        return featureIndex;
+    }
+
+    /**
+     * Build the location index of the features of one type, if it is not built yet
+     * @param featureType
+     * @return the index, or null if there are no features of this type
+     */
+    private synchronized FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>> getFeatureIndex(String featureType) {
+        FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>> index = groupedFeatureIndex.get(featureType);
+        if (index == null) {
+            ArrayList<FeatureInterface<AbstractSequence<C>, C>> featureList = groupedFeatures.get(featureType);
+            if (featureList == null) {
+                return null;
+            }
+            index = new FeatureLocationIndex<FeatureInterface<AbstractSequence<C>, C>>(featureList);
+            groupedFeatureIndex.put(featureType, index);
+        }
+        return index;
     }
 
     /**
@@ -0,0 +1,69 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.core.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated pool of daemon threads used to inflate and deflate gzip blocks.
+ * <p>
+ * This is deliberately separate from the {@link ConcurrencyTools} pool: the
+ * compression tasks never block, so callers that are themselves running inside
+ * the shared pool (e.g. a structure alignment job reading a compressed file)
+ * can always make progress.
+ */
+final class CompressionThreadPool {
+
+    private static ExecutorService pool;
+
+    // prevents instantiation
+    private CompressionThreadPool() { }
+
+    /**
+     * Returns the compression pool, starting it up if necessary.
+     *
+     * @return the shared compression pool, one daemon thread per processor core
+     */
+    static synchronized ExecutorService getThreadPool() {
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(getThreadCount(), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "biojava-gzip-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return pool;
+    }
+
+    /**
+     * @return the number of threads in the compression pool
+     */
+    static int getThreadCount() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+}
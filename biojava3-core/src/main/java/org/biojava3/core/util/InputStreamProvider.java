@@ -42,7 +42,8 @@ import java.util.zip.ZipFile;
  * Currently supported
  * compressions:
  * <ul>
- * <li>Gzip (extension .gz)</li>
+ * <li>Gzip (extension .gz), inflated ahead of the reader by {@link ParallelGZIPInputStream} for local files.
+ * Blocked gzip (BGZF) files are inflated in parallel.</li>
  * <li>Zip (extension .zip) in this case a stream to the first entry in the zip file is returned </li> 
  * <li>Jar (extension .jar) same as .Zip; only stream to first entry is returned </li>
  * <li>Z (extension .Z) compressed using the unix compress command </li>
@@ -281,7 +282,7 @@ public class InputStreamProvider {
    throws IOException{
 
       InputStream is      = getInputStreamFromFile(f);
-      InputStream inputStream = new GZIPInputStream(is);
+      InputStream inputStream = new ParallelGZIPInputStream(is);
       return inputStream;
    }
 
@@ -0,0 +1,292 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.core.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An output stream writing the blocked gzip format (BGZF) with the blocks
+ * compressed concurrently.
+ * <p>
+ * The data is cut into blocks of at most 65280 bytes which are deflated on a
+ * thread pool and written to the underlying stream in their original order.
+ * The result is a valid multi-member gzip file that can be read by any gzip
+ * tool, and is inflated in parallel again by {@link ParallelGZIPInputStream}.
+ * <p>
+ * Note that every call to {@link #flush()} ends the current block.
+ *
+ * @since 3.0.6
+ */
+public class ParallelBGZFOutputStream extends OutputStream {
+
+    /** Maximum amount of uncompressed data per block, as used by bgzip. */
+    static final int MAX_INPUT_SIZE = 0xff00;
+
+    /** The empty block marking the end of a BGZF file. */
+    private static final byte[] EOF_BLOCK = {
+        0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43,
+        0x02, 0x00, 0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00
+    };
+
+    private final OutputStream out;
+
+    private final ExecutorService executor;
+
+    private final int maxPending;
+
+    private final int level;
+
+    private final LinkedList<Future<byte[]>> pending = new LinkedList<Future<byte[]>>();
+
+    private byte[] buffer = new byte[MAX_INPUT_SIZE];
+
+    private int count = 0;
+
+    private boolean closed = false;
+
+    /**
+     * Creates a new stream that compresses with the default level on the shared compression pool.
+     *
+     * @param out the stream the compressed blocks are written to
+     */
+    public ParallelBGZFOutputStream(OutputStream out) {
+        this(out, Deflater.DEFAULT_COMPRESSION, CompressionThreadPool.getThreadPool(),
+                2 * CompressionThreadPool.getThreadCount());
+    }
+
+    /**
+     * Creates a new stream that compresses on the given executor.
+     *
+     * @param out the stream the compressed blocks are written to
+     * @param level the deflate compression level
+     * @param executor the executor running the deflate tasks. Its tasks must not wait on the writing thread.
+     * @param maxPending maximum number of blocks being compressed before the writer waits
+     */
+    public ParallelBGZFOutputStream(OutputStream out, int level, ExecutorService executor, int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be at least 1");
+        }
+        this.out = out;
+        this.level = level;
+        this.executor = executor;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            submitBlock();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            if (count == buffer.length) {
+                submitBlock();
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Ends the current block and writes all pending blocks to the underlying stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        submitBlock();
+        drain(0);
+        out.flush();
+    }
+
+    /**
+     * Writes all remaining data followed by the BGZF end of file marker and
+     * closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            submitBlock();
+            drain(0);
+            out.write(EOF_BLOCK);
+            out.flush();
+        } finally {
+            closed = true;
+            for (Future<byte[]> f : pending) {
+                f.cancel(false);
+            }
+            pending.clear();
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Hands the buffered data to the executor and waits for the oldest blocks
+     * if too many are in flight.
+     */
+    private void submitBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        final byte[] data = buffer;
+        final int length = count;
+        final int blockLevel = level;
+        pending.add(executor.submit(new Callable<byte[]>() {
+            public byte[] call() {
+                return deflateBlock(data, length, blockLevel);
+            }
+        }));
+        buffer = new byte[MAX_INPUT_SIZE];
+        count = 0;
+        drain(maxPending);
+    }
+
+    /**
+     * Writes completed blocks in order until at most the given number is pending.
+     */
+    private void drain(int remaining) throws IOException {
+        while (pending.size() > remaining) {
+            out.write(await(pending.removeFirst()));
+        }
+    }
+
+    /**
+     * Compresses data into a single BGZF block.
+     *
+     * @param data the uncompressed data
+     * @param length number of bytes of data to compress, at most {@link #MAX_INPUT_SIZE}
+     * @param level the deflate compression level
+     * @return the complete block including header and footer
+     */
+    static byte[] deflateBlock(byte[] data, int length, int level) {
+        int headerLength = ParallelGZIPInputStream.BGZF_HEADER_LENGTH;
+        int footerLength = ParallelGZIPInputStream.BGZF_FOOTER_LENGTH;
+        byte[] compressed = new byte[ParallelGZIPInputStream.BGZF_MAX_BLOCK_SIZE - headerLength - footerLength];
+
+        int compressedLength = deflate(data, length, level, compressed);
+        if (compressedLength < 0) {
+            // incompressible data, stored blocks always fit
+            compressedLength = deflate(data, length, Deflater.NO_COMPRESSION, compressed);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+
+        int blockSize = headerLength + compressedLength + footerLength;
+        byte[] block = new byte[blockSize];
+        block[0] = 0x1f;
+        block[1] = (byte) 0x8b;
+        block[2] = 8;            // deflate
+        block[3] = 4;            // FEXTRA
+        block[9] = (byte) 0xff;  // unknown OS
+        writeShort(block, 10, 6);
+        block[12] = 'B';
+        block[13] = 'C';
+        writeShort(block, 14, 2);
+        writeShort(block, 16, blockSize - 1);
+        System.arraycopy(compressed, 0, block, headerLength, compressedLength);
+        writeInt(block, blockSize - 8, (int) crc.getValue());
+        writeInt(block, blockSize - 4, length);
+        return block;
+    }
+
+    /**
+     * @return the compressed length, or -1 if the output does not fit
+     */
+    private static int deflate(byte[] data, int length, int level, byte[] compressed) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            int n = 0;
+            while (!deflater.finished()) {
+                if (n == compressed.length) {
+                    return -1;
+                }
+                n += deflater.deflate(compressed, n, compressed.length - n);
+            }
+            return n;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for gzip block");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            IOException ioe = new IOException("Failed to deflate gzip block");
+            ioe.initCause(cause);
+            throw ioe;
+        }
+    }
+
+    private static void writeShort(byte[] b, int off, int value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+    }
+
+    private static void writeInt(byte[] b, int off, int value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+        b[off + 2] = (byte) (value >>> 16);
+        b[off + 3] = (byte) (value >>> 24);
+    }
+}
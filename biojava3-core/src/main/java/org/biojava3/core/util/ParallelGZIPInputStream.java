@@ -0,0 +1,406 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.core.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A gzip input stream that decompresses ahead of the reading thread.
+ * <p>
+ * If the data is in the blocked gzip format (BGZF, as written by bgzip, samtools
+ * and {@link ParallelBGZFOutputStream}) every block is an independent gzip member
+ * of at most 64 kB whose compressed size is stored in its header. The blocks are
+ * split off the raw stream and inflated concurrently, several blocks ahead of the
+ * consumer, and handed out strictly in file order.
+ * <p>
+ * Any other gzip data (including concatenated multi-member files) is inflated
+ * sequentially, but on a background thread one chunk ahead of the consumer, so
+ * decompression still overlaps with parsing.
+ *
+ * @since 3.0.6
+ */
+public class ParallelGZIPInputStream extends InputStream {
+
+    /** Size of a BGZF block header, including the BC extra subfield. */
+    static final int BGZF_HEADER_LENGTH = 18;
+
+    /** Size of the gzip member footer (CRC32 and ISIZE). */
+    static final int BGZF_FOOTER_LENGTH = 8;
+
+    /** Maximum total size of a BGZF block. */
+    static final int BGZF_MAX_BLOCK_SIZE = 65536;
+
+    private static final int SERIAL_CHUNK_SIZE = 65536;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final InputStream in;
+
+    private final GZIPInputStream serial;
+
+    private final ExecutorService executor;
+
+    private final int readAhead;
+
+    private final LinkedList<Future<byte[]>> pending = new LinkedList<Future<byte[]>>();
+
+    private byte[] buffer = EMPTY;
+
+    private int pos = 0;
+
+    private boolean eof = false;
+
+    private boolean closed = false;
+
+    /**
+     * Creates a new stream that inflates on the shared compression pool,
+     * reading two blocks ahead per processor core.
+     *
+     * @param in the compressed input
+     * @throws IOException if the stream does not start with a gzip header
+     */
+    public ParallelGZIPInputStream(InputStream in) throws IOException {
+        this(in, CompressionThreadPool.getThreadPool(), 2 * CompressionThreadPool.getThreadCount());
+    }
+
+    /**
+     * Creates a new stream that inflates on the given executor.
+     *
+     * @param in the compressed input
+     * @param executor the executor running the inflate tasks. Its tasks must not wait on the reading thread.
+     * @param readAhead maximum number of blocks being inflated ahead of the reader
+     * @throws IOException if the stream does not start with a gzip header
+     */
+    public ParallelGZIPInputStream(InputStream in, ExecutorService executor, int readAhead) throws IOException {
+        if (readAhead < 1) {
+            throw new IllegalArgumentException("readAhead must be at least 1");
+        }
+        this.executor = executor;
+        this.readAhead = readAhead;
+
+        PushbackInputStream pushback = new PushbackInputStream(in, BGZF_HEADER_LENGTH);
+        byte[] header = new byte[BGZF_HEADER_LENGTH];
+        int n = readFully(pushback, header, 0, header.length);
+        if (n > 0) {
+            pushback.unread(header, 0, n);
+        }
+        this.in = pushback;
+
+        if (n == BGZF_HEADER_LENGTH && isBGZFHeader(header)) {
+            serial = null;
+        } else {
+            serial = new GZIPInputStream(pushback, SERIAL_CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * Checks if the given bytes start with a BGZF block header.
+     *
+     * @param header at least the first 18 bytes of a block
+     * @return true if this is the header of a BGZF block
+     */
+    public static boolean isBGZFHeader(byte[] header) {
+        return header.length >= BGZF_HEADER_LENGTH
+                && (header[0] & 0xff) == 0x1f
+                && (header[1] & 0xff) == 0x8b
+                && header[2] == 8
+                && (header[3] & 4) != 0
+                && readUnsignedShort(header, 10) == 6
+                && header[12] == 'B'
+                && header[13] == 'C'
+                && readUnsignedShort(header, 14) == 2;
+    }
+
+    /**
+     * @return true if the input is being inflated block-wise in parallel
+     */
+    public boolean isBlockCompressed() {
+        return serial == null;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        while (pos >= buffer.length) {
+            if (!nextBuffer()) {
+                return -1;
+            }
+        }
+        return buffer[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (pos >= buffer.length) {
+            if (!nextBuffer()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, buffer.length - pos);
+        System.arraycopy(buffer, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return buffer.length - pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Future<byte[]> f : pending) {
+            f.cancel(false);
+        }
+        pending.clear();
+        buffer = EMPTY;
+        if (serial != null) {
+            // the inflater may still be in use by a cancelled chunk task
+            synchronized (serial) {
+                serial.close();
+            }
+        } else {
+            in.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Moves on to the next inflated block, keeping the pipeline filled.
+     *
+     * @return false at the end of the data
+     */
+    private boolean nextBuffer() throws IOException {
+        schedule();
+        if (pending.isEmpty()) {
+            return false;
+        }
+        byte[] next = await(pending.removeFirst());
+        if (next == null) {
+            eof = true;
+            pending.clear();
+            return false;
+        }
+        buffer = next;
+        pos = 0;
+        schedule();
+        return true;
+    }
+
+    /**
+     * Submits inflate tasks until the read ahead limit is reached.
+     */
+    private void schedule() throws IOException {
+        if (serial != null) {
+            if (!eof && pending.isEmpty()) {
+                pending.add(executor.submit(new Callable<byte[]>() {
+                    public byte[] call() throws IOException {
+                        return readChunk();
+                    }
+                }));
+            }
+            return;
+        }
+        while (!eof && pending.size() < readAhead) {
+            final byte[] block = readBlock();
+            if (block == null) {
+                eof = true;
+                break;
+            }
+            pending.add(executor.submit(new Callable<byte[]>() {
+                public byte[] call() throws IOException {
+                    return inflateBlock(block);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Reads the next chunk from the sequential inflater. Only one chunk task is
+     * pending at any time, so there is no concurrent access to the inflater.
+     *
+     * @return the inflated bytes, or null at the end of the stream
+     */
+    private byte[] readChunk() throws IOException {
+        synchronized (serial) {
+            byte[] chunk = new byte[SERIAL_CHUNK_SIZE];
+            int n = readFully(serial, chunk, 0, chunk.length);
+            if (n == 0) {
+                return null;
+            }
+            if (n < chunk.length) {
+                byte[] copy = new byte[n];
+                System.arraycopy(chunk, 0, copy, 0, n);
+                chunk = copy;
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Splits the next complete BGZF block off the raw stream.
+     *
+     * @return the compressed block including header and footer, or null at the end of the stream
+     */
+    private byte[] readBlock() throws IOException {
+        byte[] header = new byte[BGZF_HEADER_LENGTH];
+        int n = readFully(in, header, 0, header.length);
+        if (n == 0) {
+            return null;
+        }
+        if (n < header.length) {
+            throw new EOFException("Truncated BGZF block header");
+        }
+        if (!isBGZFHeader(header)) {
+            throw new ZipException("Not a BGZF block header");
+        }
+        int blockSize = readUnsignedShort(header, 16) + 1;
+        if (blockSize < BGZF_HEADER_LENGTH + BGZF_FOOTER_LENGTH) {
+            throw new ZipException("Invalid BGZF block size " + blockSize);
+        }
+        byte[] block = new byte[blockSize];
+        System.arraycopy(header, 0, block, 0, header.length);
+        if (readFully(in, block, header.length, blockSize - header.length) < blockSize - header.length) {
+            throw new EOFException("Truncated BGZF block");
+        }
+        return block;
+    }
+
+    /**
+     * Inflates a single BGZF block and verifies its checksum.
+     *
+     * @param block a complete compressed block
+     * @return the uncompressed data of the block
+     */
+    static byte[] inflateBlock(byte[] block) throws IOException {
+        int length = block.length;
+        int expectedCrc = readInt(block, length - 8);
+        int uncompressedSize = readInt(block, length - 4);
+        if (uncompressedSize < 0 || uncompressedSize > BGZF_MAX_BLOCK_SIZE) {
+            throw new ZipException("Invalid BGZF uncompressed size " + uncompressedSize);
+        }
+
+        byte[] data = new byte[uncompressedSize];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(block, BGZF_HEADER_LENGTH, length - BGZF_HEADER_LENGTH - BGZF_FOOTER_LENGTH);
+            int n = 0;
+            while (n < uncompressedSize) {
+                int r = inflater.inflate(data, n, uncompressedSize - n);
+                if (r == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += r;
+            }
+            if (n != uncompressedSize) {
+                throw new ZipException("Corrupt BGZF block: expected " + uncompressedSize + " bytes, got " + n);
+            }
+        } catch (DataFormatException e) {
+            ZipException ze = new ZipException("Corrupt BGZF block: " + e.getMessage());
+            ze.initCause(e);
+            throw ze;
+        } finally {
+            inflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new ZipException("Corrupt BGZF block: CRC mismatch");
+        }
+        return data;
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for gzip block");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            IOException ioe = new IOException("Failed to inflate gzip block");
+            ioe.initCause(cause);
+            throw ioe;
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] b, int off, int len) throws IOException {
+        int total = 0;
+        while (total < len) {
+            int n = in.read(b, off + total, len - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    static int readUnsignedShort(byte[] b, int off) {
+        return (b[off] & 0xff) | ((b[off + 1] & 0xff) << 8);
+    }
+
+    static int readInt(byte[] b, int off) {
+        return (b[off] & 0xff) | ((b[off + 1] & 0xff) << 8)
+                | ((b[off + 2] & 0xff) << 16) | ((b[off + 3] & 0xff) << 24);
+    }
+}
@@ -0,0 +1,141 @@
+package org.biojava3.core.sequence.features;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.biojava3.core.sequence.DNASequence;
+import org.biojava3.core.sequence.compound.NucleotideCompound;
+import org.biojava3.core.sequence.template.AbstractSequence;
+import org.junit.Test;
+
+public class FeatureLocationIndexTest {
+
+  private static DNASequence createSequence() {
+    Random random = new Random(3);
+    StringBuilder bases = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      bases.append("ACGT".charAt(random.nextInt(4)));
+    }
+    DNASequence sequence = new DNASequence(bases.toString());
+    for (int i = 0; i < 300; i++) {
+      int start = 1 + random.nextInt(1900);
+      int end = start + random.nextInt(100);
+      String type = (i % 3 == 0) ? "exon" : "gene";
+      sequence.addFeature(start, end, new TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound>(
+          type, "test", "f" + i, "feature " + i));
+    }
+    return sequence;
+  }
+
+  private static List<FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound>> scan(
+      List<FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound>> features, int start, int end) {
+    List<FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound>> hits =
+        new ArrayList<FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound>>();
+    for (FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound> feature : features) {
+      if (feature.getLocations().getStart().getPosition() <= end
+          && feature.getLocations().getEnd().getPosition() >= start) {
+        hits.add(feature);
+      }
+    }
+    return hits;
+  }
+
+  @Test
+  public void positionLookup() {
+    DNASequence sequence = createSequence();
+    for (int position = 0; position <= 2001; position += 7) {
+      assertThat(sequence.getFeatures(position), is(scan(sequence.getFeatures(), position, position)));
+      assertThat(sequence.getFeatures("exon", position),
+          is(scan(sequence.getFeaturesByType("exon"), position, position)));
+    }
+  }
+
+  @Test
+  public void rangeLookup() {
+    DNASequence sequence = createSequence();
+    for (int start = 1; start < 2000; start += 37) {
+      assertThat(sequence.getFeatures(start, start + 50), is(scan(sequence.getFeatures(), start, start + 50)));
+      assertThat(sequence.getFeatures("gene", start, start + 50),
+          is(scan(sequence.getFeaturesByType("gene"), start, start + 50)));
+    }
+    assertThat(sequence.getFeatures("none", 1, 2000).size(), is(0));
+  }
+
+  @Test
+  public void indexFollowsChanges() {
+    DNASequence sequence = createSequence();
+    int before = sequence.getFeatures(1000).size();
+    TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound> feature =
+        new TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound>("exon", "test", "new", "new feature");
+    sequence.addFeature(990, 1010, feature);
+    assertThat(sequence.getFeatures(1000).size(), is(before + 1));
+    assertThat(sequence.getFeatures("exon", 1000).contains(feature), is(true));
+    sequence.removeFeature(feature);
+    assertThat(sequence.getFeatures(1000).size(), is(before));
+    assertThat(sequence.getFeatures("exon", 1000).contains(feature), is(false));
+  }
+
+  @Test
+  public void featureListsAreReturnedAsBefore() {
+    DNASequence sequence = createSequence();
+    List<FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound>> features = sequence.getFeatures();
+    List<FeatureInterface<AbstractSequence<NucleotideCompound>, NucleotideCompound>> exons = sequence.getFeaturesByType("exon");
+    assertThat(sequence.getFeatures() == features, is(true));
+    TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound> feature =
+        new TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound>("exon", "test", "new", "new feature");
+    sequence.addFeature(5, 10, feature);
+    assertThat(features.contains(feature), is(true));
+    assertThat(exons.contains(feature), is(true));
+    assertThat(sequence.getFeatures(7).contains(feature), is(true));
+  }
+
+  @Test
+  public void concurrentQueries() throws InterruptedException {
+    final DNASequence sequence = createSequence();
+    final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    final AtomicBoolean done = new AtomicBoolean();
+    List<Thread> readers = new ArrayList<Thread>();
+    for (int t = 0; t < 4; t++) {
+      Thread reader = new Thread() {
+        @Override
+        public void run() {
+          try {
+            int position = 0;
+            while (!done.get()) {
+              sequence.getFeatures(position);
+              sequence.getFeatures("exon", position, position + 20);
+              position = (position + 13) % 2000;
+            }
+          } catch (Throwable e) {
+            error.set(e);
+          }
+        }
+      };
+      readers.add(reader);
+      reader.start();
+    }
+    List<TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound>> added =
+        new ArrayList<TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound>>();
+    for (int i = 0; i < 200; i++) {
+      TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound> feature =
+          new TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound>("exon", "test", "c" + i, "concurrent " + i);
+      sequence.addFeature(1 + 7 * i, 10 + 7 * i, feature);
+      added.add(feature);
+    }
+    for (TextFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound> feature : added) {
+      sequence.removeFeature(feature);
+    }
+    done.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    assertThat(error.get(), is((Throwable) null));
+    assertThat(sequence.getFeatures(1000), is(scan(sequence.getFeatures(), 1000, 1000)));
+  }
+}
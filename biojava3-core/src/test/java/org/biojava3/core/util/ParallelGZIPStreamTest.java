@@ -0,0 +1,102 @@
+package org.biojava3.core.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+public class ParallelGZIPStreamTest {
+
+  private static byte[] createData(int length) {
+    Random random = new Random(42);
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) "ACGT\n".charAt(random.nextInt(5));
+    }
+    // an incompressible stretch forces stored blocks
+    for (int i = length / 2; i < length / 2 + 70000; i++) {
+      data[i] = (byte) random.nextInt();
+    }
+    return data;
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4093];
+    int n;
+    while ((n = in.read(buffer)) >= 0) {
+      out.write(buffer, 0, n);
+    }
+    in.close();
+    return out.toByteArray();
+  }
+
+  private static byte[] bgzf(byte[] data) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    OutputStream out = new ParallelBGZFOutputStream(bytes);
+    out.write(data, 0, 11);
+    out.write(data[11]);
+    out.write(data, 12, data.length - 12);
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  @Test
+  public void roundTripBGZF() throws IOException {
+    byte[] data = createData(500000);
+    byte[] compressed = bgzf(data);
+
+    ParallelGZIPInputStream in = new ParallelGZIPInputStream(new ByteArrayInputStream(compressed));
+    assertTrue(in.isBlockCompressed());
+    assertArrayEquals(data, readAll(in));
+  }
+
+  @Test
+  public void bgzfIsValidGzip() throws IOException {
+    byte[] data = createData(300000);
+    byte[] compressed = bgzf(data);
+    assertArrayEquals(data, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+  }
+
+  @Test
+  public void plainGzip() throws IOException {
+    byte[] data = createData(300000);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GZIPOutputStream out = new GZIPOutputStream(bytes);
+    out.write(data);
+    out.close();
+
+    ParallelGZIPInputStream in = new ParallelGZIPInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    assertFalse(in.isBlockCompressed());
+    assertArrayEquals(data, readAll(in));
+  }
+
+  @Test
+  public void shortInput() throws IOException {
+    byte[] compressed = bgzf(new byte[12]);
+    assertArrayEquals(new byte[12], readAll(new ParallelGZIPInputStream(new ByteArrayInputStream(compressed))));
+  }
+
+  @Test
+  public void corruptBlock() throws IOException {
+    byte[] compressed = bgzf(createData(200000));
+    compressed[100] ^= 0x1;
+    try {
+      readAll(new ParallelGZIPInputStream(new ByteArrayInputStream(compressed)));
+      fail("corrupt block not detected");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+}
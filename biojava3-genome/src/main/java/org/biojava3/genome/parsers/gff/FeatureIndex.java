@@ -0,0 +1,553 @@
+package org.biojava3.genome.parsers.gff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * An immutable interval index over the locations of a collection of FeatureI objects,
+ * for fast overlap, containment and nearest feature queries.
+ * <br><br>
+ * Features are grouped by seqname and strand. Each group is stored as int arrays sorted by
+ * the start of the positive strand image of the feature locations, with an implicit augmented
+ * interval tree (the maximum end of every subtree) on top, so a query costs O(log n + k) for
+ * k results instead of the full scan done by FeatureList.selectOverlapping().
+ * <br><br>
+ * Query results follow the semantics of the corresponding FeatureList and Location methods,
+ * but are ordered by the start of the features on the positive strand rather than by their
+ * position in the source list. Features with a null location or seqname are not indexed.
+ * The index does not track later changes to the source list; build a new index instead.
+ *
+ * @see FeatureList#selectOverlapping(String, Location, boolean)
+ */
+public class FeatureIndex {
+
+	/**
+	 * Receives the overlapping feature pairs found by a join.
+	 */
+	public interface OverlapListener {
+
+		/**
+		 * Called once for every overlapping pair of features.
+		 *
+		 * @param first The feature from the index the join was called on.
+		 * @param second The feature from the other index.
+		 */
+		void overlap(FeatureI first, FeatureI second);
+	}
+
+	private static final int PLUS = 0;
+	private static final int MINUS = 1;
+
+	private final Map<String, Track[]> mTracks = new HashMap<String, Track[]>();
+	private final int mSize;
+
+	/**
+	 * Build an index over the specified features.
+	 *
+	 * @param features An existing list or collection of FeatureI objects.
+	 */
+	public FeatureIndex(Collection<? extends FeatureI> features) {
+		Map<String, List<Entry>[]> groups = new HashMap<String, List<Entry>[]>();
+		int size = 0;
+		for (FeatureI f : features) {
+			Location loc = f.location();
+			if (loc == null || f.seqname() == null) {
+				continue;
+			}
+			List<Entry>[] group = groups.get(f.seqname());
+			if (group == null) {
+				group = newGroup();
+				groups.put(f.seqname(), group);
+			}
+			Location plus = loc.plus();
+			group[loc.isNegative() ? MINUS : PLUS].add(new Entry(plus.start(), plus.end(), f));
+			size++;
+		}
+		for (Map.Entry<String, List<Entry>[]> group : groups.entrySet()) {
+			List<Entry>[] strands = group.getValue();
+			mTracks.put(group.getKey(), new Track[] { new Track(strands[PLUS]), new Track(strands[MINUS]) });
+		}
+		mSize = size;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static List<Entry>[] newGroup() {
+		return new List[] { new ArrayList<Entry>(), new ArrayList<Entry>() };
+	}
+
+	/**
+	 * The number of indexed features.
+	 *
+	 * @return The number of features with a location and seqname.
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * The sequence names of the indexed features.
+	 *
+	 * @return An unmodifiable set of seqnames.
+	 */
+	public Set<String> seqnames() {
+		return Collections.unmodifiableSet(mTracks.keySet());
+	}
+
+	/**
+	 * Create a list of all features that overlap the specified location on the specified
+	 * sequence.
+	 *
+	 * @param seqname The sequence name. Only features with this sequence name will be checked for overlap.
+	 * @param location The location to check.
+	 * @param useBothStrands If true, locations are mapped to their positive strand image
+	 * before being checked for overlap. If false, only features whose locations are
+	 * on the same strand as the specified location will be considered for inclusion.
+	 * @return The new list of features that overlap the location, ordered by start.
+	 */
+	public FeatureList selectOverlapping(String seqname, Location location, boolean useBothStrands) {
+		Location plus = location.plus();
+		return select(seqname, location, useBothStrands, plus.end(), plus.start(), plus.start(), plus.end(), false);
+	}
+
+	/**
+	 * Create a list of all features that entirely contain the specified location on the
+	 * specified sequence.
+	 *
+	 * @param seqname The sequence name. Only features with this sequence name will be checked.
+	 * @param location The location to check.
+	 * @param useBothStrands If true, locations are mapped to their positive strand image
+	 * before being checked. If false, only features whose locations are
+	 * on the same strand as the specified location will be considered for inclusion.
+	 * @return The new list of features that contain the location, ordered by start.
+	 */
+	public FeatureList selectContaining(String seqname, Location location, boolean useBothStrands) {
+		Location plus = location.plus();
+		return select(seqname, location, useBothStrands, plus.start() + 1, plus.end() - 1, plus.start(), plus.end(), false);
+	}
+
+	/**
+	 * Create a list of all features that are entirely contained by the specified location on the
+	 * specified sequence.
+	 *
+	 * @param seqname The sequence name. Only features with this sequence name will be checked.
+	 * @param location The location to check.
+	 * @param useBothStrands If true, locations are mapped to their positive strand image
+	 * before being checked. If false, only features whose locations are
+	 * on the same strand as the specified location will be considered for inclusion.
+	 * @return The new list of features contained by the location, ordered by start.
+	 */
+	public FeatureList selectContainedIn(String seqname, Location location, boolean useBothStrands) {
+		Location plus = location.plus();
+		return select(seqname, location, useBothStrands, 0, 0, plus.start(), plus.end(), true);
+	}
+
+	/**
+	 * Check if any feature overlaps the specified location on the specified sequence.
+	 *
+	 * @param seqname The sequence name.
+	 * @param location The location to check.
+	 * @param useBothStrands If true, features on either strand are considered.
+	 * @return True if at least one feature overlaps the location.
+	 */
+	public boolean hasOverlapping(String seqname, Location location, boolean useBothStrands) {
+		Track[] tracks = mTracks.get(seqname);
+		if (tracks == null) {
+			return false;
+		}
+		Location plus = location.plus();
+		int strand = location.isNegative() ? MINUS : PLUS;
+		return tracks[strand].firstOverlap(plus.start(), plus.end()) >= 0
+			|| (useBothStrands && tracks[1 - strand].firstOverlap(plus.start(), plus.end()) >= 0);
+	}
+
+	/**
+	 * Find the feature closest to the specified location on the specified sequence.
+	 * An overlapping feature has distance 0; otherwise the distance is the gap between
+	 * the locations, as in Location.distance(). Ties go to the feature with the smaller start.
+	 *
+	 * @param seqname The sequence name.
+	 * @param location The location to check.
+	 * @param useBothStrands If true, features on either strand are considered, using
+	 * the positive strand image of the locations. If false, only features on the same strand
+	 * as the location are considered.
+	 * @return The nearest feature, or null if there is no feature on the sequence (and strand).
+	 */
+	public FeatureI nearest(String seqname, Location location, boolean useBothStrands) {
+		Track[] tracks = mTracks.get(seqname);
+		if (tracks == null) {
+			return null;
+		}
+		Location plus = location.plus();
+		int strand = location.isNegative() ? MINUS : PLUS;
+		Track best = tracks[strand];
+		int index = best.nearest(plus.start(), plus.end());
+		if (useBothStrands) {
+			Track other = tracks[1 - strand];
+			int o = other.nearest(plus.start(), plus.end());
+			if (o >= 0) {
+				if (index < 0) {
+					best = other;
+					index = o;
+				} else {
+					int d = best.distance(index, plus.start(), plus.end());
+					int od = other.distance(o, plus.start(), plus.end());
+					if (od < d || (od == d && other.mStarts[o] < best.mStarts[index])) {
+						best = other;
+						index = o;
+					}
+				}
+			}
+		}
+		return (index < 0) ? null : best.mFeatures[index];
+	}
+
+	/**
+	 * Find all pairs of overlapping features between this index and another, by a single
+	 * sorted sweep over each sequence rather than one query per feature.
+	 * Pairs are reported per sequence and strand, in order of increasing start.
+	 *
+	 * @param other The index to join with.
+	 * @param useBothStrands If true, features on opposite strands are paired if their positive
+	 * strand images overlap. If false, only features on the same strand are paired.
+	 * @param listener Receives each overlapping pair once.
+	 */
+	public void join(FeatureIndex other, boolean useBothStrands, OverlapListener listener) {
+		for (Map.Entry<String, Track[]> entry : mTracks.entrySet()) {
+			Track[] otherTracks = other.mTracks.get(entry.getKey());
+			if (otherTracks == null) {
+				continue;
+			}
+			Track[] tracks = entry.getValue();
+			for (int strand = PLUS; strand <= MINUS; strand++) {
+				tracks[strand].join(otherTracks[strand], listener);
+				if (useBothStrands) {
+					tracks[strand].join(otherTracks[1 - strand], listener);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Find all pairs of overlapping features between two lists.
+	 *
+	 * @param first The first list.
+	 * @param second The second list.
+	 * @param useBothStrands If true, features on opposite strands are paired if their positive
+	 * strand images overlap. If false, only features on the same strand are paired.
+	 * @param listener Receives each overlapping pair once, the feature from the first list first.
+	 * @see #join(FeatureIndex, boolean, OverlapListener)
+	 */
+	public static void join(FeatureList first, FeatureList second, boolean useBothStrands, OverlapListener listener) {
+		new FeatureIndex(first).join(new FeatureIndex(second), useBothStrands, listener);
+	}
+
+	private FeatureList select(String seqname, Location location, boolean useBothStrands,
+			int startLimit, int endLimit, int start, int end, boolean contained) {
+		FeatureList list = new FeatureList();
+		Track[] tracks = mTracks.get(seqname);
+		if (tracks == null) {
+			return list;
+		}
+		int strand = location.isNegative() ? MINUS : PLUS;
+		Hits hits = new Hits();
+		Hits otherHits = new Hits();
+		if (contained) {
+			tracks[strand].contained(start, end, hits);
+			if (useBothStrands) {
+				tracks[1 - strand].contained(start, end, otherHits);
+			}
+		} else {
+			tracks[strand].search(0, tracks[strand].size(), startLimit, endLimit, hits);
+			if (useBothStrands) {
+				tracks[1 - strand].search(0, tracks[1 - strand].size(), startLimit, endLimit, otherHits);
+			}
+		}
+
+		// merge the two strands on start
+		Track a = tracks[strand];
+		Track b = tracks[1 - strand];
+		int i = 0;
+		int j = 0;
+		while (i < hits.mSize || j < otherHits.mSize) {
+			if (j == otherHits.mSize
+					|| (i < hits.mSize && a.mStarts[hits.mIndexes[i]] <= b.mStarts[otherHits.mIndexes[j]])) {
+				list.add(a.mFeatures[hits.mIndexes[i++]]);
+			} else {
+				list.add(b.mFeatures[otherHits.mIndexes[j++]]);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * A feature with the positive strand coordinates of its location, used while building.
+	 */
+	private static class Entry {
+		final int mStart;
+		final int mEnd;
+		final FeatureI mFeature;
+
+		Entry(int start, int end, FeatureI feature) {
+			mStart = start;
+			mEnd = end;
+			mFeature = feature;
+		}
+	}
+
+	/**
+	 * used by sort routine
+	 */
+	private static class EntryComparator implements Comparator<Entry> {
+
+		public int compare(Entry a, Entry b) {
+			if (a.mStart != b.mStart) {
+				return (a.mStart < b.mStart) ? -1 : 1;
+			}
+			return (a.mEnd < b.mEnd) ? -1 : ((a.mEnd == b.mEnd) ? 0 : 1);
+		}
+	}
+
+	/**
+	 * A growable list of result indexes.
+	 */
+	private static class Hits {
+		int[] mIndexes = new int[16];
+		int mSize = 0;
+
+		void add(int index) {
+			if (mSize == mIndexes.length) {
+				mIndexes = Arrays.copyOf(mIndexes, 2 * mSize);
+			}
+			mIndexes[mSize++] = index;
+		}
+	}
+
+	/**
+	 * The features of one strand of one sequence, sorted by start.
+	 * The array is the in-order layout of a balanced binary tree: the root of the
+	 * range [lo, hi) is at (lo + hi) / 2, and mMaxEnds holds the maximum end of each subtree.
+	 */
+	private static class Track {
+		final int[] mStarts;
+		final int[] mEnds;
+		final int[] mMaxEnds;
+		/** index of the feature with the largest end among the first i + 1 features */
+		final int[] mPrefixMaxEnd;
+		final FeatureI[] mFeatures;
+
+		Track(List<Entry> entries) {
+			Entry[] sorted = entries.toArray(new Entry[entries.size()]);
+			Arrays.sort(sorted, new EntryComparator());
+			int n = sorted.length;
+			mStarts = new int[n];
+			mEnds = new int[n];
+			mMaxEnds = new int[n];
+			mPrefixMaxEnd = new int[n];
+			mFeatures = new FeatureI[n];
+			for (int i = 0; i < n; i++) {
+				mStarts[i] = sorted[i].mStart;
+				mEnds[i] = sorted[i].mEnd;
+				mFeatures[i] = sorted[i].mFeature;
+				mPrefixMaxEnd[i] = (i > 0 && mEnds[mPrefixMaxEnd[i - 1]] >= mEnds[i]) ? mPrefixMaxEnd[i - 1] : i;
+			}
+			buildMaxEnds(0, n);
+		}
+
+		int size() {
+			return mStarts.length;
+		}
+
+		private int buildMaxEnds(int lo, int hi) {
+			if (lo >= hi) {
+				return Integer.MIN_VALUE;
+			}
+			int mid = (lo + hi) >>> 1;
+			int max = Math.max(mEnds[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+			mMaxEnds[mid] = max;
+			return max;
+		}
+
+		/**
+		 * Collect, in start order, the features in [lo, hi) with start &lt; startLimit
+		 * and end &gt; endLimit.
+		 */
+		void search(int lo, int hi, int startLimit, int endLimit, Hits hits) {
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (mMaxEnds[mid] <= endLimit) {
+					return;
+				}
+				search(lo, mid, startLimit, endLimit, hits);
+				if (mStarts[mid] >= startLimit) {
+					return;
+				}
+				if (mEnds[mid] > endLimit) {
+					hits.add(mid);
+				}
+				lo = mid + 1;
+			}
+		}
+
+		/**
+		 * Collect, in start order, the features within [start, end].
+		 */
+		void contained(int start, int end, Hits hits) {
+			for (int i = lowerBound(start); i < mStarts.length && mStarts[i] <= end; i++) {
+				if (mEnds[i] <= end) {
+					hits.add(i);
+				}
+			}
+		}
+
+		/**
+		 * @return The index of the overlapping feature with the smallest start, or -1.
+		 */
+		int firstOverlap(int start, int end) {
+			return firstOverlap(0, mStarts.length, start, end);
+		}
+
+		private int firstOverlap(int lo, int hi, int start, int end) {
+			if (lo >= hi) {
+				return -1;
+			}
+			int mid = (lo + hi) >>> 1;
+			if (mMaxEnds[mid] <= start) {
+				return -1;
+			}
+			int left = firstOverlap(lo, mid, start, end);
+			if (left >= 0) {
+				return left;
+			}
+			if (mStarts[mid] >= end) {
+				return -1;
+			}
+			if (mEnds[mid] > start) {
+				return mid;
+			}
+			return firstOverlap(mid + 1, hi, start, end);
+		}
+
+		/**
+		 * @return The index of the nearest feature, or -1 if the track is empty.
+		 */
+		int nearest(int start, int end) {
+			int overlap = firstOverlap(start, end);
+			if (overlap >= 0) {
+				return overlap;
+			}
+			// nothing overlaps, so every feature starting before end also ends before start
+			int next = lowerBound(end);
+			int previous = (next > 0) ? mPrefixMaxEnd[next - 1] : -1;
+			if (previous < 0) {
+				return (next < mStarts.length) ? next : -1;
+			}
+			if (next == mStarts.length) {
+				return previous;
+			}
+			return (distance(next, start, end) < distance(previous, start, end)) ? next : previous;
+		}
+
+		int distance(int index, int start, int end) {
+			if (mEnds[index] <= start) {
+				return start - mEnds[index];
+			}
+			if (mStarts[index] >= end) {
+				return mStarts[index] - end;
+			}
+			return 0;
+		}
+
+		/**
+		 * @return The index of the first feature with start &gt;= position.
+		 */
+		private int lowerBound(int position) {
+			int lo = 0;
+			int hi = mStarts.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (mStarts[mid] < position) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+
+		/**
+		 * Sweep both tracks in start order, keeping the features of each track that are still
+		 * open at the current start, and pair every new feature with the open ones of the other track.
+		 */
+		void join(Track other, OverlapListener listener) {
+			Hits open = new Hits();
+			Hits otherOpen = new Hits();
+			int i = 0;
+			int j = 0;
+			while (i < mStarts.length && j < other.mStarts.length) {
+				if (mStarts[i] <= other.mStarts[j]) {
+					int start = mStarts[i];
+					int end = mEnds[i];
+					other.expire(otherOpen, start);
+					for (int k = 0; k < otherOpen.mSize; k++) {
+						int o = otherOpen.mIndexes[k];
+						if (other.mStarts[o] < end) {
+							listener.overlap(mFeatures[i], other.mFeatures[o]);
+						}
+					}
+					open.add(i++);
+				} else {
+					int start = other.mStarts[j];
+					int end = other.mEnds[j];
+					expire(open, start);
+					for (int k = 0; k < open.mSize; k++) {
+						int o = open.mIndexes[k];
+						if (mStarts[o] < end) {
+							listener.overlap(mFeatures[o], other.mFeatures[j]);
+						}
+					}
+					otherOpen.add(j++);
+				}
+			}
+			// the remaining features of one track can only overlap open features of the other
+			for (; i < mStarts.length && otherOpen.mSize > 0; i++) {
+				other.expire(otherOpen, mStarts[i]);
+				for (int k = 0; k < otherOpen.mSize; k++) {
+					int o = otherOpen.mIndexes[k];
+					if (other.mStarts[o] < mEnds[i]) {
+						listener.overlap(mFeatures[i], other.mFeatures[o]);
+					}
+				}
+			}
+			for (; j < other.mStarts.length && open.mSize > 0; j++) {
+				expire(open, other.mStarts[j]);
+				for (int k = 0; k < open.mSize; k++) {
+					int o = open.mIndexes[k];
+					if (mStarts[o] < other.mEnds[j]) {
+						listener.overlap(mFeatures[o], other.mFeatures[j]);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Drop the open features that end at or before position.
+		 */
+		private void expire(Hits open, int position) {
+			int kept = 0;
+			for (int k = 0; k < open.mSize; k++) {
+				if (mEnds[open.mIndexes[k]] > position) {
+					open.mIndexes[kept++] = open.mIndexes[k];
+				}
+			}
+			open.mSize = kept;
+		}
+	}
+}
@@ -325,6 +325,7 @@ public class FeatureList extends ArrayList<FeatureI> {
 	 * before being checked for overlap. If false, only features whose locations are 
 	 * on the same strand as the specified location will be considered for inclusion.
 	 * @return The new list of features that overlap the location.
+	 * @see FeatureIndex for repeated queries against the same list
 	 */
 	public FeatureList selectOverlapping(String seqname, Location location, boolean useBothStrands)
 			throws Exception {
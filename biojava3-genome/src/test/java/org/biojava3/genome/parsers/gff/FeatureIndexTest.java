@@ -0,0 +1,117 @@
+package org.biojava3.genome.parsers.gff;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks FeatureIndex queries against the linear scans of FeatureList.
+ */
+public class FeatureIndexTest extends TestCase {
+
+    private static final String[] SEQNAMES = { "chr1", "chr2" };
+
+    private FeatureList features;
+    private List<Location> queries;
+    private FeatureIndex index;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Random random = new Random(7);
+        features = new FeatureList();
+        for (int i = 0; i < 2000; i++) {
+            features.add(new Feature(SEQNAMES[random.nextInt(2)], "test", "exon",
+                    randomLocation(random, 500), 0.0, 0, "id " + i));
+        }
+        queries = new ArrayList<Location>();
+        for (int i = 0; i < 200; i++) {
+            queries.add(randomLocation(random, 50));
+        }
+        queries.add(Location.fromBio(1, 1, '+'));
+        index = new FeatureIndex(features);
+    }
+
+    private static Location randomLocation(Random random, int maxLength) {
+        int start = random.nextInt(100000);
+        int end = start + random.nextInt(maxLength);
+        return Location.fromBio(start + 1, end, random.nextBoolean() ? '+' : '-');
+    }
+
+    public void testSize() {
+        assertEquals(features.size(), index.size());
+        assertEquals(2, index.seqnames().size());
+    }
+
+    public void testSelectOverlapping() throws Exception {
+        for (Location query : queries) {
+            for (boolean bothStrands : new boolean[] { true, false }) {
+                FeatureList expected = features.selectOverlapping("chr1", query, bothStrands);
+                FeatureList actual = index.selectOverlapping("chr1", query, bothStrands);
+                assertEquals(new HashSet<FeatureI>(expected), new HashSet<FeatureI>(actual));
+                assertEquals(expected.size(), actual.size());
+                assertEquals(!expected.isEmpty(), index.hasOverlapping("chr1", query, bothStrands));
+            }
+        }
+        assertTrue(index.selectOverlapping("chrX", queries.get(0), true).isEmpty());
+    }
+
+    public void testSelectContaining() {
+        for (Location query : queries) {
+            Set<FeatureI> containing = new HashSet<FeatureI>();
+            Set<FeatureI> contained = new HashSet<FeatureI>();
+            for (FeatureI f : features) {
+                if (f.seqname().equals("chr2") && f.location().isSameStrand(query)) {
+                    if (f.location().contains(query)) {
+                        containing.add(f);
+                    }
+                    if (query.contains(f.location())) {
+                        contained.add(f);
+                    }
+                }
+            }
+            assertEquals(containing, new HashSet<FeatureI>(index.selectContaining("chr2", query, false)));
+            assertEquals(contained, new HashSet<FeatureI>(index.selectContainedIn("chr2", query, false)));
+        }
+    }
+
+    public void testNearest() {
+        for (Location query : queries) {
+            int best = Integer.MAX_VALUE;
+            for (FeatureI f : features) {
+                if (f.seqname().equals("chr1") && f.location().isSameStrand(query)) {
+                    best = Math.min(best, Math.max(0, f.location().distance(query)));
+                }
+            }
+            FeatureI nearest = index.nearest("chr1", query, false);
+            assertEquals(best, Math.max(0, nearest.location().distance(query)));
+        }
+        assertNull(index.nearest("chrX", queries.get(0), false));
+    }
+
+    public void testJoin() throws Exception {
+        FeatureList other = new FeatureList();
+        for (Location query : queries) {
+            other.add(new Feature("chr1", "test", "snp", query, 0.0, 0, "query"));
+        }
+        final List<FeatureI[]> pairs = new ArrayList<FeatureI[]>();
+        FeatureIndex.join(features, other, true, new FeatureIndex.OverlapListener() {
+            public void overlap(FeatureI first, FeatureI second) {
+                pairs.add(new FeatureI[] { first, second });
+            }
+        });
+        int expected = 0;
+        for (FeatureI f : other) {
+            expected += features.selectOverlapping("chr1", f.location(), true).size();
+        }
+        assertEquals(expected, pairs.size());
+        for (FeatureI[] pair : pairs) {
+            assertTrue(pair[0].location().plus().overlaps(pair[1].location().plus()));
+            assertEquals("snp", pair[1].type());
+        }
+    }
+}
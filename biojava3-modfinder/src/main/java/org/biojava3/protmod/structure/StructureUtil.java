@@ -25,6 +25,7 @@
 package org.biojava3.protmod.structure;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -34,6 +35,7 @@ import org.biojava.bio.structure.Chain;
 import org.biojava.bio.structure.Group;
 import org.biojava.bio.structure.ResidueNumber;
 import org.biojava.bio.structure.StructureException;
+import org.biojava.bio.structure.contact.AtomGrid;
 
 
 public final class StructureUtil {
@@ -253,6 +255,96 @@ public final class StructureUtil {
 		return ret;
 	}
 	
+	/**
+	 * Find the pairs of groups that have at least one pair of atoms close enough
+	 * to form a bond, i.e. the only pairs for which {@link #findAtomLinkages} can 
+	 * return a linkage. Uses a spatial grid instead of comparing all pairs of groups.
+	 * @param groups1 the first list of {@link Group}s.
+	 * @param groups2 the second list of {@link Group}s. If null, pairs within
+	 *  groups1 are returned.
+	 * @param bondLengthTolerance bond length error tolerance.
+	 * @return a list of index pairs {i, j} of a group in groups1 and a group in groups2
+	 *  (or a second group in groups1 with i&lt;j), sorted by i and then by j.
+	 * @since 3.0.6
+	 */
+	public static List<int[]> findGroupPairsInBondingRange(List<Group> groups1,
+			List<Group> groups2, double bondLengthTolerance) {
+		List<Atom> atoms1 = new ArrayList<Atom>();
+		List<Integer> groupIndices1 = new ArrayList<Integer>();
+		float maxRadius = collectAtoms(groups1, atoms1, groupIndices1, 0f);
+		
+		List<Atom> atoms2 = atoms1;
+		List<Integer> groupIndices2 = groupIndices1;
+		if (groups2 != null) {
+			atoms2 = new ArrayList<Atom>();
+			groupIndices2 = new ArrayList<Integer>();
+			maxRadius = collectAtoms(groups2, atoms2, groupIndices2, maxRadius);
+		}
+		
+		// no two atoms further apart than this can form a bond
+		double cutoff = 2 * maxRadius + bondLengthTolerance;
+		double cellSize = cutoff > 0 ? cutoff : AtomGrid.DEFAULT_CELL_SIZE;
+		
+		AtomGrid grid1 = new AtomGrid(atoms1.toArray(new Atom[atoms1.size()]), cellSize);
+		int[] atomPairs;
+		if (groups2 == null) {
+			atomPairs = grid1.getPairs(cutoff);
+		} else {
+			AtomGrid grid2 = new AtomGrid(atoms2.toArray(new Atom[atoms2.size()]), cellSize);
+			atomPairs = grid1.getPairs(grid2, cutoff);
+		}
+		
+		long n2 = groups2 == null ? groups1.size() : groups2.size();
+		
+		// collect unique group pairs, encoded as i*n2+j so that they sort by i and j
+		long[] keys = new long[atomPairs.length/2];
+		int nKeys = 0;
+		for (int k=0; k<atomPairs.length; k+=2) {
+			int i = groupIndices1.get(atomPairs[k]);
+			int j = groupIndices2.get(atomPairs[k+1]);
+			if (groups2 == null) {
+				if (i == j) {
+					continue;
+				}
+				if (i > j) {
+					int tmp = i; i = j; j = tmp;
+				}
+			}
+			keys[nKeys++] = i*n2 + j;
+		}
+		Arrays.sort(keys, 0, nKeys);
+		
+		List<int[]> ret = new ArrayList<int[]>();
+		for (int k=0; k<nKeys; k++) {
+			if (k>0 && keys[k]==keys[k-1]) {
+				continue;
+			}
+			ret.add(new int[] {(int)(keys[k]/n2), (int)(keys[k]%n2)});
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Add the atoms of the groups to a list, recording the index of the group of each atom.
+	 * @return the largest covalent radius of the atoms, or maxRadius if that is larger.
+	 */
+	private static float collectAtoms(List<Group> groups, List<Atom> atoms,
+			List<Integer> groupIndices, float maxRadius) {
+		int n = groups.size();
+		for (int i=0; i<n; i++) {
+			for (Atom atom : groups.get(i).getAtoms()) {
+				atoms.add(atom);
+				groupIndices.add(i);
+				if (atom.getElement() != null 
+						&& atom.getElement().getCovalentRadius() > maxRadius) {
+					maxRadius = atom.getElement().getCovalentRadius();
+				}
+			}
+		}
+		return maxRadius;
+	}
+	
 	/**
 	 * 
 	 * @param group a {@link Group}.
@@ -36,9 +36,10 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
 import com.google.common.io.InputSupplier;
-import com.google.common.io.Files;
 import com.google.common.io.Resources;
 
+import org.biojava3.core.util.InputStreamProvider;
+
 /**
  * Abstract reader implementation for FASTQ formatted sequences.
  *
@@ -79,7 +80,15 @@ abstract class AbstractFastqReader
             throw new IllegalArgumentException("file must not be null");
         }
         Collect collect = new Collect();
-        stream(Files.newReaderSupplier(file, Charset.forName("US-ASCII")), collect);
+        stream(new InputSupplier<InputStreamReader>()
+               {
+                   /** {@inheritDoc} */
+                   public InputStreamReader getInput() throws IOException
+                   {
+                       return new InputStreamReader(new InputStreamProvider().getInputStream(file),
+                                                    Charset.forName("US-ASCII"));
+                   }
+               }, collect);
         return collect.getResult();
     }
 
@@ -22,6 +22,7 @@ package org.biojava3.sequencing.io.fastq;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -30,6 +31,8 @@ import java.io.Writer;
 
 import java.util.Arrays;
 
+import org.biojava3.core.util.ParallelBGZFOutputStream;
+
 /**
  * Abstract writer implementation for FASTQ formatted sequences.
  *
@@ -100,23 +103,59 @@ abstract class AbstractFastqWriter
             throw new IllegalArgumentException("fastq must not be null");
         }
         Writer writer = null;
+        boolean appended = false;
         try
         {
-            writer = new BufferedWriter(new FileWriter(file));
+            writer = openWriter(file);
             append(writer, fastq);
+            appended = true;
         }
         finally
         {
-            if (writer != null)
+            close(writer, appended);
+        }
+    }
+
+    /**
+     * Open a buffered writer for the specified file.  If the file name ends with <code>.gz</code>
+     * the output is compressed in parallel in blocked gzip (BGZF) format.
+     *
+     * @param file file to write to, must not be null
+     * @return a new buffered writer for the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    static Writer openWriter(final File file) throws IOException
+    {
+        if (file.getName().endsWith(".gz"))
+        {
+            return new BufferedWriter(new OutputStreamWriter(new ParallelBGZFOutputStream(new FileOutputStream(file))));
+        }
+        return new BufferedWriter(new FileWriter(file));
+    }
+
+    /**
+     * Close the specified writer, if any.  Closing writes the last buffered or compressed
+     * blocks, so errors are reported unless an earlier error is already being thrown.
+     *
+     * @param writer writer to close, may be null
+     * @param propagate true to throw errors from closing, false to ignore them
+     * @throws IOException if an I/O error occurs and <code>propagate</code> is true
+     */
+    static void close(final Writer writer, final boolean propagate) throws IOException
+    {
+        if (writer == null)
+        {
+            return;
+        }
+        try
+        {
+            writer.close();
+        }
+        catch (IOException e)
+        {
+            if (propagate)
             {
-                try
-                {
-                    writer.close();
-                }
-                catch (IOException e)
-                {
-                    // ignore
-                }
+                throw e;
             }
         }
     }
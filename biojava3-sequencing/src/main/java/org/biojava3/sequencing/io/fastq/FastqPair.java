@@ -0,0 +1,125 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+/**
+ * Pair of mate FASTQ formatted sequences from a paired-end sequencing run.
+ *
+ * @since 3.0.6
+ */
+public final class FastqPair
+{
+    /** First mate, read 1. */
+    private final Fastq first;
+
+    /** Second mate, read 2. */
+    private final Fastq second;
+
+
+    /**
+     * Create a new pair of mate FASTQ formatted sequences.
+     *
+     * @param first first mate, read 1, must not be null
+     * @param second second mate, read 2, must not be null
+     */
+    public FastqPair(final Fastq first, final Fastq second)
+    {
+        if (first == null)
+        {
+            throw new IllegalArgumentException("first must not be null");
+        }
+        if (second == null)
+        {
+            throw new IllegalArgumentException("second must not be null");
+        }
+        this.first = first;
+        this.second = second;
+    }
+
+
+    /**
+     * Return the first mate, read 1.  The first mate will not be null.
+     *
+     * @return the first mate, read 1
+     */
+    public Fastq getFirst()
+    {
+        return first;
+    }
+
+    /**
+     * Return the second mate, read 2.  The second mate will not be null.
+     *
+     * @return the second mate, read 2
+     */
+    public Fastq getSecond()
+    {
+        return second;
+    }
+
+    /**
+     * Return true if the specified descriptions name mates of the same fragment.  The read
+     * names, up to the first whitespace, must be equal after removing a trailing
+     * <code>/1</code> or <code>/2</code> style mate suffix.  No objects are allocated.
+     *
+     * @param firstDescription description of the first mate, must not be null
+     * @param secondDescription description of the second mate, must not be null
+     * @return true if the specified descriptions name mates of the same fragment
+     */
+    public static boolean isMate(final String firstDescription, final String secondDescription)
+    {
+        if (firstDescription == null)
+        {
+            throw new IllegalArgumentException("firstDescription must not be null");
+        }
+        if (secondDescription == null)
+        {
+            throw new IllegalArgumentException("secondDescription must not be null");
+        }
+        int firstLength = nameLength(firstDescription);
+        int secondLength = nameLength(secondDescription);
+        return (firstLength == secondLength) && firstDescription.regionMatches(0, secondDescription, 0, firstLength);
+    }
+
+    /**
+     * Return the length of the read name in the specified description, excluding any mate suffix.
+     *
+     * @param description description
+     * @return the length of the read name in the specified description
+     */
+    private static int nameLength(final String description)
+    {
+        int length = 0;
+        for (int size = description.length(); length < size; length++)
+        {
+            char c = description.charAt(length);
+            if (c == ' ' || c == '\t')
+            {
+                break;
+            }
+        }
+        if (length >= 2 && description.charAt(length - 2) == '/' && Character.isDigit(description.charAt(length - 1)))
+        {
+            length -= 2;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Table driven decoder for the quality of FASTQ formatted sequences.
+ *
+ * <p>The quality score and error probability of every ASCII quality character are
+ * precomputed once per {@link FastqVariant}, so decoding a read is a table lookup
+ * per base.  Decoders are immutable and may be shared between threads; the
+ * destination arrays may be reused across reads, they only need to be at least
+ * as long as the quality.</p>
+ *
+ * @since 3.0.6
+ */
+public final class FastqQualityDecoder
+{
+    /** Number of precomputed ASCII characters. */
+    private static final int TABLE_SIZE = 128;
+
+    /** Cache of decoders keyed by FASTQ sequence format variant. */
+    private static final Map<FastqVariant, FastqQualityDecoder> DECODERS = new EnumMap<FastqVariant, FastqQualityDecoder>(FastqVariant.class);
+
+    static
+    {
+        for (FastqVariant variant : FastqVariant.values())
+        {
+            DECODERS.put(variant, new FastqQualityDecoder(variant));
+        }
+    }
+
+    /** FASTQ sequence format variant. */
+    private final FastqVariant variant;
+
+    /** Quality scores keyed by ASCII quality character. */
+    private final int[] qualityScores = new int[TABLE_SIZE];
+
+    /** Error probabilities keyed by ASCII quality character. */
+    private final double[] errorProbabilities = new double[TABLE_SIZE];
+
+
+    /**
+     * Create a new decoder for the specified FASTQ sequence format variant.
+     *
+     * @param variant FASTQ sequence format variant, must not be null
+     */
+    private FastqQualityDecoder(final FastqVariant variant)
+    {
+        this.variant = variant;
+        for (int i = 0; i < TABLE_SIZE; i++)
+        {
+            qualityScores[i] = variant.qualityScore((char) i);
+            errorProbabilities[i] = variant.errorProbability(qualityScores[i]);
+        }
+    }
+
+
+    /**
+     * Return the shared decoder for the specified FASTQ sequence format variant.
+     *
+     * @param variant FASTQ sequence format variant, must not be null
+     * @return the shared decoder for the specified FASTQ sequence format variant
+     */
+    public static FastqQualityDecoder forVariant(final FastqVariant variant)
+    {
+        if (variant == null)
+        {
+            throw new IllegalArgumentException("variant must not be null");
+        }
+        return DECODERS.get(variant);
+    }
+
+    /**
+     * Return the FASTQ sequence format variant for this decoder.
+     *
+     * @return the FASTQ sequence format variant for this decoder
+     */
+    public FastqVariant getVariant()
+    {
+        return variant;
+    }
+
+    /**
+     * Convert the specified quality in ASCII format to a quality score.
+     *
+     * @param c quality in ASCII format
+     * @return the specified quality in ASCII format converted to a quality score
+     */
+    public int qualityScore(final char c)
+    {
+        return (c < TABLE_SIZE) ? qualityScores[c] : variant.qualityScore(c);
+    }
+
+    /**
+     * Convert the specified quality in ASCII format to an error probability.
+     *
+     * @param c quality in ASCII format
+     * @return the specified quality in ASCII format converted to an error probability
+     */
+    public double errorProbability(final char c)
+    {
+        return (c < TABLE_SIZE) ? errorProbabilities[c] : variant.errorProbability(c);
+    }
+
+    /**
+     * Decode the specified quality into the specified byte array of quality scores.
+     *
+     * @param quality quality in ASCII format, must not be null
+     * @param qualityScores byte array of quality scores, must not be null and must be at least
+     *    as long as the quality
+     * @return the number of quality scores decoded, equal to the length of the quality
+     */
+    public int qualityScores(final CharSequence quality, final byte[] qualityScores)
+    {
+        int size = checkLength(quality, qualityScores == null ? -1 : qualityScores.length, "qualityScores");
+        for (int i = 0; i < size; i++)
+        {
+            qualityScores[i] = (byte) qualityScore(quality.charAt(i));
+        }
+        return size;
+    }
+
+    /**
+     * Decode the specified quality into the specified int array of quality scores.
+     *
+     * @param quality quality in ASCII format, must not be null
+     * @param qualityScores int array of quality scores, must not be null and must be at least
+     *    as long as the quality
+     * @return the number of quality scores decoded, equal to the length of the quality
+     */
+    public int qualityScores(final CharSequence quality, final int[] qualityScores)
+    {
+        int size = checkLength(quality, qualityScores == null ? -1 : qualityScores.length, "qualityScores");
+        for (int i = 0; i < size; i++)
+        {
+            qualityScores[i] = qualityScore(quality.charAt(i));
+        }
+        return size;
+    }
+
+    /**
+     * Decode the specified quality into the specified double array of error probabilities.
+     *
+     * @param quality quality in ASCII format, must not be null
+     * @param errorProbabilities double array of error probabilities, must not be null and must be
+     *    at least as long as the quality
+     * @return the number of error probabilities decoded, equal to the length of the quality
+     */
+    public int errorProbabilities(final CharSequence quality, final double[] errorProbabilities)
+    {
+        int size = checkLength(quality, errorProbabilities == null ? -1 : errorProbabilities.length, "errorProbabilities");
+        for (int i = 0; i < size; i++)
+        {
+            errorProbabilities[i] = errorProbability(quality.charAt(i));
+        }
+        return size;
+    }
+
+    /**
+     * Check the specified quality and destination array length.
+     *
+     * @return the length of the quality
+     */
+    private static int checkLength(final CharSequence quality, final int length, final String name)
+    {
+        if (quality == null)
+        {
+            throw new IllegalArgumentException("quality must not be null");
+        }
+        if (length < 0)
+        {
+            throw new IllegalArgumentException(name + " must not be null");
+        }
+        int size = quality.length();
+        if (length < size)
+        {
+            throw new IllegalArgumentException(name + " must be at least as long as the quality");
+        }
+        return size;
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+/**
+ * Streaming quality score statistics for FASTQ formatted sequences.
+ *
+ * <p>Quality scores are accumulated into histograms, overall, per position in
+ * the read and of the mean quality score per read, so memory use depends only
+ * on the longest read seen and no objects are allocated per base.  Means and
+ * quantiles are computed from the histograms on request.  Quality scores
+ * outside the range of the FASTQ sequence format variant are counted as the
+ * nearest valid score.</p>
+ *
+ * <p>Instances are not thread safe.  To collect statistics over many threads,
+ * use one instance per thread and {@link #merge(FastqQualityStatistics)} them
+ * at the end.</p>
+ *
+ * <pre>
+ * FastqQualityStatistics statistics = new FastqQualityStatistics(FastqVariant.FASTQ_SANGER);
+ * new SangerFastqReader().stream(supplier, statistics);
+ * double median = statistics.getQualityScoreQuantile(0.5d);
+ * </pre>
+ *
+ * @since 3.0.6
+ */
+public final class FastqQualityStatistics
+    implements StreamListener
+{
+    /** FASTQ sequence format variant. */
+    private final FastqVariant variant;
+
+    /** Quality decoder for the FASTQ sequence format variant. */
+    private final FastqQualityDecoder decoder;
+
+    /** Minimum quality score, the quality score of histogram bin 0. */
+    private final int minimumQualityScore;
+
+    /** Number of histogram bins. */
+    private final int bins;
+
+    /** Histogram of all quality scores. */
+    private final long[] qualityScoreCounts;
+
+    /** Histogram of the mean quality score per read. */
+    private final long[] readMeanCounts;
+
+    /** Histograms of quality scores per position, position-major. */
+    private long[] positionCounts = new long[0];
+
+    /** Length of the longest read seen. */
+    private int maximumLength = 0;
+
+    /** Number of reads. */
+    private long readCount = 0L;
+
+    /** Number of bases. */
+    private long baseCount = 0L;
+
+
+    /**
+     * Create a new empty statistics collector for the specified FASTQ sequence format variant.
+     *
+     * @param variant FASTQ sequence format variant, must not be null
+     */
+    public FastqQualityStatistics(final FastqVariant variant)
+    {
+        if (variant == null)
+        {
+            throw new IllegalArgumentException("variant must not be null");
+        }
+        this.variant = variant;
+        this.decoder = FastqQualityDecoder.forVariant(variant);
+        this.minimumQualityScore = variant.minimumQualityScore();
+        this.bins = variant.maximumQualityScore() - minimumQualityScore + 1;
+        this.qualityScoreCounts = new long[bins];
+        this.readMeanCounts = new long[bins];
+    }
+
+
+    /**
+     * Return the FASTQ sequence format variant for these statistics.
+     *
+     * @return the FASTQ sequence format variant for these statistics
+     */
+    public FastqVariant getVariant()
+    {
+        return variant;
+    }
+
+    /** {@inheritDoc} */
+    public void fastq(final Fastq fastq)
+    {
+        if (fastq == null)
+        {
+            throw new IllegalArgumentException("fastq must not be null");
+        }
+        if (fastq.getVariant() != variant)
+        {
+            throw new IllegalArgumentException("fastq variant must be " + variant);
+        }
+        add(fastq.getQuality());
+    }
+
+    /**
+     * Add the specified quality of a single read to these statistics.
+     *
+     * @param quality quality in ASCII format, must not be null
+     */
+    public void add(final CharSequence quality)
+    {
+        if (quality == null)
+        {
+            throw new IllegalArgumentException("quality must not be null");
+        }
+        int size = quality.length();
+        ensureLength(size);
+        long sum = 0L;
+        for (int i = 0, offset = 0; i < size; i++, offset += bins)
+        {
+            int bin = bin(decoder.qualityScore(quality.charAt(i)));
+            positionCounts[offset + bin]++;
+            qualityScoreCounts[bin]++;
+            sum += bin;
+        }
+        if (size > 0)
+        {
+            readMeanCounts[(int) (sum / size)]++;
+        }
+        readCount++;
+        baseCount += size;
+    }
+
+    /**
+     * Add the statistics collected by the specified instance to these statistics.
+     *
+     * @param statistics statistics to merge, must not be null and must be for the same
+     *    FASTQ sequence format variant
+     * @return these statistics
+     */
+    public FastqQualityStatistics merge(final FastqQualityStatistics statistics)
+    {
+        if (statistics == null)
+        {
+            throw new IllegalArgumentException("statistics must not be null");
+        }
+        if (statistics.variant != variant)
+        {
+            throw new IllegalArgumentException("statistics variant must be " + variant);
+        }
+        ensureLength(statistics.maximumLength);
+        add(statistics.positionCounts, 0, positionCounts, 0, statistics.maximumLength * bins);
+        add(statistics.qualityScoreCounts, 0, qualityScoreCounts, 0, bins);
+        add(statistics.readMeanCounts, 0, readMeanCounts, 0, bins);
+        readCount += statistics.readCount;
+        baseCount += statistics.baseCount;
+        return this;
+    }
+
+    /**
+     * Return the number of reads.
+     *
+     * @return the number of reads
+     */
+    public long getReadCount()
+    {
+        return readCount;
+    }
+
+    /**
+     * Return the number of bases over all reads.
+     *
+     * @return the number of bases over all reads
+     */
+    public long getBaseCount()
+    {
+        return baseCount;
+    }
+
+    /**
+     * Return the number of reads covering the specified position.
+     *
+     * @param position zero-based position in the read
+     * @return the number of reads covering the specified position
+     */
+    public long getBaseCount(final int position)
+    {
+        return sum(positionCounts, checkPosition(position) * bins);
+    }
+
+    /**
+     * Return the length of the longest read.
+     *
+     * @return the length of the longest read
+     */
+    public int getMaximumLength()
+    {
+        return maximumLength;
+    }
+
+    /**
+     * Return the mean quality score over all bases, or <code>NaN</code> if no bases have been added.
+     *
+     * @return the mean quality score over all bases
+     */
+    public double getMeanQualityScore()
+    {
+        return mean(qualityScoreCounts, 0);
+    }
+
+    /**
+     * Return the mean quality score at the specified position, or <code>NaN</code> if no read covers it.
+     *
+     * @param position zero-based position in the read
+     * @return the mean quality score at the specified position
+     */
+    public double getMeanQualityScore(final int position)
+    {
+        return mean(positionCounts, checkPosition(position) * bins);
+    }
+
+    /**
+     * Return the specified quantile of the quality scores over all bases, or <code>NaN</code>
+     * if no bases have been added.
+     *
+     * @param quantile quantile, must be between 0.0 and 1.0
+     * @return the specified quantile of the quality scores over all bases
+     */
+    public double getQualityScoreQuantile(final double quantile)
+    {
+        return quantile(qualityScoreCounts, 0, quantile);
+    }
+
+    /**
+     * Return the specified quantile of the quality scores at the specified position, or
+     * <code>NaN</code> if no read covers it.
+     *
+     * @param position zero-based position in the read
+     * @param quantile quantile, must be between 0.0 and 1.0
+     * @return the specified quantile of the quality scores at the specified position
+     */
+    public double getQualityScoreQuantile(final int position, final double quantile)
+    {
+        return quantile(positionCounts, checkPosition(position) * bins, quantile);
+    }
+
+    /**
+     * Return the histogram of quality scores over all bases.  Index <code>i</code> holds the
+     * count of quality score <code>i + variant.minimumQualityScore()</code>.
+     *
+     * @return a copy of the histogram of quality scores over all bases
+     */
+    public long[] getQualityScoreHistogram()
+    {
+        return copy(qualityScoreCounts, 0);
+    }
+
+    /**
+     * Return the histogram of quality scores at the specified position.  Index <code>i</code>
+     * holds the count of quality score <code>i + variant.minimumQualityScore()</code>.
+     *
+     * @param position zero-based position in the read
+     * @return a copy of the histogram of quality scores at the specified position
+     */
+    public long[] getQualityScoreHistogram(final int position)
+    {
+        return copy(positionCounts, checkPosition(position) * bins);
+    }
+
+    /**
+     * Return the histogram of mean quality scores per read, rounded down.  Index <code>i</code>
+     * holds the count of reads with mean quality score <code>i + variant.minimumQualityScore()</code>.
+     *
+     * @return a copy of the histogram of mean quality scores per read
+     */
+    public long[] getReadMeanQualityScoreHistogram()
+    {
+        return copy(readMeanCounts, 0);
+    }
+
+    /**
+     * Return the histogram bin for the specified quality score.
+     */
+    private int bin(final int qualityScore)
+    {
+        int bin = qualityScore - minimumQualityScore;
+        if (bin < 0)
+        {
+            return 0;
+        }
+        return (bin < bins) ? bin : bins - 1;
+    }
+
+    /**
+     * Grow the per position histograms to cover reads of the specified length.
+     */
+    private void ensureLength(final int length)
+    {
+        if (length > maximumLength)
+        {
+            int required = length * bins;
+            if (required > positionCounts.length)
+            {
+                long[] counts = new long[Math.max(required, 2 * positionCounts.length)];
+                System.arraycopy(positionCounts, 0, counts, 0, positionCounts.length);
+                positionCounts = counts;
+            }
+            maximumLength = length;
+        }
+    }
+
+    private int checkPosition(final int position)
+    {
+        if (position < 0 || position >= maximumLength)
+        {
+            throw new IndexOutOfBoundsException("position must be between 0 and " + (maximumLength - 1));
+        }
+        return position;
+    }
+
+    private static void add(final long[] source, final int sourceOffset, final long[] target, final int targetOffset, final int length)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            target[targetOffset + i] += source[sourceOffset + i];
+        }
+    }
+
+    private long[] copy(final long[] counts, final int offset)
+    {
+        long[] copy = new long[bins];
+        System.arraycopy(counts, offset, copy, 0, bins);
+        return copy;
+    }
+
+    private long sum(final long[] counts, final int offset)
+    {
+        long total = 0L;
+        for (int i = 0; i < bins; i++)
+        {
+            total += counts[offset + i];
+        }
+        return total;
+    }
+
+    private double mean(final long[] counts, final int offset)
+    {
+        long total = 0L;
+        double weighted = 0.0d;
+        for (int i = 0; i < bins; i++)
+        {
+            total += counts[offset + i];
+            weighted += ((double) i) * counts[offset + i];
+        }
+        if (total == 0L)
+        {
+            return Double.NaN;
+        }
+        return weighted / total + minimumQualityScore;
+    }
+
+    private double quantile(final long[] counts, final int offset, final double quantile)
+    {
+        if (quantile < 0.0d || quantile > 1.0d)
+        {
+            throw new IllegalArgumentException("quantile must be between 0.0 and 1.0");
+        }
+        long total = sum(counts, offset);
+        if (total == 0L)
+        {
+            return Double.NaN;
+        }
+        // nearest rank
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long cumulative = 0L;
+        for (int i = 0; i < bins; i++)
+        {
+            cumulative += counts[offset + i];
+            if (cumulative >= rank)
+            {
+                return i + minimumQualityScore;
+            }
+        }
+        return bins - 1 + minimumQualityScore;
+    }
+}
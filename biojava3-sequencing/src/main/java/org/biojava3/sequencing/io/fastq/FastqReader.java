@@ -56,7 +56,8 @@ public interface FastqReader
     <R extends Readable & Closeable> void stream(InputSupplier<R> supplier, StreamListener listener) throws IOException;
 
     /**
-     * Read zero or more FASTQ formatted sequences from the specified file.
+     * Read zero or more FASTQ formatted sequences from the specified file.  Gzip compressed
+     * files are decompressed ahead of the parser, blocked gzip (BGZF) files in parallel.
      *
      * @param file file to read from, must not be null
      * @return zero or more FASTQ formatted sequences read from the specified file
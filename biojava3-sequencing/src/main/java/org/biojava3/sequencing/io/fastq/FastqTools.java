@@ -20,9 +20,10 @@
  */
 package org.biojava3.sequencing.io.fastq;
 
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.ImmutableList;
 
 import org.biojava3.core.sequence.DNASequence;
@@ -130,7 +131,7 @@ public final class FastqTools
             throw new IllegalArgumentException("fastq must not be null");
         }
         QualityFeature qualityScores = new QualityFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound>("qualityScores", "sequencing");
-        qualityScores.setQualities(toList(qualityScores(fastq)));
+        qualityScores.setQualities(new QualityScores(decodeQualityScores(fastq)));
         return qualityScores;
     }
 
@@ -150,7 +151,7 @@ public final class FastqTools
             throw new IllegalArgumentException("fastq must not be null");
         }
         QuantityFeature errorProbabilities = new QuantityFeature<AbstractSequence<NucleotideCompound>, NucleotideCompound>("errorProbabilities", "sequencing");
-        errorProbabilities.setQuantities(toList(errorProbabilities(fastq)));
+        errorProbabilities.setQuantities(new ErrorProbabilities(decodeErrorProbabilities(fastq)));
         return errorProbabilities;
     }
 
@@ -166,15 +167,7 @@ public final class FastqTools
         {
             throw new IllegalArgumentException("fastq must not be null");
         }
-        int size = fastq.getQuality().length();
-        List<Integer> qualityScores = Lists.newArrayListWithExpectedSize(size);
-        FastqVariant variant = fastq.getVariant();
-        for (int i = 0; i < size; i++)
-        {
-            char c = fastq.getQuality().charAt(i);
-            qualityScores.add(variant.qualityScore(c));
-        }
-        return ImmutableList.copyOf(qualityScores);
+        return new QualityScores(decodeQualityScores(fastq));
     }
 
     /**
@@ -200,12 +193,7 @@ public final class FastqTools
         {
             throw new IllegalArgumentException("qualityScores must be the same length as the FASTQ formatted sequence quality");
         }
-        FastqVariant variant = fastq.getVariant();
-        for (int i = 0; i < size; i++)
-        {
-            char c = fastq.getQuality().charAt(i);
-            qualityScores[i] = variant.qualityScore(c);
-        }
+        FastqQualityDecoder.forVariant(fastq.getVariant()).qualityScores(fastq.getQuality(), qualityScores);
         return qualityScores;
     }
 
@@ -221,15 +209,7 @@ public final class FastqTools
         {
             throw new IllegalArgumentException("fastq must not be null");
         }
-        int size = fastq.getQuality().length();
-        List<Double> errorProbabilities = Lists.newArrayListWithExpectedSize(size);
-        FastqVariant variant = fastq.getVariant();
-        for (int i = 0; i < size; i++)
-        {
-            char c = fastq.getQuality().charAt(i);
-            errorProbabilities.add(variant.errorProbability(c));
-        }
-        return ImmutableList.copyOf(errorProbabilities);
+        return new ErrorProbabilities(decodeErrorProbabilities(fastq));
     }
 
     /**
@@ -255,13 +235,96 @@ public final class FastqTools
         {
             throw new IllegalArgumentException("errorProbabilities must be the same length as the FASTQ formatted sequence quality");
         }
-        FastqVariant variant = fastq.getVariant();
-        for (int i = 0; i < size; i++)
+        FastqQualityDecoder.forVariant(fastq.getVariant()).errorProbabilities(fastq.getQuality(), errorProbabilities);
+        return errorProbabilities;
+    }
+
+    /**
+     * Decode the quality scores from the specified FASTQ formatted sequence into a new int array.
+     *
+     * @param fastq FASTQ formatted sequence, must not be null
+     * @return the quality scores from the specified FASTQ formatted sequence
+     */
+    private static int[] decodeQualityScores(final Fastq fastq)
+    {
+        int[] qualityScores = new int[fastq.getQuality().length()];
+        FastqQualityDecoder.forVariant(fastq.getVariant()).qualityScores(fastq.getQuality(), qualityScores);
+        return qualityScores;
+    }
+
+    /**
+     * Decode the error probabilities from the specified FASTQ formatted sequence into a new double array.
+     *
+     * @param fastq FASTQ formatted sequence, must not be null
+     * @return the error probabilities from the specified FASTQ formatted sequence
+     */
+    private static double[] decodeErrorProbabilities(final Fastq fastq)
+    {
+        double[] errorProbabilities = new double[fastq.getQuality().length()];
+        FastqQualityDecoder.forVariant(fastq.getVariant()).errorProbabilities(fastq.getQuality(), errorProbabilities);
+        return errorProbabilities;
+    }
+
+    /**
+     * Unmodifiable list view of an int array of quality scores.
+     */
+    private static final class QualityScores extends AbstractList<Integer> implements RandomAccess
+    {
+        /** Quality scores. */
+        private final int[] qualityScores;
+
+        /**
+         * Create a new list view of the specified quality scores.
+         *
+         * @param qualityScores quality scores
+         */
+        QualityScores(final int[] qualityScores)
+        {
+            this.qualityScores = qualityScores;
+        }
+
+        /** {@inheritDoc} */
+        public Integer get(final int index)
         {
-            char c = fastq.getQuality().charAt(i);
-            errorProbabilities[i] = variant.errorProbability(c);
+            return Integer.valueOf(qualityScores[index]);
+        }
+
+        /** {@inheritDoc} */
+        public int size()
+        {
+            return qualityScores.length;
+        }
+    }
+
+    /**
+     * Unmodifiable list view of a double array of error probabilities.
+     */
+    private static final class ErrorProbabilities extends AbstractList<Double> implements RandomAccess
+    {
+        /** Error probabilities. */
+        private final double[] errorProbabilities;
+
+        /**
+         * Create a new list view of the specified error probabilities.
+         *
+         * @param errorProbabilities error probabilities
+         */
+        ErrorProbabilities(final double[] errorProbabilities)
+        {
+            this.errorProbabilities = errorProbabilities;
+        }
+
+        /** {@inheritDoc} */
+        public Double get(final int index)
+        {
+            return Double.valueOf(errorProbabilities[index]);
+        }
+
+        /** {@inheritDoc} */
+        public int size()
+        {
+            return errorProbabilities.length;
         }
-        return errorProbabilities;
     }
 
     /**
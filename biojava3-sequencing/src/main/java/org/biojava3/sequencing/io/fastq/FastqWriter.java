@@ -55,7 +55,8 @@ public interface FastqWriter
     <T extends Appendable> T append(T appendable, Iterable<Fastq> fastq) throws IOException;
 
     /**
-     * Write the specified FASTQ formatted sequences to the specified file.
+     * Write the specified FASTQ formatted sequences to the specified file.  If the file
+     * name ends with <code>.gz</code> the output is compressed in parallel in blocked gzip (BGZF) format.
      *
      * @param file file to write to, must not be null
      * @param fastq variable number of FASTQ formatted sequences to write, must not be null
@@ -64,7 +65,8 @@ public interface FastqWriter
     void write(File file, Fastq... fastq) throws IOException;
 
     /**
-     * Write the specified FASTQ formatted sequences to the specified file.
+     * Write the specified FASTQ formatted sequences to the specified file.  If the file
+     * name ends with <code>.gz</code> the output is compressed in parallel in blocked gzip (BGZF) format.
      *
      * @param file file to write to, must not be null
      * @param fastq zero or more FASTQ formatted sequences to write, must not be null
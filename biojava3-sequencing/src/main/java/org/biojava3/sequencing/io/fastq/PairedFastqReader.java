@@ -0,0 +1,926 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import java.nio.charset.Charset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import com.google.common.io.InputSupplier;
+
+import org.biojava3.core.util.InputStreamProvider;
+
+/**
+ * Reader for paired-end FASTQ formatted sequences.
+ *
+ * <p>Mates are read either from two files (read 1 and read 2) in lock step, or
+ * from a single interleaved file where each read 1 is directly followed by its
+ * read 2.  When reading two files, the second file is parsed on a background
+ * thread a bounded number of reads ahead of the first, the listener is always
+ * called on the calling thread.  Mate names are validated with
+ * {@link FastqPair#isMate(String, String)} unless disabled.</p>
+ *
+ * <p>For parallel processing, {@link #split(File, File, int)} and
+ * {@link #splitInterleaved(File, int)} cut uncompressed input into chunks of
+ * roughly equal size by byte offset, always on pair boundaries, which can then
+ * be streamed independently with {@link #stream(Chunk, PairedStreamListener)}
+ * on different threads or nodes.</p>
+ *
+ * @since 3.0.6
+ */
+public final class PairedFastqReader
+{
+    /** Default number of reads the second file may be parsed ahead of the first. */
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    /** Marks the end of the second file in the read ahead buffer. */
+    private static final Object END = new Object();
+
+    /** Charset for FASTQ files. */
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    /** FASTQ sequence format variant. */
+    private final FastqVariant variant;
+
+    /** Number of reads the second file may be parsed ahead of the first. */
+    private final int bufferSize;
+
+    /** True if mate names should be validated. */
+    private final boolean validateMateNames;
+
+
+    /**
+     * Create a new paired-end reader for the specified FASTQ sequence format variant
+     * with the default buffer size and mate name validation.
+     *
+     * @param variant FASTQ sequence format variant, must not be null
+     */
+    public PairedFastqReader(final FastqVariant variant)
+    {
+        this(variant, DEFAULT_BUFFER_SIZE, true);
+    }
+
+    /**
+     * Create a new paired-end reader for the specified FASTQ sequence format variant.
+     *
+     * @param variant FASTQ sequence format variant, must not be null
+     * @param bufferSize number of reads the second file may be parsed ahead of the first, must be at least 1
+     * @param validateMateNames true if mate names should be validated
+     */
+    public PairedFastqReader(final FastqVariant variant, final int bufferSize, final boolean validateMateNames)
+    {
+        if (variant == null)
+        {
+            throw new IllegalArgumentException("variant must not be null");
+        }
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be at least 1");
+        }
+        this.variant = variant;
+        this.bufferSize = bufferSize;
+        this.validateMateNames = validateMateNames;
+    }
+
+
+    /**
+     * Return the FASTQ sequence format variant for this reader.
+     *
+     * @return the FASTQ sequence format variant for this reader
+     */
+    public FastqVariant getVariant()
+    {
+        return variant;
+    }
+
+    /**
+     * Stream the specified pair of input suppliers in lock step.
+     *
+     * @param first input supplier for the first mates, read 1, must not be null
+     * @param second input supplier for the second mates, read 2, must not be null
+     * @param listener event based paired-end reader callback, must not be null
+     * @throws IOException if an I/O error occurs, if the inputs contain different numbers of reads
+     *    or if mate names do not match
+     */
+    public <R extends Readable & Closeable> void stream(final InputSupplier<R> first,
+                                                        final InputSupplier<R> second,
+                                                        final PairedStreamListener listener)
+        throws IOException
+    {
+        if (first == null)
+        {
+            throw new IllegalArgumentException("first must not be null");
+        }
+        if (second == null)
+        {
+            throw new IllegalArgumentException("second must not be null");
+        }
+        if (listener == null)
+        {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+
+        final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(bufferSize);
+        Thread secondReader = new Thread(new Runnable()
+            {
+                /** {@inheritDoc} */
+                public void run()
+                {
+                    Object end = END;
+                    try
+                    {
+                        StreamingFastqParser.stream(second, variant, new StreamListener()
+                            {
+                                /** {@inheritDoc} */
+                                public void fastq(final Fastq fastq)
+                                {
+                                    put(queue, fastq);
+                                }
+                            });
+                    }
+                    catch (Interrupted e)
+                    {
+                        return;
+                    }
+                    catch (IOException e)
+                    {
+                        end = e;
+                    }
+                    catch (RuntimeException e)
+                    {
+                        end = e;
+                    }
+                    try
+                    {
+                        put(queue, end);
+                    }
+                    catch (Interrupted e)
+                    {
+                        // reader of the first mates has given up
+                    }
+                }
+            }, "PairedFastqReader");
+        secondReader.setDaemon(true);
+        secondReader.start();
+
+        try
+        {
+            StreamingFastqParser.stream(first, variant, new StreamListener()
+                {
+                    /** {@inheritDoc} */
+                    public void fastq(final Fastq fastq)
+                    {
+                        Object mate = take(queue);
+                        if (mate == END)
+                        {
+                            throw new MateException(new IOException("second input contains fewer reads than first input"));
+                        }
+                        listener.fastqPair(pair(fastq, checkMate(mate)));
+                    }
+                });
+            Object mate = take(queue);
+            if (mate != END)
+            {
+                checkMate(mate);
+                throw new IOException("second input contains more reads than first input");
+            }
+        }
+        catch (MateException e)
+        {
+            throw e.getCause();
+        }
+        finally
+        {
+            secondReader.interrupt();
+        }
+    }
+
+    /**
+     * Stream the specified pair of files in lock step.  Gzip compressed files are supported.
+     *
+     * @param first file containing the first mates, read 1, must not be null
+     * @param second file containing the second mates, read 2, must not be null
+     * @param listener event based paired-end reader callback, must not be null
+     * @throws IOException if an I/O error occurs, if the files contain different numbers of reads
+     *    or if mate names do not match
+     */
+    public void stream(final File first, final File second, final PairedStreamListener listener) throws IOException
+    {
+        if (first == null)
+        {
+            throw new IllegalArgumentException("first must not be null");
+        }
+        if (second == null)
+        {
+            throw new IllegalArgumentException("second must not be null");
+        }
+        stream(fileSupplier(first), fileSupplier(second), listener);
+    }
+
+    /**
+     * Stream the specified input supplier of interleaved mates.
+     *
+     * @param supplier input supplier with each first mate directly followed by its second mate, must not be null
+     * @param listener event based paired-end reader callback, must not be null
+     * @throws IOException if an I/O error occurs, if the input contains an odd number of reads
+     *    or if mate names do not match
+     */
+    public <R extends Readable & Closeable> void streamInterleaved(final InputSupplier<R> supplier,
+                                                                   final PairedStreamListener listener)
+        throws IOException
+    {
+        if (supplier == null)
+        {
+            throw new IllegalArgumentException("supplier must not be null");
+        }
+        if (listener == null)
+        {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        final Fastq[] pending = new Fastq[1];
+        try
+        {
+            StreamingFastqParser.stream(supplier, variant, new StreamListener()
+                {
+                    /** {@inheritDoc} */
+                    public void fastq(final Fastq fastq)
+                    {
+                        if (pending[0] == null)
+                        {
+                            pending[0] = fastq;
+                        }
+                        else
+                        {
+                            FastqPair pair = pair(pending[0], fastq);
+                            pending[0] = null;
+                            listener.fastqPair(pair);
+                        }
+                    }
+                });
+        }
+        catch (MateException e)
+        {
+            throw e.getCause();
+        }
+        if (pending[0] != null)
+        {
+            throw new IOException("interleaved input contains an odd number of reads");
+        }
+    }
+
+    /**
+     * Stream the specified file of interleaved mates.  Gzip compressed files are supported.
+     *
+     * @param file file with each first mate directly followed by its second mate, must not be null
+     * @param listener event based paired-end reader callback, must not be null
+     * @throws IOException if an I/O error occurs, if the file contains an odd number of reads
+     *    or if mate names do not match
+     */
+    public void streamInterleaved(final File file, final PairedStreamListener listener) throws IOException
+    {
+        if (file == null)
+        {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        streamInterleaved(fileSupplier(file), listener);
+    }
+
+    /**
+     * Stream the pairs in the specified chunk.
+     *
+     * @param chunk chunk created by {@link #split(File, File, int)} or {@link #splitInterleaved(File, int)},
+     *    must not be null
+     * @param listener event based paired-end reader callback, must not be null
+     * @throws IOException if an I/O error occurs or if mate names do not match
+     */
+    public void stream(final Chunk chunk, final PairedStreamListener listener) throws IOException
+    {
+        if (chunk == null)
+        {
+            throw new IllegalArgumentException("chunk must not be null");
+        }
+        if (chunk.isInterleaved())
+        {
+            streamInterleaved(rangeSupplier(chunk.getFirst(), chunk.getFirstStart(), chunk.getFirstEnd()), listener);
+        }
+        else
+        {
+            stream(rangeSupplier(chunk.getFirst(), chunk.getFirstStart(), chunk.getFirstEnd()),
+                   rangeSupplier(chunk.getSecond(), chunk.getSecondStart(), chunk.getSecondEnd()),
+                   listener);
+        }
+    }
+
+    /**
+     * Split the specified pair of files into the specified number of chunks of roughly equal
+     * size.  The chunk boundaries are chosen by byte offset in the first file and placed at the
+     * same read in the second file, so each chunk holds complete pairs.  This requires a single
+     * sequential scan of both files, but no parsing.  The files must not be compressed and each
+     * FASTQ formatted sequence must span exactly four lines.  Fewer chunks are returned for
+     * small files.
+     *
+     * @param first file containing the first mates, read 1, must not be null
+     * @param second file containing the second mates, read 2, must not be null
+     * @param chunks number of chunks, must be at least 1
+     * @return list of chunks in file order
+     * @throws IOException if an I/O error occurs or if the files can not be split
+     */
+    public List<Chunk> split(final File first, final File second, final int chunks) throws IOException
+    {
+        if (first == null)
+        {
+            throw new IllegalArgumentException("first must not be null");
+        }
+        if (second == null)
+        {
+            throw new IllegalArgumentException("second must not be null");
+        }
+        if (chunks < 1)
+        {
+            throw new IllegalArgumentException("chunks must be at least 1");
+        }
+        List<long[]> boundaries = boundaries(first, chunks, 1);
+        long[] secondOffsets = offsets(second, boundaries);
+
+        List<Chunk> result = new ArrayList<Chunk>(boundaries.size() - 1);
+        for (int i = 1; i < boundaries.size(); i++)
+        {
+            long[] start = boundaries.get(i - 1);
+            long[] end = boundaries.get(i);
+            result.add(new Chunk(first, start[1], end[1], second, secondOffsets[i - 1], secondOffsets[i], end[0] - start[0]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Split the specified file of interleaved mates into the specified number of chunks of roughly
+     * equal size by byte offset, placing chunk boundaries between pairs.  The file must not be
+     * compressed and each FASTQ formatted sequence must span exactly four lines.  Fewer chunks
+     * are returned for small files.
+     *
+     * @param file file with each first mate directly followed by its second mate, must not be null
+     * @param chunks number of chunks, must be at least 1
+     * @return list of chunks in file order
+     * @throws IOException if an I/O error occurs or if the file can not be split
+     */
+    public List<Chunk> splitInterleaved(final File file, final int chunks) throws IOException
+    {
+        if (file == null)
+        {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        if (chunks < 1)
+        {
+            throw new IllegalArgumentException("chunks must be at least 1");
+        }
+        List<long[]> boundaries = boundaries(file, chunks, 2);
+        List<Chunk> result = new ArrayList<Chunk>(boundaries.size() - 1);
+        for (int i = 1; i < boundaries.size(); i++)
+        {
+            long[] start = boundaries.get(i - 1);
+            long[] end = boundaries.get(i);
+            result.add(new Chunk(file, start[1], end[1], null, 0L, 0L, (end[0] - start[0]) / 2));
+        }
+        if ((boundaries.get(boundaries.size() - 1)[0] % 2) != 0)
+        {
+            throw new IOException("interleaved input contains an odd number of reads");
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Find chunk boundaries in the specified file as pairs of read index and byte offset.
+     * The first boundary is the start, the last boundary the end of the file.
+     *
+     * @param file file to scan
+     * @param chunks requested number of chunks
+     * @param readsPerPair reads per pair in the file, boundaries are placed at multiples of it
+     * @return list of chunk boundaries
+     */
+    private static List<long[]> boundaries(final File file, final int chunks, final int readsPerPair) throws IOException
+    {
+        long size = file.length();
+        List<long[]> boundaries = new ArrayList<long[]>(chunks + 1);
+        boundaries.add(new long[] { 0L, 0L });
+        ReadScanner scanner = new ReadScanner(file);
+        try
+        {
+            int next = 1;
+            long reads = 0L;
+            while (scanner.nextRead())
+            {
+                reads++;
+                long offset = scanner.getOffset();
+                if ((next < chunks) && ((reads % readsPerPair) == 0) && (offset >= (size * next) / chunks) && (offset < size))
+                {
+                    boundaries.add(new long[] { reads, offset });
+                    while ((next < chunks) && (offset >= (size * next) / chunks))
+                    {
+                        next++;
+                    }
+                }
+            }
+            boundaries.add(new long[] { reads, scanner.getOffset() });
+        }
+        finally
+        {
+            scanner.close();
+        }
+        return boundaries;
+    }
+
+    /**
+     * Find the byte offsets in the specified file of the reads at the specified boundaries.
+     *
+     * @param file file to scan
+     * @param boundaries chunk boundaries of the first file
+     * @return byte offsets of the boundaries in the specified file
+     */
+    private static long[] offsets(final File file, final List<long[]> boundaries) throws IOException
+    {
+        long[] offsets = new long[boundaries.size()];
+        ReadScanner scanner = new ReadScanner(file);
+        try
+        {
+            long reads = 0L;
+            int next = 1;
+            while (scanner.nextRead())
+            {
+                reads++;
+                while ((next < boundaries.size()) && (boundaries.get(next)[0] == reads))
+                {
+                    offsets[next++] = scanner.getOffset();
+                }
+            }
+            if (reads != boundaries.get(boundaries.size() - 1)[0])
+            {
+                throw new IOException("second input contains " + reads + " reads, first input contains "
+                                      + boundaries.get(boundaries.size() - 1)[0]);
+            }
+        }
+        finally
+        {
+            scanner.close();
+        }
+        return offsets;
+    }
+
+    /**
+     * Create a new pair, validating mate names if required.
+     */
+    private FastqPair pair(final Fastq first, final Fastq second)
+    {
+        if (validateMateNames && !FastqPair.isMate(first.getDescription(), second.getDescription()))
+        {
+            throw new MateException(new IOException("mate names do not match, was " + first.getDescription()
+                                                    + " and " + second.getDescription()));
+        }
+        return new FastqPair(first, second);
+    }
+
+    /**
+     * Return the specified object taken from the read ahead buffer as a FASTQ formatted sequence,
+     * rethrowing errors from the background parser.
+     */
+    private static Fastq checkMate(final Object mate)
+    {
+        if (mate instanceof IOException)
+        {
+            throw new MateException((IOException) mate);
+        }
+        if (mate instanceof RuntimeException)
+        {
+            throw (RuntimeException) mate;
+        }
+        return (Fastq) mate;
+    }
+
+    private static void put(final BlockingQueue<Object> queue, final Object o)
+    {
+        try
+        {
+            queue.put(o);
+        }
+        catch (InterruptedException e)
+        {
+            throw new Interrupted();
+        }
+    }
+
+    private static Object take(final BlockingQueue<Object> queue)
+    {
+        try
+        {
+            return queue.take();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new MateException(new IOException("interrupted while waiting for second input"));
+        }
+    }
+
+    /**
+     * Return an input supplier for the specified file.
+     */
+    private static InputSupplier<InputStreamReader> fileSupplier(final File file)
+    {
+        return new InputSupplier<InputStreamReader>()
+            {
+                /** {@inheritDoc} */
+                public InputStreamReader getInput() throws IOException
+                {
+                    return new InputStreamReader(new InputStreamProvider().getInputStream(file), US_ASCII);
+                }
+            };
+    }
+
+    /**
+     * Return an input supplier for the specified byte range of the specified file.
+     */
+    private static InputSupplier<InputStreamReader> rangeSupplier(final File file, final long start, final long end)
+    {
+        return new InputSupplier<InputStreamReader>()
+            {
+                /** {@inheritDoc} */
+                public InputStreamReader getInput() throws IOException
+                {
+                    FileInputStream inputStream = new FileInputStream(file);
+                    inputStream.getChannel().position(start);
+                    return new InputStreamReader(new RangeInputStream(inputStream, end - start), US_ASCII);
+                }
+            };
+    }
+
+
+    /**
+     * Chunk of paired-end input, a byte range of one interleaved file or corresponding
+     * byte ranges of a pair of files.
+     */
+    public static final class Chunk
+    {
+        /** File containing the first mates. */
+        private final File first;
+
+        /** Start offset in the first file, inclusive. */
+        private final long firstStart;
+
+        /** End offset in the first file, exclusive. */
+        private final long firstEnd;
+
+        /** File containing the second mates, null if interleaved. */
+        private final File second;
+
+        /** Start offset in the second file, inclusive. */
+        private final long secondStart;
+
+        /** End offset in the second file, exclusive. */
+        private final long secondEnd;
+
+        /** Number of pairs in this chunk. */
+        private final long pairCount;
+
+
+        /**
+         * Create a new chunk.
+         */
+        Chunk(final File first, final long firstStart, final long firstEnd,
+              final File second, final long secondStart, final long secondEnd, final long pairCount)
+        {
+            this.first = first;
+            this.firstStart = firstStart;
+            this.firstEnd = firstEnd;
+            this.second = second;
+            this.secondStart = secondStart;
+            this.secondEnd = secondEnd;
+            this.pairCount = pairCount;
+        }
+
+
+        /**
+         * Return true if this chunk is a byte range of an interleaved file.
+         *
+         * @return true if this chunk is a byte range of an interleaved file
+         */
+        public boolean isInterleaved()
+        {
+            return second == null;
+        }
+
+        /**
+         * Return the file containing the first mates, or the interleaved file.
+         *
+         * @return the file containing the first mates, or the interleaved file
+         */
+        public File getFirst()
+        {
+            return first;
+        }
+
+        /**
+         * Return the start offset in the first file, inclusive.
+         *
+         * @return the start offset in the first file, inclusive
+         */
+        public long getFirstStart()
+        {
+            return firstStart;
+        }
+
+        /**
+         * Return the end offset in the first file, exclusive.
+         *
+         * @return the end offset in the first file, exclusive
+         */
+        public long getFirstEnd()
+        {
+            return firstEnd;
+        }
+
+        /**
+         * Return the file containing the second mates, or null if this chunk is interleaved.
+         *
+         * @return the file containing the second mates, or null if this chunk is interleaved
+         */
+        public File getSecond()
+        {
+            return second;
+        }
+
+        /**
+         * Return the start offset in the second file, inclusive.
+         *
+         * @return the start offset in the second file, inclusive
+         */
+        public long getSecondStart()
+        {
+            return secondStart;
+        }
+
+        /**
+         * Return the end offset in the second file, exclusive.
+         *
+         * @return the end offset in the second file, exclusive
+         */
+        public long getSecondEnd()
+        {
+            return secondEnd;
+        }
+
+        /**
+         * Return the number of pairs in this chunk.
+         *
+         * @return the number of pairs in this chunk
+         */
+        public long getPairCount()
+        {
+            return pairCount;
+        }
+    }
+
+    /**
+     * Scanner over the four line reads of an uncompressed FASTQ file, tracking byte offsets.
+     */
+    private static final class ReadScanner
+    {
+        /** Input stream. */
+        private final InputStream inputStream;
+
+        /** Read buffer. */
+        private final byte[] buffer = new byte[65536];
+
+        /** Number of valid bytes in the buffer. */
+        private int limit = 0;
+
+        /** Position in the buffer. */
+        private int position = 0;
+
+        /** Byte offset in the file of the buffer start. */
+        private long bufferOffset = 0L;
+
+
+        /**
+         * Create a new scanner for the specified file.
+         */
+        ReadScanner(final File file) throws IOException
+        {
+            inputStream = new FileInputStream(file);
+            if (fill() && (limit >= 2) && ((buffer[0] & 0xff) == 0x1f) && ((buffer[1] & 0xff) == 0x8b))
+            {
+                close();
+                throw new IOException("can not split compressed file " + file);
+            }
+        }
+
+
+        /**
+         * Return the byte offset after the last read scanned.
+         */
+        long getOffset()
+        {
+            return bufferOffset + position;
+        }
+
+        /**
+         * Skip over the next read.
+         *
+         * @return false if there are no more reads
+         */
+        boolean nextRead() throws IOException
+        {
+            int lines = 0;
+            boolean lineStart = true;
+            while (lines < 4)
+            {
+                if (position == limit && !fill())
+                {
+                    if (lines == 0 && lineStart)
+                    {
+                        return false;
+                    }
+                    if (lines < 3)
+                    {
+                        throw new IOException("truncated read at offset " + getOffset());
+                    }
+                    // last line without line terminator
+                    return true;
+                }
+                byte b = buffer[position++];
+                if (lineStart)
+                {
+                    if ((lines == 0 && b != '@') || (lines == 2 && b != '+'))
+                    {
+                        throw new IOException("reads must span four lines to be split, at offset " + (getOffset() - 1));
+                    }
+                    lineStart = false;
+                }
+                if (b == '\n')
+                {
+                    lines++;
+                    lineStart = true;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Refill the buffer.
+         *
+         * @return false at the end of the file
+         */
+        private boolean fill() throws IOException
+        {
+            bufferOffset += limit;
+            position = 0;
+            limit = 0;
+            int n = inputStream.read(buffer);
+            if (n <= 0)
+            {
+                return false;
+            }
+            limit = n;
+            return true;
+        }
+
+        /**
+         * Close this scanner.
+         */
+        void close() throws IOException
+        {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Input stream limited to a number of bytes.
+     */
+    private static final class RangeInputStream extends FilterInputStream
+    {
+        /** Number of bytes left. */
+        private long remaining;
+
+
+        /**
+         * Create a new input stream reading at most the specified number of bytes.
+         */
+        RangeInputStream(final InputStream inputStream, final long length)
+        {
+            super(inputStream);
+            this.remaining = length;
+        }
+
+
+        /** {@inheritDoc} */
+        public int read() throws IOException
+        {
+            if (remaining <= 0L)
+            {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0)
+            {
+                remaining--;
+            }
+            return b;
+        }
+
+        /** {@inheritDoc} */
+        public int read(final byte[] b, final int off, final int len) throws IOException
+        {
+            if (remaining <= 0L)
+            {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0)
+            {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        /** {@inheritDoc} */
+        public long skip(final long n) throws IOException
+        {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        /** {@inheritDoc} */
+        public int available() throws IOException
+        {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        /** {@inheritDoc} */
+        public boolean markSupported()
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Unchecked wrapper to pass I/O errors out of stream listeners.
+     */
+    private static final class MateException extends RuntimeException
+    {
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Create a new wrapper for the specified I/O error.
+         */
+        MateException(final IOException cause)
+        {
+            super(cause);
+        }
+
+        /** {@inheritDoc} */
+        public IOException getCause()
+        {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * Stops the background parser when the reader of the first mates has given up.
+     */
+    private static final class Interrupted extends RuntimeException
+    {
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+    }
+}
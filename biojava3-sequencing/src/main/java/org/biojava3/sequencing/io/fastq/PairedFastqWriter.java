@@ -0,0 +1,188 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer for paired-end FASTQ formatted sequences, either to two files (read 1
+ * and read 2) or interleaved into a single file.
+ *
+ * @since 3.0.6
+ */
+public final class PairedFastqWriter
+{
+    /** Writer for the mates. */
+    private final FastqWriter writer;
+
+
+    /**
+     * Create a new paired-end writer writing the mates with the specified writer.
+     *
+     * @param writer writer for the mates, e.g. a {@link SangerFastqWriter}, must not be null
+     */
+    public PairedFastqWriter(final FastqWriter writer)
+    {
+        if (writer == null)
+        {
+            throw new IllegalArgumentException("writer must not be null");
+        }
+        this.writer = writer;
+    }
+
+
+    /**
+     * Append the specified pairs, the first mates to the first appendable and the second mates
+     * to the second appendable.
+     *
+     * @param first appendable for the first mates, read 1, must not be null
+     * @param second appendable for the second mates, read 2, must not be null
+     * @param pairs pairs of mate FASTQ formatted sequences, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void append(final Appendable first, final Appendable second, final Iterable<FastqPair> pairs) throws IOException
+    {
+        if (first == null)
+        {
+            throw new IllegalArgumentException("first must not be null");
+        }
+        if (second == null)
+        {
+            throw new IllegalArgumentException("second must not be null");
+        }
+        if (pairs == null)
+        {
+            throw new IllegalArgumentException("pairs must not be null");
+        }
+        for (FastqPair pair : pairs)
+        {
+            writer.append(first, pair.getFirst());
+            writer.append(second, pair.getSecond());
+        }
+    }
+
+    /**
+     * Append the specified pairs interleaved, each first mate directly followed by its second mate.
+     *
+     * @param <T> extends Appendable
+     * @param appendable appendable to append to, must not be null
+     * @param pairs pairs of mate FASTQ formatted sequences, must not be null
+     * @return the specified appendable with the pairs appended
+     * @throws IOException if an I/O error occurs
+     */
+    public <T extends Appendable> T appendInterleaved(final T appendable, final Iterable<FastqPair> pairs) throws IOException
+    {
+        if (appendable == null)
+        {
+            throw new IllegalArgumentException("appendable must not be null");
+        }
+        if (pairs == null)
+        {
+            throw new IllegalArgumentException("pairs must not be null");
+        }
+        for (FastqPair pair : pairs)
+        {
+            writer.append(appendable, pair.getFirst(), pair.getSecond());
+        }
+        return appendable;
+    }
+
+    /**
+     * Write the specified pairs, the first mates to the first file and the second mates to the
+     * second file.  Files with names ending in <code>.gz</code> are compressed in parallel in
+     * blocked gzip (BGZF) format.
+     *
+     * @param first file for the first mates, read 1, must not be null
+     * @param second file for the second mates, read 2, must not be null
+     * @param pairs pairs of mate FASTQ formatted sequences, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final File first, final File second, final Iterable<FastqPair> pairs) throws IOException
+    {
+        if (first == null)
+        {
+            throw new IllegalArgumentException("first must not be null");
+        }
+        if (second == null)
+        {
+            throw new IllegalArgumentException("second must not be null");
+        }
+        if (pairs == null)
+        {
+            throw new IllegalArgumentException("pairs must not be null");
+        }
+        Writer firstWriter = null;
+        Writer secondWriter = null;
+        boolean appended = false;
+        try
+        {
+            firstWriter = AbstractFastqWriter.openWriter(first);
+            secondWriter = AbstractFastqWriter.openWriter(second);
+            append(firstWriter, secondWriter, pairs);
+            appended = true;
+        }
+        finally
+        {
+            try
+            {
+                AbstractFastqWriter.close(firstWriter, appended);
+            }
+            finally
+            {
+                AbstractFastqWriter.close(secondWriter, appended);
+            }
+        }
+    }
+
+    /**
+     * Write the specified pairs interleaved to the specified file.  Files with names ending in
+     * <code>.gz</code> are compressed in parallel in blocked gzip (BGZF) format.
+     *
+     * @param file file to write to, must not be null
+     * @param pairs pairs of mate FASTQ formatted sequences, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeInterleaved(final File file, final Iterable<FastqPair> pairs) throws IOException
+    {
+        if (file == null)
+        {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        if (pairs == null)
+        {
+            throw new IllegalArgumentException("pairs must not be null");
+        }
+        Writer fileWriter = null;
+        boolean appended = false;
+        try
+        {
+            fileWriter = AbstractFastqWriter.openWriter(file);
+            appendInterleaved(fileWriter, pairs);
+            appended = true;
+        }
+        finally
+        {
+            AbstractFastqWriter.close(fileWriter, appended);
+        }
+    }
+}
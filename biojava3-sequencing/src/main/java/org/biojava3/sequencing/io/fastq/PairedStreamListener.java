@@ -0,0 +1,36 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+/**
+ * Event based paired-end reader callback.
+ *
+ * @since 3.0.6
+ */
+public interface PairedStreamListener
+{
+    /**
+     * Notify this listener of a pair of mate FASTQ formatted sequences.
+     *
+     * @param pair pair of mate FASTQ formatted sequences
+     */
+    void fastqPair(FastqPair pair);
+}
@@ -0,0 +1,106 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for FastqQualityDecoder.
+ */
+public final class FastqQualityDecoderTest
+    extends TestCase
+{
+
+    public void testForVariant()
+    {
+        for (FastqVariant variant : FastqVariant.values())
+        {
+            FastqQualityDecoder decoder = FastqQualityDecoder.forVariant(variant);
+            assertNotNull(decoder);
+            assertSame(variant, decoder.getVariant());
+            assertSame(decoder, FastqQualityDecoder.forVariant(variant));
+        }
+    }
+
+    public void testForVariantNullVariant()
+    {
+        try
+        {
+            FastqQualityDecoder.forVariant(null);
+            fail("forVariant(null) expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    public void testMatchesVariant()
+    {
+        for (FastqVariant variant : FastqVariant.values())
+        {
+            FastqQualityDecoder decoder = FastqQualityDecoder.forVariant(variant);
+            for (char c = '!'; c <= '~'; c++)
+            {
+                assertEquals(variant.qualityScore(c), decoder.qualityScore(c));
+                assertEquals(variant.errorProbability(c), decoder.errorProbability(c), 0.0d);
+            }
+        }
+    }
+
+    public void testQualityScoresReusedBuffer()
+    {
+        FastqQualityDecoder decoder = FastqQualityDecoder.forVariant(FastqVariant.FASTQ_SANGER);
+        byte[] bytes = new byte[8];
+        int[] ints = new int[8];
+        assertEquals(4, decoder.qualityScores("!+5?", bytes));
+        assertEquals(4, decoder.qualityScores("!+5?", ints));
+        assertEquals(0, bytes[0]);
+        assertEquals(30, bytes[3]);
+        assertEquals(10, ints[1]);
+        assertEquals(20, ints[2]);
+
+        assertEquals(2, decoder.qualityScores("5!", ints));
+        assertEquals(20, ints[0]);
+        assertEquals(0, ints[1]);
+    }
+
+    public void testQualityScoresBufferTooShort()
+    {
+        try
+        {
+            FastqQualityDecoder.forVariant(FastqVariant.FASTQ_SANGER).qualityScores("!!!", new int[2]);
+            fail("qualityScores with short buffer expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    public void testErrorProbabilities()
+    {
+        double[] errorProbabilities = new double[4];
+        assertEquals(2, FastqQualityDecoder.forVariant(FastqVariant.FASTQ_SANGER).errorProbabilities("+5", errorProbabilities));
+        assertEquals(0.1d, errorProbabilities[0], 1.0e-9d);
+        assertEquals(0.01d, errorProbabilities[1], 1.0e-9d);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for FastqQualityStatistics.
+ */
+public final class FastqQualityStatisticsTest
+    extends TestCase
+{
+
+    public void testConstructorNullVariant()
+    {
+        try
+        {
+            new FastqQualityStatistics(null);
+            fail("ctr(null) expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    public void testEmpty()
+    {
+        FastqQualityStatistics statistics = new FastqQualityStatistics(FastqVariant.FASTQ_SANGER);
+        assertEquals(0L, statistics.getReadCount());
+        assertEquals(0L, statistics.getBaseCount());
+        assertEquals(0, statistics.getMaximumLength());
+        assertTrue(Double.isNaN(statistics.getMeanQualityScore()));
+        assertTrue(Double.isNaN(statistics.getQualityScoreQuantile(0.5d)));
+    }
+
+    public void testStatistics()
+    {
+        FastqQualityStatistics statistics = new FastqQualityStatistics(FastqVariant.FASTQ_SANGER);
+        // quality scores 10, 20, 30 and 30, 30
+        statistics.fastq(new FastqBuilder().withDescription("a").withSequence("ACG").withQuality("+5?").build());
+        statistics.fastq(new FastqBuilder().withDescription("b").withSequence("AC").withQuality("??").build());
+
+        assertEquals(2L, statistics.getReadCount());
+        assertEquals(5L, statistics.getBaseCount());
+        assertEquals(3, statistics.getMaximumLength());
+        assertEquals(2L, statistics.getBaseCount(0));
+        assertEquals(1L, statistics.getBaseCount(2));
+
+        assertEquals(24.0d, statistics.getMeanQualityScore(), 1.0e-9d);
+        assertEquals(20.0d, statistics.getMeanQualityScore(0), 1.0e-9d);
+        assertEquals(30.0d, statistics.getMeanQualityScore(2), 1.0e-9d);
+
+        assertEquals(10.0d, statistics.getQualityScoreQuantile(0.0d), 0.0d);
+        assertEquals(30.0d, statistics.getQualityScoreQuantile(0.5d), 0.0d);
+        assertEquals(30.0d, statistics.getQualityScoreQuantile(1.0d), 0.0d);
+        assertEquals(10.0d, statistics.getQualityScoreQuantile(0, 0.5d), 0.0d);
+
+        long[] histogram = statistics.getQualityScoreHistogram();
+        assertEquals(FastqVariant.FASTQ_SANGER.maximumQualityScore() + 1, histogram.length);
+        assertEquals(1L, histogram[10]);
+        assertEquals(3L, histogram[30]);
+
+        long[] readMeans = statistics.getReadMeanQualityScoreHistogram();
+        assertEquals(1L, readMeans[20]);
+        assertEquals(1L, readMeans[30]);
+    }
+
+    public void testMerge()
+    {
+        FastqQualityStatistics first = new FastqQualityStatistics(FastqVariant.FASTQ_SANGER);
+        FastqQualityStatistics second = new FastqQualityStatistics(FastqVariant.FASTQ_SANGER);
+        FastqQualityStatistics all = new FastqQualityStatistics(FastqVariant.FASTQ_SANGER);
+        first.add("+5?");
+        all.add("+5?");
+        second.add("?????");
+        all.add("?????");
+
+        first.merge(second);
+        assertEquals(all.getReadCount(), first.getReadCount());
+        assertEquals(all.getBaseCount(), first.getBaseCount());
+        assertEquals(all.getMaximumLength(), first.getMaximumLength());
+        for (int i = 0; i < all.getMaximumLength(); i++)
+        {
+            assertEquals(all.getMeanQualityScore(i), first.getMeanQualityScore(i), 1.0e-9d);
+        }
+        assertEquals(all.getMeanQualityScore(), first.getMeanQualityScore(), 1.0e-9d);
+    }
+
+    public void testMergeDifferentVariant()
+    {
+        try
+        {
+            new FastqQualityStatistics(FastqVariant.FASTQ_SANGER).merge(new FastqQualityStatistics(FastqVariant.FASTQ_ILLUMINA));
+            fail("merge of different variants expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    public void testPositionOutOfBounds()
+    {
+        FastqQualityStatistics statistics = new FastqQualityStatistics(FastqVariant.FASTQ_SANGER);
+        statistics.add("!!");
+        try
+        {
+            statistics.getMeanQualityScore(2);
+            fail("getMeanQualityScore(2) expected IndexOutOfBoundsException");
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.io.InputSupplier;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for PairedFastqReader.
+ */
+public final class PairedFastqReaderTest
+    extends TestCase
+{
+
+    private static String reads(final int count, final int mate)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++)
+        {
+            sb.append("@read").append(i).append("/").append(mate).append("\n");
+            sb.append("ACGTACGT\n+\nIIIIIIII\n");
+        }
+        return sb.toString();
+    }
+
+    private static String interleaved(final int count)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++)
+        {
+            sb.append("@read").append(i).append(" 1:N:0\nACGT\n+\nIIII\n");
+            sb.append("@read").append(i).append(" 2:N:0\nTTGCA\n+\nIIIII\n");
+        }
+        return sb.toString();
+    }
+
+    private static InputSupplier<StringReader> supplier(final String input)
+    {
+        return new InputSupplier<StringReader>()
+            {
+                /** {@inheritDoc} */
+                public StringReader getInput() throws IOException
+                {
+                    return new StringReader(input);
+                }
+            };
+    }
+
+    private static File file(final String input) throws IOException
+    {
+        File file = File.createTempFile("PairedFastqReaderTest", ".fastq");
+        file.deleteOnExit();
+        Writer writer = new FileWriter(file);
+        writer.write(input);
+        writer.close();
+        return file;
+    }
+
+    private static final class Collect implements PairedStreamListener
+    {
+        private final List<FastqPair> pairs = new ArrayList<FastqPair>();
+
+        /** {@inheritDoc} */
+        public void fastqPair(final FastqPair pair)
+        {
+            pairs.add(pair);
+        }
+    }
+
+    public void testConstructor()
+    {
+        assertNotNull(new PairedFastqReader(FastqVariant.FASTQ_SANGER));
+    }
+
+    public void testConstructorNullVariant()
+    {
+        try
+        {
+            new PairedFastqReader(null);
+            fail("ctr(null) expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    public void testIsMate()
+    {
+        assertTrue(FastqPair.isMate("read1/1", "read1/2"));
+        assertTrue(FastqPair.isMate("read1 1:N:0:ACGT", "read1 2:N:0:ACGT"));
+        assertTrue(FastqPair.isMate("read1", "read1"));
+        assertFalse(FastqPair.isMate("read1/1", "read2/2"));
+        assertFalse(FastqPair.isMate("read1", "read12"));
+    }
+
+    public void testStream() throws Exception
+    {
+        Collect collect = new Collect();
+        new PairedFastqReader(FastqVariant.FASTQ_SANGER, 2, true).stream(supplier(reads(10, 1)), supplier(reads(10, 2)), collect);
+        assertEquals(10, collect.pairs.size());
+        for (int i = 0; i < 10; i++)
+        {
+            assertEquals("read" + i + "/1", collect.pairs.get(i).getFirst().getDescription());
+            assertEquals("read" + i + "/2", collect.pairs.get(i).getSecond().getDescription());
+        }
+    }
+
+    public void testStreamFewerSecondReads() throws Exception
+    {
+        try
+        {
+            new PairedFastqReader(FastqVariant.FASTQ_SANGER).stream(supplier(reads(3, 1)), supplier(reads(2, 2)), new Collect());
+            fail("stream with fewer second reads expected IOException");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+
+    public void testStreamMoreSecondReads() throws Exception
+    {
+        try
+        {
+            new PairedFastqReader(FastqVariant.FASTQ_SANGER).stream(supplier(reads(2, 1)), supplier(reads(3, 2)), new Collect());
+            fail("stream with more second reads expected IOException");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+
+    public void testStreamMateNamesDoNotMatch() throws Exception
+    {
+        String second = reads(2, 2).replace("read1", "other1");
+        try
+        {
+            new PairedFastqReader(FastqVariant.FASTQ_SANGER).stream(supplier(reads(2, 1)), supplier(second), new Collect());
+            fail("stream with mismatched mate names expected IOException");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+
+        Collect collect = new Collect();
+        new PairedFastqReader(FastqVariant.FASTQ_SANGER, 16, false).stream(supplier(reads(2, 1)), supplier(second), collect);
+        assertEquals(2, collect.pairs.size());
+    }
+
+    public void testStreamInterleaved() throws Exception
+    {
+        Collect collect = new Collect();
+        new PairedFastqReader(FastqVariant.FASTQ_SANGER).streamInterleaved(supplier(interleaved(5)), collect);
+        assertEquals(5, collect.pairs.size());
+        assertEquals("TTGCA", collect.pairs.get(4).getSecond().getSequence());
+    }
+
+    public void testStreamInterleavedOddReads() throws Exception
+    {
+        try
+        {
+            new PairedFastqReader(FastqVariant.FASTQ_SANGER).streamInterleaved(supplier(interleaved(2) + reads(1, 1)), new Collect());
+            fail("streamInterleaved with odd number of reads expected IOException");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+
+    public void testSplit() throws Exception
+    {
+        PairedFastqReader reader = new PairedFastqReader(FastqVariant.FASTQ_SANGER);
+        File first = file(reads(1000, 1));
+        File second = file(reads(1000, 2));
+        List<PairedFastqReader.Chunk> chunks = reader.split(first, second, 4);
+        assertEquals(4, chunks.size());
+
+        long pairs = 0L;
+        long previous = 0L;
+        Collect collect = new Collect();
+        for (PairedFastqReader.Chunk chunk : chunks)
+        {
+            assertFalse(chunk.isInterleaved());
+            assertEquals(previous, chunk.getFirstStart());
+            previous = chunk.getFirstEnd();
+            pairs += chunk.getPairCount();
+            int before = collect.pairs.size();
+            reader.stream(chunk, collect);
+            assertEquals(chunk.getPairCount(), collect.pairs.size() - before);
+        }
+        assertEquals(first.length(), previous);
+        assertEquals(1000L, pairs);
+        assertEquals(1000, collect.pairs.size());
+        assertEquals("read999/2", collect.pairs.get(999).getSecond().getDescription());
+    }
+
+    public void testSplitInterleaved() throws Exception
+    {
+        PairedFastqReader reader = new PairedFastqReader(FastqVariant.FASTQ_SANGER);
+        File file = file(interleaved(101));
+        List<PairedFastqReader.Chunk> chunks = reader.splitInterleaved(file, 3);
+        assertEquals(3, chunks.size());
+        Collect collect = new Collect();
+        for (PairedFastqReader.Chunk chunk : chunks)
+        {
+            assertTrue(chunk.isInterleaved());
+            reader.stream(chunk, collect);
+        }
+        assertEquals(101, collect.pairs.size());
+    }
+
+    public void testSplitSmallFile() throws Exception
+    {
+        PairedFastqReader reader = new PairedFastqReader(FastqVariant.FASTQ_SANGER);
+        List<PairedFastqReader.Chunk> chunks = reader.split(file(reads(2, 1)), file(reads(2, 2)), 8);
+        assertTrue(chunks.size() <= 2);
+        long pairs = 0L;
+        for (PairedFastqReader.Chunk chunk : chunks)
+        {
+            pairs += chunk.getPairCount();
+        }
+        assertEquals(2L, pairs);
+    }
+
+    public void testSplitDifferentReadCounts() throws Exception
+    {
+        try
+        {
+            new PairedFastqReader(FastqVariant.FASTQ_SANGER).split(file(reads(4, 1)), file(reads(3, 2)), 2);
+            fail("split with different read counts expected IOException");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.sequencing.io.fastq;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for PairedFastqWriter.
+ */
+public final class PairedFastqWriterTest
+    extends TestCase
+{
+    private final List<FastqPair> pairs = Arrays.asList(
+        new FastqPair(new FastqBuilder().withDescription("a/1").withSequence("ACGT").withQuality("IIII").build(),
+                      new FastqBuilder().withDescription("a/2").withSequence("TT").withQuality("II").build()));
+
+    public void testConstructorNullWriter()
+    {
+        try
+        {
+            new PairedFastqWriter(null);
+            fail("ctr(null) expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    public void testAppend() throws Exception
+    {
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        new PairedFastqWriter(new SangerFastqWriter()).append(first, second, pairs);
+        assertEquals("@a/1\nACGT\n+\nIIII\n", first.toString());
+        assertEquals("@a/2\nTT\n+\nII\n", second.toString());
+    }
+
+    public void testAppendInterleaved() throws Exception
+    {
+        StringBuilder sb = new PairedFastqWriter(new SangerFastqWriter()).appendInterleaved(new StringBuilder(), pairs);
+        assertEquals("@a/1\nACGT\n+\nIIII\n@a/2\nTT\n+\nII\n", sb.toString());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package demo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.align.StructureAlignment;
+import org.biojava.bio.structure.align.StructureAlignmentFactory;
+import org.biojava.bio.structure.align.ce.CeMain;
+import org.biojava.bio.structure.align.fatcat.FatCatFlexible;
+import org.biojava.bio.structure.align.fatcat.FatCatRigid;
+import org.biojava.bio.structure.align.model.AFPChain;
+import org.biojava.bio.structure.align.util.AtomCache;
+
+
+/** Measures how many bytes the structure alignment algorithms allocate per alignment.
+ * 
+ * A database search runs millions of pairwise alignments, so the allocation rate 
+ * directly limits the throughput. This demo repeats the same alignment with one 
+ * algorithm instance (as each thread of a database search does) and reports the 
+ * allocated bytes and the time of the last repetitions.
+ * 
+ * The allocated bytes are only available on JVMs that provide com.sun.management.ThreadMXBean.
+ * 
+ * @since 3.0.6
+ */
+public class DemoAlignmentAllocation {
+
+	public static void main(String[] args){
+
+		String name1 = "4hhb.A";
+		String name2 = "4hhb.B";
+		int iterations = 30;
+
+		if ( args.length >= 2) {
+			name1 = args[0];
+			name2 = args[1];
+		}
+		if ( args.length >= 3)
+			iterations = Integer.parseInt(args[2]);
+
+		AtomCache cache = new AtomCache();
+
+		try {
+			Structure structure1 = cache.getStructure(name1);
+			Structure structure2 = cache.getStructure(name2);
+
+			Atom[] ca1 = StructureTools.getAtomCAArray(structure1);
+			Atom[] ca2 = StructureTools.getAtomCAArray(structure2);
+
+			String[] algorithmNames = new String[]{CeMain.algorithmName, FatCatRigid.algorithmName, FatCatFlexible.algorithmName};
+
+			for (String algorithmName : algorithmNames){
+				StructureAlignment algorithm = StructureAlignmentFactory.getAlgorithm(algorithmName);
+				measure(algorithm, ca1, ca2, iterations);
+			}
+		} catch (Exception e){
+			e.printStackTrace();
+		}
+	}
+
+	private static void measure(StructureAlignment algorithm, Atom[] ca1, Atom[] ca2, int iterations) throws Exception {
+
+		// the first half of the iterations warms up the JIT
+		int warmup = iterations / 2;
+
+		long bytes = 0;
+		long time  = 0;
+		AFPChain afpChain = null;
+		for ( int i = 0 ; i < iterations ; i++){
+			long bytesStart = getAllocatedBytes();
+			long timeStart  = System.nanoTime();
+
+			afpChain = algorithm.align(ca1, ca2);
+
+			long timeEnd  = System.nanoTime();
+			long bytesEnd = getAllocatedBytes();
+
+			if ( i >= warmup) {
+				if ( bytesStart < 0 || bytes < 0)
+					bytes = -1;
+				else
+					bytes += bytesEnd - bytesStart;
+				time  += timeEnd - timeStart;
+			}
+		}
+
+		int measured = iterations - warmup;
+
+		String kb = "n/a";
+		if ( bytes >= 0)
+			kb = String.valueOf(bytes / measured / 1024);
+
+		System.out.println(String.format("%-18s rmsd %.2f length %3d score %.2f : %8s KB/alignment %8.1f ms/alignment", 
+				algorithm.getAlgorithmName(), afpChain.getTotalRmsdOpt(), afpChain.getOptLength(), afpChain.getAlignScore(),
+				kb, time / measured / 1000000.0));
+	}
+
+	/** returns the number of bytes allocated so far by the current thread, or a negative number
+	 * if the JVM does not support this measurement.
+	 */
+	private static long getAllocatedBytes(){
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if ( bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package demo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+import org.biojava.bio.structure.Calc;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.align.util.AtomCache;
+import org.biojava.bio.structure.jama.Matrix;
+
+
+/** Compares rotating and shifting atoms one Atom at a time with the bulk transformations 
+ * in {@link Calc} that work on packed x,y,z arrays.
+ * 
+ * Every variant applies the same rotation and shift to all atoms of a structure, repeatedly. 
+ * The first half of the iterations warms up the JIT, for the second half the time and 
+ * allocated bytes per atom are reported.
+ * 
+ * The allocated bytes are only available on JVMs that provide com.sun.management.ThreadMXBean.
+ * 
+ * @since 3.0.6
+ */
+public class DemoCalcTransform {
+
+	public static void main(String[] args){
+
+		String name = "4hhb";
+		int iterations = 200;
+
+		if ( args.length >= 1)
+			name = args[0];
+		if ( args.length >= 2)
+			iterations = Integer.parseInt(args[1]);
+
+		AtomCache cache = new AtomCache();
+
+		try {
+			Structure structure = cache.getStructure(name);
+			benchmark(StructureTools.getAllAtomArray(structure), iterations);
+		} catch (Exception e){
+			e.printStackTrace();
+		}
+	}
+
+	/** Runs all variants on the given atoms. The coordinates of the atoms are modified.
+	 * 
+	 * @param atoms the atoms to transform
+	 * @param iterations the number of repetitions of each variant
+	 */
+	public static void benchmark(final Atom[] atoms, int iterations){
+
+		final Matrix rotation = Calc.matrixFromEuler(30, 20, 10);
+		final Atom shift = new AtomImpl();
+		shift.setCoords(new double[]{1.5, -2.5, 3.0});
+		final double[] transformation = Calc.getTransformation(rotation, shift);
+		final double[] xyz = Calc.getCoordinates(atoms);
+		final float[] xyzf = new float[xyz.length];
+		for ( int i = 0 ; i < xyz.length ; i++)
+			xyzf[i] = (float) xyz[i];
+
+		System.out.println(atoms.length + " atoms, " + iterations + " iterations");
+
+		measure("Jama Matrix per Atom", atoms.length, iterations, new Runnable(){
+			public void run() {
+				// how Calc.rotate(Atom, Matrix) and Calc.shift(Atom, Atom) used to work
+				for ( Atom a : atoms){
+					Matrix am = new Matrix(new double[][]{{a.getX(), a.getY(), a.getZ()}});
+					Matrix na = am.times(rotation);
+					a.setX(na.get(0,0));
+					a.setY(na.get(0,1));
+					a.setZ(na.get(0,2));
+					Atom n = Calc.add(a, shift);
+					a.setX(n.getX());
+					a.setY(n.getY());
+					a.setZ(n.getZ());
+				}
+			}
+		});
+
+		measure("Calc.rotate per Atom", atoms.length, iterations, new Runnable(){
+			public void run() {
+				for ( Atom a : atoms){
+					Calc.rotate(a, rotation);
+					Calc.shift(a, shift);
+				}
+			}
+		});
+
+		measure("Calc.transform(Atom[])", atoms.length, iterations, new Runnable(){
+			public void run() {
+				Calc.transform(atoms, transformation);
+			}
+		});
+
+		measure("Calc.transform(double[])", atoms.length, iterations, new Runnable(){
+			public void run() {
+				Calc.transform(xyz, transformation);
+			}
+		});
+
+		measure("Calc.transform(float[])", atoms.length, iterations, new Runnable(){
+			public void run() {
+				Calc.transform(xyzf, transformation);
+			}
+		});
+
+		measure("Calc.getCentroid(Atom[])", atoms.length, iterations, new Runnable(){
+			public void run() {
+				Calc.getCentroid(atoms);
+			}
+		});
+
+		measure("Calc.getCentroid(double[])", atoms.length, iterations, new Runnable(){
+			public void run() {
+				Calc.getCentroid(xyz);
+			}
+		});
+	}
+
+	private static void measure(String label, int atomCount, int iterations, Runnable task){
+
+		// the first half of the iterations warms up the JIT
+		int warmup = iterations / 2;
+
+		long bytes = 0;
+		long time  = 0;
+		for ( int i = 0 ; i < iterations ; i++){
+			long bytesStart = getAllocatedBytes();
+			long timeStart  = System.nanoTime();
+
+			task.run();
+
+			long timeEnd  = System.nanoTime();
+			long bytesEnd = getAllocatedBytes();
+
+			if ( i >= warmup) {
+				if ( bytesStart < 0 || bytes < 0)
+					bytes = -1;
+				else
+					bytes += bytesEnd - bytesStart;
+				time  += timeEnd - timeStart;
+			}
+		}
+
+		long measured = (long) (iterations - warmup) * atomCount;
+
+		String perAtom = "n/a";
+		if ( bytes >= 0)
+			perAtom = String.format("%.1f", bytes / (double) measured);
+
+		System.out.println(String.format("%-28s : %8.2f ns/atom %8s bytes/atom", 
+				label, time / (double) measured, perAtom));
+	}
+
+	/** returns the number of bytes allocated so far by the current thread, or a negative number
+	 * if the JVM does not support this measurement.
+	 */
+	private static long getAllocatedBytes(){
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if ( bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
@@ -24,6 +24,11 @@
 
 package org.biojava.bio.structure ;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.biojava.bio.structure.compact.CompactAtom;
+import org.biojava.bio.structure.compact.CompactAtomStore;
 import org.biojava.bio.structure.jama.Matrix;
 
 
@@ -386,11 +391,7 @@ public class Calc {
 		if ( m.length != 3 ) {
 			throw new StructureException ("matrix does not have size 3x3 !");
 		}
-		AtomIterator iter = new AtomIterator(structure) ;
-		while (iter.hasNext()) {
-			Atom atom = (Atom) iter.next() ;
-			Calc.rotate(atom,rotationmatrix);
-		}
+		transform(getAtoms(structure), getTransformation(rotationmatrix, null));
 			}
 
 	/** rotate a structure .
@@ -406,14 +407,7 @@ public class Calc {
 		if ( m.length != 3 ) {
 			throw new StructureException ("matrix does not have size 3x3 !");
 		}
-		AtomIterator iter = new AtomIterator(group) ;
-		while (iter.hasNext()) {
-			Atom atom = null ;
-
-			atom = (Atom) iter.next() ;
-			rotate(atom,rotationmatrix);
-
-		}
+		transform(getAtoms(group), getTransformation(rotationmatrix, null));
 			}
 
 	/** Rotate an atom around a Matrix object.
@@ -426,14 +420,12 @@ public class Calc {
 		double x = atom.getX();
 		double y = atom.getY() ;
 		double z = atom.getZ();
-		double[][] ad = new double[][]{{x,y,z}};
-
-		Matrix am = new Matrix(ad);
-		Matrix na = am.times(m);
 
-		atom.setX(na.get(0,0));
-		atom.setY(na.get(0,1));
-		atom.setZ(na.get(0,2));
+		// the atom is a row vector: (x y z) * m
+		double[][] r = m.getArray();
+		atom.setX(x * r[0][0] + y * r[1][0] + z * r[2][0]);
+		atom.setY(x * r[0][1] + y * r[1][1] + z * r[2][1]);
+		atom.setZ(x * r[0][2] + y * r[1][2] + z * r[2][2]);
 
 	}
 
@@ -444,13 +436,7 @@ public class Calc {
 	 */
 	public static final void rotate(Group group, Matrix m){
 
-		AtomIterator iter = new AtomIterator(group) ;
-
-		while (iter.hasNext()) {
-			Atom atom = (Atom) iter.next() ;
-			rotate(atom,m);
-
-		}
+		transform(getAtoms(group), getTransformation(m, null));
 
 	}
 
@@ -461,13 +447,7 @@ public class Calc {
 	 */
 	public static final void rotate(Structure structure, Matrix m){
 
-		AtomIterator iter = new AtomIterator(structure) ;
-
-		while (iter.hasNext()) {
-			Atom atom = (Atom) iter.next() ;
-			rotate(atom,m);
-
-		}
+		transform(getAtoms(structure), getTransformation(m, null));
 
 	}
 
@@ -477,45 +457,8 @@ public class Calc {
 	 * @param matrix a Matrix object
 	 */
 	public static final void plus(Structure s, Matrix matrix){
-		AtomIterator iter = new AtomIterator(s) ;
-		Atom oldAtom = null;
-		Atom rotOldAtom = null;
-		while (iter.hasNext()) {
-			Atom atom = null ;
-
-			atom = (Atom) iter.next() ;
-			try {
-				if ( oldAtom != null){
-					//System.out.println("before " +getDistance(oldAtom,atom));
-				}
-			} catch (Exception e){
-				e.printStackTrace();
-			}
-			oldAtom = (Atom)atom.clone();
-
-			double x = atom.getX();
-			double y = atom.getY() ;
-			double z = atom.getZ();
-			double[][] ad = new double[][]{{x,y,z}};
-
-			Matrix am = new Matrix(ad);
-			Matrix na = am.plus(matrix);
-
-			double[] coords = new double[3] ;
-			coords[0] = na.get(0,0);
-			coords[1] = na.get(0,1);
-			coords[2] = na.get(0,2);
-			atom.setCoords(coords);
-			try {
-				if ( rotOldAtom != null){
-					//System.out.println("after " + getDistance(rotOldAtom,atom));
-				}
-			} catch (Exception e){
-				e.printStackTrace();
-			}
-			rotOldAtom  = (Atom) atom.clone();
-		}
-
+		double[] transformation = getTransformation((double[][])null, new double[]{matrix.get(0,0), matrix.get(0,1), matrix.get(0,2)});
+		transform(getAtoms(s), transformation);
 	}
 
 
@@ -527,21 +470,7 @@ public class Calc {
 	 */
 	public static final void shift(Structure structure, Atom a ){
 
-		AtomIterator iter = new AtomIterator(structure) ;
-		while (iter.hasNext() ) {
-			Atom atom = null ;
-
-			atom = (Atom) iter.next()  ;	    
-
-			Atom natom = add(atom,a);	   
-			double x = natom.getX();
-			double y = natom.getY() ;
-			double z = natom.getZ();
-			atom.setX(x);
-			atom.setY(y);
-			atom.setZ(z);
-
-		}
+		transform(getAtoms(structure), getTransformation((Matrix)null, a));
 	}
 
 	/** Shift a vector.
@@ -551,13 +480,9 @@ public class Calc {
 	 */
 	public static final void shift(Atom a, Atom b){
 
-		Atom natom = add(a,b);      
-		double x = natom.getX();
-		double y = natom.getY() ;
-		double z = natom.getZ();
-		a.setX(x);
-		a.setY(y);
-		a.setZ(z);
+		a.setX(a.getX() + b.getX());
+		a.setY(a.getY() + b.getY());
+		a.setZ(a.getZ() + b.getZ());
 	}
 
 	/** Shift a Group with a vector.
@@ -567,21 +492,7 @@ public class Calc {
 	 */
 	public static final void shift(Group group , Atom a ){
 
-		AtomIterator iter = new AtomIterator(group) ;
-		while (iter.hasNext() ) {
-			Atom atom = null ;
-
-			atom = (Atom) iter.next()  ;     
-
-			Atom natom = add(atom,a);       
-			double x = natom.getX();
-			double y = natom.getY() ;
-			double z = natom.getZ();
-			atom.setX(x);
-			atom.setY(y);
-			atom.setZ(z);
-
-		}
+		transform(getAtoms(group), getTransformation((Matrix)null, a));
 	}
 
 
@@ -760,6 +671,312 @@ public class Calc {
 
 
 
+	/** Returns the coordinates of a set of atoms packed into one array of x,y,z triples.
+	 * 
+	 * @param atomSet a set of Atoms
+	 * @return a new array of length 3 * atomSet.length
+	 * @since 3.0.6
+	 */
+	public static final double[] getCoordinates(Atom[] atomSet){
+		return getCoordinates(atomSet, new double[3 * atomSet.length]);
+	}
+
+	/** Writes the coordinates of a set of atoms into an array of x,y,z triples.
+	 * If all atoms are held by one {@link CompactAtomStore}, the coordinates are read directly from its arrays.
+	 * 
+	 * @param atomSet a set of Atoms
+	 * @param xyz an array of length at least 3 * atomSet.length
+	 * @return xyz
+	 * @since 3.0.6
+	 */
+	public static final double[] getCoordinates(Atom[] atomSet, double[] xyz){
+		CompactAtomStore store = CompactAtomStore.getStore(atomSet);
+		if ( store != null) {
+			double[] xs = store.getXs();
+			double[] ys = store.getYs();
+			double[] zs = store.getZs();
+			for (int i = 0, j = 0; i < atomSet.length; i++){
+				int k = ((CompactAtom) atomSet[i]).getIndex();
+				xyz[j++] = xs[k];
+				xyz[j++] = ys[k];
+				xyz[j++] = zs[k];
+			}
+			return xyz;
+		}
+		for (int i = 0, j = 0; i < atomSet.length; i++){
+			Atom a = atomSet[i];
+			xyz[j++] = a.getX();
+			xyz[j++] = a.getY();
+			xyz[j++] = a.getZ();
+		}
+		return xyz;
+	}
+
+	/** Sets the coordinates of a set of atoms from an array of x,y,z triples.
+	 * 
+	 * @param atomSet a set of Atoms
+	 * @param xyz an array of length at least 3 * atomSet.length
+	 * @since 3.0.6
+	 */
+	public static final void setCoordinates(Atom[] atomSet, double[] xyz){
+		CompactAtomStore store = CompactAtomStore.getStore(atomSet);
+		if ( store != null) {
+			double[] xs = store.getXs();
+			double[] ys = store.getYs();
+			double[] zs = store.getZs();
+			for (int i = 0, j = 0; i < atomSet.length; i++){
+				int k = ((CompactAtom) atomSet[i]).getIndex();
+				xs[k] = xyz[j++];
+				ys[k] = xyz[j++];
+				zs[k] = xyz[j++];
+			}
+			return;
+		}
+		for (int i = 0, j = 0; i < atomSet.length; i++){
+			Atom a = atomSet[i];
+			a.setX(xyz[j++]);
+			a.setY(xyz[j++]);
+			a.setZ(xyz[j++]);
+		}
+	}
+
+	/** Returns the 3x4 affine transformation that rotates as {@link #rotate(Atom, Matrix)} and then shifts 
+	 * as {@link #shift(Atom, Atom)}. The transformation is stored row by row, so a point is transformed as
+	 * x' = t[0]*x + t[1]*y + t[2]*z + t[3], and so on for y' and z'.
+	 * 
+	 * @param rotation a 3x3 rotation matrix that is applied to row vectors, or null for no rotation
+	 * @param shift the shift vector, or null for no shift
+	 * @return an array of length 12
+	 * @since 3.0.6
+	 */
+	public static final double[] getTransformation(Matrix rotation, Atom shift){
+		double[][] r = null;
+		if ( rotation != null)
+			r = rotation.transpose().getArray();
+		double[] v = null;
+		if ( shift != null)
+			v = new double[]{shift.getX(), shift.getY(), shift.getZ()};
+		return getTransformation(r, v);
+	}
+
+	/** Returns the 3x4 affine transformation that rotates as {@link #rotate(Atom, double[][])} and then shifts.
+	 * See {@link #getTransformation(Matrix, Atom)} for the layout.
+	 * 
+	 * @param rotation a 3x3 rotation matrix that is applied to column vectors, or null for no rotation
+	 * @param shift the shift vector of length 3, or null for no shift
+	 * @return an array of length 12
+	 * @since 3.0.6
+	 */
+	public static final double[] getTransformation(double[][] rotation, double[] shift){
+		double[] t = new double[12];
+		for (int i = 0; i < 3; i++){
+			for (int j = 0; j < 3; j++){
+				if ( rotation != null)
+					t[4 * i + j] = rotation[i][j];
+				else
+					t[4 * i + j] = (i == j) ? 1 : 0;
+			}
+			if ( shift != null)
+				t[4 * i + 3] = shift[i];
+		}
+		return t;
+	}
+
+	/** Applies an affine transformation to an array of x,y,z triples, in place.
+	 * 
+	 * @param xyz the coordinates
+	 * @param transformation the transformation, see {@link #getTransformation(Matrix, Atom)}
+	 * @since 3.0.6
+	 */
+	public static final void transform(double[] xyz, double[] transformation){
+		transform(xyz, 0, xyz, 0, xyz.length / 3, transformation);
+	}
+
+	/** Applies an affine transformation to a range of x,y,z triples. Source and destination may be the same array.
+	 * 
+	 * @param src the coordinates to transform
+	 * @param srcPos the index of the first coordinate in src
+	 * @param dest the array for the transformed coordinates
+	 * @param destPos the index of the first coordinate in dest
+	 * @param length the number of points to transform
+	 * @param transformation the transformation, see {@link #getTransformation(Matrix, Atom)}
+	 * @since 3.0.6
+	 */
+	public static final void transform(double[] src, int srcPos, double[] dest, int destPos, int length, double[] transformation){
+		double m00 = transformation[0], m01 = transformation[1], m02 = transformation[2],  t0 = transformation[3];
+		double m10 = transformation[4], m11 = transformation[5], m12 = transformation[6],  t1 = transformation[7];
+		double m20 = transformation[8], m21 = transformation[9], m22 = transformation[10], t2 = transformation[11];
+
+		int end = srcPos + 3 * length;
+		for (int i = srcPos, j = destPos; i < end; i += 3, j += 3){
+			double x = src[i];
+			double y = src[i + 1];
+			double z = src[i + 2];
+			dest[j]     = x * m00 + y * m01 + z * m02 + t0;
+			dest[j + 1] = x * m10 + y * m11 + z * m12 + t1;
+			dest[j + 2] = x * m20 + y * m21 + z * m22 + t2;
+		}
+	}
+
+	/** Applies an affine transformation to an array of x,y,z triples, in place.
+	 * 
+	 * @param xyz the coordinates
+	 * @param transformation the transformation, see {@link #getTransformation(Matrix, Atom)}
+	 * @since 3.0.6
+	 */
+	public static final void transform(float[] xyz, double[] transformation){
+		transform(xyz, 0, xyz, 0, xyz.length / 3, transformation);
+	}
+
+	/** Applies an affine transformation to a range of x,y,z triples. The arithmetic is done in double precision.
+	 * Source and destination may be the same array.
+	 * 
+	 * @param src the coordinates to transform
+	 * @param srcPos the index of the first coordinate in src
+	 * @param dest the array for the transformed coordinates
+	 * @param destPos the index of the first coordinate in dest
+	 * @param length the number of points to transform
+	 * @param transformation the transformation, see {@link #getTransformation(Matrix, Atom)}
+	 * @since 3.0.6
+	 */
+	public static final void transform(float[] src, int srcPos, float[] dest, int destPos, int length, double[] transformation){
+		double m00 = transformation[0], m01 = transformation[1], m02 = transformation[2],  t0 = transformation[3];
+		double m10 = transformation[4], m11 = transformation[5], m12 = transformation[6],  t1 = transformation[7];
+		double m20 = transformation[8], m21 = transformation[9], m22 = transformation[10], t2 = transformation[11];
+
+		int end = srcPos + 3 * length;
+		for (int i = srcPos, j = destPos; i < end; i += 3, j += 3){
+			double x = src[i];
+			double y = src[i + 1];
+			double z = src[i + 2];
+			dest[j]     = (float) (x * m00 + y * m01 + z * m02 + t0);
+			dest[j + 1] = (float) (x * m10 + y * m11 + z * m12 + t1);
+			dest[j + 2] = (float) (x * m20 + y * m21 + z * m22 + t2);
+		}
+	}
+
+	/** Applies an affine transformation to a set of atoms.
+	 * If all atoms are held by one {@link CompactAtomStore}, its arrays are transformed directly.
+	 * 
+	 * @param atomSet a set of Atoms
+	 * @param transformation the transformation, see {@link #getTransformation(Matrix, Atom)}
+	 * @since 3.0.6
+	 */
+	public static final void transform(Atom[] atomSet, double[] transformation){
+		double m00 = transformation[0], m01 = transformation[1], m02 = transformation[2],  t0 = transformation[3];
+		double m10 = transformation[4], m11 = transformation[5], m12 = transformation[6],  t1 = transformation[7];
+		double m20 = transformation[8], m21 = transformation[9], m22 = transformation[10], t2 = transformation[11];
+
+		CompactAtomStore store = CompactAtomStore.getStore(atomSet);
+		if ( store != null) {
+			double[] xs = store.getXs();
+			double[] ys = store.getYs();
+			double[] zs = store.getZs();
+			for (int i = 0; i < atomSet.length; i++){
+				int k = ((CompactAtom) atomSet[i]).getIndex();
+				double x = xs[k];
+				double y = ys[k];
+				double z = zs[k];
+				xs[k] = x * m00 + y * m01 + z * m02 + t0;
+				ys[k] = x * m10 + y * m11 + z * m12 + t1;
+				zs[k] = x * m20 + y * m21 + z * m22 + t2;
+			}
+			return;
+		}
+
+		for (int i = 0; i < atomSet.length; i++){
+			Atom a = atomSet[i];
+			double x = a.getX();
+			double y = a.getY();
+			double z = a.getZ();
+			a.setX(x * m00 + y * m01 + z * m02 + t0);
+			a.setY(x * m10 + y * m11 + z * m12 + t1);
+			a.setZ(x * m20 + y * m21 + z * m22 + t2);
+		}
+	}
+
+	/** Returns the centroid of an array of x,y,z triples.
+	 * 
+	 * @param xyz the coordinates
+	 * @return the centroid as an array of length 3
+	 * @since 3.0.6
+	 */
+	public static final double[] getCentroid(double[] xyz){
+		double x = 0, y = 0, z = 0;
+		for (int i = 0; i < xyz.length; i += 3){
+			x += xyz[i];
+			y += xyz[i + 1];
+			z += xyz[i + 2];
+		}
+		int n = xyz.length / 3;
+		return new double[]{x / n, y / n, z / n};
+	}
+
+	/** Returns the radius of gyration of an array of x,y,z triples, i.e. the root mean square 
+	 * distance of the points from their centroid.
+	 * 
+	 * @param xyz the coordinates
+	 * @return the radius of gyration
+	 * @since 3.0.6
+	 */
+	public static final double getRadiusOfGyration(double[] xyz){
+		double[] centroid = getCentroid(xyz);
+		double sum = 0;
+		for (int i = 0; i < xyz.length; i += 3){
+			double dx = xyz[i] - centroid[0];
+			double dy = xyz[i + 1] - centroid[1];
+			double dz = xyz[i + 2] - centroid[2];
+			sum += dx * dx + dy * dy + dz * dz;
+		}
+		return Math.sqrt(sum / (xyz.length / 3));
+	}
+
+	/** Returns the bounding box of an array of x,y,z triples.
+	 * 
+	 * @param xyz the coordinates
+	 * @return the minimum x,y,z at index 0 and the maximum x,y,z at index 1. All 0 if there are no coordinates.
+	 * @since 3.0.6
+	 */
+	public static final double[][] getBounds(double[] xyz){
+		double[][] bounds = new double[2][3];
+		if ( xyz.length < 3)
+			return bounds;
+
+		for (int j = 0; j < 3; j++){
+			bounds[0][j] = xyz[j];
+			bounds[1][j] = xyz[j];
+		}
+		for (int i = 3; i < xyz.length; i += 3){
+			for (int j = 0; j < 3; j++){
+				double c = xyz[i + j];
+				if ( c < bounds[0][j])
+					bounds[0][j] = c;
+				else if ( c > bounds[1][j])
+					bounds[1][j] = c;
+			}
+		}
+		return bounds;
+	}
+
+	/** all atoms of a structure, in the order of an {@link AtomIterator} */
+	private static Atom[] getAtoms(Structure structure){
+		List<Atom> atoms = new ArrayList<Atom>();
+		for (int i = 0; i < structure.nrModels(); i++){
+			for (Chain c : structure.getModel(i)){
+				for (Group g : c.getAtomGroups()){
+					atoms.addAll(g.getAtoms());
+				}
+			}
+		}
+		return atoms.toArray(new Atom[atoms.size()]);
+	}
+
+	private static Atom[] getAtoms(Group group){
+		List<Atom> atoms = group.getAtoms();
+		return atoms.toArray(new Atom[atoms.size()]);
+	}
+
+
 	/** creates a virtual C-beta atom. this might be needed when working with GLY
 	 * 
 	 * thanks to Peter Lackner for a python template of this method.
@@ -28,13 +28,13 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 
 import org.biojava.bio.structure.io.PDBFileReader;
-import org.biojava.bio.structure.io.SeqRes2AtomAligner;
 import org.biojava.bio.structure.io.mmcif.ChemCompGroupFactory;
 import org.biojava.bio.structure.io.mmcif.chem.PolymerType;
 import org.biojava.bio.structure.io.mmcif.chem.ResidueType;
@@ -139,36 +139,27 @@ public class ChainImpl implements Chain, Serializable {
 		n.setHeader(this.getHeader());
 		n.setInternalChainID(internalChainID);
 
+		// some of the seqres groups are the atom groups themselves, remember their clones
+		Map<Group,Group> clones = new IdentityHashMap<Group,Group>();
 		for (int i=0;i<groups.size();i++){
 			Group g = (Group)groups.get(i);
-			n.addGroup((Group)g.clone());
+			Group ng = (Group)g.clone();
+			clones.put(g, ng);
+			n.addGroup(ng);
 		}
 		
 		if (seqResGroups.size() > 0 ){
 
-			// cloning seqres and atom groups is ugly, due to their
-			// nested relationship (some of the atoms can be in the seqres, but not all)
-
 			List<Group> tmpSeqRes = new ArrayList<Group>();
 			for (int i=0;i<seqResGroups.size();i++){
 				Group g = (Group)seqResGroups.get(i);
+				Group ng = clones.get(g);
+				if ( ng == null)
+					ng = (Group)g.clone();
 
-				tmpSeqRes.add(g);
-			}
-			
-			Chain tmp = new ChainImpl();
-			// that's a bit confusing, but that's how to set the seqres so the seqresaligner can use them 
-			tmp.setAtomGroups(tmpSeqRes);
-			
-			// now match them up..
-			SeqRes2AtomAligner seqresaligner = new SeqRes2AtomAligner();
-
-			try {
-				seqresaligner.mapSeqresRecords(n, tmp);
-			} catch (Exception e){
-				e.printStackTrace();
+				tmpSeqRes.add(ng);
 			}
-
+			n.setSeqResGroups(tmpSeqRes);
 		} 
 		
 
@@ -347,6 +347,29 @@ public class PDBHeader implements PDBRecord, Serializable{
 		this.id = id;
 	}
 
+	/** Returns a copy of this header. The dates and the transformation matrices of
+	 * the biological assemblies are shared with this header.
+	 *
+	 * @return a copy of this header
+	 */
+	public PDBHeader clone(){
+		PDBHeader n = new PDBHeader();
+		n.setMethod(method);
+		n.setTitle(title);
+		n.setDescription(description);
+		n.setIdCode(idCode);
+		n.setClassification(classification);
+		n.setDepDate(depDate);
+		n.setModDate(modDate);
+		n.setTechnique(technique);
+		n.setResolution(resolution);
+		n.setAuthors(authors);
+		n.setNrBioAssemblies(nrBioAssemblies);
+		if ( tranformationMap != null)
+			n.setBioUnitTranformationMap(new HashMap<Integer, List<ModelTransformationMatrix>>(tranformationMap));
+		return n;
+	}
+
 	/** Compare two PDBHeader objects
 	 *
 	 * @param other a PDBHeader object to compare this one to.
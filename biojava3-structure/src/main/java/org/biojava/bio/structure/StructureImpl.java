@@ -26,6 +26,7 @@ package org.biojava.bio.structure;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -142,13 +143,18 @@ public class StructureImpl implements Structure, Serializable {
 		n.setName(getName());
 		n.setHeader(getHeader());
 		//TODO: do deep copying of data!
-		n.setPDBHeader(pdbHeader);
+		if ( pdbHeader != null)
+			n.setPDBHeader(pdbHeader.clone());
 		n.setDBRefs(this.getDBRefs());
 		n.setConnections(getConnections());
 		n.setSites(getSites());
 		n.setCrystallographicInfo(getCrystallographicInfo());
+		n.setCompounds(getCompounds());
+		n.setJournalArticle(journalArticle);
+		n.setBiologicalAssembly(biologicalAssembly);
 
 		// go through each chain and clone chain
+		Map<Group,Group> clonedGroups = new IdentityHashMap<Group,Group>();
 		for (int i=0;i<nrModels();i++){
 			List<Chain> cloned_model = new ArrayList<Chain>();
 
@@ -157,12 +163,22 @@ public class StructureImpl implements Structure, Serializable {
 				Chain current_chain = (Chain) getChain(i,j);
 				Chain cloned_chain  = (Chain) current_chain.clone();
 
+				// the groups of the clone are in the same order
+				List<Group> groups = current_chain.getAtomGroups();
+				for (int k=0;k<groups.size();k++){
+					clonedGroups.put(groups.get(k), cloned_chain.getAtomGroup(k));
+				}
 				cloned_model.add(cloned_chain);
 			}
 			n.addModel(cloned_model);
 
 		}
 
+		for (Group g : hetAtoms){
+			Group cloned = clonedGroups.get(g);
+			n.getHetGroups().add(cloned != null ? cloned : (Group) g.clone());
+		}
+
 		for (SSBond ssbond: ssbonds){
 			n.addSSBond(ssbond.clone());
 		}
@@ -38,6 +38,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.biojava.bio.structure.align.util.AtomCache;
+import org.biojava.bio.structure.contact.AtomGrid;
 
 
 /**
@@ -81,6 +82,9 @@ public class StructureTools {
 	private static final Map<String, Character> aminoAcids;
 
 	private static final Set<Element> hBondDonorAcceptors;
+
+	/** the largest distance at which {@link #findBonds(Group, List)} reports a bond */
+	private static final double MAX_BOND_DISTANCE = 3.9;
 	//	// for conversion 3code 1code
 	//	private static  SymbolTokenization threeLetter ;
 	//	private static  SymbolTokenization oneLetter ;
@@ -929,39 +933,45 @@ public class StructureTools {
 	 * Returns a List of Groups in a structure within the distance specified of a given group.
 	 */
 	public static List<Group> getGroupsWithinShell(Structure structure, Group group, double distance, boolean includeWater) {
-		Set<Group> returnSet = new LinkedHashSet<Group>();
+		List<Atom> atoms = new ArrayList<Atom>();
+		for (Chain chain : structure.getChains()) {
+			for (Group chainGroup : chain.getAtomGroups()) {
+				atoms.addAll(chainGroup.getAtoms());
+			}
+		}
+		AtomGrid grid = new AtomGrid(atoms.toArray(new Atom[atoms.size()]), 
+				distance > 0 ? distance : AtomGrid.DEFAULT_CELL_SIZE);
 
-		//square the distance to use as a comparison against getDistanceFast which returns the square of a distance.
-		distance = distance * distance;
+		return getGroupsWithinShell(grid, group, distance, includeWater);
+	}
 
-		for (Atom atomA : group.getAtoms()) {
-			for (Chain chain : structure.getChains()) {
-				for (Group chainGroup : chain.getAtomGroups()) {
-					//                        System.out.println("Checking group: " + chainGroup);
-					if (chainGroup.getResidueNumber().equals(group.getResidueNumber())) {
-						continue;
-					}
-					else if (!includeWater && chainGroup.getPDBName().equals("HOH")) {
-						continue;
-					}
-					else {
-						for (Atom atomB : chainGroup.getAtoms()) {
-							try {
-								//use getDistanceFast as we are doing a lot of comparisons
-								double dist = Calc.getDistanceFast(atomA, atomB);
-								if (dist <= distance) {
-									returnSet.add(chainGroup);
-									//                                    System.out.println(String.format("%s within %s of %s", atomB, dist, atomA));
-									break;
-								}
-
-							} catch (StructureException ex) {
-								Logger.getLogger(StructureTools.class.getName()).log(Level.SEVERE, null, ex);
-							}
+	/** Returns a List of Groups within the distance specified of a given group, using a 
+	 * neighbor search grid that can be shared by many queries against the same structure.
+	 * 
+	 * @param grid a grid of the atoms to search, e.g. all atoms of a structure
+	 * @param group the query group
+	 * @param distance the maximum distance between any atom of the query group and an atom of a returned group
+	 * @param includeWater if false, HOH groups are not returned
+	 * @return the groups, in the order in which they are first found for the atoms of the query group
+	 * @since 3.0.6
+	 */
+	public static List<Group> getGroupsWithinShell(AtomGrid grid, Group group, double distance, boolean includeWater) {
+		Set<Group> returnSet = new LinkedHashSet<Group>();
 
-						}
-					}
+		for (Atom atomA : group.getAtoms()) {
+			// the neighbors are sorted by their position in the structure, as the groups they belong to
+			for (int index : grid.getNeighbors(atomA, distance)) {
+				Group chainGroup = grid.getAtom(index).getGroup();
+				if (returnSet.contains(chainGroup)) {
+					continue;
+				}
+				else if (chainGroup.getResidueNumber().equals(group.getResidueNumber())) {
+					continue;
 				}
+				else if (!includeWater && chainGroup.getPDBName().equals("HOH")) {
+					continue;
+				}
+				returnSet.add(chainGroup);
 			}
 		}
 		List<Group> returnList = new ArrayList<Group>();
@@ -974,54 +984,62 @@ public class StructureTools {
 	 * but do not rely on this to be chemically correct.
 	 */
 	public static List<Bond> findBonds(Group group, List<Group> groups) {
+		List<Atom> atoms = new ArrayList<Atom>();
+		for (Group groupB : groups) {
+			if (groupB.getType().equals(GroupType.HETATM)) {
+				continue;
+			}
+			atoms.addAll(groupB.getAtoms());
+		}
+		// the grid returns the atoms in the order of the groups, so the bonds are
+		// reported in the same order as by a scan over all atoms
+		AtomGrid grid = new AtomGrid(atoms.toArray(new Atom[atoms.size()]), MAX_BOND_DISTANCE);
+
 		List<Bond> bondList = new ArrayList<Bond>();
 		for (Atom atomA : group.getAtoms()) {
-			for (Group groupB : groups) {
-				if (groupB.getType().equals(GroupType.HETATM)) {
-					continue;
-				}
-				for (Atom atomB : groupB.getAtoms()) {
-					try {
-						double dist = Calc.getDistance(atomA, atomB);
-						BondType bondType = BondType.UNDEFINED;
-						if (dist <= 2) {
-							bondType = BondType.COVALENT;
+			// slightly larger than the cutoff, the exact check is done on Calc.getDistance
+			for (int index : grid.getNeighbors(atomA, MAX_BOND_DISTANCE + 0.01)) {
+				Atom atomB = grid.getAtom(index);
+				Group groupB = atomB.getGroup();
+				try {
+					double dist = Calc.getDistance(atomA, atomB);
+					BondType bondType = BondType.UNDEFINED;
+					if (dist <= 2) {
+						bondType = BondType.COVALENT;
+						Bond bond = new Bond(dist, bondType, group, atomA, groupB, atomB);
+						bondList.add(bond);
+						//                                    System.out.println(String.format("%s within %s of %s", atomB, dist, atomA));
+					}
+					else if (dist <= 3.25) {
+
+						if (isHbondDonorAcceptor(atomA) && isHbondDonorAcceptor(atomB)) {
+							bondType = BondType.HBOND;
+						}
+						else if (atomA.getElement().isMetal() && isHbondDonorAcceptor(atomB)) {
+							bondType = BondType.METAL;
+						}
+						else if (atomA.getElement().equals(Element.C) && atomB.getElement().equals(Element.C)) {
+							bondType = BondType.HYDROPHOBIC;
+						}
+						//not really interested in 'undefined' types
+						if (bondType != BondType.UNDEFINED) {
 							Bond bond = new Bond(dist, bondType, group, atomA, groupB, atomB);
 							bondList.add(bond);
-							//                                    System.out.println(String.format("%s within %s of %s", atomB, dist, atomA));
 						}
-						else if (dist <= 3.25) {
-
-							if (isHbondDonorAcceptor(atomA) && isHbondDonorAcceptor(atomB)) {
-								bondType = BondType.HBOND;
-							}
-							else if (atomA.getElement().isMetal() && isHbondDonorAcceptor(atomB)) {
-								bondType = BondType.METAL;
-							}
-							else if (atomA.getElement().equals(Element.C) && atomB.getElement().equals(Element.C)) {
-								bondType = BondType.HYDROPHOBIC;
-							}
-							//not really interested in 'undefined' types
-							if (bondType != BondType.UNDEFINED) {
-								Bond bond = new Bond(dist, bondType, group, atomA, groupB, atomB);
-								bondList.add(bond);
-							}
-							//                                    System.out.println(String.format("%s within %s of %s", atomB, dist, atomA));
-						} else if (dist <= 3.9) {
-							if (atomA.getElement().equals(Element.C) && atomB.getElement().equals(Element.C)) {
-								bondType = BondType.HYDROPHOBIC;
-							}
-							//not really interested in 'undefined' types
-							if (bondType != BondType.UNDEFINED) {
-								Bond bond = new Bond(dist, bondType, group, atomA, groupB, atomB);
-								bondList.add(bond);
-							}
+						//                                    System.out.println(String.format("%s within %s of %s", atomB, dist, atomA));
+					} else if (dist <= MAX_BOND_DISTANCE) {
+						if (atomA.getElement().equals(Element.C) && atomB.getElement().equals(Element.C)) {
+							bondType = BondType.HYDROPHOBIC;
+						}
+						//not really interested in 'undefined' types
+						if (bondType != BondType.UNDEFINED) {
+							Bond bond = new Bond(dist, bondType, group, atomA, groupB, atomB);
+							bondList.add(bond);
 						}
-
-					} catch (StructureException ex) {
-						Logger.getLogger(StructureTools.class.getName()).log(Level.SEVERE, null, ex);
 					}
 
+				} catch (StructureException ex) {
+					Logger.getLogger(StructureTools.class.getName()).log(Level.SEVERE, null, ex);
 				}
 			}
 		}
@@ -1030,6 +1048,37 @@ public class StructureTools {
 		return bondList;
 	}
 
+	/** Returns all pairs of atoms of two chains that are within a distance of each other.
+	 * 
+	 * @param chain1 the first chain
+	 * @param chain2 the second chain
+	 * @param cutoff the maximum distance
+	 * @return pairs of an atom of chain1 and an atom of chain2, ordered by the position of the atoms in the chains
+	 * @since 3.0.6
+	 */
+	public static List<Atom[]> getAtomsInContact(Chain chain1, Chain chain2, double cutoff) {
+		Atom[] atoms1 = getAllAtomArray(chain1);
+		Atom[] atoms2 = getAllAtomArray(chain2);
+
+		double cellSize = cutoff > 0 ? cutoff : AtomGrid.DEFAULT_CELL_SIZE;
+		AtomGrid grid2 = new AtomGrid(atoms2, cellSize);
+		int[] pairs = new AtomGrid(atoms1, cellSize).getPairs(grid2, cutoff);
+
+		List<Atom[]> contacts = new ArrayList<Atom[]>(pairs.length / 2);
+		for (int i = 0; i < pairs.length; i += 2) {
+			contacts.add(new Atom[]{atoms1[pairs[i]], atoms2[pairs[i + 1]]});
+		}
+		return contacts;
+	}
+
+	private static Atom[] getAllAtomArray(Chain c) {
+		List<Atom> atoms = new ArrayList<Atom>();
+		for (Group g : c.getAtomGroups()) {
+			atoms.addAll(g.getAtoms());
+		}
+		return atoms.toArray(new Atom[atoms.size()]);
+	}
+
 	private static boolean isHbondDonorAcceptor(Atom atom) {
 		if (hBondDonorAcceptors.contains(atom.getElement())) {
 			return true;
@@ -0,0 +1,403 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure;
+
+import org.biojava.bio.structure.jama.Matrix;
+
+/** Calculates the superposition of two sets of atoms with the quaternion characteristic
+ * polynomial (QCP) method. It gives the same optimal superposition as the {@link SVDSuperimposer},
+ * but works on primitive coordinate arrays, does not allocate per call and can calculate the
+ * RMSD alone, without the rotation, which is considerably faster.
+ *
+ * <p>
+ * As with the {@link SVDSuperimposer}, the second set of atoms is moved onto the first one:
+ * after rotating the second set with {@link #getRotation()} (see {@link Calc#rotate(Atom, Matrix)})
+ * and shifting it by {@link #getTranslation()} it is superimposed on the first set.
+ * </p>
+ *
+ * <p>
+ * Coordinates are passed as arrays of x, y and z values, one atom after the other,
+ * as returned by {@link #getCoordinates(Atom[])}. An instance can be reused for many
+ * superpositions, but is not thread safe.
+ * </p>
+ *
+ * <pre>
+ * double[] coords1 = SuperPositionQCP.getCoordinates(ca1);
+ * double[] coords2 = SuperPositionQCP.getCoordinates(ca2);
+ * SuperPositionQCP qcp = new SuperPositionQCP();
+ * // the RMSD of the fragments of length 8 starting at the atoms 10 and 20
+ * double rmsd = qcp.getRmsd(coords1, 10, coords2, 20, 8);
+ * </pre>
+ *
+ * <p>Citation:<br/>
+ * <i>Theobald DL (2005). "Rapid calculation of RMSDs using a quaternion-based characteristic
+ * polynomial". Acta Crystallographica A 61: 478 - 480.</i><br/>
+ * <i>Liu P, Agrafiotis DK and Theobald DL (2010). "Fast determination of the optimal rotational
+ * matrix for macromolecular superpositions". Journal of Computational Chemistry 31: 1561 - 1563.</i>
+ * </p>
+ *
+ * @see SVDSuperimposer
+ * @since 3.0.6
+ */
+public class SuperPositionQCP {
+
+	private static final double EVEC_PREC = 1e-6;
+	private static final double EVAL_PREC = 1e-11;
+	private static final int MAX_ITERATIONS = 50;
+
+	// the inner product of the centered coordinates
+	private final double[] innerProduct = new double[9];
+	private final double[] centroid1 = new double[3];
+	private final double[] centroid2 = new double[3];
+	private double e0;
+
+	// rotation as a matrix for row vectors, as in Calc.rotate(Atom, Matrix)
+	private final double[] rotation = new double[9];
+	private final double[] translation = new double[3];
+	private double rmsd;
+
+	/** Create an instance to calculate superpositions with.
+	 */
+	public SuperPositionQCP(){
+	}
+
+	/** Calculate the superposition of two sets of atoms. This is a drop-in replacement
+	 * for {@link SVDSuperimposer#SVDSuperimposer(Atom[], Atom[])}.
+	 *
+	 * @param atomSet1 Atom array 1, the fixed atoms
+	 * @param atomSet2 Atom array 2, the atoms to be moved onto atomSet1
+	 * @throws StructureException if the atom sets are not of the same length
+	 */
+	public SuperPositionQCP(Atom[] atomSet1, Atom[] atomSet2) throws StructureException {
+		if ( atomSet1.length != atomSet2.length ){
+			throw new StructureException("The two atom sets are not of same length!");
+		}
+		superpose(getCoordinates(atomSet1), 0, getCoordinates(atomSet2), 0, atomSet1.length);
+	}
+
+	/** Returns the coordinates of the atoms as one array of x, y and z values.
+	 *
+	 * @param atoms the atoms
+	 * @return an array of length 3 * atoms.length
+	 */
+	public static double[] getCoordinates(Atom[] atoms){
+		return Calc.getCoordinates(atoms);
+	}
+
+	/** Calculate the RMSD of two sets of atoms after their optimal superposition.
+	 * Unlike {@link SVDSuperimposer#getRMS(Atom[], Atom[])} the atoms do not need to be
+	 * superimposed first.
+	 *
+	 * @param atomSet1 Atom array 1
+	 * @param atomSet2 Atom array 2
+	 * @return the RMSD of the optimal superposition
+	 * @throws StructureException if the atom sets are not of the same length
+	 */
+	public static double calcRmsd(Atom[] atomSet1, Atom[] atomSet2) throws StructureException {
+		if ( atomSet1.length != atomSet2.length ){
+			throw new StructureException("The two atom sets are not of same length!");
+		}
+		return new SuperPositionQCP().getRmsd(getCoordinates(atomSet1), 0, getCoordinates(atomSet2), 0, atomSet1.length);
+	}
+
+	/** Calculate the RMSD of the optimal superposition of two fragments, without the rotation.
+	 * {@link #getRotation()} and {@link #getTranslation()} are not updated.
+	 *
+	 * @param coords1 the coordinates of the fixed atoms
+	 * @param start1 index of the first atom in coords1
+	 * @param coords2 the coordinates of the moved atoms
+	 * @param start2 index of the first atom in coords2
+	 * @param length the number of atoms
+	 * @return the RMSD of the optimal superposition
+	 */
+	public double getRmsd(double[] coords1, int start1, double[] coords2, int start2, int length){
+		calcInnerProduct(coords1, start1, coords2, start2, length);
+		double eigenValue = calcMaxEigenValue();
+		// the abs guards against tiny negative numbers due to rounding
+		rmsd = Math.sqrt(Math.abs(2.0 * (e0 - eigenValue) / length));
+		return rmsd;
+	}
+
+	/** Calculate the optimal superposition of two fragments, i.e. the rotation and translation
+	 * that move the second fragment onto the first one.
+	 *
+	 * @param coords1 the coordinates of the fixed atoms
+	 * @param start1 index of the first atom in coords1
+	 * @param coords2 the coordinates of the moved atoms
+	 * @param start2 index of the first atom in coords2
+	 * @param length the number of atoms
+	 * @return the RMSD of the superimposed fragments
+	 */
+	public double superpose(double[] coords1, int start1, double[] coords2, int start2, int length){
+		calcInnerProduct(coords1, start1, coords2, start2, length);
+		calcRotation(calcMaxEigenValue());
+
+		double[] r = rotation;
+		for (int k = 0; k < 3; k++)
+			translation[k] = centroid1[k] - (centroid2[0] * r[k] + centroid2[1] * r[3 + k] + centroid2[2] * r[6 + k]);
+
+		// the RMSD from the transformed coordinates is more precise than the one from the eigenvalue
+		double sum = 0.0;
+		for (int i = 3 * start1, j = 3 * start2, end = i + 3 * length; i < end; i += 3, j += 3){
+			double x = coords2[j];
+			double y = coords2[j + 1];
+			double z = coords2[j + 2];
+			double dx = x * r[0] + y * r[3] + z * r[6] + translation[0] - coords1[i];
+			double dy = x * r[1] + y * r[4] + z * r[7] + translation[1] - coords1[i + 1];
+			double dz = x * r[2] + y * r[5] + z * r[8] + translation[2] - coords1[i + 2];
+			sum += dx * dx + dy * dy + dz * dz;
+		}
+		rmsd = Math.sqrt(sum / length);
+		return rmsd;
+	}
+
+	/** Returns the RMSD of the last calculation.
+	 *
+	 * @return the RMSD
+	 */
+	public double getRmsd(){
+		return rmsd;
+	}
+
+	/** Get the rotation matrix that is required to superimpose the two atom sets.
+	 *
+	 * @return a new rotation matrix
+	 */
+	public Matrix getRotation(){
+		Matrix m = new Matrix(3, 3);
+		for (int i = 0; i < 3; i++){
+			for (int j = 0; j < 3; j++)
+				m.set(i, j, rotation[3 * i + j]);
+		}
+		return m;
+	}
+
+	/** Copy the rotation matrix into an array, row by row.
+	 *
+	 * @param rot an array of at least length 9
+	 */
+	public void getRotation(double[] rot){
+		System.arraycopy(rotation, 0, rot, 0, 9);
+	}
+
+	/** Get the shift vector.
+	 *
+	 * @return the shift vector
+	 */
+	public Atom getTranslation(){
+		Atom a = new AtomImpl();
+		a.setX(translation[0]);
+		a.setY(translation[1]);
+		a.setZ(translation[2]);
+		return a;
+	}
+
+	/** Copy the shift vector into an array.
+	 *
+	 * @param shift an array of at least length 3
+	 */
+	public void getTranslation(double[] shift){
+		System.arraycopy(translation, 0, shift, 0, 3);
+	}
+
+	private void calcInnerProduct(double[] coords1, int start1, double[] coords2, int start2, int length){
+		if ( length < 1)
+			throw new IllegalArgumentException("length must be at least 1: " + length);
+
+		calcCentroid(coords1, start1, length, centroid1);
+		calcCentroid(coords2, start2, length, centroid2);
+
+		double[] a = innerProduct;
+		for (int k = 0; k < 9; k++)
+			a[k] = 0.0;
+		double g1 = 0.0;
+		double g2 = 0.0;
+		for (int i = 3 * start1, j = 3 * start2, end = i + 3 * length; i < end; i += 3, j += 3){
+			double x1 = coords1[i] - centroid1[0];
+			double y1 = coords1[i + 1] - centroid1[1];
+			double z1 = coords1[i + 2] - centroid1[2];
+			double x2 = coords2[j] - centroid2[0];
+			double y2 = coords2[j + 1] - centroid2[1];
+			double z2 = coords2[j + 2] - centroid2[2];
+
+			g1 += x1 * x1 + y1 * y1 + z1 * z1;
+			g2 += x2 * x2 + y2 * y2 + z2 * z2;
+
+			a[0] += x1 * x2;
+			a[1] += x1 * y2;
+			a[2] += x1 * z2;
+			a[3] += y1 * x2;
+			a[4] += y1 * y2;
+			a[5] += y1 * z2;
+			a[6] += z1 * x2;
+			a[7] += z1 * y2;
+			a[8] += z1 * z2;
+		}
+		e0 = (g1 + g2) * 0.5;
+	}
+
+	private static void calcCentroid(double[] coords, int start, int length, double[] centroid){
+		double x = 0.0;
+		double y = 0.0;
+		double z = 0.0;
+		for (int i = 3 * start, end = i + 3 * length; i < end; i += 3){
+			x += coords[i];
+			y += coords[i + 1];
+			z += coords[i + 2];
+		}
+		centroid[0] = x / length;
+		centroid[1] = y / length;
+		centroid[2] = z / length;
+	}
+
+	/** Find the largest root of the characteristic polynomial of the key matrix
+	 * by Newton-Raphson iteration, starting from the upper bound e0.
+	 */
+	private double calcMaxEigenValue(){
+		double[] a = innerProduct;
+		double sxx = a[0], sxy = a[1], sxz = a[2];
+		double syx = a[3], syy = a[4], syz = a[5];
+		double szx = a[6], szy = a[7], szz = a[8];
+
+		double sxx2 = sxx * sxx, syy2 = syy * syy, szz2 = szz * szz;
+		double sxy2 = sxy * sxy, syz2 = syz * syz, sxz2 = sxz * sxz;
+		double syx2 = syx * syx, szy2 = szy * szy, szx2 = szx * szx;
+
+		double syzSzymSyySzz2 = 2.0 * (syz * szy - syy * szz);
+		double sxx2Syy2Szz2Syz2Szy2 = syy2 + szz2 - sxx2 + syz2 + szy2;
+
+		double c2 = -2.0 * (sxx2 + syy2 + szz2 + sxy2 + syx2 + sxz2 + szx2 + syz2 + szy2);
+		double c1 = 8.0 * (sxx * syz * szy + syy * szx * sxz + szz * sxy * syx
+				- sxx * syy * szz - syz * szx * sxy - szy * syx * sxz);
+
+		double sxzpSzx = sxz + szx, syzpSzy = syz + szy, sxypSyx = sxy + syx;
+		double syzmSzy = syz - szy, sxzmSzx = sxz - szx, sxymSyx = sxy - syx;
+		double sxxpSyy = sxx + syy, sxxmSyy = sxx - syy;
+		double sxy2Sxz2Syx2Szx2 = sxy2 + sxz2 - syx2 - szx2;
+
+		double c0 = sxy2Sxz2Syx2Szx2 * sxy2Sxz2Syx2Szx2
+				+ (sxx2Syy2Szz2Syz2Szy2 + syzSzymSyySzz2) * (sxx2Syy2Szz2Syz2Szy2 - syzSzymSyySzz2)
+				+ (-sxzpSzx * syzmSzy + sxymSyx * (sxxmSyy - szz)) * (-sxzmSzx * syzpSzy + sxymSyx * (sxxmSyy + szz))
+				+ (-sxzpSzx * syzpSzy - sxypSyx * (sxxpSyy - szz)) * (-sxzmSzx * syzmSzy - sxypSyx * (sxxpSyy + szz))
+				+ (sxypSyx * syzpSzy + sxzpSzx * (sxxmSyy + szz)) * (-sxymSyx * syzmSzy + sxzpSzx * (sxxpSyy + szz))
+				+ (sxypSyx * syzmSzy + sxzmSzx * (sxxmSyy - szz)) * (-sxymSyx * syzpSzy + sxzmSzx * (sxxpSyy - szz));
+
+		double eigenValue = e0;
+		for (int i = 0; i < MAX_ITERATIONS; i++){
+			double old = eigenValue;
+			double x2 = eigenValue * eigenValue;
+			double b = (x2 + c2) * eigenValue;
+			double a0 = b + c1;
+			double delta = (a0 * eigenValue + c0) / (2.0 * x2 * eigenValue + b + a0);
+			eigenValue -= delta;
+			if ( Math.abs(eigenValue - old) < Math.abs(EVAL_PREC * eigenValue))
+				break;
+		}
+		return eigenValue;
+	}
+
+	/** Calculate the rotation from the eigenvector of the largest eigenvalue, which is
+	 * taken from a column of the adjoint of the shifted key matrix.
+	 */
+	private void calcRotation(double eigenValue){
+		double[] a = innerProduct;
+		double sxx = a[0], sxy = a[1], sxz = a[2];
+		double syx = a[3], syy = a[4], syz = a[5];
+		double szx = a[6], szy = a[7], szz = a[8];
+
+		double sxzpSzx = sxz + szx, syzpSzy = syz + szy, sxypSyx = sxy + syx;
+		double syzmSzy = syz - szy, sxzmSzx = sxz - szx, sxymSyx = sxy - syx;
+		double sxxpSyy = sxx + syy, sxxmSyy = sxx - syy;
+
+		double a11 = sxxpSyy + szz - eigenValue, a12 = syzmSzy, a13 = -sxzmSzx, a14 = sxymSyx;
+		double a21 = syzmSzy, a22 = sxxmSyy - szz - eigenValue, a23 = sxypSyx, a24 = sxzpSzx;
+		double a31 = a13, a32 = a23, a33 = syy - sxx - szz - eigenValue, a34 = syzpSzy;
+		double a41 = a14, a42 = a24, a43 = a34, a44 = szz - sxxpSyy - eigenValue;
+
+		double a3344_4334 = a33 * a44 - a43 * a34, a3244_4234 = a32 * a44 - a42 * a34;
+		double a3243_4233 = a32 * a43 - a42 * a33, a3143_4133 = a31 * a43 - a41 * a33;
+		double a3144_4134 = a31 * a44 - a41 * a34, a3142_4132 = a31 * a42 - a41 * a32;
+
+		double q1 = a22 * a3344_4334 - a23 * a3244_4234 + a24 * a3243_4233;
+		double q2 = -a21 * a3344_4334 + a23 * a3144_4134 - a24 * a3143_4133;
+		double q3 = a21 * a3244_4234 - a22 * a3144_4134 + a24 * a3142_4132;
+		double q4 = -a21 * a3243_4233 + a22 * a3143_4133 - a23 * a3142_4132;
+		double qsqr = q1 * q1 + q2 * q2 + q3 * q3 + q4 * q4;
+
+		// if the column is too short, try the other columns of the adjoint
+		if ( qsqr < EVEC_PREC) {
+			q1 = a12 * a3344_4334 - a13 * a3244_4234 + a14 * a3243_4233;
+			q2 = -a11 * a3344_4334 + a13 * a3144_4134 - a14 * a3143_4133;
+			q3 = a11 * a3244_4234 - a12 * a3144_4134 + a14 * a3142_4132;
+			q4 = -a11 * a3243_4233 + a12 * a3143_4133 - a13 * a3142_4132;
+			qsqr = q1 * q1 + q2 * q2 + q3 * q3 + q4 * q4;
+
+			if ( qsqr < EVEC_PREC) {
+				double a1324_1423 = a13 * a24 - a14 * a23, a1224_1422 = a12 * a24 - a14 * a22;
+				double a1223_1322 = a12 * a23 - a13 * a22, a1124_1421 = a11 * a24 - a14 * a21;
+				double a1123_1321 = a11 * a23 - a13 * a21, a1122_1221 = a11 * a22 - a12 * a21;
+
+				q1 = a42 * a1324_1423 - a43 * a1224_1422 + a44 * a1223_1322;
+				q2 = -a41 * a1324_1423 + a43 * a1124_1421 - a44 * a1123_1321;
+				q3 = a41 * a1224_1422 - a42 * a1124_1421 + a44 * a1122_1221;
+				q4 = -a41 * a1223_1322 + a42 * a1123_1321 - a43 * a1122_1221;
+				qsqr = q1 * q1 + q2 * q2 + q3 * q3 + q4 * q4;
+
+				if ( qsqr < EVEC_PREC) {
+					q1 = a32 * a1324_1423 - a33 * a1224_1422 + a34 * a1223_1322;
+					q2 = -a31 * a1324_1423 + a33 * a1124_1421 - a34 * a1123_1321;
+					q3 = a31 * a1224_1422 - a32 * a1124_1421 + a34 * a1122_1221;
+					q4 = -a31 * a1223_1322 + a32 * a1123_1321 - a33 * a1122_1221;
+					qsqr = q1 * q1 + q2 * q2 + q3 * q3 + q4 * q4;
+
+					if ( qsqr < EVEC_PREC) {
+						// the structures are (nearly) identical or degenerate
+						for (int i = 0; i < 9; i++)
+							rotation[i] = (i % 4 == 0) ? 1.0 : 0.0;
+						return;
+					}
+				}
+			}
+		}
+
+		double normq = Math.sqrt(qsqr);
+		q1 /= normq;
+		q2 /= normq;
+		q3 /= normq;
+		q4 /= normq;
+
+		double a2 = q1 * q1, x2 = q2 * q2, y2 = q3 * q3, z2 = q4 * q4;
+		double xy = q2 * q3, az = q1 * q4, zx = q4 * q2, ay = q1 * q3, yz = q3 * q4, ax = q1 * q2;
+
+		// the transpose of the rotation for column vectors
+		rotation[0] = a2 + x2 - y2 - z2;
+		rotation[3] = 2 * (xy + az);
+		rotation[6] = 2 * (zx - ay);
+		rotation[1] = 2 * (xy - az);
+		rotation[4] = a2 - x2 + y2 - z2;
+		rotation[7] = 2 * (yz + ax);
+		rotation[2] = 2 * (zx + ay);
+		rotation[5] = 2 * (yz - ax);
+		rotation[8] = a2 - x2 - y2 + z2;
+	}
+}
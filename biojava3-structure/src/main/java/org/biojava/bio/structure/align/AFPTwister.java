@@ -296,16 +296,18 @@ public class AFPTwister
          afpChain.setBlockShiftVector(shifts);
       }
 
-      for (Atom a : ca2){
-         //Calc.rotate(a, r);
-         //Calc.shift(a, t);
+      transformGroups(ca2, r, t);
 
-         Calc.rotate(a.getGroup(),r);
-         Calc.shift(a.getGroup(),t);
-
-      }
 
+   }
 
+   /** rotates and shifts all atoms of the groups of the given atoms in one bulk operation */
+   private static void transformGroups(Atom[] ca, Matrix r, Atom t){
+      List<Atom> atoms = new ArrayList<Atom>();
+      for (Atom a : ca){
+         atoms.addAll(a.getGroup().getAtoms());
+      }
+      Calc.transform(atoms.toArray(new Atom[atoms.size()]), Calc.getTransformation(r, t));
    }
 
    // like Cod4Res
@@ -408,13 +410,7 @@ public class AFPTwister
       r = svd.getRotation();
       t = svd.getTranslation();
             
-      for (Atom a : cod2){
-         //Calc.rotate(a, r);
-         //Calc.shift(a, t);
-
-         Calc.rotate(a.getGroup(), r);
-         Calc.shift(a.getGroup(),  t);
-      }
+      transformGroups(cod2, r, t);
 
 //      if ( showAlignmentSteps){
 //         StructureAlignmentJmol jmol = new StructureAlignmentJmol();
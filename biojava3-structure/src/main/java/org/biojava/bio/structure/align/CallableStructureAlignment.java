@@ -4,11 +4,14 @@ package org.biojava.bio.structure.align;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.zip.GZIPOutputStream;
 
 import org.biojava.bio.structure.Atom;
 import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureException;
 
 import org.biojava.bio.structure.StructureTools;
 import org.biojava.bio.structure.align.ce.ConfigStrucAligParams;
@@ -20,6 +23,18 @@ import org.biojava.bio.structure.align.xml.AFPChainXMLConverter;
 
 public class CallableStructureAlignment implements  Callable<AFPChain> {
 	
+	/** The alignment algorithms are not thread safe, but they can be reused for 
+	 * consecutive alignments. Each worker thread keeps one instance per algorithm name, 
+	 * so that a database search does not create a new algorithm (and its working buffers) per pair.
+	 */
+	private static final ThreadLocal<Map<String,StructureAlignment>> threadAlgorithms = 
+		new ThreadLocal<Map<String,StructureAlignment>>() {
+		@Override
+		protected Map<String, StructureAlignment> initialValue() {
+			return new HashMap<String, StructureAlignment>();
+		}
+	};
+	
 	PdbPair pair ;
 	
 	AtomCache cache;
@@ -42,7 +57,7 @@ public class CallableStructureAlignment implements  Callable<AFPChain> {
 	public AFPChain  call() throws Exception {
 		
 		
-		StructureAlignment algorithm = StructureAlignmentFactory.getAlgorithm(algorithmName);
+		StructureAlignment algorithm = getThreadAlgorithm(algorithmName);
 		algorithm.setParameters(params);
 		
 		AFPChain afpChain = null;
@@ -74,8 +89,7 @@ public class CallableStructureAlignment implements  Callable<AFPChain> {
 
 			outFile.write(result);
 
-			String xml = AFPChainXMLConverter.toXML(afpChain, ca1, ca2);
-			writeXML(outFileDir,pair.getName1(), pair.getName2(), xml);
+			writeXML(outFileDir,pair.getName1(), pair.getName2(), afpChain, ca1, ca2);
 
 		} catch ( Exception e){
 			e.printStackTrace();
@@ -83,6 +97,22 @@ public class CallableStructureAlignment implements  Callable<AFPChain> {
 		return null;
 	}
 
+	/** returns the instance of the algorithm that is confined to the current thread. 
+	 * 
+	 * @param name the name of the algorithm
+	 * @return the algorithm, created on first use by this thread
+	 * @throws StructureException if the algorithm is unknown
+	 */
+	static StructureAlignment getThreadAlgorithm(String name) throws StructureException {
+		Map<String,StructureAlignment> algorithms = threadAlgorithms.get();
+		StructureAlignment algorithm = algorithms.get(name);
+		if ( algorithm == null) {
+			algorithm = StructureAlignmentFactory.getAlgorithm(name);
+			algorithms.put(name, algorithm);
+		}
+		return algorithm;
+	}
+
 	public PdbPair getPair() {
 		return pair;
 	}
@@ -116,7 +146,7 @@ public class CallableStructureAlignment implements  Callable<AFPChain> {
 	}
 	
 	
-	private void writeXML(File outFileF, String name1, String name2, String xml)
+	private void writeXML(File outFileF, String name1, String name2, AFPChain afpChain, Atom[] ca1, Atom[] ca2)
 	{
 		try{
 			// Create file 
@@ -126,8 +156,11 @@ public class CallableStructureAlignment implements  Callable<AFPChain> {
 
 			GZIPOutputStream gz = new GZIPOutputStream(fstream);
 			OutputStreamWriter writer = new OutputStreamWriter(gz);
-			writer.write(xml);
-			writer.close();
+			try {
+				AFPChainXMLConverter.toXML(afpChain, writer, ca1, ca2);
+			} finally {
+				writer.close();
+			}
 		}catch (Exception e){//Catch exception if any
 			System.err.println("Error: " + e.getMessage());
 		}
@@ -0,0 +1,465 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.align;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureException;
+import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.align.ce.ConfigStrucAligParams;
+import org.biojava.bio.structure.align.model.AFPChain;
+import org.biojava.bio.structure.align.model.AfpChainWriter;
+import org.biojava.bio.structure.align.util.AtomCache;
+import org.biojava.bio.structure.align.util.ConcurrentResultWriter;
+import org.biojava3.core.util.ConcurrencyTools;
+
+/** Aligns a set of query structures against a database of target structures in parallel.
+ * 
+ * <p>
+ * The query &times; target matrix is cut into tiles of {@link #getQueriesPerTile()} queries and 
+ * {@link #getTargetsPerTile()} targets. The tiles are numbered so that the tiles of the same targets
+ * follow each other; each block of targets is loaded once, shared by all threads that work on its
+ * tiles and released after its last tile is done. The worker threads take the next tile from a
+ * shared counter, so a thread that finishes early simply continues with the next tile.
+ * </p>
+ * <p>
+ * Results are written in the format of {@link MultiThreadedDBSearch} through a
+ * {@link ConcurrentResultWriter}. If a checkpoint file is given, the number of every completed tile
+ * is recorded there after its results have been written. Running the same search again with the
+ * same checkpoint file skips the completed tiles and appends the remaining results to the output file.
+ * A tile that was interrupted is computed again as a whole.
+ * </p>
+ * 
+ * <pre>
+ * MultiQueryDBSearch search = new MultiQueryDBSearch(StructureAlignmentFactory.getAlgorithm(CeMain.algorithmName), cache);
+ * search.addQuery("1cdg.A");
+ * search.addQuery("1tim.A");
+ * search.addTargets(representatives);
+ * search.run(new File("results.out"), new File("results.checkpoint"));
+ * </pre>
+ * 
+ * @since 3.0.6
+ */
+public class MultiQueryDBSearch {
+
+	public static final int DEFAULT_QUERIES_PER_TILE = 4;
+
+	public static final int DEFAULT_TARGETS_PER_TILE = 16;
+
+	private final StructureAlignment algorithm;
+
+	private final AtomCache cache;
+
+	private final List<String> queryNames;
+	private final List<Atom[]> queryAtoms;
+
+	private final List<String> targetNames;
+
+	private int nrCPUs;
+
+	private int queriesPerTile;
+
+	private int targetsPerTile;
+
+	private final AtomicBoolean interrupted;
+
+	private final AtomicInteger completedTiles;
+
+	/** creates a new search
+	 * 
+	 * @param algorithm the algorithm to use; its name and parameters are used to set up one instance per thread
+	 * @param cache the cache the queries and targets are loaded from
+	 */
+	public MultiQueryDBSearch(StructureAlignment algorithm, AtomCache cache){
+		this.algorithm = algorithm;
+		this.cache = cache;
+		queryNames = new ArrayList<String>();
+		queryAtoms = new ArrayList<Atom[]>();
+		targetNames = new ArrayList<String>();
+		nrCPUs = Runtime.getRuntime().availableProcessors();
+		queriesPerTile = DEFAULT_QUERIES_PER_TILE;
+		targetsPerTile = DEFAULT_TARGETS_PER_TILE;
+		interrupted = new AtomicBoolean(false);
+		completedTiles = new AtomicInteger();
+	}
+
+	/** adds a query that is loaded from the AtomCache
+	 * 
+	 * @param name the name of the query, e.g. a PDB ID, chain or domain name
+	 */
+	public void addQuery(String name){
+		addQuery(name, null);
+	}
+
+	/** adds a query with the given CA atoms, e.g. from a custom, user provided file
+	 * 
+	 * @param name the name of the query in the results
+	 * @param ca the CA atoms of the query
+	 */
+	public void addQuery(String name, Atom[] ca){
+		queryNames.add(name);
+		queryAtoms.add(ca);
+	}
+
+	public List<String> getQueryNames() {
+		return queryNames;
+	}
+
+	/** adds a target that is loaded from the AtomCache
+	 * 
+	 * @param name the name of the target, e.g. a PDB ID, chain or domain name
+	 */
+	public void addTarget(String name){
+		targetNames.add(name);
+	}
+
+	public void addTargets(Collection<String> names){
+		targetNames.addAll(names);
+	}
+
+	public List<String> getTargetNames() {
+		return targetNames;
+	}
+
+	public int getNrCPUs() {
+		return nrCPUs;
+	}
+
+	/** sets the number of worker tasks that are submitted to the {@link ConcurrencyTools} thread pool.
+	 * 
+	 * @param nrCPUs the number of workers
+	 */
+	public void setNrCPUs(int nrCPUs) {
+		this.nrCPUs = nrCPUs;
+	}
+
+	public int getQueriesPerTile() {
+		return queriesPerTile;
+	}
+
+	public void setQueriesPerTile(int queriesPerTile) {
+		this.queriesPerTile = queriesPerTile;
+	}
+
+	public int getTargetsPerTile() {
+		return targetsPerTile;
+	}
+
+	public void setTargetsPerTile(int targetsPerTile) {
+		this.targetsPerTile = targetsPerTile;
+	}
+
+	/** the number of tiles of this search. Changing the queries, the targets or the tile size changes the tiles.
+	 * 
+	 * @return the number of tiles
+	 */
+	public int getTileCount(){
+		return getQueryBlockCount() * getTargetBlockCount();
+	}
+
+	/** the number of tiles that have been completed by the current run, not counting the ones from a checkpoint.
+	 * 
+	 * @return the number of completed tiles
+	 */
+	public int getCompletedTileCount(){
+		return completedTiles.get();
+	}
+
+	/** stops the search after the alignments that are currently running. The current tiles are not
+	 * recorded as completed.
+	 */
+	public void interrupt(){
+		interrupted.set(true);
+	}
+
+	/** runs the search
+	 * 
+	 * @param outFile the file the results are written to. When resuming from a checkpoint, the results are appended.
+	 * @param checkpointFile the file that records the completed tiles, or null to not use checkpoints
+	 * @throws IOException if the files can not be written, or if the checkpoint belongs to a different search
+	 * @throws StructureException if a query can not be loaded
+	 */
+	public void run(File outFile, File checkpointFile) throws IOException, StructureException {
+		if ( queriesPerTile < 1 || targetsPerTile < 1)
+			throw new IllegalArgumentException("the tile size must be at least 1");
+
+		interrupted.set(false);
+		completedTiles.set(0);
+
+		final List<Atom[]> queries = new ArrayList<Atom[]>(queryNames.size());
+		for (int i = 0; i < queryNames.size(); i++){
+			Atom[] ca = queryAtoms.get(i);
+			if ( ca == null) {
+				Structure structure = cache.getStructure(queryNames.get(i));
+				ca = StructureTools.getAtomCAArray(structure);
+			}
+			queries.add(ca);
+		}
+
+		final int nrQueryBlocks = getQueryBlockCount();
+		final int nrTiles = getTileCount();
+		String signature = getSignature();
+
+		final BitSet done = new BitSet(nrTiles);
+		boolean resume = checkpointFile != null && checkpointFile.length() > 0;
+		if ( resume)
+			readCheckpoint(checkpointFile, signature, nrTiles, done);
+
+		Writer checkpoint = null;
+		if ( checkpointFile != null) {
+			checkpoint = new BufferedWriter(new FileWriter(checkpointFile, resume));
+			if ( ! resume) {
+				checkpoint.write(signature);
+				checkpoint.write(AFPChain.newline);
+				checkpoint.flush();
+			}
+		}
+		final ConcurrentResultWriter out = new ConcurrentResultWriter(
+				new BufferedWriter(new FileWriter(outFile, resume)), checkpoint);
+
+		try {
+			if ( ! resume) {
+				out.write("# algorithm:" + algorithm.getAlgorithmName() + AFPChain.newline);
+				out.write(MultiThreadedDBSearch.getLegend(algorithm.getAlgorithmName()) + AFPChain.newline);
+			}
+
+			final TargetBlock[] blocks = new TargetBlock[getTargetBlockCount()];
+			for (int b = 0; b < blocks.length; b++){
+				int remaining = 0;
+				for (int q = 0; q < nrQueryBlocks; q++){
+					if ( ! done.get(b * nrQueryBlocks + q))
+						remaining++;
+				}
+				blocks[b] = new TargetBlock(b, remaining);
+			}
+
+			final AtomicInteger nextTile = new AtomicInteger();
+			final String algorithmName = algorithm.getAlgorithmName();
+			final ConfigStrucAligParams params = algorithm.getParameters();
+
+			Callable<Void> worker = new Callable<Void>() {
+				public Void call() throws Exception {
+					int tile;
+					while ( ! interrupted.get() && (tile = nextTile.getAndIncrement()) < nrTiles) {
+						if ( done.get(tile))
+							continue;
+						String results = alignTile(tile / nrQueryBlocks, tile % nrQueryBlocks,
+								blocks[tile / nrQueryBlocks], queries, algorithmName, params);
+						if ( results == null)
+							break;
+						out.writeTile(results, tile);
+						completedTiles.incrementAndGet();
+					}
+					return null;
+				}
+			};
+
+			int nrWorkers = Math.max(1, Math.min(nrCPUs, nrTiles - done.cardinality()));
+			List<Future<Void>> futures = new ArrayList<Future<Void>>(nrWorkers);
+			for (int i = 0; i < nrWorkers; i++)
+				futures.add(ConcurrencyTools.submit(worker));
+
+			// if a worker fails, stop the others and wait for them, so none of them writes after the close
+			Throwable failure = null;
+			for (Future<Void> future : futures){
+				try {
+					future.get();
+				} catch (InterruptedException e){
+					interrupt();
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException e){
+					interrupt();
+					if ( failure == null)
+						failure = e.getCause();
+				}
+			}
+			if ( failure instanceof IOException)
+				throw (IOException) failure;
+			if ( failure != null)
+				throw new StructureException(failure.getMessage(), failure);
+		} finally {
+			out.close();
+		}
+	}
+
+	/** aligns the queries of a query block against the targets of a target block. 
+	 * 
+	 * @return the results, or null if the search was interrupted 
+	 */
+	private String alignTile(int targetBlock, int queryBlock, TargetBlock block, List<Atom[]> queries, 
+			String algorithmName, ConfigStrucAligParams params) throws StructureException {
+
+		int firstQuery = queryBlock * queriesPerTile;
+		int lastQuery = Math.min(queries.size(), firstQuery + queriesPerTile);
+
+		StringBuilder results = new StringBuilder();
+		try {
+			Target[] targets = block.getTargets();
+
+			StructureAlignment algorithm = CallableStructureAlignment.getThreadAlgorithm(algorithmName);
+			algorithm.setParameters(params);
+
+			// all queries against one target, while the target is still in the processor cache
+			for (Target target : targets){
+				if ( target.ca == null)
+					continue;
+				for (int q = firstQuery; q < lastQuery; q++){
+					if ( interrupted.get())
+						return null;
+					try {
+						// the atoms are shared between threads, the algorithms get their own copies
+						Atom[] ca1 = StructureTools.cloneCAArray(queries.get(q));
+						Atom[] ca2 = StructureTools.cloneCAArray(target.ca);
+
+						AFPChain afpChain = algorithm.align(ca1, ca2);
+						afpChain.setName1(queryNames.get(q));
+						afpChain.setName2(target.name);
+						afpChain.setDescription2(target.description);
+						AfpChainWriter.toDBSearchResult(afpChain, results);
+					} catch (Exception e){
+						System.err.println("Error while aligning " + queryNames.get(q) + " and " + target.name);
+						e.printStackTrace();
+					}
+				}
+			}
+		} finally {
+			block.tileDone();
+		}
+		return results.toString();
+	}
+
+	private int getQueryBlockCount(){
+		return (queryNames.size() + queriesPerTile - 1) / queriesPerTile;
+	}
+
+	private int getTargetBlockCount(){
+		return (targetNames.size() + targetsPerTile - 1) / targetsPerTile;
+	}
+
+	/** a line that identifies the tiles of this search, so that a checkpoint is not applied to a different search */
+	private String getSignature(){
+		long hash = 17;
+		for (String name : queryNames)
+			hash = 31 * hash + name.hashCode();
+		for (String name : targetNames)
+			hash = 31 * hash + name.hashCode();
+
+		return "#checkpoint algorithm=" + algorithm.getAlgorithmName() + 
+				" queries=" + queryNames.size() + " targets=" + targetNames.size() +
+				" queriesPerTile=" + queriesPerTile + " targetsPerTile=" + targetsPerTile + 
+				" names=" + Long.toHexString(hash);
+	}
+
+	private static void readCheckpoint(File checkpointFile, String signature, int nrTiles, BitSet done) throws IOException {
+		BufferedReader reader = new BufferedReader(new FileReader(checkpointFile));
+		try {
+			String line = reader.readLine();
+			if ( line == null || ! line.equals(signature))
+				throw new IOException("The checkpoint " + checkpointFile + " was written for a different search: " + line);
+
+			while ( (line = reader.readLine()) != null) {
+				line = line.trim();
+				if ( line.length() == 0)
+					continue;
+				try {
+					int tile = Integer.parseInt(line);
+					if ( tile >= 0 && tile < nrTiles)
+						done.set(tile);
+				} catch (NumberFormatException e){
+					// an incomplete last line, the tile is computed again
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static class Target {
+		String name;
+		Atom[] ca;
+		String description;
+	}
+
+	/** the targets of one block. They are loaded by the first thread that needs them and released
+	 * when the last remaining tile of the block is done.
+	 */
+	private class TargetBlock {
+
+		private final int block;
+		private int remainingTiles;
+		private Target[] targets;
+
+		TargetBlock(int block, int remainingTiles){
+			this.block = block;
+			this.remainingTiles = remainingTiles;
+		}
+
+		synchronized Target[] getTargets() {
+			if ( targets == null) {
+				int first = block * targetsPerTile;
+				int last = Math.min(targetNames.size(), first + targetsPerTile);
+				Target[] loaded = new Target[last - first];
+				for (int i = first; i < last; i++){
+					Target target = new Target();
+					target.name = targetNames.get(i);
+					try {
+						Structure structure = cache.getStructure(target.name);
+						target.ca = StructureTools.getAtomCAArray(structure);
+						target.description = structure.getPDBHeader().getDescription();
+					} catch (Exception e){
+						System.err.println("Error while loading target structure " + target.name);
+						e.printStackTrace();
+					}
+					if ( target.description == null)
+						target.description = "";
+					loaded[i - first] = target;
+				}
+				targets = loaded;
+			}
+			return targets;
+		}
+
+		synchronized void tileDone() {
+			remainingTiles--;
+			if ( remainingTiles <= 0)
+				targets = null;
+		}
+	}
+}
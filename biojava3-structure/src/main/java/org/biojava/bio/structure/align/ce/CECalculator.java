@@ -31,9 +31,9 @@ import java.util.List;
 import org.biojava.bio.structure.Atom;
 import org.biojava.bio.structure.Calc;
 import org.biojava.bio.structure.Group;
-import org.biojava.bio.structure.SVDSuperimposer;
 import org.biojava.bio.structure.StructureException;
 import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.SuperPositionQCP;
 import org.biojava.bio.structure.align.model.AFP;
 import org.biojava.bio.structure.align.model.AFPChain;
 import org.biojava.bio.structure.align.util.AFPAlignmentDisplay;
@@ -362,55 +362,33 @@ public class CECalculator {
 	 */
 	private double[][] initIntraDistmatrix(Atom[] ca, int nse) throws StructureException
 	{
-
+		if ( params.getScoringStrategy() == CeParameters.DEFAULT_SCORING_STRATEGY)
+			return CeDistanceMatrix.getIntraDistances(ca);
 
 		double[][] intraDist = new double[nse][nse];
 
-		// 
+		// all scoring strategies are symmetric
 		for(int ise1=0; ise1<nse; ise1++)  {
 
-			for(int ise2=0; ise2<nse; ise2++)  {				
-				intraDist[ise1][ise2] = getDistanceWithSidechain(ca[ise1], ca[ise2]);            
-
+			for(int ise2=ise1; ise2<nse; ise2++)  {
+				intraDist[ise1][ise2] = getDistanceWithSidechain(ca[ise1], ca[ise2]);
+				intraDist[ise2][ise1] = intraDist[ise1][ise2];
 			}
 		}
 		return intraDist;
 	}
 
 
+	/** Calculate the sums of the distance differences of all pairs of fragments.
+	 * Requires the intra-molecular distance matrices, which are set up by
+	 * {@link #extractFragments(AFPChain, Atom[], Atom[])}.
+	 *
+	 * @see CeDistanceMatrix#getSumOfDistances(double[][], double[][], int, int)
+	 */
 	public double[][] initSumOfDistances(int nse1, int nse2, int winSize, int  winSizeComb1, Atom[] ca1, Atom[] ca2) {
 
-		double d;
-
-		double[][] mat   = new double[nse1][nse2];
-
-		// init the initial mat[] array.
 		// at this stage mat contains the sum of the distances of fragments of the matrices dist1, dist
-		for(int ise1=0; ise1<nse1; ise1++) {
-			for(int ise2=0; ise2<nse2; ise2++) {
-
-				mat[ise1][ise2]=-1.0;
-
-				if(ise1>nse1-winSize || ise2>nse2-winSize) continue;
-
-				d=0.0; 
-				// this sums up over the distances of the fragments
-				for(int is1=0; is1<winSize-2; is1++)
-					for(int is2=is1+2; is2<winSize; is2++) {
-						//System.out.println("pos1 :" +  (ise1+is1) + " " + (ise1+is2) +  " " + (ise2+is1) + " " + (ise2+is2));
-						// is this abs or floor? check!
-						d+=Math.abs(dist1[ise1+is1][ise1+is2]-dist2[ise2+is1][ise2+is2]);							
-					}					
-				mat[ise1][ise2]=d/winSizeComb1;					
-
-				//System.out.println("mat ["+ise1+"]["+ise2+"]="+mat[ise1][ise2]);
-			}
-
-		}
-
-		// verified: mat[][] probably ok.
-
-		return mat;
+		return CeDistanceMatrix.getSumOfDistances(dist1, dist2, winSize, winSizeComb1);
 	}
 
 
@@ -1893,25 +1871,19 @@ nBestTrace=nTrace;
 	public double calc_rmsd(Atom[] pro1, Atom[] pro2, int strLen, boolean storeTransform, boolean show) throws StructureException {
 
 		Atom[] cod1 = getAtoms(pro1,  strLen,false);
-		Atom[] cod2 = getAtoms(pro2,  strLen,true);
+		Atom[] cod2 = getAtoms(pro2,  strLen,false);
 
 		assert(cod1.length == cod2.length);
-		SVDSuperimposer svd = new SVDSuperimposer(cod1, cod2);
 
-		Matrix matrix = svd.getRotation();
-		Atom shift = svd.getTranslation();
+		// QCP does not move the atoms, so they don't need to be cloned
+		if ( ! storeTransform)
+			return SuperPositionQCP.calcRmsd(cod1, cod2);
 
-		if ( storeTransform) {
-			r=matrix;
-			t = shift;
-		}
-		for (Atom a : cod2){
+		SuperPositionQCP qcp = new SuperPositionQCP(cod1, cod2);
+
+		r = qcp.getRotation();
+		t = qcp.getTranslation();
 
-			Calc.rotate(a.getGroup(), matrix);
-			Calc.shift(a.getGroup(),  shift);
-			//Calc.rotate(a,r);
-			//Calc.shift(a,t);
-		}
 		//		if ( show){
 		//			StructureAlignmentJmol jmol = new StructureAlignmentJmol();
 		//
@@ -1924,7 +1896,7 @@ nBestTrace=nTrace;
 		//			jmol2.evalString("select * ; wireframe off; spacefill off;  backbone on; color chain; select ligand;color cpk; wireframe 40;spacefill 120;  ");
 		//			jmol2.setTitle("calCaRmsd - pdb2");
 		//		}
-		return SVDSuperimposer.getRMS(cod1, cod2);
+		return qcp.getRmsd();
 
 	}
 
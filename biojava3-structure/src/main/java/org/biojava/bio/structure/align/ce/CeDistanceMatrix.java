@@ -0,0 +1,209 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.align.ce;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.contact.ContactTools;
+import org.biojava3.core.util.ConcurrencyTools;
+
+/** Builds the matrices of the first stage of CE: the intra-molecular distance matrices
+ * and the matrix of the sums of distance differences of all pairs of fragments.
+ *
+ * <p>
+ * The fragment matrix is computed along its diagonals. Consecutive fragment pairs on a
+ * diagonal share all but one residue, so the sum of the next pair is derived from the previous
+ * one by adding the new and subtracting the dropped distance differences, which needs O(winSize)
+ * instead of O(winSize<sup>2</sup>) operations per cell. To keep rounding errors from
+ * accumulating, the sum is recomputed from scratch at regular intervals. Large matrices are
+ * filled in parallel on the shared {@link ConcurrencyTools} thread pool; the calling thread
+ * works on the matrix as well, so this is safe to call from tasks running in that pool.
+ * </p>
+ *
+ * @since 3.0.6
+ */
+public class CeDistanceMatrix {
+
+	/** the number of steps along a diagonal after which the window sum is recomputed */
+	private static final int RESUM_INTERVAL = 32;
+
+	/** matrices with fewer cells are not computed in parallel */
+	private static final int PARALLEL_THRESHOLD = 200 * 200;
+
+	/** the number of chunks per pool thread, for load balancing */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private CeDistanceMatrix(){
+	}
+
+	/** Calculate the matrix of CA-CA distances of a protein, as used by the
+	 * default CE scoring strategy.
+	 *
+	 * @param ca the CA atoms
+	 * @return a symmetric matrix of distances
+	 */
+	public static double[][] getIntraDistances(Atom[] ca){
+		return ContactTools.getDistanceMatrix(ca);
+	}
+
+	/** Calculate the matrix of the sums of distance differences of all pairs of fragments of length winSize.
+	 * The fragments starting at positions where they would not fit into the protein are set to -1.
+	 *
+	 * @param dist1 the intra-molecular distances of protein 1
+	 * @param dist2 the intra-molecular distances of protein 2
+	 * @param winSize the fragment length
+	 * @param winSizeComb1 the number of distances compared per fragment pair, (winSize-1)*(winSize-2)/2
+	 * @return a matrix of size dist1.length x dist2.length
+	 */
+	public static double[][] getSumOfDistances(double[][] dist1, double[][] dist2,
+			final int winSize, final int winSizeComb1){
+
+		final int nse1 = dist1.length;
+		final int nse2 = dist2.length;
+
+		final double[][] mat = new double[nse1][nse2];
+		for (double[] row : mat)
+			Arrays.fill(row, -1.0);
+
+		if ( nse1 < winSize || nse2 < winSize)
+			return mat;
+
+		// the distances between residues k apart, stored by diagonal, so they are read sequentially
+		final double[][] band1 = getBands(dist1, winSize);
+		final double[][] band2 = getBands(dist2, winSize);
+
+		// diagonal offsets from -(nse1-winSize) to (nse2-winSize)
+		final int minOffset = -(nse1 - winSize);
+		final int diagonals = (nse2 - winSize) - minOffset + 1;
+
+		ExecutorService pool = null;
+		int chunks = 1;
+		if ( (long) nse1 * nse2 >= PARALLEL_THRESHOLD) {
+			pool = ConcurrencyTools.getThreadPool();
+			int threads = Runtime.getRuntime().availableProcessors();
+			chunks = Math.min(diagonals, threads * CHUNKS_PER_THREAD);
+		}
+
+		if ( chunks <= 1) {
+			for (int d = 0; d < diagonals; d++)
+				fillDiagonal(mat, band1, band2, d + minOffset, winSize, winSizeComb1);
+			return mat;
+		}
+
+		// the chunks interleave the diagonals, so each one gets long and short ones
+		final int nrChunks = chunks;
+		final AtomicInteger nextChunk = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(nrChunks);
+		Runnable worker = new Runnable() {
+			public void run() {
+				int chunk;
+				while ( (chunk = nextChunk.getAndIncrement()) < nrChunks) {
+					try {
+						for (int d = chunk; d < diagonals; d += nrChunks)
+							fillDiagonal(mat, band1, band2, d + minOffset, winSize, winSizeComb1);
+					} finally {
+						done.countDown();
+					}
+				}
+			}
+		};
+
+		int helpers = Math.min(nrChunks, Runtime.getRuntime().availableProcessors()) - 1;
+		try {
+			for (int i = 0; i < helpers; i++)
+				pool.execute(worker);
+		} catch (RejectedExecutionException e){
+			// the pool is shutting down, do the rest in this thread
+		}
+		// work in this thread too, so all chunks get done even if the pool is busy
+		worker.run();
+
+		// the remaining chunks are being worked on by pool threads right now
+		boolean interrupted = false;
+		while (true) {
+			try {
+				done.await();
+				break;
+			} catch (InterruptedException e){
+				interrupted = true;
+			}
+		}
+		if ( interrupted)
+			Thread.currentThread().interrupt();
+
+		return mat;
+	}
+
+	/** band[k][p] = dist[p][p+k], for 2 <= k < winSize */
+	private static double[][] getBands(double[][] dist, int winSize){
+		int nse = dist.length;
+		double[][] band = new double[winSize][];
+		for (int k = 2; k < winSize; k++){
+			double[] b = new double[nse - k];
+			for (int p = 0; p < b.length; p++)
+				b[p] = dist[p][p + k];
+			band[k] = b;
+		}
+		return band;
+	}
+
+	/** fill the cells mat[i][i+offset] */
+	private static void fillDiagonal(double[][] mat, double[][] band1, double[][] band2,
+			int offset, int winSize, int winSizeComb1){
+
+		int nse1 = mat.length;
+		int nse2 = mat[0].length;
+		int start = Math.max(0, -offset);
+		int end = Math.min(nse1 - winSize, nse2 - winSize - offset);
+
+		double d = 0.0;
+		for (int ise1 = start; ise1 <= end; ise1++){
+			if ( (ise1 - start) % RESUM_INTERVAL == 0) {
+				// same order as the original CE code
+				d = 0.0;
+				for (int is1 = 0; is1 < winSize - 2; is1++){
+					for (int is2 = is1 + 2; is2 < winSize; is2++){
+						int k = is2 - is1;
+						d += Math.abs(band1[k][ise1 + is1] - band2[k][ise1 + is1 + offset]);
+					}
+				}
+			} else {
+				// the fragments moved by one: add the pairs that end at the new last residue,
+				// drop the ones that started at the previous first residue
+				int last = ise1 + winSize - 1;
+				int first = ise1 - 1;
+				for (int k = 2; k < winSize; k++){
+					d += Math.abs(band1[k][last - k] - band2[k][last - k + offset])
+							- Math.abs(band1[k][first] - band2[k][first + offset]);
+				}
+			}
+			mat[ise1][ise1 + offset] = d / winSizeComb1;
+		}
+	}
+}
@@ -32,7 +32,7 @@ import java.util.List;
 import org.biojava.bio.structure.Atom;
 import org.biojava.bio.structure.AtomImpl;
 import org.biojava.bio.structure.Calc;
-import org.biojava.bio.structure.SVDSuperimposer;
+import org.biojava.bio.structure.SuperPositionQCP;
 import org.biojava.bio.structure.align.model.AFP;
 import org.biojava.bio.structure.align.model.AFPChain;
 import org.biojava.bio.structure.jama.Matrix;
@@ -96,6 +96,11 @@ public class AFPCalculator
 		afpChain.setFocusRes1(new int[minLen]);
 		afpChain.setFocusRes2(new int[minLen]);
 
+		// only the RMSD of the fragments is needed, which QCP calculates without the rotation
+		double[] coords1 = SuperPositionQCP.getCoordinates(ca1);
+		double[] coords2 = SuperPositionQCP.getCoordinates(ca2);
+		SuperPositionQCP qcp = new SuperPositionQCP();
+
 		for(p1 = 0; p1 < prot1Length - fragLen; p1 += add )    {
 			for(p2 = 0; p2 < prot2Length - fragLen; p2 += add)     {
 				n0 ++;
@@ -111,10 +116,10 @@ public class AFPCalculator
 
 				// here FATCAT does a a jacobi transformation
 				//rmsd = kearsay(fragLen, ca1[p1], ca2[p2], r, t);
-				// we use the BioJava SVD instead...
+				// we use the QCP superposition instead...
 
 				//
-				rmsd = getRmsd(ca1,ca2,fragLen, p1,p2,r,t);
+				rmsd = qcp.getRmsd(coords1, p1, coords2, p2, fragLen);
 
 				//printf("afp %d: p1 %d p2 %d rmsd %f end-to-end dis %f\n", afpSet.size(), p1, p2, rmsd, filter1);
 
@@ -196,73 +201,6 @@ public class AFPCalculator
 		return false;
 	}
 
-	private static final double getRmsd(Atom[] ca1, Atom[] ca2, int fragLen, int p1, int p2, Matrix m, Atom t) {
-
-
-		double rmsd = 99.9;
-		try {
-			Atom[] catmp1 = getFragment(ca1, p1, fragLen,false);
-			Atom[] catmp2 = getFragment(ca2, p2, fragLen,true); // clone the atoms for fragment 2 so we can manipulate them...
-
-			if ( catmp1 == null) {
-				System.err.println("could not get fragment for ca1 " + p1 + " " + fragLen );
-				return rmsd;
-
-			}
-
-			if ( catmp2 == null) {
-				System.err.println("could not get fragment for ca2 " + p2 + " " + fragLen );
-				return rmsd;
-
-			}
-
-			SVDSuperimposer svd = new SVDSuperimposer(catmp1, catmp2);
-
-			m = svd.getRotation();
-			t = svd.getTranslation();
-
-			for (Atom a : catmp2){
-				Calc.rotate(a,m);
-				Calc.shift(a,t);
-
-			}
-
-			rmsd = SVDSuperimposer.getRMS(catmp1,catmp2);
-
-		} catch (Exception e){
-			e.printStackTrace();
-		}
-
-		return rmsd;
-	}
-
-	/** get a continue subset of Atoms based by the starting position and the length
-	 *
-	 * @param caall
-	 * @param pos ... the start position
-	 * @param fragmentLength .. the length of the subset to extract.
-	 * @param clone: returns a copy of the atom (in case the coordinate get manipulated...)
-	 * @return an Atom[] array
-	 */
-	private static final Atom[] getFragment(Atom[] caall, int pos, int fragmentLength , boolean clone){
-
-		if ( pos+fragmentLength > caall.length)
-			return null;
-
-		Atom[] tmp = new Atom[fragmentLength];
-
-		for (int i=0;i< fragmentLength;i++){
-			if (clone){
-				tmp[i] = (Atom)caall[i+pos].clone();
-			} else {
-				tmp[i] = (Atom)caall[i+pos];
-			}
-		}
-		return tmp;
-
-	}
-
-
 	/**
 	 * Assign score to each AFP
 	 */
@@ -30,8 +30,8 @@ import java.util.List;
 
 import org.biojava.bio.structure.Atom;
 import org.biojava.bio.structure.Calc;
-import org.biojava.bio.structure.SVDSuperimposer;
 import org.biojava.bio.structure.StructureException;
+import org.biojava.bio.structure.SuperPositionQCP;
 import org.biojava.bio.structure.align.AFPTwister;
 import org.biojava.bio.structure.align.model.AFP;
 import org.biojava.bio.structure.align.model.AFPChain;
@@ -104,6 +104,8 @@ public class AFPChainer
      double  maxsco = 0;
      int     maxafp = 0;
      int[] list = new int[afpNum];
+     // conn and dvar of the current pair, kept primitive in the inner loop
+     double[] connDvar = new double[2];
 
      int maxGap = params.getMaxGap();
      int fragLen = params.getFragLen();
@@ -127,8 +129,8 @@ public class AFPChainer
         //printf("afp %d, compatible %d\n", i, n);
         for(j0 = 0; j0 < n; j0 ++)      {
            j = list[j0];
-           isConnected = afpPairConn(j, i, params,afpChain); //note: j, i
-           Double conn = afpChain.getConn();
+           isConnected = afpPairConn(j, i, params, afpChain, connDvar); //note: j, i
+           double conn = connDvar[0];
            int t = 0;
            if ( isConnected)
               t=1;
@@ -310,10 +312,20 @@ public class AFPChainer
   public static boolean afpPairConn(int afp1, int afp2,  FatCatParameters params, AFPChain afpChain)
  
   {
-     
-     Double conn = afpChain.getConn();
-     Double dvar = afpChain.getDVar();
-     
+     double[] connDvar = new double[2];
+     boolean ch = afpPairConn(afp1, afp2, params, afpChain, connDvar);
+
+     afpChain.setConn(connDvar[0]);
+     afpChain.setDVar(connDvar[1]);
+     return ch;
+  }
+
+  /** Same as {@link #afpPairConn(int, int, FatCatParameters, AFPChain)}, but returns conn and dvar
+   * in connDvar[0] and connDvar[1] instead of boxing them into the AFPChain.
+   * This is the version used in the O(afpNum^2) chaining loop.
+   */
+  private static boolean afpPairConn(int afp1, int afp2,  FatCatParameters params, AFPChain afpChain, double[] connDvar)
+  {
      double misScore = params.getMisScore();
      double maxPenalty = params.getMaxPenalty();
      double disCut = params.getDisCut();
@@ -350,11 +362,8 @@ public class AFPChainer
         tp = torsionPenalty * wt;
      }
 
-     dvar = d;
-     conn = tp + gp;
-
-     afpChain.setConn(conn);
-     afpChain.setDVar(dvar);
+     connDvar[0] = tp + gp;
+     connDvar[1] = d;
      return ch;
   }
 
@@ -674,7 +683,7 @@ public class AFPChainer
 
     for ( int i =0 ; i< focusResn;i++){
        tmp1[i] =       ca1[focusRes1[i]];
-       tmp2[i] = (Atom)ca2[focusRes2[i]].clone();
+       tmp2[i] =       ca2[focusRes2[i]];
        if (tmp1[i].getCoords() == null){
           System.err.println("tmp1 got null: " +i + " pos: " + focusRes1[i]);
        }
@@ -686,7 +695,8 @@ public class AFPChainer
     }
     double rmsd = 99;
     try {
-       rmsd = getRmsd(tmp1,tmp2);
+       // QCP does not move the atoms, so there is no need to clone them
+       rmsd = SuperPositionQCP.calcRmsd(tmp1,tmp2);
 
     } catch (Exception e){
        e.printStackTrace();
@@ -694,65 +704,5 @@ public class AFPChainer
     return rmsd;
 
  }
- /** Calculate the RMSD for two sets of atoms. Rotates the 2nd atom set so make sure this does not cause problems later
- *
- *
- * @param catmp1
- * @return
- */
-private static double getRmsd(Atom[] catmp1, Atom[] catmp2) throws StructureException{
-      
-   SVDSuperimposer svd = new SVDSuperimposer(catmp1, catmp2);
-
-   Matrix m = svd.getRotation();
-   Atom t = svd.getTranslation();
-   
-   for (Atom a : catmp2){
-      Calc.rotate(a,m);
-      Calc.shift(a,t);
-   
-   }
-
-   double rmsd = SVDSuperimposer.getRMS(catmp1,catmp2);
-   
-//   if ( showAlig) {
-//      StructureAlignmentJmol jmol = new StructureAlignmentJmol();
-//      jmol.setTitle("AFPCHainer: getRmsd" + rmsd);
-//
-//      Chain c1 = new ChainImpl();
-//      c1.setName("A");
-//      for ( Atom a : catmp1){
-//         c1.addGroup(a.getParent());
-//      }
-//
-//      Chain c2 = new ChainImpl();
-//      c2.setName("B");
-//      for ( Atom a : catmp2){
-//         c2.addGroup(a.getParent());
-//      }
-//      
-//      Structure fake = new StructureImpl();
-//      fake.setPDBCode("AFPCHainer: getRmsd" + rmsd);
-//      List<Chain> model1 = new ArrayList<Chain>();
-//      model1.add(c1);
-//      List<Chain> model2 = new ArrayList<Chain>();
-//      model2.add(c2);
-//      fake.addModel(model1);
-//      fake.addModel(model2);
-//      fake.setNmr(true);
-//
-//      jmol.setStructure(fake);
-//      jmol.evalString("select *; backbone 0.4; wireframe off; spacefill off; " +
-//      "select not protein and not solvent; spacefill on;");
-//      jmol.evalString("select */1 ; color red; model 1; ");
-//
-//      // now show both models again.
-//      jmol.evalString("model 0;");
-//   }
-   
-   
-   return rmsd;
-
-}
 
 }
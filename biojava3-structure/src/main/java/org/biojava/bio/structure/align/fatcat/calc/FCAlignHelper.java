@@ -38,6 +38,8 @@ public class FCAlignHelper
    char[][]    trace; //trace-record
    char[][]    etrace; //trace-record
    char[][]    dtrace; //trace-record
+   double[]    CC; //note N + 1
+   double[]    DD;
    int     B1; //beginning position of protein 1 in alignment
    int     B2; //beginning position of protein 2 in alignment
    int     E1; //end position of protein 1 in alignment
@@ -65,14 +67,27 @@ public class FCAlignHelper
     * @param h0
     */
    public FCAlignHelper(double[][] sij0, int M0, int N0, double g0, double h0){
+      align(sij0, M0, N0, g0, h0);
+   }
+
+   /** creates a helper without running an alignment. Use {@link #align(double[][], int, int, double, double)}
+    * to run alignments; the trace buffers are kept and only grown between calls.
+    */
+   FCAlignHelper(){
+   }
+
+   /** do an alignment given the provided matrix sij0, reusing the buffers of a previous
+    * alignment if they are large enough. sij0 is only read during this call.
+    * 
+    * @param sij0 - the matrix to perform the calculations on.
+    * @param M0
+    * @param N0
+    * @param g0
+    * @param h0
+    */
+   void align(double[][] sij0, int M0, int N0, double g0, double h0){
       init(M0, N0, g0, h0);
-      int     i, j;
-      for(i = 0; i < M; i ++) {
-         for(j = 0; j < N; j ++){ 
-            sij[i][j] = sij0[i][j];
-            //System.out.println(i+"-"+j+":" +sij[i][j]);
-         }         
-      }
+      sij = sij0;
       
       doAlign();
    }
@@ -85,18 +100,22 @@ public class FCAlignHelper
       g = g0; //gap-create
       h = h0; //gap-extend
       m = g + h; //gap-create + gap-extend
-      trace  = new char[M+1][N+1];
-      etrace = new char[M+1][N+1];
-      dtrace = new char[M+1][N+1];
+      // row 0 and column 0 of the trace records are never written, so the
+      // buffers can be reused as long as they are large enough
+      if ( trace == null || trace.length < M+1 || trace[0].length < N+1) {
+         trace  = new char[M+1][N+1];
+         etrace = new char[M+1][N+1];
+         dtrace = new char[M+1][N+1];
+         CC = new double[N+1];
+         DD = new double[N+1];
+      }
       B1 = B2 = E1 = E2 = 0;
       alignScore = 0;
       last = 0;
-      sapp = new int[M+N];
+      if ( sapp == null || sapp.length < M+N)
+         sapp = new int[M+N];
       sapp0 = sapp;
       sappPos = 0;
-      sij = new double[M][N];
-      seq1 = new char[M+1];
-      seq2 = new char[N+1];
       aln1 = aln2 = mark = null;
       identity = similarity = 0;
    }
@@ -110,8 +129,7 @@ public class FCAlignHelper
 
       int     i, j;
       double  s, e, c, d, wa;
-      double[]  CC = new double[N+1]; //note N + 1
-      double[]  DD = new double[N+1];
+      //CC and DD have at least N + 1 elements, initialized below
       double  maxs = -100;
       char    trace_e, trace_d;
 
@@ -316,6 +316,8 @@ public class StructureAlignmentOptimizer
       alnLen = 0;
 
       int[][]     alnList =  new int[2][maxLen];
+      // the dynamic programming buffers are reused across iterations
+      FCAlignHelper aln = new FCAlignHelper();
       for(i = 0; i < maxi; i ++)      {
 
          //if ( debug){
@@ -324,7 +326,7 @@ public class StructureAlignmentOptimizer
 
          calMatrix();
 
-         FCAlignHelper aln = new FCAlignHelper(sij,pro1Len,pro2Len,gapIni, gapExt);
+         aln.align(sij,pro1Len,pro2Len,gapIni, gapExt);
 
          //ALIGN0 *aln = new ALIGN0(sij, pro1Len, pro2Len, gapIni, gapExt);
          alnLen = aln.getAlignPos(alnList);
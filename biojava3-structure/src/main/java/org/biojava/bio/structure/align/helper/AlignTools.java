@@ -26,6 +26,7 @@ import org.biojava.bio.structure.Atom;
 import org.biojava.bio.structure.AtomImpl;
 import org.biojava.bio.structure.Calc;
 import org.biojava.bio.structure.StructureException;
+import org.biojava.bio.structure.contact.ContactTools;
 import org.biojava.bio.structure.jama.Matrix;
 
 public class AlignTools {
@@ -172,30 +173,8 @@ public class AlignTools {
      */
     public static Matrix getDistanceMatrix(Atom[] ca1, Atom[]ca2){
         
-      int r = ca1.length;
-      int c = ca2.length;
-      
-      Matrix out = new Matrix(r,c);
-      
-      for (int i=0; i<r; i++) {
-          Atom a1 = ca1[i];
-          for (int j=0;j<c;j++){
-              Atom b1 = ca2[j];
-            
-//              double d = Math.sqrt(
-//                      (a1.getX()-b1.getX()) * (a1.getX()-b1.getX()) + 
-//                      (a1.getY()-b1.getY()) * (a1.getY()-b1.getY()) +
-//                      (a1.getZ()-b1.getZ()) * (a1.getZ()-b1.getZ()));    
-              try {
-                  double d = Calc.getDistance(a1,b1);
-                  out.set(i,j,d);
-              } catch (StructureException e) {
-                  e.printStackTrace();
-                  out.set(i,j,999);
-              }
-          }
-      }
-      return out;  
+      double[][] dist = ContactTools.getDistanceMatrix(ca1, ca2);
+      return new Matrix(dist, ca1.length, ca2.length);
     }   
     
 
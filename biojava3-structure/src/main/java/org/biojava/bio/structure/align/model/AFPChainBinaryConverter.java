@@ -0,0 +1,320 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.align.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+import org.biojava.bio.structure.align.util.AFPAlignmentDisplay;
+import org.biojava.bio.structure.jama.Matrix;
+
+/** A compact binary encoding of an {@link AFPChain}, for storing large numbers of
+ * alignment results (e.g. the output of a database search).
+ * 
+ * <p>The encoding carries the same information as the XML written by
+ * {@link org.biojava.bio.structure.align.xml.AFPChainXMLConverter}, except that the
+ * aligned residues are stored as atom array positions rather than PDB residue numbers.
+ * The positions are written as variable length deltas, so a typical alignment takes
+ * only a few bytes per aligned pair. Neither method keeps any state, so they can be
+ * called from multiple threads at the same time.
+ * </p>
+ * 
+ * @since 3.0.6
+ */
+public class AFPChainBinaryConverter {
+
+	/** the version of the encoding that is written by this class
+	 * 
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	/** Writes an AFPChain to an OutputStream. The stream is flushed, but not closed.
+	 * 
+	 * @param afpChain the alignment to write
+	 * @param out the stream to write to
+	 * @throws IOException
+	 */
+	public static void write(AFPChain afpChain, OutputStream out) throws IOException {
+		DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(out));
+		write(afpChain, (DataOutput) dout);
+		dout.flush();
+	}
+
+	/** Writes an AFPChain. Several alignments can be written to the same output one after the other.
+	 * 
+	 * @param afpChain the alignment to write
+	 * @param out where to write to
+	 * @throws IOException
+	 */
+	public static void write(AFPChain afpChain, DataOutput out) throws IOException {
+
+		out.writeByte(FORMAT_VERSION);
+
+		writeString(out, afpChain.getName1());
+		writeString(out, afpChain.getName2());
+		writeString(out, afpChain.getAlgorithmName());
+		writeString(out, afpChain.getVersion());
+		writeString(out, afpChain.getDescription2());
+
+		out.writeInt(afpChain.getCa1Length());
+		out.writeInt(afpChain.getCa2Length());
+		out.writeInt(afpChain.getAlnLength());
+		out.writeInt(afpChain.getGapLen());
+		out.writeInt(afpChain.getOptLength());
+		out.writeInt(afpChain.getTotalLenIni());
+		out.writeInt(afpChain.getAfpSet() == null ? 0 : afpChain.getAfpSet().size());
+		out.writeBoolean(afpChain.isSequentialAlignment());
+
+		out.writeDouble(afpChain.getAlignScore());
+		out.writeDouble(afpChain.getAlignScoreUpdate());
+		out.writeDouble(afpChain.getChainRmsd());
+		out.writeDouble(afpChain.getIdentity());
+		out.writeDouble(afpChain.getSimilarity());
+		out.writeDouble(afpChain.getNormAlignScore());
+		out.writeDouble(afpChain.getProbability());
+		out.writeDouble(afpChain.getTotalRmsdIni());
+		out.writeDouble(afpChain.getTotalRmsdOpt());
+		out.writeDouble(afpChain.getTMScore());
+		out.writeLong(afpChain.getCalculationTime());
+
+		int[] optLen = afpChain.getOptLen();
+		int blockNum = optLen == null ? 0 : afpChain.getBlockNum();
+		out.writeInt(blockNum);
+		if ( blockNum == 0)
+			return;
+
+		int[][][] optAln     = afpChain.getOptAln();
+		int[] blockSize      = afpChain.getBlockSize();
+		int[] blockGap       = afpChain.getBlockGap();
+		double[] blockScore  = afpChain.getBlockScore();
+		double[] blockRmsd   = afpChain.getBlockRmsd();
+		Matrix[] blockMatrix = afpChain.getBlockRotationMatrix();
+		Atom[] blockShift    = afpChain.getBlockShiftVector();
+
+		for ( int b = 0 ; b < blockNum ; b++){
+			out.writeInt(blockSize  == null ? 0 : blockSize[b]);
+			out.writeInt(blockGap   == null ? 0 : blockGap[b]);
+			out.writeDouble(blockScore == null ? 0 : blockScore[b]);
+			out.writeDouble(blockRmsd  == null ? 0 : blockRmsd[b]);
+
+			int len = optLen[b];
+			writeVarInt(out, len);
+			for ( int row = 0 ; row < 2 ; row++){
+				int[] pos = optAln[b][row];
+				int prev = 0;
+				for ( int i = 0 ; i < len ; i++){
+					int d = pos[i] - prev;
+					// zigzag, so that small negative steps stay small as well
+					writeVarInt(out, (d << 1) ^ (d >> 31));
+					prev = pos[i];
+				}
+			}
+
+			Matrix m = blockMatrix == null ? null : blockMatrix[b];
+			Atom shift = blockShift == null ? null : blockShift[b];
+			boolean hasSuperposition = m != null && shift != null;
+			out.writeBoolean(hasSuperposition);
+			if ( hasSuperposition){
+				for ( int i = 0 ; i < 3 ; i++)
+					for ( int j = 0 ; j < 3 ; j++)
+						out.writeDouble(m.get(i,j));
+				out.writeDouble(shift.getX());
+				out.writeDouble(shift.getY());
+				out.writeDouble(shift.getZ());
+			}
+		}
+	}
+
+	/** Reads an AFPChain that has been written with {@link #write(AFPChain, DataOutput)}
+	 * and rebuilds the alignment strings for the provided atoms.
+	 * 
+	 * @param in where to read from
+	 * @param ca1 the atoms of the first structure
+	 * @param ca2 the atoms of the second structure
+	 * @return the AFPChain
+	 * @throws IOException
+	 */
+	public static AFPChain read(DataInput in, Atom[] ca1, Atom[] ca2) throws IOException {
+		AFPChain afpChain = read(in);
+		AFPAlignmentDisplay.getAlign(afpChain, ca1, ca2);
+		return afpChain;
+	}
+
+	/** Reads an AFPChain that has been written with {@link #write(AFPChain, DataOutput)}.
+	 * The alignment strings are not set, since they require the atoms of the two structures.
+	 * 
+	 * @param in where to read from
+	 * @return the AFPChain
+	 * @throws IOException if the data can not be read or has been written in an unknown format
+	 */
+	public static AFPChain read(DataInput in) throws IOException {
+
+		int formatVersion = in.readUnsignedByte();
+		if ( formatVersion != FORMAT_VERSION)
+			throw new IOException("Unknown AFPChain binary format version " + formatVersion);
+
+		AFPChain a = new AFPChain();
+
+		a.setName1(readString(in));
+		a.setName2(readString(in));
+		a.setAlgorithmName(readString(in));
+		a.setVersion(readString(in));
+		a.setDescription2(readString(in));
+
+		int ca1Length = in.readInt();
+		int ca2Length = in.readInt();
+		a.setCa1Length(ca1Length);
+		a.setCa2Length(ca2Length);
+		a.setAlnLength(in.readInt());
+		a.setGapLen(in.readInt());
+		a.setOptLength(in.readInt());
+		a.setTotalLenIni(in.readInt());
+
+		int afpNum = in.readInt();
+		List<AFP> afpSet = new ArrayList<AFP>();
+		for ( int i = 0 ; i < afpNum ; i++){
+			afpSet.add(new AFP());
+		}
+		a.setAfpSet(afpSet);
+		a.setSequentialAlignment(in.readBoolean());
+
+		a.setAlignScore(in.readDouble());
+		a.setAlignScoreUpdate(in.readDouble());
+		a.setChainRmsd(in.readDouble());
+		a.setIdentity(in.readDouble());
+		a.setSimilarity(in.readDouble());
+		a.setNormAlignScore(in.readDouble());
+		a.setProbability(in.readDouble());
+		a.setTotalRmsdIni(in.readDouble());
+		a.setTotalRmsdOpt(in.readDouble());
+		a.setTMScore(in.readDouble());
+		a.setCalculationTime(in.readLong());
+
+		int minLength = Math.min(ca1Length, ca2Length);
+		a.setFocusRes1(new int[minLength]);
+		a.setFocusRes2(new int[minLength]);
+
+		int blockNum = in.readInt();
+		a.setBlockNum(blockNum);
+		if ( blockNum == 0)
+			return a;
+
+		int[] blockSize          = new int[blockNum];
+		int[] blockGap           = new int[blockNum];
+		double[] blockScore      = new double[blockNum];
+		double[] blockRmsd       = new double[blockNum];
+		int[] optLen             = new int[blockNum];
+		int[][][] optAln         = new int[blockNum][2][];
+		int[][][] blockResList   = new int[blockNum][2][];
+		Matrix[] blockMatrix     = new Matrix[blockNum];
+		Atom[] blockShift        = new Atom[blockNum];
+
+		for ( int b = 0 ; b < blockNum ; b++){
+			blockSize[b]  = in.readInt();
+			blockGap[b]   = in.readInt();
+			blockScore[b] = in.readDouble();
+			blockRmsd[b]  = in.readDouble();
+
+			int len = readVarInt(in);
+			if ( len > minLength)
+				throw new IOException("Block " + b + " has " + len + " aligned positions, but the shorter protein has only " + minLength + " atoms");
+			optLen[b] = len;
+			for ( int row = 0 ; row < 2 ; row++){
+				int[] pos = new int[minLength];
+				int prev = 0;
+				for ( int i = 0 ; i < len ; i++){
+					int z = readVarInt(in);
+					prev += (z >>> 1) ^ -(z & 1);
+					pos[i] = prev;
+				}
+				optAln[b][row] = pos;
+				blockResList[b][row] = pos.clone();
+			}
+
+			if ( in.readBoolean()){
+				Matrix m = new Matrix(3,3);
+				for ( int i = 0 ; i < 3 ; i++)
+					for ( int j = 0 ; j < 3 ; j++)
+						m.set(i,j,in.readDouble());
+				Atom shift = new AtomImpl();
+				shift.setX(in.readDouble());
+				shift.setY(in.readDouble());
+				shift.setZ(in.readDouble());
+				blockMatrix[b] = m;
+				blockShift[b]  = shift;
+			}
+		}
+
+		a.setBlockSize(blockSize);
+		a.setBlockGap(blockGap);
+		a.setBlockScore(blockScore);
+		a.setBlockRmsd(blockRmsd);
+		a.setOptLen(optLen);
+		a.setOptAln(optAln);
+		a.setBlockResList(blockResList);
+		a.setBlockRotationMatrix(blockMatrix);
+		a.setBlockShiftVector(blockShift);
+
+		return a;
+	}
+
+	private static void writeString(DataOutput out, String s) throws IOException {
+		out.writeBoolean(s != null);
+		if ( s != null)
+			out.writeUTF(s);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		if ( ! in.readBoolean())
+			return null;
+		return in.readUTF();
+	}
+
+	private static void writeVarInt(DataOutput out, int value) throws IOException {
+		while ( (value & ~0x7F) != 0){
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInput in) throws IOException {
+		int value = 0;
+		for ( int shift = 0 ; shift < 32 ; shift += 7){
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ( (b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+}
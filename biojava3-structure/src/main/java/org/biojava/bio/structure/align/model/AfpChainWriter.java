@@ -24,6 +24,7 @@
 
 package org.biojava.bio.structure.align.model;
 
+import java.io.IOException;
 import java.io.StringWriter;
 import java.util.List;
 
@@ -63,11 +64,42 @@ public class AfpChainWriter
 		return toFatCatCore(afpChain, ca1, ca2, printLegend, longHeader, showHTML, showAlignmentBlock);   
 	}
 
+	/** Writes the alignment in FATCAT format, see {@link #toFatCat(AFPChain, Atom[], Atom[])}.
+	 * 
+	 * @param afpChain
+	 * @param ca1
+	 * @param ca2
+	 * @param out where to write the output to
+	 * @throws IOException
+	 * @since 3.0.6
+	 */
+	public static void toFatCat(AFPChain afpChain, Atom[] ca1, Atom[] ca2, Appendable out) throws IOException
+	{
+		toFatCatCore(afpChain, ca1, ca2, true, true, false, false, out);
+	}
+
 	public static String toScoresList(AFPChain afpChain){
 
-		// see sippl On distance and similarity in fold space 2008 bioinformatics
+		StringBuilder txt = new StringBuilder();
+		try {
+			toScoresList(afpChain, txt);
+		} catch (IOException e){
+			// a StringBuilder does not throw IOExceptions
+			throw new RuntimeException(e);
+		}
+		return txt.toString();
+	}
+
+	/** Writes the list of scores, see {@link #toScoresList(AFPChain)}.
+	 * 
+	 * @param afpChain
+	 * @param writer where to write the output to
+	 * @throws IOException
+	 * @since 3.0.6
+	 */
+	public static void toScoresList(AFPChain afpChain, Appendable writer) throws IOException {
 
-		StringWriter writer = new StringWriter();
+		// see sippl On distance and similarity in fold space 2008 bioinformatics
 
 		if ( afpChain.getAlgorithmName().startsWith("CE")) {
 			writer.append("Z-score " );
@@ -77,38 +109,36 @@ public class AfpChainWriter
 
 
 		writer.append("Sab (nr. equivalent residues): " );
-        writer.append(String.valueOf(afpChain.getNrEQR())).append("");
+		writer.append(String.valueOf(afpChain.getNrEQR()));
 		writer.append(newline);
 
 		writer.append("Dab (distance between folds a,b): ");
 		int dab = afpChain.getCa1Length()+afpChain.getCa2Length() - 2 * afpChain.getNrEQR();
-        writer.append(String.valueOf(dab)).append("");
+		writer.append(String.valueOf(dab));
 		writer.append(newline);
 
 		writer.append("sab (relative similarity): ");
 		double sab = 2 * afpChain.getNrEQR() / (double)( afpChain.getCa1Length() + afpChain.getCa2Length());
-        writer.append(String.valueOf(sab)).append("");
+		writer.append(String.valueOf(sab));
 		writer.append(newline);
 
 		writer.append("cab (coverage a): ");
 		double cab = afpChain.getNrEQR() / (double) afpChain.getCa1Length();
-        writer.append(String.valueOf(cab)).append("");
+		writer.append(String.valueOf(cab));
 		writer.append(newline);
 
 		writer.append("cba (coverage b): ");
 		double cba = afpChain.getNrEQR() / (double) afpChain.getCa2Length();
-        writer.append(String.valueOf(cba)).append("");
+		writer.append(String.valueOf(cba));
 		writer.append(newline);
 
 		writer.append("seq similarity: ");
-        writer.append(String.valueOf(afpChain.getSimilarity())).append("");
+		writer.append(String.valueOf(afpChain.getSimilarity()));
 		writer.append(newline);
 
 		writer.append("TM-score: ");
-        writer.append(String.valueOf(afpChain.getTMScore())).append("");
+		writer.append(String.valueOf(afpChain.getTMScore()));
 		writer.append(newline);
-
-		return writer.toString();
 	}
 
 	/**
@@ -132,6 +162,38 @@ public class AfpChainWriter
 			Atom[] ca2, 
 			boolean printLegend, boolean longHeader, boolean showHTML, boolean showAlignmentBlock){
 
+		StringBuilder txt = new StringBuilder();
+		try {
+			toFatCatCore(afpChain, ca1, ca2, printLegend, longHeader, showHTML, showAlignmentBlock, txt);
+		} catch (IOException e){
+			// a StringBuilder does not throw IOExceptions
+			throw new RuntimeException(e);
+		}
+		return txt.toString();
+	}
+
+	/**
+	 * Writes the output in FatCatCore format, see {@link #toFatCatCore(AFPChain, Atom[], Atom[], boolean, boolean, boolean, boolean)}.
+	 * The output is written line by line, so it can go straight to a file.
+	 * 
+	 * @param afpChain
+	 * @param ca1
+	 * @param ca2
+	 * @param printLegend
+	 * @param longHeader
+	 * @param showHTML
+	 * @param showAlignmentBlock
+	 * @param txt where to write the output to
+	 * @throws IOException
+	 * @since 3.0.6
+	 */
+	public static void toFatCatCore(
+			AFPChain afpChain, 
+			Atom[] ca1, 
+			Atom[] ca2, 
+			boolean printLegend, boolean longHeader, boolean showHTML, boolean showAlignmentBlock,
+			Appendable txt) throws IOException {
+
 		//TODO The sequence numbers are inaccurate if a !afpChain.isSequential()
 
 		String name1 = afpChain.getName1();
@@ -187,8 +249,6 @@ public class AfpChainWriter
 		// == end of extractation of data values from afpChain 
 		////////////////////////////////
 
-		StringBuffer txt = new StringBuffer();
-
 		if ( longHeader) {
 			txt.append(String.format("Align %s.pdb %d with %s.pdb %d", name1, ca1Length, name2, ca2Length));
 		}
@@ -198,7 +258,7 @@ public class AfpChainWriter
 		txt.append(newline);
 		if ( afpChain.isShortAlign()){
 			txt.append("Short match");
-			return txt.toString();
+			return;
 		}
 		//txt.append(String.format("raw-score: %.2f norm.-score: %.2f ", alignScore, normAlignScore));
 
@@ -244,6 +304,15 @@ public class AfpChainWriter
 		String b;
 		String c;
 
+		// reused for the HTML version of each line
+		StringBuilder htmlA = null;
+		StringBuilder htmlB = null;
+		StringBuilder htmlC = null;
+		if ( showHTML ) {
+			htmlA = new StringBuilder();
+			htmlB = new StringBuilder();
+			htmlC = new StringBuilder();
+		}
 
 		int     t = 0;
 		int     ap = alnbeg1;
@@ -266,18 +335,18 @@ public class AfpChainWriter
 			
 
 			//System.err.println("t,len:"+t+":"+len);
-			String lseq1 = new String(alnseq1).substring(t,t+len); 
-			String lseq2 = new String(alnseq2).substring(t,t+len); 
-			String lsymb = new String(alnsymb).substring(t,t+len); 
+			String lseq1 = new String(alnseq1, t, len); 
+			String lseq2 = new String(alnseq2, t, len); 
+			String lsymb = new String(alnsymb, t, len); 
 
 			//System.err.println("B:" + b);
 
 
 			// check conservation and color accordingly, if requested by user.
 			if ( showHTML ) {
-				a = "";
-				b = "";
-				c = "";
+				htmlA.setLength(0);
+				htmlB.setLength(0);
+				htmlC.setLength(0);
 
 				//	<span class=\"m\">|</span> ... Structurally equivalent and identical residues 
 				//  <span class=\"sm\">:</span> ... Structurally equivalent and similar residues  
@@ -298,27 +367,27 @@ public class AfpChainWriter
 					if ( cl != ' ' ){
 						
 						if ( showAlignmentBlock && block > -1 ) {
-							a += "<span class=\"alignmentBlock1"+block+"\">" + c1 + "</span>";
-							b += "<span class=\"alignmentBlock2"+block+"\">" + c2 + "</span>";
-							c += "<span class=\"m\">" + cl + "</span>";
+							htmlA.append("<span class=\"alignmentBlock1").append(block).append("\">").append(c1).append("</span>");
+							htmlB.append("<span class=\"alignmentBlock2").append(block).append("\">").append(c2).append("</span>");
+							htmlC.append("<span class=\"m\">").append(cl).append("</span>");
 						} else {
-							a += getPrefix(c1, c2, 0, block, false).toString() + c1 + "</span>";
-							b += getPrefix(c1, c2, 1, block, false).toString() + c2 + "</span>";
-							c += "<span class=\"m\">" + cl + "</span>";
+							htmlA.append(getPrefix(c1, c2, 0, block, false)).append(c1).append("</span>");
+							htmlB.append(getPrefix(c1, c2, 1, block, false)).append(c2).append("</span>");
+							htmlC.append("<span class=\"m\">").append(cl).append("</span>");
 						}
 
 					} else if ( c1 != '-' && c2 != '-') {
 
-						a += "<span class=\"sm\">" + c1 + "</span>";
-						b += "<span class=\"sm\">" + c2 + "</span>";
-						c += "<span class=\"sm\">" + cl + "</span>";
+						htmlA.append("<span class=\"sm\">").append(c1).append("</span>");
+						htmlB.append("<span class=\"sm\">").append(c2).append("</span>");
+						htmlC.append("<span class=\"sm\">").append(cl).append("</span>");
 
 
 					} else {
 
-						a += "<span class=\"qg\">" + c1 + "</span>";
-						b += "<span class=\"qg\">" + c2 + "</span>";
-						c += "<span class=\"qg\">" + cl + "</span>";
+						htmlA.append("<span class=\"qg\">").append(c1).append("</span>");
+						htmlB.append("<span class=\"qg\">").append(c2).append("</span>");
+						htmlC.append("<span class=\"qg\">").append(cl).append("</span>");
 
 					}
 
@@ -326,6 +395,9 @@ public class AfpChainWriter
 					if(c2 != '-') bp ++;
 				}
 
+				a = htmlA.toString();
+				b = htmlB.toString();
+				c = htmlC.toString();
 
 			} else {
 
@@ -335,10 +407,7 @@ public class AfpChainWriter
 			}
 
 			txt.append(newline);
-			if ( longHeader )
-				txt.append(String.format("%14s", " "));
-			else 
-				txt.append(String.format("%14s", " "));
+			txt.append("              ");
 
 			if (  longHeader ) {
 				for(k = 10; k <= len; k += 10)
@@ -385,12 +454,11 @@ public class AfpChainWriter
 			txt.append(newline);
 
 		}
-		return txt.toString();
 
 	}
 
 	private static void printScoresInLines(AFPChain afpChain, int blockNum, int optLength, double totalRmsdOpt, double alignScore,
-			int alnLength, int gapLen, double identity, double similarity, StringBuffer txt)
+			int alnLength, int gapLen, double identity, double similarity, Appendable txt) throws IOException
 	{
 		if ( blockNum - 1 > 0) {
 			txt.append(String.format( "Twists %d ", blockNum -1 ));
@@ -419,10 +487,10 @@ public class AfpChainWriter
 		txt.append(newline);
 	}
 
-	private static void printScore(StringBuffer txt,
+	private static void printScore(Appendable txt,
 			String algorithmName,
 			double probability, 
-			boolean longHeader)
+			boolean longHeader) throws IOException
 	{
 		if ( algorithmName.equalsIgnoreCase(CeMain.algorithmName) || algorithmName.equalsIgnoreCase(CeSideChainMain.algorithmName) ){
 			txt.append(String.format("Z-score %.2f ", probability));
@@ -490,20 +558,20 @@ public class AfpChainWriter
 		//
 
 
-		String msg = toPrettyAlignment(afpChain, ca1, ca2, showHTML, showAlignmentBlock);
+		StringBuilder msg = new StringBuilder(toPrettyAlignment(afpChain, ca1, ca2, showHTML, showAlignmentBlock));
 
 
-		msg = msg + newline + 
-		"     <span class=\"m\">|</span> ... Structurally equivalent and identical residues " + newline +
-		"     <span class=\"sm\">:</span> ... Structurally equivalent and similar residues " + newline + 
-		"     <span class=\"qg\">.</span> ... Structurally equivalent, but not similar residues. " + newline;
+		msg.append(newline).append(
+		"     <span class=\"m\">|</span> ... Structurally equivalent and identical residues ").append(newline).append(
+		"     <span class=\"sm\">:</span> ... Structurally equivalent and similar residues ").append(newline).append( 
+		"     <span class=\"qg\">.</span> ... Structurally equivalent, but not similar residues. ").append(newline);
 
-		msg += newline;
-		msg += "     To calculate the coordinates of chain 2 aligned on chain 1 apply the following transformation: ";
-		msg += newline;
-		msg += newline;
-		msg += toRotMat(afpChain);
-		return msg;
+		msg.append(newline);
+		msg.append("     To calculate the coordinates of chain 2 aligned on chain 1 apply the following transformation: ");
+		msg.append(newline);
+		msg.append(newline);
+		msg.append(toRotMat(afpChain));
+		return msg.toString();
 
 
 	}
@@ -556,8 +624,13 @@ public class AfpChainWriter
 			return txt.toString();
 		}
 
-		printScore(txt, algorithmName, probability, false);
-		printScoresInLines(afpChain, blockNum, optLength, totalRmsdOpt, alignScore, alnLength, gapLen,identity, similarity, txt);
+		try {
+			printScore(txt, algorithmName, probability, false);
+			printScoresInLines(afpChain, blockNum, optLength, totalRmsdOpt, alignScore, alnLength, gapLen,identity, similarity, txt);
+		} catch (IOException e){
+			// a StringBuffer does not throw IOExceptions
+			throw new RuntimeException(e);
+		}
 		txt.append(newline);
 
 		int[] optLen = afpChain.getOptLen();
@@ -1064,8 +1137,25 @@ public class AfpChainWriter
 
 	public static String toDBSearchResult(AFPChain afpChain)
 	{
-		StringBuffer str = new StringBuffer();
+		StringBuilder str = new StringBuilder();
+		try {
+			toDBSearchResult(afpChain, str);
+		} catch (IOException e){
+			// a StringBuilder does not throw IOExceptions
+			throw new RuntimeException(e);
+		}
+		return str.toString();
+	}
 
+	/** Writes the tab separated line of scores that is used for the results of a database search.
+	 * 
+	 * @param afpChain
+	 * @param str where to write the line to
+	 * @throws IOException
+	 * @since 3.0.6
+	 */
+	public static void toDBSearchResult(AFPChain afpChain, Appendable str) throws IOException
+	{
 		str.append(afpChain.getName1());
 		str.append("\t");
 		str.append(afpChain.getName2());
@@ -1080,21 +1170,19 @@ public class AfpChainWriter
 		str.append("\t");
 		str.append(String.format("%.2f",afpChain.getTotalRmsdOpt()));
 		str.append("\t");
-		str.append(afpChain.getCa1Length());
+		str.append(String.valueOf(afpChain.getCa1Length()));
 		str.append("\t");
-		str.append(afpChain.getCa2Length());      
+		str.append(String.valueOf(afpChain.getCa2Length()));      
 		str.append("\t");
-		str.append(afpChain.getCoverage1());
+		str.append(String.valueOf(afpChain.getCoverage1()));
 		str.append("\t");
-		str.append(afpChain.getCoverage2());
+		str.append(String.valueOf(afpChain.getCoverage2()));
 		str.append("\t");
 		str.append(String.format("%.2f",afpChain.getIdentity()));
 		str.append("\t");
 		str.append(afpChain.getDescription2());
 		str.append("\t");
 		str.append(newline);
-
-		return str.toString();
 	}
 
 	public static String toRotMat(AFPChain afpChain)
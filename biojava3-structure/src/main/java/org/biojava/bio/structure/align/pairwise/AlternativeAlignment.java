@@ -42,6 +42,7 @@ import org.biojava.bio.structure.align.StrucAligParameters;
 import org.biojava.bio.structure.align.helper.AligMatEl;
 import org.biojava.bio.structure.align.helper.IndexPair;
 import org.biojava.bio.structure.align.helper.JointFragments;
+import org.biojava.bio.structure.contact.ContactTools;
 import org.biojava.bio.structure.jama.Matrix;
 
 /**
@@ -331,26 +332,8 @@ public class AlternativeAlignment implements Serializable{
 
 	public static Matrix getDistanceMatrix(Atom[] ca1, Atom[]ca2){
 
-		int r = ca1.length;
-		int c = ca2.length;
-
-		Matrix out = new Matrix(r,c);
-
-		for (int i=0; i<r; i++) {
-			Atom a1 = ca1[i];
-			for (int j=0;j<c;j++){
-				Atom b1 = ca2[j];
-
-				try {
-					double d = Calc.getDistance(a1,b1);
-					out.set(i,j,d);
-				} catch (StructureException e) {
-					e.printStackTrace();
-					out.set(i,j,999);
-				}
-			}
-		}
-		return out;
+		double[][] dist = ContactTools.getDistanceMatrix(ca1, ca2);
+		return new Matrix(dist, ca1.length, ca2.length);
 	}
 
 	private Alignable getInitalStrCompAlignment(
@@ -30,6 +30,7 @@ import org.biojava.bio.structure.Atom;
 import org.biojava.bio.structure.Calc;
 import org.biojava.bio.structure.SVDSuperimposer;
 import org.biojava.bio.structure.StructureException;
+import org.biojava.bio.structure.SuperPositionQCP;
 import org.biojava.bio.structure.align.model.AFPChain;
 import org.biojava.bio.structure.jama.Matrix;
 
@@ -88,9 +89,9 @@ public class AFPChainScorer
 			ca2aligned = (Atom[]) resizeArray(ca2aligned, pos);
 		}
 		//Superimpose
-		SVDSuperimposer svd = new SVDSuperimposer(ca1aligned, ca2aligned);
-		Matrix matrix = svd.getRotation();
-		Atom shift = svd.getTranslation();
+		SuperPositionQCP qcp = new SuperPositionQCP(ca1aligned, ca2aligned);
+		Matrix matrix = qcp.getRotation();
+		Atom shift = qcp.getTranslation();
 
 		for(Atom a : ca2aligned) {
 			Calc.rotate(a, matrix);
@@ -23,14 +23,18 @@
  */
 package org.biojava.bio.structure.align.util;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.net.URL;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.Iterator;
@@ -46,6 +50,8 @@ import org.biojava.bio.structure.align.client.StructureName;
 import org.biojava.bio.structure.cath.CathDomain;
 import org.biojava.bio.structure.cath.CathInstallation;
 import org.biojava.bio.structure.cath.CathSegment;
+import org.biojava.bio.structure.compact.CompactAtomStore;
+import org.biojava.bio.structure.compact.CompactStructureFile;
 import org.biojava.bio.structure.domain.PDPProvider;
 import org.biojava.bio.structure.domain.RemotePDPProvider;
 import org.biojava.bio.structure.io.FileParsingParameters;
@@ -83,8 +89,11 @@ public class AtomCache {
 
 	String cachePath;
 	
-	// make sure IDs are loaded uniquely
-	Collection<String> currentlyLoading = Collections.synchronizedCollection(new TreeSet<String>());
+	// make sure IDs are loaded only once, other threads wait for the result
+	private final ConcurrentMap<String, Loading> currentlyLoading = new ConcurrentHashMap<String, Loading>();
+
+	// parsed structures and CA arrays kept in memory, disabled by default
+	private final StructureLRUCache memoryCache = new StructureLRUCache(0);
 
 	private  ScopDatabase scopInstallation ;
 
@@ -100,6 +109,8 @@ public class AtomCache {
 
 	private boolean fetchCurrent;
 
+	private boolean useCompactCache;
+
 	public static final String PDP_DOMAIN_IDENTIFIER = "PDP:";
 	public static final String BIOL_ASSEMBLY_IDENTIFIER = "BIO:";
 
@@ -150,7 +161,6 @@ public class AtomCache {
 		fetchFileEvenIfObsolete = false;
 		fetchCurrent = false;
 
-		currentlyLoading.clear();
 		params = new FileParsingParameters();
 
 		// we don't need this here
@@ -291,6 +301,64 @@ public class AtomCache {
 	}
 
 
+	/** Returns the in-memory cache of parsed structures and CA atom arrays, e.g. to look at its
+	 * hit and miss statistics.
+	 *
+	 * @return the in-memory cache
+	 * @see #setMaxCachedAtoms(long)
+	 * @since 3.0.6
+	 */
+	public StructureLRUCache getMemoryCache() {
+		return memoryCache;
+	}
+
+	/** Keep up to this many atoms of recently used structures and CA arrays in memory, so they
+	 * don't need to be parsed again. {@link #getStructure(String)} and {@link #getAtoms(String)}
+	 * return copies, so callers may modify them.
+	 *
+	 * @param maxCachedAtoms the maximum number of cached atoms, 0 (the default) disables the in-memory cache
+	 * @since 3.0.6
+	 */
+	public void setMaxCachedAtoms(long maxCachedAtoms) {
+		memoryCache.setMaxAtoms(maxCachedAtoms);
+	}
+
+	/** Returns the maximum number of atoms kept in memory.
+	 *
+	 * @return the maximum number of cached atoms, 0 if the in-memory cache is disabled
+	 * @see #setMaxCachedAtoms(long)
+	 * @since 3.0.6
+	 */
+	public long getMaxCachedAtoms() {
+		return memoryCache.getMaxAtoms();
+	}
+
+	/** Should parsed structures be kept in a binary cache file, for faster re-loading?
+	 * The files are written to the "compact" subdirectory of the cache path.
+	 * The cache is only used if the {@link FileParsingParameters} request nothing that is not
+	 * stored in it, i.e. no SEQRES alignment, secondary structure, biological assembly,
+	 * accepted atom names or PDB lines. The other parameters that change the parsed structure
+	 * are part of the file name, so structures parsed with other parameters are kept apart.
+	 *
+	 * @return flag if the compact cache is used. default false
+	 * @see CompactStructureFile
+	 * @since 3.0.6
+	 */
+	public boolean isUseCompactCache() {
+		return useCompactCache;
+	}
+
+	/** Should parsed structures be kept in a binary cache file, for faster re-loading?
+	 *
+	 * @param useCompactCache flag if the compact cache is used
+	 * @see #isUseCompactCache()
+	 * @since 3.0.6
+	 */
+	public void setUseCompactCache(boolean useCompactCache) {
+		this.useCompactCache = useCompactCache;
+	}
+
+
 	/**
 	 * Reports whether strict scop naming will be enforced, or whether this AtomCache
 	 * should try to guess some simple variants on scop domains.
@@ -408,7 +476,10 @@ public class AtomCache {
 	 */
 	public  Atom[] getAtoms(String name) throws IOException,StructureException{
 
-		Atom[] atoms = null;
+		String key = name + getParamsKey();
+		Atom[] atoms = memoryCache.getCAAtoms(key);
+		if ( atoms != null)
+			return StructureTools.cloneCAArray(atoms);
 
 		//System.out.println("loading " + name);
 		Structure s = null;
@@ -423,10 +494,9 @@ public class AtomCache {
 
 		atoms =  StructureTools.getAtomCAArray(s);
 
-		/*synchronized (cache){
-			cache.put(name, atoms);
-		}*/
-
+		// callers may modify the atoms, e.g. rotate them, so the cache keeps a private copy
+		if ( memoryCache.putCAAtoms(key, atoms))
+			return StructureTools.cloneCAArray(atoms);
 
 		return atoms;
 	}
@@ -596,18 +666,6 @@ public class AtomCache {
 				return null;
 			}
 
-			while ( checkLoading(pdbId) ){
-				// waiting for loading to be finished...
-
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException e){
-					System.err.println(e.getMessage());
-				}
-
-			}
-
-
 			//long start  = System.currentTimeMillis();
 
 			Structure s = loadStructureFromByPdbId(pdbId);
@@ -648,12 +706,133 @@ public class AtomCache {
 
 	}
 
-	protected Structure loadStructureFromByPdbId(String pdbId)
+	/** Returns the full structure for a PDB ID. If several threads request the same PDB ID at the
+	 * same time, it is only loaded once and the other threads wait for the result.
+	 * Callers may modify the returned structure: a structure that is shared with other threads
+	 * or kept in the in-memory cache is only handed out as a copy.
+	 *
+	 * @param pdbId a PDB ID
+	 * @return the structure
+	 * @throws StructureException if the structure can not be loaded
+	 */
+	protected Structure loadStructureFromByPdbId(final String pdbId)
 			throws StructureException {
-		
-		
+
+		final String key = pdbId.toLowerCase() + getParamsKey();
+
+		while (true) {
+			Structure s = memoryCache.getStructure(key);
+			if ( s != null)
+				return copyStructure(s);
+
+			Loading loading = new Loading(new FutureTask<Structure>(new Callable<Structure>() {
+				public Structure call() throws StructureException {
+					flagLoading(pdbId);
+					try {
+						return readStructure(pdbId);
+					} finally {
+						flagLoadingFinished(pdbId);
+					}
+				}
+			}));
+
+			Loading current = currentlyLoading.putIfAbsent(key, loading);
+			if ( current == null) {
+				try {
+					loading.task.run();
+				} finally {
+					currentlyLoading.remove(key, loading);
+				}
+				s = getLoaded(loading.task, pdbId);
+				boolean cached = memoryCache.putStructure(key, s);
+				synchronized (loading) {
+					loading.handedOut = ! cached && loading.waiting == 0;
+				}
+				return loading.handedOut ? s : copyStructure(s);
+			}
+
+			synchronized (current) {
+				// the loading thread already owns the structure, it can not be copied safely any more
+				if ( current.handedOut)
+					continue;
+				current.waiting++;
+			}
+			return copyStructure(getLoaded(current.task, pdbId));
+		}
+	}
+
+	private Structure getLoaded(FutureTask<Structure> task, String pdbId) throws StructureException {
+		try {
+			return task.get();
+		} catch (InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new StructureException("Interrupted while loading " + pdbId, e);
+		} catch (ExecutionException e){
+			if ( e.getCause() instanceof StructureException)
+				throw (StructureException) e.getCause();
+			throw new StructureException(e.getCause().getMessage() + " while parsing " + pdbId, e.getCause());
+		}
+	}
+
+	private Structure copyStructure(Structure s){
+		Structure n = s.clone();
+		// clones of compact atoms are plain atoms
+		if ( params.isCompactAtoms())
+			CompactAtomStore.compact(n);
+		return n;
+	}
+
+	/** Returns a key for the parsing parameters and settings that change the loaded structures.
+	 *
+	 * @return a suffix for cache keys and file names
+	 */
+	private String getParamsKey(){
+		StringBuffer key = new StringBuffer();
+		if ( params.isParseCAOnly())
+			key.append(".ca");
+		if ( params.isLoadChemCompInfo())
+			key.append(".chemcomp");
+		if ( params.getStoreEmptySeqRes())
+			key.append(".seqres");
+		if ( params.isUpdateRemediatedFiles())
+			key.append(".remediated");
+		if ( params.isCompactAtoms())
+			key.append(".compact");
+		if ( params.getMaxAtoms() != FileParsingParameters.MAX_ATOMS)
+			key.append(".max").append(params.getMaxAtoms());
+		if ( params.getAtomCaThreshold() != FileParsingParameters.ATOM_CA_THRESHOLD)
+			key.append(".cathreshold").append(params.getAtomCaThreshold());
+		if ( fetchCurrent)
+			key.append(".current");
+		// these are never cached in files
+		if ( params.isAlignSeqRes())
+			key.append(".alignseqres");
+		if ( params.isParseSecStruc())
+			key.append(".secstruc");
+		if ( params.isHeaderOnly())
+			key.append(".headeronly");
+		if ( params.isParseBioAssembly())
+			key.append(".bioassembly");
+		if ( params.getAcceptedAtomNames() != null)
+			key.append(".atoms").append(Arrays.toString(params.getAcceptedAtomNames()));
+		if ( params.isStorePDBLines())
+			key.append(".pdblines");
+		return key.toString();
+	}
+
+	private Structure readStructure(String pdbId) throws StructureException {
+
+		File compactFile = getCompactFile(pdbId);
+		if ( compactFile != null && compactFile.exists()) {
+			try {
+				return CompactStructureFile.read(compactFile, params.isCompactAtoms());
+			} catch (IOException e){
+				// outdated or damaged cache file, parse the PDB file again
+				System.err.println("Could not read " + compactFile + " : " + e.getMessage());
+			}
+		}
+
 		Structure s;
-		flagLoading(pdbId);
 		try {
 			PDBFileReader reader = new PDBFileReader();
 			reader.setPath(path);
@@ -666,16 +845,40 @@ public class AtomCache {
 
 			s = reader.getStructureById(pdbId.toLowerCase());
 
+			if ( compactFile != null) {
+				try {
+					CompactStructureFile.write(s, compactFile);
+				} catch (IOException e){
+					// the structure is still fine, it just is not cached
+					System.err.println("Could not write " + compactFile + " : " + e.getMessage());
+				}
+			}
+
 		} catch (Exception e){
-			flagLoadingFinished(pdbId);
 			throw new StructureException(e.getMessage() + " while parsing " + pdbId,e);
 		}
-		flagLoadingFinished(pdbId);
-		
+
 		return s;
 	}
 
 
+	/** Returns the compact cache file for a PDB ID, or null if the compact cache can not
+	 * be used with the current parameters. Every parameter that changes the structure is
+	 * part of the file name.
+	 */
+	private File getCompactFile(String pdbId){
+		if ( ! useCompactCache || cachePath == null)
+			return null;
+		if ( params.isAlignSeqRes() || params.isParseSecStruc() || params.isHeaderOnly()
+				|| params.isParseBioAssembly() || params.getAcceptedAtomNames() != null
+				|| params.isStorePDBLines())
+			return null;
+
+		String fileName = pdbId.toLowerCase() + getParamsKey() + ".bjs";
+		String dir = cachePath.endsWith(FILE_SEPARATOR) ? cachePath : cachePath + FILE_SEPARATOR;
+		return new File(dir + "compact" + FILE_SEPARATOR + fileName);
+	}
+
 	private Structure getBioAssembly(String name) throws IOException, StructureException {
 
 		// can be specified as:
@@ -923,18 +1126,18 @@ public class AtomCache {
 		}
 	}
 
-	private  boolean checkLoading(String name) {
-		return  currentlyLoading.contains(name);
-
-	}
-
+	/** Called by the thread that loads a structure, before it is loaded.
+	 *
+	 * @param name the PDB ID
+	 */
 	protected  void flagLoading(String name){
-		if ( ! currentlyLoading.contains(name))	
-			currentlyLoading.add(name);
 	}
 
+	/** Called by the thread that loads a structure, after it has been loaded or the loading failed.
+	 *
+	 * @param name the PDB ID
+	 */
 	protected  void flagLoadingFinished(String name){
-		currentlyLoading.remove(name);   
 	}
 
 	private ScopDomain getScopDomain(String scopId)
@@ -1051,5 +1254,16 @@ public class AtomCache {
 		this.pdpprovider = pdpprovider;
 	}
 
+	/** a structure that is being loaded, and the number of other threads waiting for it */
+	private static class Loading {
+		final FutureTask<Structure> task;
+		int waiting;
+		boolean handedOut;
+
+		Loading(FutureTask<Structure> task){
+			this.task = task;
+		}
+	}
+
 
 }
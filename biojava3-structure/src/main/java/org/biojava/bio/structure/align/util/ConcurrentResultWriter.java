@@ -0,0 +1,155 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.align.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** A thread safe writer for the results of a database search that does not block its callers.
+ * 
+ * <p>
+ * Results are put on a lock-free queue. Whichever thread finds the writer idle drains the queue
+ * into the output, all other threads return right away; the draining thread checks the queue again
+ * after it is done, so no result is left behind. Unlike {@link SynchronizedOutFile} the output
+ * stays open for the whole search.
+ * </p>
+ * <p>
+ * A block of results can be tagged with a tile number. Once the block has been written and the output
+ * flushed, the tile number is appended to the checkpoint writer (one per line), so a checkpoint never
+ * lists results that are not on disk yet.
+ * </p>
+ * 
+ * @since 3.0.6
+ */
+public class ConcurrentResultWriter {
+
+	private static class Record {
+		final String text;
+		final int tile;
+
+		Record(String text, int tile){
+			this.text = text;
+			this.tile = tile;
+		}
+	}
+
+	private final ConcurrentLinkedQueue<Record> queue;
+	private final AtomicBoolean draining;
+
+	private final Writer out;
+	private final Writer checkpoint;
+
+	private volatile IOException error;
+
+	/** creates a writer for search results
+	 * 
+	 * @param out the writer for the results
+	 * @param checkpoint the writer for the numbers of the completed tiles, or null
+	 */
+	public ConcurrentResultWriter(Writer out, Writer checkpoint){
+		this.out = out;
+		this.checkpoint = checkpoint;
+		queue = new ConcurrentLinkedQueue<Record>();
+		draining = new AtomicBoolean(false);
+	}
+
+	/** writes a message that does not belong to a tile, e.g. a header line
+	 * 
+	 * @param message the message
+	 * @throws IOException if this or an earlier write failed
+	 */
+	public void write(String message) throws IOException {
+		add(new Record(message, -1));
+	}
+
+	/** writes the results of a tile and records the tile as completed afterwards
+	 * 
+	 * @param results the results of the tile, may be empty
+	 * @param tile the number of the tile
+	 * @throws IOException if this or an earlier write failed
+	 */
+	public void writeTile(String results, int tile) throws IOException {
+		if ( tile < 0)
+			throw new IllegalArgumentException("tile number must not be negative: " + tile);
+		add(new Record(results, tile));
+	}
+
+	/** writes all queued results and closes the output and the checkpoint writer
+	 * 
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		try {
+			drain();
+		} finally {
+			out.close();
+			if ( checkpoint != null)
+				checkpoint.close();
+		}
+	}
+
+	private void add(Record record) throws IOException {
+		queue.offer(record);
+		drain();
+	}
+
+	private void drain() throws IOException {
+		// if the CAS fails, the draining thread picks up our record when it checks the queue again
+		while ( error == null && ! queue.isEmpty() && draining.compareAndSet(false, true)) {
+			try {
+				drainQueue();
+			} catch (IOException e){
+				error = e;
+			} finally {
+				draining.set(false);
+			}
+		}
+		if ( error != null) {
+			// nothing can be written any more
+			queue.clear();
+			throw error;
+		}
+	}
+
+	private void drainQueue() throws IOException {
+		StringBuilder tiles = null;
+		Record record;
+		while ( (record = queue.poll()) != null) {
+			if ( record.text != null)
+				out.write(record.text);
+			if ( record.tile >= 0 && checkpoint != null) {
+				if ( tiles == null)
+					tiles = new StringBuilder();
+				tiles.append(record.tile).append('\n');
+			}
+		}
+		out.flush();
+
+		if ( tiles != null) {
+			checkpoint.write(tiles.toString());
+			checkpoint.flush();
+		}
+	}
+}
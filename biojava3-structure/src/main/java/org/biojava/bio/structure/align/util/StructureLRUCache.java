@@ -0,0 +1,219 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.align.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureTools;
+
+/** A least recently used cache of parsed structures and CA atom arrays, bounded by the
+ * total number of atoms it holds. Used by the {@link AtomCache} to avoid parsing the same
+ * PDB entries again and again, e.g. during a database search.
+ *
+ * <p>
+ * The cached objects are shared between all callers, they should be treated as read-only.
+ * All methods are thread safe.
+ * </p>
+ *
+ * @since 3.0.6
+ */
+public class StructureLRUCache {
+
+	private static final String STRUCTURE_PREFIX = "S:";
+	private static final String CA_PREFIX = "CA:";
+
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+	private long maxAtoms;
+	private long atoms;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/** Create a new cache.
+	 *
+	 * @param maxAtoms the maximum number of atoms to keep, 0 disables the cache
+	 */
+	public StructureLRUCache(long maxAtoms){
+		setMaxAtoms(maxAtoms);
+	}
+
+	/** Returns the full structure for a PDB ID, or null if it is not cached.
+	 *
+	 * @param pdbId a PDB ID
+	 * @return the cached structure, or null
+	 */
+	public Structure getStructure(String pdbId){
+		return (Structure) get(STRUCTURE_PREFIX + pdbId.toLowerCase());
+	}
+
+	/** Add the full structure for a PDB ID.
+	 *
+	 * @param pdbId a PDB ID
+	 * @param structure the structure
+	 * @return true if the structure was added, false if the cache is disabled or the structure is too large
+	 */
+	public boolean putStructure(String pdbId, Structure structure){
+		return put(STRUCTURE_PREFIX + pdbId.toLowerCase(), structure, StructureTools.getNrAtoms(structure));
+	}
+
+	/** Returns the CA atoms for a name as used by {@link AtomCache#getAtoms(String)}, or null if they are not cached.
+	 *
+	 * @param name a structure name
+	 * @return the cached CA atoms, or null
+	 */
+	public Atom[] getCAAtoms(String name){
+		return (Atom[]) get(CA_PREFIX + name);
+	}
+
+	/** Add the CA atoms for a name.
+	 *
+	 * @param name a structure name
+	 * @param ca the CA atoms
+	 * @return true if the atoms were added, false if the cache is disabled or the array is too large
+	 */
+	public boolean putCAAtoms(String name, Atom[] ca){
+		return put(CA_PREFIX + name, ca, ca.length);
+	}
+
+	private synchronized Object get(String key){
+		Entry e = entries.get(key);
+		if ( e == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return e.value;
+	}
+
+	private synchronized boolean put(String key, Object value, long size){
+		// account for the object itself, so empty structures are bounded too
+		size = Math.max(size, 1);
+		if ( size > maxAtoms)
+			return false;
+		Entry old = entries.put(key, new Entry(value, size));
+		if ( old != null)
+			atoms -= old.atoms;
+		atoms += size;
+		evict();
+		return true;
+	}
+
+	private void evict(){
+		Iterator<Entry> iter = entries.values().iterator();
+		while ( atoms > maxAtoms && iter.hasNext()) {
+			Entry e = iter.next();
+			iter.remove();
+			atoms -= e.atoms;
+			evictions++;
+		}
+	}
+
+	/** Remove all entries. The statistics are not reset.
+	 */
+	public synchronized void clear(){
+		entries.clear();
+		atoms = 0;
+	}
+
+	/** Returns the maximum number of atoms to keep.
+	 *
+	 * @return the maximum number of atoms, 0 if the cache is disabled
+	 */
+	public synchronized long getMaxAtoms() {
+		return maxAtoms;
+	}
+
+	/** Set the maximum number of atoms to keep. Least recently used entries are evicted if the
+	 * cache currently holds more.
+	 *
+	 * @param maxAtoms the maximum number of atoms, 0 disables the cache
+	 */
+	public synchronized void setMaxAtoms(long maxAtoms) {
+		if ( maxAtoms < 0)
+			throw new IllegalArgumentException("maxAtoms must not be negative: " + maxAtoms);
+		this.maxAtoms = maxAtoms;
+		evict();
+	}
+
+	/** Returns the number of atoms in the cached entries.
+	 *
+	 * @return the number of cached atoms
+	 */
+	public synchronized long getAtomCount() {
+		return atoms;
+	}
+
+	/** Returns the number of cached entries.
+	 *
+	 * @return the number of cached structures and CA arrays
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/** Returns how often a requested entry was found.
+	 *
+	 * @return the number of cache hits
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/** Returns how often a requested entry was not found.
+	 *
+	 * @return the number of cache misses
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/** Returns how many entries were removed to keep the cache within its size.
+	 *
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "StructureLRUCache [entries=" + entries.size() + ", atoms=" + atoms + "/" + maxAtoms
+				+ ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+	private static class Entry {
+		final Object value;
+		final long atoms;
+
+		Entry(Object value, long atoms){
+			this.value = value;
+			this.atoms = atoms;
+		}
+	}
+}
@@ -3,6 +3,7 @@ package org.biojava.bio.structure.align.xml;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 
 import org.biojava.bio.structure.Atom;
 import org.biojava.bio.structure.StructureException;
@@ -21,7 +22,7 @@ public class AFPChainXMLConverter {
 	 * @param afpChain
 	 * @return XML representation of the AFPCHain
 	 */
-	public synchronized static String toXML(AFPChain afpChain, Atom[] ca1, Atom[]ca2) throws IOException{
+	public static String toXML(AFPChain afpChain, Atom[] ca1, Atom[]ca2) throws IOException{
 		StringWriter result = new StringWriter();	
 		toXML(afpChain,result,ca1,ca2);
 		return result.toString();
@@ -35,9 +36,27 @@ public class AFPChainXMLConverter {
 	 * @param swriter
 	 * @throws IOException
 	 */
-	public synchronized static void toXML(AFPChain afpChain, StringWriter swriter,Atom[] ca1, Atom[]ca2) throws IOException{
+	public static void toXML(AFPChain afpChain, StringWriter swriter,Atom[] ca1, Atom[]ca2) throws IOException{
 
-		PrintWriter writer = new PrintWriter(swriter);
+		toXML(afpChain, (Writer) swriter, ca1, ca2);
+		swriter.close();
+
+	}
+
+	/** Write the XML representation directly to a Writer, e.g. the output file of a database search.
+	 * The writer is flushed, but not closed. No state is shared between calls, so any number of
+	 * threads can write alignments at the same time.
+	 * 
+	 * @param afpChain
+	 * @param out
+	 * @param ca1
+	 * @param ca2
+	 * @throws IOException
+	 * @since 3.0.6
+	 */
+	public static void toXML(AFPChain afpChain, Writer out, Atom[] ca1, Atom[]ca2) throws IOException{
+
+		PrintWriter writer = new PrintWriter(out);
 		PrettyXMLWriter xml = new PrettyXMLWriter(writer);
 		
 		xml.openTag("AFPChain");
@@ -78,7 +97,9 @@ public class AFPChainXMLConverter {
 
 		xml.closeTag("AFPChain");
 
-		writer.close();
+		writer.flush();
+		if ( writer.checkError())
+			throw new IOException("could not write XML for " + afpChain.getName1() + " vs. " + afpChain.getName2());
 
 
 	}
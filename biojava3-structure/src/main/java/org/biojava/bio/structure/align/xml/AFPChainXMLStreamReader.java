@@ -0,0 +1,308 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.align.xml;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+import org.biojava.bio.structure.align.ce.CeCPMain;
+import org.biojava.bio.structure.align.model.AFP;
+import org.biojava.bio.structure.align.model.AFPChain;
+import org.biojava.bio.structure.jama.Matrix;
+
+/** Reads AFPChains from an XML stream one at a time, without building a DOM of the whole input.
+ * This allows to filter or re-rank the results of a whole database search with bounded memory.
+ * 
+ * <p>The AFPChains are the same as the ones returned by {@link AFPChainXMLParser#parseMultiXML(String)}.
+ * As there, the aligned residues are only known by their PDB residue numbers; call
+ * {@link AFPChainXMLParser#rebuildAFPChain(AFPChain, Atom[], Atom[])} to map them onto the atoms.
+ * &lt;AFPChain&gt; elements are found at any depth, so several alignments can be wrapped in a single root element.
+ * </p>
+ * 
+ * <p>When only the scores are requested, the per residue blocks are skipped. The returned AFPChains then
+ * only carry the attributes of the &lt;AFPChain&gt; element and can not be rebuilt.</p>
+ * 
+ * <pre>
+ * AFPChainXMLStreamReader reader = new AFPChainXMLStreamReader(in, true);
+ * AFPChain afpChain;
+ * while ( (afpChain = reader.next()) != null) {
+ *    if ( afpChain.getProbability() &lt; 1e-3)
+ *       ...
+ * }
+ * reader.close();
+ * </pre>
+ * 
+ * Instances are not thread safe.
+ * 
+ * @since 3.0.6
+ */
+public class AFPChainXMLStreamReader {
+
+	private final XMLStreamReader reader;
+
+	private final boolean scoresOnly;
+
+	/** create a reader that parses the complete alignments
+	 * 
+	 * @param in the XML
+	 * @throws XMLStreamException
+	 */
+	public AFPChainXMLStreamReader(Reader in) throws XMLStreamException {
+		this(in, false);
+	}
+
+	/**
+	 * 
+	 * @param in the XML
+	 * @param scoresOnly flag if the per residue alignment blocks should be skipped
+	 * @throws XMLStreamException
+	 */
+	public AFPChainXMLStreamReader(Reader in, boolean scoresOnly) throws XMLStreamException {
+		this.reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+		this.scoresOnly = scoresOnly;
+	}
+
+	/** create a reader that parses the complete alignments. The encoding is taken from the XML declaration.
+	 * 
+	 * @param in the XML
+	 * @throws XMLStreamException
+	 */
+	public AFPChainXMLStreamReader(InputStream in) throws XMLStreamException {
+		this(in, false);
+	}
+
+	/**
+	 * 
+	 * @param in the XML. The encoding is taken from the XML declaration.
+	 * @param scoresOnly flag if the per residue alignment blocks should be skipped
+	 * @throws XMLStreamException
+	 */
+	public AFPChainXMLStreamReader(InputStream in, boolean scoresOnly) throws XMLStreamException {
+		this.reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+		this.scoresOnly = scoresOnly;
+	}
+
+	/** returns the next AFPChain in the input.
+	 * 
+	 * @return the next AFPChain or null if the end of the input has been reached
+	 * @throws XMLStreamException if the XML is not well formed or an attribute of an alignment can not be parsed
+	 */
+	public AFPChain next() throws XMLStreamException {
+		while ( reader.hasNext()){
+			int event = reader.next();
+			if ( event == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("AFPChain")) {
+				try {
+					return readAFPChain();
+				} catch (NumberFormatException e){
+					throw new XMLStreamException("Could not parse alignment: " + e.getMessage(), reader.getLocation());
+				}
+			}
+		}
+		return null;
+	}
+
+	/** Frees the resources of the underlying parser. The input itself is not closed.
+	 * 
+	 * @throws XMLStreamException
+	 */
+	public void close() throws XMLStreamException {
+		reader.close();
+	}
+
+	private AFPChain readAFPChain() throws XMLStreamException {
+		AFPChain a = new AFPChain();
+		a.setAlgorithmName(AFPChain.DEFAULT_ALGORITHM_NAME);
+		a.setVersion("1.0");
+
+		a.setName1(getAttribute("name1"));
+		a.setName2(getAttribute("name2"));
+		String algoname = getAttribute("method");
+		if ( algoname != null)
+			a.setAlgorithmName(algoname);
+		String version = getAttribute("version");
+		if ( version != null)
+			a.setVersion(version);
+
+		int blockNum = getInt("blockNum");
+		a.setAlnLength(getInt("alnLength"));
+		a.setBlockNum(blockNum);
+		a.setGapLen(getInt("gapLen"));
+		a.setOptLength(getInt("optLength"));
+		a.setTotalLenIni(getInt("totalLenIni"));
+
+		if ( a.getAlgorithmName().equals(CeCPMain.algorithmName)){
+			a.setSequentialAlignment(blockNum == 1);
+		}
+
+		a.setAlignScore(getDouble("alignScore"));
+		a.setChainRmsd(getDouble("chainRmsd"));
+		a.setIdentity(getDouble("identity"));
+		a.setNormAlignScore(getDouble("normAlignScore"));
+		a.setProbability(getDouble("probability"));
+		a.setSimilarity(getDouble("similarity"));
+		a.setTotalRmsdIni(getDouble("totalRmsdIni"));
+		a.setTotalRmsdOpt(getDouble("totalRmsdOpt"));
+		a.setAlignScoreUpdate(getDouble("alignScoreUpdate"));
+		int ca1Length = getInt("ca1Length");
+		a.setCa1Length(ca1Length);
+		int ca2Length = getInt("ca2Length");
+		a.setCa2Length(ca2Length);
+
+		String tmScore = getAttribute("tmScore");
+		if ( tmScore != null)
+			a.setTMScore(Double.parseDouble(tmScore));
+
+		long calcTime = -1L;
+		String time = getAttribute("time");
+		if ( time != null)
+			calcTime = Long.parseLong(time);
+		a.setCalculationTime(calcTime);
+
+		a.setBlockRotationMatrix(new Matrix[blockNum]);
+		a.setBlockShiftVector(new Atom[blockNum]);
+
+		int afpNum = getInt("afpNum");
+		List<AFP> afpSet = new ArrayList<AFP>(afpNum);
+		for ( int afp = 0 ; afp < afpNum ; afp++){
+			afpSet.add(new AFP());
+		}
+		a.setAfpSet(afpSet);
+
+		int minLength = Math.min(ca1Length, ca2Length);
+		a.setFocusRes1(new int[minLength]);
+		a.setFocusRes2(new int[minLength]);
+
+		while ( reader.hasNext()){
+			int event = reader.next();
+			if ( event == XMLStreamConstants.END_ELEMENT)
+				break;
+			if ( event != XMLStreamConstants.START_ELEMENT)
+				continue;
+			if ( ! scoresOnly && reader.getLocalName().equals("block"))
+				readBlock(a, minLength);
+			else
+				skipElement();
+		}
+
+		return a;
+	}
+
+	/** the same as AFPChainXMLParser.processBlock, for the current &lt;block&gt; element
+	 * 
+	 */
+	private void readBlock(AFPChain a, int minLength) throws XMLStreamException {
+		int blockNum = a.getBlockNum();
+
+		if ( a.getOptLen() == null){
+			a.setOptLen(new int[blockNum]);
+			a.setPdbAln(new String[blockNum][2][minLength]);
+			a.setBlockGap(new int[blockNum]);
+			a.setBlockSize(new int[blockNum]);
+			a.setBlockScore(new double[blockNum]);
+			a.setBlockRmsd(new double[blockNum]);
+		}
+		String[][][] pdbAln = a.getPdbAln();
+
+		int blockNr = getInt("blockNr");
+		a.getBlockGap()[blockNr]   = getInt("blockGap");
+		a.getBlockSize()[blockNr]  = getInt("blockSize");
+		a.getBlockScore()[blockNr] = getDouble("blockScore");
+		a.getBlockRmsd()[blockNr]  = getDouble("blockRmsd");
+
+		int nrEqr = 0;
+		while ( reader.hasNext()){
+			int event = reader.next();
+			if ( event == XMLStreamConstants.END_ELEMENT)
+				break;
+			if ( event != XMLStreamConstants.START_ELEMENT)
+				continue;
+
+			String name = reader.getLocalName();
+			if ( name.equals("eqr")) {
+				nrEqr++;
+				int eqrNr = getInt("eqrNr");
+				pdbAln[blockNr][0][eqrNr] = getAttribute("chain1") + ":" + getAttribute("pdbres1");
+				pdbAln[blockNr][1][eqrNr] = getAttribute("chain2") + ":" + getAttribute("pdbres2");
+			} else if ( name.equals("matrix")) {
+				Matrix m = new Matrix(3,3);
+				for (int i = 1 ; i <= 3 ; i++){
+					for (int j = 1 ; j <= 3 ; j++){
+						m.set(i-1, j-1, getDouble("mat" + i + j));
+					}
+				}
+				a.getBlockRotationMatrix()[blockNr] = m;
+			} else if ( name.equals("shift")) {
+				Atom shift = new AtomImpl();
+				shift.setX(getDouble("x"));
+				shift.setY(getDouble("y"));
+				shift.setZ(getDouble("z"));
+				a.getBlockShiftVector()[blockNr] = shift;
+			}
+			skipElement();
+		}
+		a.getOptLen()[blockNr] = nrEqr;
+	}
+
+	/** moves the reader to the end of the current element
+	 * 
+	 */
+	private void skipElement() throws XMLStreamException {
+		int depth = 1;
+		while ( depth > 0) {
+			int event = reader.next();
+			if ( event == XMLStreamConstants.START_ELEMENT)
+				depth++;
+			else if ( event == XMLStreamConstants.END_ELEMENT)
+				depth--;
+		}
+	}
+
+	private String getAttribute(String name){
+		return reader.getAttributeValue(null, name);
+	}
+
+	private int getInt(String name) throws XMLStreamException {
+		return Integer.parseInt(getRequiredAttribute(name));
+	}
+
+	private double getDouble(String name) throws XMLStreamException {
+		return Double.parseDouble(getRequiredAttribute(name));
+	}
+
+	private String getRequiredAttribute(String name) throws XMLStreamException {
+		String value = getAttribute(name);
+		if ( value == null)
+			throw new XMLStreamException("Missing attribute " + name + " in <" + reader.getLocalName() + ">", reader.getLocation());
+		return value;
+	}
+}
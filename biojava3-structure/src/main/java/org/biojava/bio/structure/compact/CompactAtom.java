@@ -0,0 +1,172 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.compact;
+
+import java.io.Serializable;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+import org.biojava.bio.structure.Element;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.io.FileConvert;
+
+/** An {@link Atom} that is a view on one entry of a {@link CompactAtomStore}.
+ *
+ * <p>
+ * A CompactAtom only holds its store, its index and its parent group; all other data is
+ * read from and written to the store. Since the coordinates are not kept in a double[3] array,
+ * {@link #getCoords()} returns a new array on every call, and changing that array does not
+ * change the atom: use {@link #setCoords(double[])} or the setX/Y/Z methods instead.
+ * The PDB line of the atom is not stored.
+ * </p>
+ *
+ * @since 3.0.6
+ */
+public class CompactAtom implements Atom, Serializable {
+
+	private static final long serialVersionUID = 2815207958470398853L;
+
+	private final CompactAtomStore store;
+	private final int index;
+	private Group parent;
+
+	CompactAtom(CompactAtomStore store, int index){
+		this.store = store;
+		this.index = index;
+	}
+
+	/** The store that holds the data of this atom.
+	 * @return the store
+	 */
+	public CompactAtomStore getStore(){
+		return store;
+	}
+
+	/** The index of this atom in its store.
+	 * @return the index
+	 */
+	public int getIndex(){
+		return index;
+	}
+
+	public void setName(String s) { store.setName(index, s); }
+	public String getName() { return store.getName(index); }
+
+	public void setFullName(String s) { store.setFullName(index, s); }
+	public String getFullName() { return store.getFullName(index); }
+
+	public void setElement(Element e) { store.setElement(index, e); }
+	public Element getElement() { return store.getElement(index); }
+
+	public void setPDBserial(int i) { store.setPDBserial(index, i); }
+	public int getPDBserial() { return store.getPDBserial(index); }
+
+	/** Copy the coordinates into the store.
+	 * @param c a double[3] array
+	 */
+	public void setCoords(double[] c) {
+		store.setX(index, c[0]);
+		store.setY(index, c[1]);
+		store.setZ(index, c[2]);
+	}
+
+	/** Get a copy of the coordinates.
+	 * @return a new double[3] array
+	 */
+	public double[] getCoords() {
+		double[] coords = new double[3];
+		store.getCoords(index, coords, 0);
+		return coords;
+	}
+
+	public void setX(double x) { store.setX(index, x); }
+	public void setY(double y) { store.setY(index, y); }
+	public void setZ(double z) { store.setZ(index, z); }
+	public double getX() { return store.getX(index); }
+	public double getY() { return store.getY(index); }
+	public double getZ() { return store.getZ(index); }
+
+	public void setAltLoc(Character c) { store.setAltLoc(index, c); }
+	public Character getAltLoc() { return store.getAltLoc(index); }
+
+	/** The PDB line is not kept by compact atoms, this call is ignored.
+	 * @deprecated
+	 */
+	@Deprecated
+	public void setPDBline(String s) { }
+
+	/** The PDB line is not kept by compact atoms.
+	 * @return an empty String
+	 * @deprecated
+	 */
+	@Deprecated
+	public String getPDBline() { return ""; }
+
+	public void setOccupancy(double occupancy) { store.setOccupancy(index, occupancy); }
+	public double getOccupancy() { return store.getOccupancy(index); }
+
+	public void setTempFactor(double temp) { store.setTempFactor(index, temp); }
+	public double getTempFactor() { return store.getTempFactor(index); }
+
+	/** @deprecated replaced by {@link #setGroup(Group)} */
+	@Deprecated
+	public void setParent(Group parent) { setGroup(parent); }
+
+	/** @deprecated replaced by {@link #getGroup()} */
+	@Deprecated
+	public Group getParent() { return getGroup(); }
+
+	public void setGroup(Group parent) { this.parent = parent; }
+	public Group getGroup() { return parent; }
+
+	/** returns a detached copy of this atom, as an {@link AtomImpl} that does not
+	 * share the store.
+	 * @return an identical copy of this atom
+	 */
+	public Object clone() {
+		AtomImpl n = new AtomImpl();
+		n.setOccupancy(getOccupancy());
+		n.setTempFactor(getTempFactor());
+		n.setAltLoc(getAltLoc());
+		n.setCoords(getCoords());
+		n.setPDBserial(getPDBserial());
+		n.setFullName(getFullName());
+		n.setName(getName());
+		n.setElement(getElement());
+		return n;
+	}
+
+	public String toPDB() {
+		return FileConvert.toPDB(this);
+	}
+
+	public void toPDB(StringBuffer buf) {
+		FileConvert.toPDB(this, buf);
+	}
+
+	/** string representation. */
+	public String toString() {
+		return getFullName() + " (" + getName() + ") " + getElement() + " " + getPDBserial() + " "
+				+ getX() + " " + getY() + " " + getZ();
+	}
+}
@@ -0,0 +1,386 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.compact;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.Element;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.io.PDBParseException;
+
+/** Columnar (struct-of-arrays) storage for the atoms of a structure.
+ *
+ * <p>
+ * Instead of one {@link org.biojava.bio.structure.AtomImpl} with its own coordinate array and
+ * name Strings per atom, all atoms of a structure share one store: x, y and z are kept in
+ * contiguous double arrays indexed by atom, occupancy and B-factor as floats, the element as a
+ * byte, and the atom names as codes into a dictionary of interned names. The atoms themselves
+ * are {@link CompactAtom} views that only hold their index.
+ * </p>
+ *
+ * <p>
+ * The coordinate arrays returned by {@link #getXs()}, {@link #getYs()} and {@link #getZs()}
+ * are the live storage, so bulk operations can run directly over them. Only the first
+ * {@link #size()} entries are in use.
+ * </p>
+ *
+ * <p>
+ * A parsed structure is converted with {@link #compact(Structure)}. If
+ * {@link org.biojava.bio.structure.io.FileParsingParameters#setCompactAtoms(boolean)} is set, the parsers
+ * add every atom to a store while it is parsed, so no intermediate AtomImpl is created.
+ * </p>
+ *
+ * @since 3.0.6
+ */
+public final class CompactAtomStore implements Serializable {
+
+	private static final long serialVersionUID = -4013958732245567093L;
+
+	private static final Element[] ELEMENTS = Element.values();
+
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	private int size;
+
+	private double[] x;
+	private double[] y;
+	private double[] z;
+	private float[] occupancy;
+	private float[] tempFactor;
+	private byte[] element;
+	private char[] altLoc;
+	private int[] serial;
+	private int[] name;
+	private int[] fullName;
+
+	/** the dictionary of names, indexed by code */
+	private final List<String> names = new ArrayList<String>();
+	private final Map<String,Integer> codes = new HashMap<String,Integer>();
+
+	public CompactAtomStore(){
+		this(DEFAULT_CAPACITY);
+	}
+
+	/** Create an empty store.
+	 *
+	 * @param capacity the number of atoms to allocate space for
+	 */
+	public CompactAtomStore(int capacity){
+		capacity = Math.max(capacity, 1);
+		x = new double[capacity];
+		y = new double[capacity];
+		z = new double[capacity];
+		occupancy = new float[capacity];
+		tempFactor = new float[capacity];
+		element = new byte[capacity];
+		altLoc = new char[capacity];
+		serial = new int[capacity];
+		name = new int[capacity];
+		fullName = new int[capacity];
+		// code 0 is reserved for null names
+		names.add(null);
+	}
+
+	/** Move the atoms of all models of a structure into a new store, replacing the atoms of
+	 * every group (including alternate location groups) by {@link CompactAtom} views, and
+	 * interning the residue names. The structure is changed in place.
+	 *
+	 * @param structure the structure to convert
+	 * @return the store holding the atoms of the structure
+	 */
+	public static CompactAtomStore compact(Structure structure){
+		int count = 0;
+		for (int m = 0; m < structure.nrModels(); m++){
+			for (Chain chain : structure.getModel(m)){
+				for (Group g : chain.getAtomGroups()){
+					count += g.size();
+				}
+			}
+		}
+		CompactAtomStore store = new CompactAtomStore(count);
+		store.addAll(structure);
+		store.trimToSize();
+		return store;
+	}
+
+	/** Move the atoms of all models of a structure into this store, like {@link #compact(Structure)}.
+	 * Atoms that are already held by this store are kept, so a parser that adds its atoms to the
+	 * store while parsing only has to convert the atoms that were copied afterwards, e.g. those of
+	 * cloned alternate location groups.
+	 *
+	 * @param structure the structure to convert
+	 */
+	public void addAll(Structure structure){
+		Map<Atom,CompactAtom> views = new IdentityHashMap<Atom,CompactAtom>();
+		for (int m = 0; m < structure.nrModels(); m++){
+			for (Chain chain : structure.getModel(m)){
+				for (Group g : chain.getAtomGroups()){
+					compact(g, views);
+				}
+			}
+		}
+	}
+
+	/** Get the store shared by all atoms of an array, if there is one.
+	 *
+	 * @param atoms an array of atoms
+	 * @return the common store of the atoms, or null if they are not all CompactAtoms of the same store
+	 */
+	public static CompactAtomStore getStore(Atom[] atoms){
+		CompactAtomStore store = null;
+		for (Atom a : atoms){
+			if ( ! (a instanceof CompactAtom))
+				return null;
+			CompactAtomStore s = ((CompactAtom) a).getStore();
+			if ( store == null)
+				store = s;
+			else if ( s != store)
+				return null;
+		}
+		return store;
+	}
+
+	private void compact(Group g, Map<Atom,CompactAtom> views){
+		String pdbName = g.getPDBName();
+		if ( pdbName != null) {
+			String interned = intern(pdbName);
+			if ( interned != pdbName){
+				try {
+					g.setPDBName(interned);
+				} catch (PDBParseException e){
+					// can not happen, the name is unchanged
+				}
+			}
+		}
+		List<Atom> atoms = g.getAtoms();
+		List<Atom> compactAtoms = null;
+		for (int i = 0; i < atoms.size(); i++){
+			Atom a = atoms.get(i);
+			if ( a instanceof CompactAtom && ((CompactAtom) a).getStore() == this)
+				continue;
+			CompactAtom view = views.get(a);
+			if ( view == null){
+				view = add(a);
+				views.put(a, view);
+			}
+			if ( compactAtoms == null)
+				compactAtoms = new ArrayList<Atom>(atoms);
+			compactAtoms.set(i, view);
+		}
+		if ( compactAtoms != null)
+			g.setAtoms(compactAtoms);
+		if ( g.hasAltLoc()){
+			for (Group alt : g.getAltLocs()){
+				compact(alt, views);
+			}
+		}
+	}
+
+	/** The number of atoms in this store.
+	 *
+	 * @return the number of atoms
+	 */
+	public int size(){
+		return size;
+	}
+
+	/** Copy the data of an atom into the store.
+	 *
+	 * @param atom the atom to copy
+	 * @return a view on the new entry. Its group is not set.
+	 */
+	public CompactAtom add(Atom atom){
+		double[] coords = atom.getCoords();
+		if ( coords == null)
+			coords = new double[3];
+		return add(coords[0], coords[1], coords[2], atom.getOccupancy(), atom.getTempFactor(),
+				atom.getElement(), atom.getAltLoc(), atom.getPDBserial(), atom.getName(), atom.getFullName());
+	}
+
+	/** Add an atom from its values, without creating an intermediate Atom.
+	 *
+	 * @return a view on the new entry. Its group is not set.
+	 */
+	public CompactAtom add(double ax, double ay, double az, double occ, double temp, Element e, Character alt,
+			int pdbserial, String atomName, String atomFullName){
+		ensureCapacity(size + 1);
+		int i = size++;
+		x[i] = ax;
+		y[i] = ay;
+		z[i] = az;
+		occupancy[i]  = (float) occ;
+		tempFactor[i] = (float) temp;
+		setElement(i, e);
+		setAltLoc(i, alt);
+		serial[i]   = pdbserial;
+		name[i]     = code(atomName);
+		fullName[i] = code(atomFullName);
+		return new CompactAtom(this, i);
+	}
+
+	/** Shrink the arrays to the number of atoms, once no more atoms will be added. */
+	public void trimToSize(){
+		if ( size < x.length)
+			resize(size);
+	}
+
+	/** Return the dictionary instance of a name, so that equal names of groups or atoms
+	 * share one String.
+	 *
+	 * @param s a name
+	 * @return the interned name
+	 */
+	public String intern(String s){
+		return names.get(code(s));
+	}
+
+	/** The number of distinct atom and residue names in this store.
+	 *
+	 * @return the size of the name dictionary
+	 */
+	public int getNameCount(){
+		return names.size() - 1;
+	}
+
+	/** The x coordinates of all atoms, indexed by atom. This is the live storage.
+	 * @return the x coordinates
+	 */
+	public double[] getXs(){
+		return x;
+	}
+
+	/** The y coordinates of all atoms, indexed by atom. This is the live storage.
+	 * @return the y coordinates
+	 */
+	public double[] getYs(){
+		return y;
+	}
+
+	/** The z coordinates of all atoms, indexed by atom. This is the live storage.
+	 * @return the z coordinates
+	 */
+	public double[] getZs(){
+		return z;
+	}
+
+	/** Copy the coordinates of an atom into an array.
+	 *
+	 * @param i the atom index
+	 * @param coords an array of at least size offset + 3
+	 * @param offset the position of the x coordinate in the array
+	 */
+	public void getCoords(int i, double[] coords, int offset){
+		coords[offset]     = x[i];
+		coords[offset + 1] = y[i];
+		coords[offset + 2] = z[i];
+	}
+
+	public double getX(int i) { return x[i]; }
+	public double getY(int i) { return y[i]; }
+	public double getZ(int i) { return z[i]; }
+	public void setX(int i, double v) { x[i] = v; }
+	public void setY(int i, double v) { y[i] = v; }
+	public void setZ(int i, double v) { z[i] = v; }
+
+	public double getOccupancy(int i) { return occupancy[i]; }
+	public void setOccupancy(int i, double v) { occupancy[i] = (float) v; }
+
+	public double getTempFactor(int i) { return tempFactor[i]; }
+	public void setTempFactor(int i, double v) { tempFactor[i] = (float) v; }
+
+	public int getPDBserial(int i) { return serial[i]; }
+	public void setPDBserial(int i, int v) { serial[i] = v; }
+
+	public String getName(int i) { return names.get(name[i]); }
+	public void setName(int i, String s) { name[i] = code(s); }
+
+	public String getFullName(int i) { return names.get(fullName[i]); }
+	public void setFullName(int i, String s) { fullName[i] = code(s); }
+
+	public Element getElement(int i){
+		byte e = element[i];
+		return e < 0 ? null : ELEMENTS[e];
+	}
+
+	public void setElement(int i, Element e){
+		element[i] = (byte) (e == null ? -1 : e.ordinal());
+	}
+
+	/** Get the alternate location of an atom.
+	 * @param i the atom index
+	 * @return the alt loc, or null if not set
+	 */
+	public Character getAltLoc(int i){
+		char c = altLoc[i];
+		// Character.valueOf caches the ASCII range, so no allocation
+		return c == Character.MAX_VALUE ? null : Character.valueOf(c);
+	}
+
+	public void setAltLoc(int i, Character c){
+		altLoc[i] = c == null ? Character.MAX_VALUE : c.charValue();
+	}
+
+	private int code(String s){
+		if ( s == null)
+			return 0;
+		Integer code = codes.get(s);
+		if ( code == null){
+			code = names.size();
+			names.add(s);
+			codes.put(s, code);
+		}
+		return code;
+	}
+
+	private void ensureCapacity(int capacity){
+		if ( capacity > x.length)
+			resize(Math.max(capacity, x.length + (x.length >> 1)));
+	}
+
+	private void resize(int capacity){
+		x = copyOf(x, capacity);
+		y = copyOf(y, capacity);
+		z = copyOf(z, capacity);
+		occupancy = copyOf(occupancy, capacity);
+		tempFactor = copyOf(tempFactor, capacity);
+		element = copyOf(element, capacity);
+		altLoc = copyOf(altLoc, capacity);
+		serial = copyOf(serial, capacity);
+		name = copyOf(name, capacity);
+		fullName = copyOf(fullName, capacity);
+	}
+
+	private double[] copyOf(double[] a, int n){ double[] b = new double[n]; System.arraycopy(a, 0, b, 0, size); return b; }
+	private float[] copyOf(float[] a, int n){ float[] b = new float[n]; System.arraycopy(a, 0, b, 0, size); return b; }
+	private byte[] copyOf(byte[] a, int n){ byte[] b = new byte[n]; System.arraycopy(a, 0, b, 0, size); return b; }
+	private char[] copyOf(char[] a, int n){ char[] b = new char[n]; System.arraycopy(a, 0, b, 0, size); return b; }
+	private int[] copyOf(int[] a, int n){ int[] b = new int[n]; System.arraycopy(a, 0, b, 0, size); return b; }
+}
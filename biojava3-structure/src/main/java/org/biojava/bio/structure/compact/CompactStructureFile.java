@@ -0,0 +1,1042 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.compact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.biojava.bio.structure.AminoAcid;
+import org.biojava.bio.structure.AminoAcidImpl;
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+import org.biojava.bio.structure.Author;
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.ChainImpl;
+import org.biojava.bio.structure.Compound;
+import org.biojava.bio.structure.DBRef;
+import org.biojava.bio.structure.Element;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.HetatomImpl;
+import org.biojava.bio.structure.JournalArticle;
+import org.biojava.bio.structure.NucleotideImpl;
+import org.biojava.bio.structure.PDBCrystallographicInfo;
+import org.biojava.bio.structure.PDBHeader;
+import org.biojava.bio.structure.ResidueNumber;
+import org.biojava.bio.structure.SSBond;
+import org.biojava.bio.structure.Site;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureImpl;
+import org.biojava.bio.structure.io.PDBParseException;
+
+/** Reads and writes structures in a compact binary format, for fast re-loading of
+ * structures that have already been parsed once.
+ *
+ * <p>
+ * The file starts with a dictionary of all Strings (chain IDs, residue and atom names, ...),
+ * which are referred to by their index. Coordinates are stored as the difference to the previous
+ * atom in thousandths of an Angstrom, occupancy and B-factor in hundredths, all as variable
+ * length integers; if a structure has values with more decimals than the PDB format allows, the
+ * exact doubles are stored instead. Files are read through a memory mapped buffer. A CRC32
+ * checksum of the data after the header detects damaged files before they are decoded.
+ * </p>
+ *
+ * <p>
+ * The format covers the ATOM and HETATM records of all models (including alternate locations),
+ * the chains with their SEQRES groups, the compounds, the PDB header and journal article, the
+ * crystallographic information, the CONECT, DBREF, SSBOND and SITE records and the het groups.
+ * The String properties of these records are stored by name, through their getters and setters.
+ * Secondary structure and the biological assembly information are not stored.
+ * </p>
+ *
+ * @since 3.0.6
+ */
+public class CompactStructureFile {
+
+	private static final byte[] MAGIC = { 'B', 'J', 'S', 'C' };
+
+	private static final int VERSION = 3;
+
+	private static final int FLAG_EXACT_COORDS = 1;
+	private static final int FLAG_EXACT_OCCUPANCY = 2;
+	private static final int FLAG_NMR = 4;
+
+	private static final int AMINO_ACID = 0;
+	private static final int HETATOM = 1;
+	private static final int NUCLEOTIDE = 2;
+
+	private static final Element[] ELEMENTS = Element.values();
+
+	/** the getter and setter of each String property of the record classes, by class and property name */
+	private static final Map<Class<?>,Map<String,Method[]>> PROPERTIES = new HashMap<Class<?>,Map<String,Method[]>>();
+
+	private CompactStructureFile(){
+	}
+
+	/** Write a structure to a file. The file is first written under a temporary name
+	 * and then renamed, so concurrent readers never see a partial file.
+	 *
+	 * @param structure the structure to write
+	 * @param file the file to write to
+	 * @throws IOException
+	 */
+	public static void write(Structure structure, File file) throws IOException {
+		File dir = file.getAbsoluteFile().getParentFile();
+		if ( dir != null && ! dir.exists())
+			dir.mkdirs();
+		File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+		try {
+			OutputStream out = new FileOutputStream(tmp);
+			try {
+				write(structure, out);
+			} finally {
+				out.close();
+			}
+			if ( ! tmp.renameTo(file)) {
+				// the target may exist on some platforms
+				file.delete();
+				if ( ! tmp.renameTo(file))
+					throw new IOException("Could not rename " + tmp + " to " + file);
+			}
+		} finally {
+			if ( tmp.exists())
+				tmp.delete();
+		}
+	}
+
+	/** Write a structure to a stream.
+	 *
+	 * @param structure the structure to write
+	 * @param out the stream to write to. It is not closed.
+	 * @throws IOException
+	 */
+	public static void write(Structure structure, OutputStream out) throws IOException {
+		Encoder body = new Encoder();
+
+		boolean exactCoords = true;
+		boolean exactOccupancy = true;
+		for (int m = 0; m < structure.nrModels(); m++){
+			for (Chain c : structure.getModel(m)){
+				for (Group g : c.getAtomGroups()){
+					exactCoords &= isExact(g, true);
+					exactOccupancy &= isExact(g, false);
+				}
+			}
+		}
+		int flags = (exactCoords ? FLAG_EXACT_COORDS : 0) | (exactOccupancy ? FLAG_EXACT_OCCUPANCY : 0)
+				| (structure.isNmr() ? FLAG_NMR : 0);
+
+		// header
+		PDBHeader header = structure.getPDBHeader();
+		body.writeString(structure.getPDBCode());
+		body.writeProperties(header);
+		body.writeInt(Float.floatToIntBits(header.getResolution()));
+		body.writeLong(header.getDepDate() == null ? Long.MIN_VALUE : header.getDepDate().getTime());
+		body.writeLong(header.getModDate() == null ? Long.MIN_VALUE : header.getModDate().getTime());
+		body.writeSignedVarInt(header.getNrBioAssemblies());
+		writeHeaderMap(body, structure);
+
+		// compounds
+		List<Compound> compounds = structure.getCompounds();
+		body.writeVarInt(compounds.size());
+		for (Compound compound : compounds){
+			body.writeProperties(compound);
+			body.writeStrings(compound.getChainId());
+			body.writeStrings(compound.getSynonyms());
+			body.writeStrings(compound.getEcNums());
+		}
+
+		// models, the groups are numbered in the order they are written, for the references below
+		AtomState state = new AtomState(exactCoords, exactOccupancy);
+		Map<Group,Integer> groupIds = new IdentityHashMap<Group,Integer>();
+		body.writeVarInt(structure.nrModels());
+		for (int m = 0; m < structure.nrModels(); m++){
+			List<Chain> model = structure.getModel(m);
+			body.writeVarInt(model.size());
+			for (Chain c : model){
+				body.writeString(c.getChainID());
+				body.writeString(c.getInternalChainID());
+				body.writeString(c.getSwissprotId());
+				List<Group> groups = c.getAtomGroups();
+				body.writeVarInt(groups.size());
+				for (Group g : groups){
+					writeGroup(body, g, state);
+					groupIds.put(g, groupIds.size());
+					List<Group> altLocs = g.hasAltLoc() ? g.getAltLocs() : null;
+					body.writeVarInt(altLocs == null ? 0 : altLocs.size());
+					if ( altLocs != null) {
+						for (Group alt : altLocs)
+							writeGroup(body, alt, state);
+					}
+				}
+
+				// SEQRES groups are either groups of the model, or groups without atoms
+				List<Group> seqRes = c.getSeqResGroups();
+				body.writeVarInt(seqRes.size());
+				for (Group g : seqRes){
+					Integer id = groupIds.get(g);
+					if ( id != null) {
+						body.writeVarInt(id + 1);
+					} else {
+						body.writeVarInt(0);
+						writeGroup(body, g, state);
+						groupIds.put(g, groupIds.size());
+					}
+				}
+			}
+		}
+
+		writeRecords(body, structure, groupIds);
+
+		Encoder table = new Encoder();
+		table.writeVarInt(flags);
+		table.writeVarInt(body.strings.size());
+		for (String s : body.strings){
+			byte[] bytes = s.getBytes("UTF-8");
+			table.writeVarInt(bytes.length);
+			table.out.write(bytes);
+		}
+
+		final CRC32 crc = new CRC32();
+		OutputStream checksum = new OutputStream(){
+			public void write(int b){
+				crc.update(b);
+			}
+			public void write(byte[] b, int off, int len){
+				crc.update(b, off, len);
+			}
+		};
+		table.out.writeTo(checksum);
+		body.out.writeTo(checksum);
+
+		Encoder head = new Encoder();
+		head.out.write(MAGIC);
+		head.writeVarInt(VERSION);
+		head.writeInt((int) crc.getValue());
+		head.out.writeTo(out);
+		table.out.writeTo(out);
+		body.out.writeTo(out);
+		out.flush();
+	}
+
+	/** Read a structure from a file, through a memory mapped buffer.
+	 *
+	 * @param file a file written by {@link #write(Structure, File)}
+	 * @param compactAtoms if true, the atoms are stored in a {@link CompactAtomStore},
+	 * otherwise they are {@link AtomImpl}s
+	 * @return the structure
+	 * @throws IOException if the file can not be read or is not in the expected format
+	 */
+	public static Structure read(File file, boolean compactAtoms) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return read(buffer, compactAtoms);
+		} finally {
+			in.close();
+		}
+	}
+
+	/** Read a structure from a buffer.
+	 *
+	 * @param buffer a buffer holding the data written by {@link #write(Structure, OutputStream)}
+	 * @param compactAtoms if true, the atoms are stored in a {@link CompactAtomStore},
+	 * otherwise they are {@link AtomImpl}s
+	 * @return the structure
+	 * @throws IOException if the data is not in the expected format
+	 */
+	public static Structure read(ByteBuffer buffer, boolean compactAtoms) throws IOException {
+		try {
+			return new Decoder(buffer, compactAtoms).readStructure();
+		} catch (BufferUnderflowException e){
+			throw new IOException("Truncated compact structure data");
+		} catch (PDBParseException e){
+			IOException ioe = new IOException("Invalid compact structure data: " + e.getMessage());
+			ioe.initCause(e);
+			throw ioe;
+		} catch (RuntimeException e){
+			// damaged data that passed the checksum
+			IOException ioe = new IOException("Invalid compact structure data: " + e);
+			ioe.initCause(e);
+			throw ioe;
+		}
+	}
+
+	/** the deprecated header map is still filled by the parsers, so it is kept as well */
+	@SuppressWarnings("deprecation")
+	private static void writeHeaderMap(Encoder out, Structure structure) throws IOException {
+		Map<String,Object> map = structure.getHeader();
+		if ( map == null) {
+			out.writeVarInt(0);
+			return;
+		}
+		out.writeVarInt(map.size() + 1);
+		for (Map.Entry<String,Object> entry : map.entrySet()){
+			out.writeString(entry.getKey());
+			Object value = entry.getValue();
+			if ( value == null) {
+				out.writeVarInt(0);
+			} else if ( value instanceof String) {
+				out.writeVarInt(1);
+				out.writeString((String) value);
+			} else if ( value instanceof Float) {
+				out.writeVarInt(2);
+				out.writeInt(Float.floatToIntBits((Float) value));
+			} else {
+				throw new IOException("Can not store header field " + entry.getKey() + " of type " + value.getClass().getName());
+			}
+		}
+	}
+
+	/** writes the records that refer to the groups of the models */
+	private static void writeRecords(Encoder out, Structure structure, Map<Group,Integer> groupIds) throws IOException {
+		JournalArticle article = structure.hasJournalArticle() ? structure.getJournalArticle() : null;
+		out.writeVarInt(article == null ? 0 : 1);
+		if ( article != null) {
+			out.writeProperties(article);
+			out.writeSignedVarInt(article.getPublicationDate());
+			out.writeVarInt(article.isPublished() ? 1 : 0);
+			writeAuthors(out, article.getAuthorList());
+			writeAuthors(out, article.getEditorList());
+		}
+
+		PDBCrystallographicInfo crystal = structure.getCrystallographicInfo();
+		out.writeVarInt(crystal == null ? 0 : 1);
+		if ( crystal != null) {
+			out.writeInt(Float.floatToIntBits(crystal.getA()));
+			out.writeInt(Float.floatToIntBits(crystal.getB()));
+			out.writeInt(Float.floatToIntBits(crystal.getC()));
+			out.writeInt(Float.floatToIntBits(crystal.getAlpha()));
+			out.writeInt(Float.floatToIntBits(crystal.getBeta()));
+			out.writeInt(Float.floatToIntBits(crystal.getGamma()));
+			out.writeString(crystal.getSpaceGroup());
+			out.writeSignedVarInt(crystal.getZ());
+		}
+
+		List<Map<String,Integer>> connections = structure.getConnections();
+		out.writeVarInt(connections == null ? 0 : connections.size() + 1);
+		if ( connections != null) {
+			for (Map<String,Integer> connection : connections){
+				out.writeVarInt(connection.size());
+				for (Map.Entry<String,Integer> entry : connection.entrySet()){
+					out.writeString(entry.getKey());
+					if ( entry.getValue() == null) {
+						out.writeVarInt(0);
+					} else {
+						out.writeVarInt(1);
+						out.writeSignedVarInt(entry.getValue());
+					}
+				}
+			}
+		}
+
+		List<DBRef> dbrefs = structure.getDBRefs();
+		out.writeVarInt(dbrefs == null ? 0 : dbrefs.size());
+		if ( dbrefs != null) {
+			for (DBRef ref : dbrefs){
+				out.writeProperties(ref);
+				out.writeChar(ref.getChainId());
+				out.writeSignedVarInt(ref.getSeqBegin());
+				out.writeChar(ref.getInsertBegin());
+				out.writeSignedVarInt(ref.getSeqEnd());
+				out.writeChar(ref.getInsertEnd());
+				out.writeSignedVarInt(ref.getDbSeqBegin());
+				out.writeChar(ref.getIdbnsBegin());
+				out.writeSignedVarInt(ref.getDbSeqEnd());
+				out.writeChar(ref.getIdbnsEnd());
+			}
+		}
+
+		List<SSBond> ssbonds = structure.getSSBonds();
+		out.writeVarInt(ssbonds == null ? 0 : ssbonds.size());
+		if ( ssbonds != null) {
+			for (SSBond bond : ssbonds){
+				out.writeProperties(bond);
+				out.writeSignedVarInt(bond.getSerNum());
+			}
+		}
+
+		List<Site> sites = structure.getSites();
+		out.writeVarInt(sites == null ? 0 : sites.size() + 1);
+		if ( sites != null) {
+			for (Site site : sites){
+				out.writeProperties(site);
+				writeGroupIds(out, site.getGroups(), groupIds);
+			}
+		}
+
+		writeGroupIds(out, structure.getHetGroups(), groupIds);
+	}
+
+	private static void writeAuthors(Encoder out, List<Author> authors) throws IOException {
+		out.writeVarInt(authors == null ? 0 : authors.size() + 1);
+		if ( authors != null) {
+			for (Author author : authors)
+				out.writeProperties(author);
+		}
+	}
+
+	/** groups that are not part of the structure are left out */
+	private static void writeGroupIds(Encoder out, List<Group> groups, Map<Group,Integer> groupIds){
+		List<Integer> ids = new ArrayList<Integer>();
+		if ( groups != null) {
+			for (Group g : groups){
+				Integer id = groupIds.get(g);
+				if ( id != null)
+					ids.add(id);
+			}
+		}
+		out.writeVarInt(ids.size());
+		for (Integer id : ids)
+			out.writeVarInt(id);
+	}
+
+	/** Returns the String properties of a class that have a getter and a setter, sorted by name. */
+	private static Map<String,Method[]> getProperties(Class<?> c){
+		synchronized (PROPERTIES) {
+			Map<String,Method[]> properties = PROPERTIES.get(c);
+			if ( properties == null) {
+				properties = new TreeMap<String,Method[]>();
+				for (Method getter : c.getMethods()){
+					String name = getter.getName();
+					if ( ! name.startsWith("get") || getter.getParameterTypes().length != 0
+							|| getter.getReturnType() != String.class)
+						continue;
+					try {
+						Method setter = c.getMethod("set" + name.substring(3), String.class);
+						properties.put(name.substring(3), new Method[] { getter, setter });
+					} catch (NoSuchMethodException e){
+						// a derived value, nothing to store
+					}
+				}
+				PROPERTIES.put(c, properties);
+			}
+			return properties;
+		}
+	}
+
+	private static Object invoke(Method m, Object bean, Object... args) throws IOException {
+		try {
+			return m.invoke(bean, args);
+		} catch (IllegalAccessException e){
+			throw new IOException("Could not call " + m + ": " + e.getMessage());
+		} catch (InvocationTargetException e){
+			IOException ioe = new IOException("Could not call " + m + ": " + e.getCause());
+			ioe.initCause(e.getCause());
+			throw ioe;
+		}
+	}
+
+	private static boolean isExact(Group g, boolean coords){
+		for (Atom a : g.getAtoms()){
+			if ( coords) {
+				if ( ! isExact(a.getX(), 1000) || ! isExact(a.getY(), 1000) || ! isExact(a.getZ(), 1000))
+					return false;
+			} else {
+				if ( ! isExact(a.getOccupancy(), 100) || ! isExact(a.getTempFactor(), 100))
+					return false;
+			}
+		}
+		if ( g.hasAltLoc()) {
+			for (Group alt : g.getAltLocs()){
+				if ( ! isExact(alt, coords))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isExact(double v, int scale){
+		double scaled = v * scale;
+		return Math.abs(scaled) < Integer.MAX_VALUE / 2 && Math.round(scaled) / (double) scale == v;
+	}
+
+	private static void writeGroup(Encoder out, Group g, AtomState state) throws IOException {
+		if ( g instanceof AminoAcid) {
+			AminoAcid aa = (AminoAcid) g;
+			out.writeVarInt(AMINO_ACID);
+			out.writeChar(aa.getAminoType());
+			out.writeString(aa.getRecordType());
+		} else if ( g instanceof NucleotideImpl) {
+			out.writeVarInt(NUCLEOTIDE);
+		} else {
+			out.writeVarInt(HETATOM);
+		}
+		out.writeString(g.getPDBName());
+		ResidueNumber resNum = g.getResidueNumber();
+		if ( resNum == null || resNum.getSeqNum() == null) {
+			out.writeVarInt(0);
+		} else {
+			out.writeVarInt(1);
+			out.writeSignedVarInt(resNum.getSeqNum());
+			out.writeChar(resNum.getInsCode());
+		}
+
+		List<Atom> atoms = g.getAtoms();
+		out.writeVarInt(atoms.size());
+		for (Atom a : atoms){
+			out.writeString(a.getName());
+			out.writeString(a.getFullName());
+			Element e = a.getElement();
+			out.writeVarInt(e == null ? 0 : e.ordinal() + 1);
+			out.writeChar(a.getAltLoc());
+			out.writeSignedVarInt(a.getPDBserial() - state.serial);
+			state.serial = a.getPDBserial();
+			if ( state.exactCoords) {
+				int x = (int) Math.round(a.getX() * 1000);
+				int y = (int) Math.round(a.getY() * 1000);
+				int z = (int) Math.round(a.getZ() * 1000);
+				out.writeSignedVarInt(x - state.x);
+				out.writeSignedVarInt(y - state.y);
+				out.writeSignedVarInt(z - state.z);
+				state.x = x;
+				state.y = y;
+				state.z = z;
+			} else {
+				out.writeLong(Double.doubleToLongBits(a.getX()));
+				out.writeLong(Double.doubleToLongBits(a.getY()));
+				out.writeLong(Double.doubleToLongBits(a.getZ()));
+			}
+			if ( state.exactOccupancy) {
+				out.writeSignedVarInt((int) Math.round(a.getOccupancy() * 100));
+				out.writeSignedVarInt((int) Math.round(a.getTempFactor() * 100));
+			} else {
+				out.writeLong(Double.doubleToLongBits(a.getOccupancy()));
+				out.writeLong(Double.doubleToLongBits(a.getTempFactor()));
+			}
+		}
+	}
+
+	/** the values of the previous atom, for delta encoding */
+	private static class AtomState {
+		final boolean exactCoords;
+		final boolean exactOccupancy;
+		int serial;
+		int x;
+		int y;
+		int z;
+
+		AtomState(boolean exactCoords, boolean exactOccupancy){
+			this.exactCoords = exactCoords;
+			this.exactOccupancy = exactOccupancy;
+		}
+	}
+
+	private static class Encoder {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+		final List<String> strings = new ArrayList<String>();
+		final Map<String,Integer> codes = new HashMap<String,Integer>();
+
+		void writeVarInt(int v){
+			while ( (v & ~0x7f) != 0) {
+				out.write((v & 0x7f) | 0x80);
+				v >>>= 7;
+			}
+			out.write(v);
+		}
+
+		void writeSignedVarInt(int v){
+			// zig-zag, so small negative numbers are short too
+			writeVarInt((v << 1) ^ (v >> 31));
+		}
+
+		void writeInt(int v){
+			out.write(v >>> 24);
+			out.write(v >>> 16);
+			out.write(v >>> 8);
+			out.write(v);
+		}
+
+		void writeLong(long v){
+			writeInt((int) (v >>> 32));
+			writeInt((int) v);
+		}
+
+		void writeChar(Character c){
+			writeVarInt(c == null ? 0 : c.charValue() + 1);
+		}
+
+		/** lists are written as 0 for null or the size + 1, followed by the elements */
+		void writeStrings(List<String> list){
+			if ( list == null) {
+				writeVarInt(0);
+				return;
+			}
+			writeVarInt(list.size() + 1);
+			for (String s : list)
+				writeString(s);
+		}
+
+		/** writes the String properties of a record as name and value pairs */
+		void writeProperties(Object bean) throws IOException {
+			Map<String,Method[]> properties = getProperties(bean.getClass());
+			writeVarInt(properties.size());
+			for (Map.Entry<String,Method[]> property : properties.entrySet()){
+				writeString(property.getKey());
+				writeString((String) invoke(property.getValue()[0], bean));
+			}
+		}
+
+		/** strings are written as 0 for null or the dictionary index + 1 */
+		void writeString(String s){
+			if ( s == null) {
+				writeVarInt(0);
+				return;
+			}
+			Integer code = codes.get(s);
+			if ( code == null) {
+				code = strings.size();
+				strings.add(s);
+				codes.put(s, code);
+			}
+			writeVarInt(code + 1);
+		}
+	}
+
+	private static class Decoder {
+		final ByteBuffer in;
+		final boolean compactAtoms;
+		String[] strings;
+		CompactAtomStore store;
+		boolean exactCoords;
+		boolean exactOccupancy;
+		int serial;
+		int x;
+		int y;
+		int z;
+
+		Decoder(ByteBuffer in, boolean compactAtoms){
+			this.in = in;
+			this.compactAtoms = compactAtoms;
+		}
+
+		Structure readStructure() throws IOException, PDBParseException {
+			for (byte b : MAGIC) {
+				if ( in.get() != b)
+					throw new IOException("Not a compact structure file");
+			}
+			int version = readVarInt();
+			if ( version != VERSION)
+				throw new IOException("Unsupported compact structure file version " + version);
+			int checksum = in.getInt();
+			if ( checksum != checksum(in.duplicate()))
+				throw new IOException("Damaged compact structure data, the checksum does not match");
+			int flags = readVarInt();
+			exactCoords = (flags & FLAG_EXACT_COORDS) != 0;
+			exactOccupancy = (flags & FLAG_EXACT_OCCUPANCY) != 0;
+
+			strings = new String[readLength()];
+			for (int i = 0; i < strings.length; i++){
+				byte[] bytes = new byte[readLength()];
+				in.get(bytes);
+				strings[i] = decode(bytes);
+			}
+
+			Structure structure = new StructureImpl();
+			structure.setNmr((flags & FLAG_NMR) != 0);
+			structure.setPDBCode(readString());
+			PDBHeader header = structure.getPDBHeader();
+			readProperties(header);
+			header.setResolution(Float.intBitsToFloat(in.getInt()));
+			long depDate = in.getLong();
+			if ( depDate != Long.MIN_VALUE)
+				header.setDepDate(new Date(depDate));
+			long modDate = in.getLong();
+			if ( modDate != Long.MIN_VALUE)
+				header.setModDate(new Date(modDate));
+			header.setNrBioAssemblies(readSignedVarInt());
+			readHeaderMap(structure);
+
+			List<Compound> compounds = new ArrayList<Compound>();
+			int compoundCount = readVarInt();
+			for (int i = 0; i < compoundCount; i++){
+				Compound compound = new Compound();
+				readProperties(compound);
+				compound.setChainId(readStrings());
+				compound.setSynonyms(readStrings());
+				compound.setEcNums(readStrings());
+				compounds.add(compound);
+			}
+
+			if ( compactAtoms)
+				store = new CompactAtomStore();
+			// the groups in the order they were numbered by the writer
+			List<Group> groups = new ArrayList<Group>();
+			int modelCount = readVarInt();
+			for (int m = 0; m < modelCount; m++){
+				int chainCount = readVarInt();
+				List<Chain> model = new ArrayList<Chain>(chainCount);
+				for (int i = 0; i < chainCount; i++){
+					Chain c = new ChainImpl();
+					c.setChainID(readString());
+					c.setInternalChainID(readString());
+					c.setSwissprotId(readString());
+					int groupCount = readVarInt();
+					for (int j = 0; j < groupCount; j++){
+						Group g = readGroup(c.getChainID());
+						c.addGroup(g);
+						groups.add(g);
+						int altLocCount = readVarInt();
+						for (int k = 0; k < altLocCount; k++)
+							g.addAltLoc(readGroup(c.getChainID()));
+					}
+
+					int seqResCount = readVarInt();
+					List<Group> seqRes = new ArrayList<Group>(seqResCount);
+					for (int j = 0; j < seqResCount; j++){
+						int id = readVarInt();
+						if ( id > 0) {
+							seqRes.add(getGroup(groups, id - 1));
+						} else {
+							Group g = readGroup(c.getChainID());
+							seqRes.add(g);
+							groups.add(g);
+						}
+					}
+					c.setSeqResGroups(seqRes);
+					model.add(c);
+				}
+				structure.addModel(model);
+			}
+			if ( store != null)
+				store.trimToSize();
+
+			readRecords(structure, groups);
+
+			structure.setCompounds(compounds);
+			for (Compound compound : compounds){
+				if ( compound.getChainId() == null)
+					continue;
+				for (String chainId : compound.getChainId()){
+					for (Chain c : structure.getChains()){
+						if ( c.getChainID().equals(chainId)) {
+							compound.addChain(c);
+							c.setHeader(compound);
+						}
+					}
+				}
+			}
+			return structure;
+		}
+
+		@SuppressWarnings("deprecation")
+		private void readHeaderMap(Structure structure) throws IOException {
+			int size = readVarInt();
+			if ( size == 0)
+				return;
+			Map<String,Object> map = new HashMap<String,Object>();
+			for (int i = 1; i < size; i++){
+				String key = readString();
+				int type = readVarInt();
+				if ( type == 0)
+					map.put(key, null);
+				else if ( type == 1)
+					map.put(key, readString());
+				else if ( type == 2)
+					map.put(key, Float.valueOf(Float.intBitsToFloat(in.getInt())));
+				else
+					throw new IOException("Unknown type " + type + " of header field " + key);
+			}
+			structure.setHeader(map);
+		}
+
+		private void readRecords(Structure structure, List<Group> groups) throws IOException {
+			if ( readVarInt() != 0) {
+				JournalArticle article = new JournalArticle();
+				readProperties(article);
+				article.setPublicationDate(readSignedVarInt());
+				article.setPublished(readVarInt() != 0);
+				article.setAuthorList(readAuthors());
+				article.setEditorList(readAuthors());
+				structure.setJournalArticle(article);
+			}
+
+			if ( readVarInt() != 0) {
+				PDBCrystallographicInfo crystal = new PDBCrystallographicInfo();
+				crystal.setA(Float.intBitsToFloat(in.getInt()));
+				crystal.setB(Float.intBitsToFloat(in.getInt()));
+				crystal.setC(Float.intBitsToFloat(in.getInt()));
+				crystal.setAlpha(Float.intBitsToFloat(in.getInt()));
+				crystal.setBeta(Float.intBitsToFloat(in.getInt()));
+				crystal.setGamma(Float.intBitsToFloat(in.getInt()));
+				crystal.setSpaceGroup(readString());
+				crystal.setZ(readSignedVarInt());
+				structure.setCrystallographicInfo(crystal);
+			}
+
+			int connectionCount = readVarInt();
+			if ( connectionCount > 0) {
+				List<Map<String,Integer>> connections = new ArrayList<Map<String,Integer>>(connectionCount - 1);
+				for (int i = 1; i < connectionCount; i++){
+					int size = readVarInt();
+					Map<String,Integer> connection = new HashMap<String,Integer>();
+					for (int j = 0; j < size; j++){
+						String key = readString();
+						connection.put(key, readVarInt() == 0 ? null : Integer.valueOf(readSignedVarInt()));
+					}
+					connections.add(connection);
+				}
+				structure.setConnections(connections);
+			}
+
+			int dbrefCount = readVarInt();
+			List<DBRef> dbrefs = new ArrayList<DBRef>(dbrefCount);
+			for (int i = 0; i < dbrefCount; i++){
+				DBRef ref = new DBRef();
+				readProperties(ref);
+				ref.setChainId(readChar());
+				ref.setSeqBegin(readSignedVarInt());
+				ref.setInsertBegin(readChar());
+				ref.setSeqEnd(readSignedVarInt());
+				ref.setInsertEnd(readChar());
+				ref.setDbSeqBegin(readSignedVarInt());
+				ref.setIdbnsBegin(readChar());
+				ref.setDbSeqEnd(readSignedVarInt());
+				ref.setIdbnsEnd(readChar());
+				dbrefs.add(ref);
+			}
+			structure.setDBRefs(dbrefs);
+
+			int ssbondCount = readVarInt();
+			List<SSBond> ssbonds = new ArrayList<SSBond>(ssbondCount);
+			for (int i = 0; i < ssbondCount; i++){
+				SSBond bond = new SSBond();
+				readProperties(bond);
+				bond.setSerNum(readSignedVarInt());
+				ssbonds.add(bond);
+			}
+			structure.setSSBonds(ssbonds);
+
+			int siteCount = readVarInt();
+			if ( siteCount > 0) {
+				List<Site> sites = new ArrayList<Site>(siteCount - 1);
+				for (int i = 1; i < siteCount; i++){
+					Site site = new Site();
+					readProperties(site);
+					site.setGroups(readGroups(groups));
+					sites.add(site);
+				}
+				structure.setSites(sites);
+			}
+
+			structure.getHetGroups().addAll(readGroups(groups));
+		}
+
+		private List<Author> readAuthors() throws IOException {
+			int size = readVarInt();
+			if ( size == 0)
+				return null;
+			List<Author> authors = new ArrayList<Author>(size - 1);
+			for (int i = 1; i < size; i++){
+				Author author = new Author();
+				readProperties(author);
+				authors.add(author);
+			}
+			return authors;
+		}
+
+		private List<Group> readGroups(List<Group> groups) throws IOException {
+			int size = readVarInt();
+			List<Group> list = new ArrayList<Group>(size);
+			for (int i = 0; i < size; i++)
+				list.add(getGroup(groups, readVarInt()));
+			return list;
+		}
+
+		private static Group getGroup(List<Group> groups, int id) throws IOException {
+			if ( id < 0 || id >= groups.size())
+				throw new IOException("Invalid group reference " + id);
+			return groups.get(id);
+		}
+
+		/** sets the String properties that were written by {@link Encoder#writeProperties(Object)}.
+		 * Properties that the class does not have any more are skipped.
+		 */
+		void readProperties(Object bean) throws IOException {
+			Map<String,Method[]> properties = getProperties(bean.getClass());
+			int size = readVarInt();
+			for (int i = 0; i < size; i++){
+				String name = readString();
+				String value = readString();
+				Method[] property = properties.get(name);
+				if ( property != null)
+					invoke(property[1], bean, value);
+			}
+		}
+
+		List<String> readStrings() throws IOException {
+			int size = readVarInt();
+			if ( size == 0)
+				return null;
+			List<String> list = new ArrayList<String>(size - 1);
+			for (int i = 1; i < size; i++)
+				list.add(readString());
+			return list;
+		}
+
+		private Group readGroup(String chainId) throws IOException, PDBParseException {
+			Group g;
+			int type = readVarInt();
+			if ( type == AMINO_ACID) {
+				AminoAcid aa = new AminoAcidImpl();
+				aa.setAminoType(readChar());
+				aa.setRecordType(readString());
+				g = aa;
+			} else if ( type == NUCLEOTIDE) {
+				g = new NucleotideImpl();
+			} else {
+				g = new HetatomImpl();
+			}
+			g.setPDBName(readString());
+			if ( readVarInt() != 0) {
+				int seqNum = readSignedVarInt();
+				g.setResidueNumber(chainId, seqNum, readChar());
+			}
+
+			int atomCount = readVarInt();
+			for (int i = 0; i < atomCount; i++){
+				String name = readString();
+				String fullName = readString();
+				int e = readVarInt();
+				if ( e < 0 || e > ELEMENTS.length)
+					throw new IOException("Invalid element " + e);
+				Element element = e == 0 ? null : ELEMENTS[e - 1];
+				Character altLoc = readChar();
+				serial += readSignedVarInt();
+				double ax;
+				double ay;
+				double az;
+				if ( exactCoords) {
+					x += readSignedVarInt();
+					y += readSignedVarInt();
+					z += readSignedVarInt();
+					ax = x / 1000.0;
+					ay = y / 1000.0;
+					az = z / 1000.0;
+				} else {
+					ax = Double.longBitsToDouble(in.getLong());
+					ay = Double.longBitsToDouble(in.getLong());
+					az = Double.longBitsToDouble(in.getLong());
+				}
+				double occupancy;
+				double tempFactor;
+				if ( exactOccupancy) {
+					occupancy = readSignedVarInt() / 100.0;
+					tempFactor = readSignedVarInt() / 100.0;
+				} else {
+					occupancy = Double.longBitsToDouble(in.getLong());
+					tempFactor = Double.longBitsToDouble(in.getLong());
+				}
+
+				Atom a;
+				if ( store != null) {
+					a = store.add(ax, ay, az, occupancy, tempFactor, element, altLoc, serial, name, fullName);
+				} else {
+					a = new AtomImpl();
+					a.setName(name);
+					a.setFullName(fullName);
+					a.setElement(element);
+					a.setAltLoc(altLoc);
+					a.setPDBserial(serial);
+					a.setCoords(new double[] { ax, ay, az });
+					a.setOccupancy(occupancy);
+					a.setTempFactor(tempFactor);
+				}
+				g.addAtom(a);
+			}
+			return g;
+		}
+
+		int readVarInt(){
+			int v = 0;
+			for (int shift = 0; ; shift += 7) {
+				int b = in.get();
+				v |= (b & 0x7f) << shift;
+				if ( (b & 0x80) == 0)
+					return v;
+			}
+		}
+
+		/** reads a count or length, which can not be larger than the remaining data */
+		int readLength() throws IOException {
+			int length = readVarInt();
+			if ( length < 0 || length > in.remaining())
+				throw new IOException("Invalid length " + length);
+			return length;
+		}
+
+		int readSignedVarInt(){
+			int v = readVarInt();
+			return (v >>> 1) ^ -(v & 1);
+		}
+
+		Character readChar(){
+			int c = readVarInt();
+			return c == 0 ? null : Character.valueOf((char) (c - 1));
+		}
+
+		String readString() throws IOException {
+			int code = readVarInt();
+			if ( code < 0 || code > strings.length)
+				throw new IOException("Invalid string reference " + code);
+			return code == 0 ? null : strings[code - 1];
+		}
+
+		private static int checksum(ByteBuffer buffer){
+			CRC32 crc = new CRC32();
+			byte[] chunk = new byte[8192];
+			while ( buffer.hasRemaining()) {
+				int n = Math.min(chunk.length, buffer.remaining());
+				buffer.get(chunk, 0, n);
+				crc.update(chunk, 0, n);
+			}
+			return (int) crc.getValue();
+		}
+
+		private static String decode(byte[] bytes) throws IOException {
+			try {
+				return new String(bytes, "UTF-8");
+			} catch (UnsupportedEncodingException e){
+				throw new IOException(e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,335 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.contact;
+
+import java.util.Arrays;
+
+import org.biojava.bio.structure.Atom;
+
+/** A spatial index of atoms for fast neighbor searches.
+ *
+ * <p>
+ * The atoms are sorted into a uniform grid of cubic cells (a cell list). A search within a
+ * given radius only has to look at the atoms in the cells that overlap the search sphere, so
+ * finding all neighbors of an atom takes constant time for the typical atom densities of
+ * macromolecules, instead of the linear time of a scan over all atoms. The coordinates are
+ * copied into primitive arrays when the grid is built; later changes to the atoms are not seen
+ * by the grid.
+ * </p>
+ *
+ * <p>
+ * The grid works for any search radius, but it is fastest if the cell size is about the
+ * radius that is used most. All methods return atom indices in ascending order, i.e. in the
+ * order of the atom array the grid was built from.
+ * </p>
+ *
+ * @since 3.0.6
+ */
+public class AtomGrid {
+
+	/** the default cell size, in Angstrom. */
+	public static final double DEFAULT_CELL_SIZE = 4.0;
+
+	/** the grid does not use more than this many cells per atom. Sparse structures get larger cells. */
+	private static final int MAX_CELLS_PER_ATOM = 8;
+
+	private final Atom[] atoms;
+	private final double[] x;
+	private final double[] y;
+	private final double[] z;
+
+	private double cellSize;
+	private double minX, minY, minZ;
+	private int nx, ny, nz;
+
+	/** the atoms of cell c are cellAtoms[cellStart[c]] .. cellAtoms[cellStart[c+1]-1] */
+	private int[] cellStart;
+	private int[] cellAtoms;
+
+	/** Creates a grid with the default cell size.
+	 *
+	 * @param atoms the atoms to index
+	 */
+	public AtomGrid(Atom[] atoms){
+		this(atoms, DEFAULT_CELL_SIZE);
+	}
+
+	/** Creates a grid.
+	 *
+	 * @param atoms the atoms to index
+	 * @param cellSize the edge length of the cells, in Angstrom.
+	 * Should be about the radius of the searches.
+	 */
+	public AtomGrid(Atom[] atoms, double cellSize){
+		if ( cellSize <= 0)
+			throw new IllegalArgumentException("cellSize has to be positive: " + cellSize);
+
+		this.atoms = atoms;
+		int n = atoms.length;
+		x = new double[n];
+		y = new double[n];
+		z = new double[n];
+		for ( int i = 0 ; i < n ; i++){
+			x[i] = atoms[i].getX();
+			y[i] = atoms[i].getY();
+			z[i] = atoms[i].getZ();
+		}
+		buildCells(cellSize);
+	}
+
+	private void buildCells(double requestedCellSize){
+		int n = atoms.length;
+
+		minX = minY = minZ = 0;
+		double maxX = 0, maxY = 0, maxZ = 0;
+		if ( n > 0){
+			minX = maxX = x[0];
+			minY = maxY = y[0];
+			minZ = maxZ = z[0];
+		}
+		for ( int i = 1 ; i < n ; i++){
+			if ( x[i] < minX) minX = x[i];
+			if ( x[i] > maxX) maxX = x[i];
+			if ( y[i] < minY) minY = y[i];
+			if ( y[i] > maxY) maxY = y[i];
+			if ( z[i] < minZ) minZ = z[i];
+			if ( z[i] > maxZ) maxZ = z[i];
+		}
+
+		long maxCells = Math.max(1024L, (long) n * MAX_CELLS_PER_ATOM);
+		cellSize = requestedCellSize;
+		while (true) {
+			nx = (int) ((maxX - minX) / cellSize) + 1;
+			ny = (int) ((maxY - minY) / cellSize) + 1;
+			nz = (int) ((maxZ - minZ) / cellSize) + 1;
+			if ( (long) nx * ny * nz <= maxCells)
+				break;
+			cellSize *= 2;
+		}
+
+		// counting sort of the atoms by cell. Atoms stay in ascending order within a cell.
+		int nCells = nx * ny * nz;
+		int[] atomCell = new int[n];
+		cellStart = new int[nCells + 1];
+		for ( int i = 0 ; i < n ; i++){
+			int c = cellIndex(cellCoord(x[i], minX, nx), cellCoord(y[i], minY, ny), cellCoord(z[i], minZ, nz));
+			atomCell[i] = c;
+			cellStart[c + 1]++;
+		}
+		for ( int c = 0 ; c < nCells ; c++)
+			cellStart[c + 1] += cellStart[c];
+
+		int[] fill = new int[nCells];
+		System.arraycopy(cellStart, 0, fill, 0, nCells);
+		cellAtoms = new int[n];
+		for ( int i = 0 ; i < n ; i++)
+			cellAtoms[fill[atomCell[i]]++] = i;
+	}
+
+	private int cellCoord(double v, double min, int cells){
+		int c = (int) Math.floor((v - min) / cellSize);
+		if ( c < 0)
+			return 0;
+		if ( c >= cells)
+			return cells - 1;
+		return c;
+	}
+
+	private int cellIndex(int cx, int cy, int cz){
+		return (cx * ny + cy) * nz + cz;
+	}
+
+	/** Returns the number of atoms in this grid.
+	 *
+	 * @return the number of atoms
+	 */
+	public int size(){
+		return atoms.length;
+	}
+
+	/** Returns an atom of this grid.
+	 *
+	 * @param index the index of the atom in the array the grid was built from
+	 * @return the atom
+	 */
+	public Atom getAtom(int index){
+		return atoms[index];
+	}
+
+	/** Returns the atoms of this grid.
+	 *
+	 * @return the array the grid was built from
+	 */
+	public Atom[] getAtoms(){
+		return atoms;
+	}
+
+	/** Returns the actual edge length of the cells, which can be larger than requested for sparse structures.
+	 *
+	 * @return the cell size in Angstrom
+	 */
+	public double getCellSize(){
+		return cellSize;
+	}
+
+	/** Returns the indices of all atoms within a distance of a point.
+	 *
+	 * @param px x coordinate of the point
+	 * @param py y coordinate of the point
+	 * @param pz z coordinate of the point
+	 * @param radius the maximum distance, inclusive
+	 * @return the atom indices in ascending order
+	 */
+	public int[] getNeighbors(double px, double py, double pz, double radius){
+		IntList result = new IntList();
+		collectNeighbors(px, py, pz, radius, -1, result);
+		result.sort(0);
+		return result.toArray();
+	}
+
+	/** Returns the indices of all atoms of this grid within a distance of an atom.
+	 * If the atom itself is part of the grid, it is included in the result.
+	 *
+	 * @param atom the center of the search
+	 * @param radius the maximum distance, inclusive
+	 * @return the atom indices in ascending order
+	 */
+	public int[] getNeighbors(Atom atom, double radius){
+		return getNeighbors(atom.getX(), atom.getY(), atom.getZ(), radius);
+	}
+
+	/** Returns all pairs of atoms of this grid that are within a distance of each other.
+	 *
+	 * @param cutoff the maximum distance, inclusive
+	 * @return pairs of atom indices i &lt; j, stored as i0, j0, i1, j1, ..., sorted by i and then by j
+	 */
+	public int[] getPairs(double cutoff){
+		IntList result = new IntList();
+		for ( int i = 0 ; i < atoms.length ; i++){
+			int start = result.size();
+			collectNeighbors(x[i], y[i], z[i], cutoff, i, result);
+			result.sort(start);
+			// interleave with i
+			int found = result.size() - start;
+			result.ensureCapacity(start + 2 * found);
+			for ( int k = found - 1 ; k >= 0 ; k--){
+				result.data[start + 2 * k + 1] = result.data[start + k];
+				result.data[start + 2 * k] = i;
+			}
+			result.size = start + 2 * found;
+		}
+		return result.toArray();
+	}
+
+	/** Returns all pairs of an atom of this grid and an atom of another grid that are within a
+	 * distance of each other, e.g. the contacts between two chains.
+	 *
+	 * @param other the other grid
+	 * @param cutoff the maximum distance, inclusive
+	 * @return pairs of atom indices i (this grid), j (other grid), stored as i0, j0, i1, j1, ...,
+	 * sorted by i and then by j
+	 */
+	public int[] getPairs(AtomGrid other, double cutoff){
+		IntList result = new IntList();
+		IntList neighbors = new IntList();
+		for ( int i = 0 ; i < atoms.length ; i++){
+			neighbors.size = 0;
+			other.collectNeighbors(x[i], y[i], z[i], cutoff, -1, neighbors);
+			neighbors.sort(0);
+			for ( int k = 0 ; k < neighbors.size ; k++){
+				result.add(i);
+				result.add(neighbors.data[k]);
+			}
+		}
+		return result.toArray();
+	}
+
+	/** Adds the indices of the atoms within radius of the point to the list, unsorted.
+	 * Only atoms with an index greater than minIndex are reported.
+	 */
+	private void collectNeighbors(double px, double py, double pz, double radius, int minIndex, IntList result){
+		if ( atoms.length == 0)
+			return;
+
+		int cx0 = Math.max(0,      (int) Math.floor((px - radius - minX) / cellSize));
+		int cx1 = Math.min(nx - 1, (int) Math.floor((px + radius - minX) / cellSize));
+		int cy0 = Math.max(0,      (int) Math.floor((py - radius - minY) / cellSize));
+		int cy1 = Math.min(ny - 1, (int) Math.floor((py + radius - minY) / cellSize));
+		int cz0 = Math.max(0,      (int) Math.floor((pz - radius - minZ) / cellSize));
+		int cz1 = Math.min(nz - 1, (int) Math.floor((pz + radius - minZ) / cellSize));
+
+		// the search sphere lies outside of the grid
+		if ( cx0 > cx1 || cy0 > cy1 || cz0 > cz1)
+			return;
+
+		double radiusSq = radius * radius;
+
+		for ( int cx = cx0 ; cx <= cx1 ; cx++){
+			for ( int cy = cy0 ; cy <= cy1 ; cy++){
+				int c = cellIndex(cx, cy, cz0);
+				int end = cellStart[c + cz1 - cz0 + 1];
+				// the cells cz0 .. cz1 are consecutive
+				for ( int k = cellStart[c] ; k < end ; k++){
+					int j = cellAtoms[k];
+					if ( j <= minIndex)
+						continue;
+					double dx = px - x[j];
+					double dy = py - y[j];
+					double dz = pz - z[j];
+					if ( dx * dx + dy * dy + dz * dz <= radiusSq)
+						result.add(j);
+				}
+			}
+		}
+	}
+
+	/** a growable list of ints */
+	private static class IntList {
+		int[] data = new int[16];
+		int size;
+
+		void add(int v){
+			if ( size == data.length)
+				ensureCapacity(size + 1);
+			data[size++] = v;
+		}
+
+		void ensureCapacity(int capacity){
+			if ( capacity > data.length)
+				data = Arrays.copyOf(data, Math.max(capacity, 2 * data.length));
+		}
+
+		int size(){
+			return size;
+		}
+
+		void sort(int from){
+			Arrays.sort(data, from, size);
+		}
+
+		int[] toArray(){
+			return Arrays.copyOf(data, size);
+		}
+	}
+}
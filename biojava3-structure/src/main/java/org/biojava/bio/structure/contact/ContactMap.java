@@ -0,0 +1,91 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.contact;
+
+/** A map of the contacts between two sets of atoms or residues, e.g. the residues of a protein
+ * that are closer than a distance cutoff.
+ *
+ * <p>
+ * Rows and columns refer to the first and second set. Cells that are not in contact have no
+ * distance. Implementations store the distances as floats, either for all cells
+ * ({@link DenseContactMap}) or only for the contacts ({@link SparseContactMap}), which needs
+ * memory in proportion to the number of contacts instead of the number of cells.
+ * </p>
+ *
+ * @see ContactTools
+ * @since 3.0.6
+ */
+public interface ContactMap {
+
+	/** Returns the number of rows, i.e. the size of the first set.
+	 *
+	 * @return the number of rows
+	 */
+	public int getRowCount();
+
+	/** Returns the number of columns, i.e. the size of the second set.
+	 *
+	 * @return the number of columns
+	 */
+	public int getColumnCount();
+
+	/** Returns the number of cells that are in contact.
+	 *
+	 * @return the number of contacts
+	 */
+	public int getContactCount();
+
+	/** Returns true if row i and column j are in contact.
+	 *
+	 * @param i the row
+	 * @param j the column
+	 * @return true if in contact
+	 */
+	public boolean isContact(int i, int j);
+
+	/** Returns the distance of row i and column j. For residues this is the shortest distance
+	 * of the atoms that were considered.
+	 *
+	 * @param i the row
+	 * @param j the column
+	 * @return the distance, or Float.NaN if the cell is not in contact
+	 */
+	public float getDistance(int i, int j);
+
+	/** Returns the number of atom pairs in contact between row i and column j. This is 1 for
+	 * contacts between single atoms.
+	 *
+	 * @param i the row
+	 * @param j the column
+	 * @return the number of atom contacts, 0 if the cell is not in contact
+	 */
+	public int getAtomContactCount(int i, int j);
+
+	/** Returns the columns that are in contact with a row.
+	 *
+	 * @param i the row
+	 * @return the columns, in ascending order
+	 */
+	public int[] getContacts(int i);
+}
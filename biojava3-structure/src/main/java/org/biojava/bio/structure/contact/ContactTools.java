@@ -0,0 +1,356 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.contact;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.biojava.bio.structure.AminoAcid;
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Calc;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.StructureException;
+import org.biojava.bio.structure.StructureTools;
+
+/** Methods to calculate distance matrices and contact maps of atoms and residues.
+ *
+ * <p>
+ * The contact maps are built with an {@link AtomGrid}, so their calculation takes time in
+ * proportion to the number of atoms and contacts, not to the number of cells. Contact maps are
+ * returned either as {@link SparseContactMap}, which also works for large complexes, or as
+ * {@link DenseContactMap}.
+ * </p>
+ *
+ * <pre>
+ * List&lt;Group&gt; groups = chain.getAtomGroups();
+ * // all pairs of residues with CB atoms closer than 8A
+ * ContactMap map = ContactTools.getResidueContactMap(groups, ContactType.CB, 8.0, false);
+ * for (int j : map.getContacts(0))
+ *     System.out.println("residue 0 is in contact with residue " + j);
+ * </pre>
+ *
+ * @since 3.0.6
+ */
+public class ContactTools {
+
+	private ContactTools(){
+	}
+
+	/** Calculates the matrix of all distances between the atoms.
+	 *
+	 * @param atoms the atoms
+	 * @return a symmetric matrix of distances
+	 */
+	public static double[][] getDistanceMatrix(Atom[] atoms){
+		int n = atoms.length;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		double[] z = new double[n];
+		copyCoordinates(atoms, x, y, z);
+
+		double[][] dist = new double[n][n];
+		for (int i = 0; i < n; i++){
+			double[] row = dist[i];
+			for (int j = i + 1; j < n; j++){
+				double dx = x[i] - x[j];
+				double dy = y[i] - y[j];
+				double dz = z[i] - z[j];
+				double d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+				row[j] = d;
+				dist[j][i] = d;
+			}
+		}
+		return dist;
+	}
+
+	/** Calculates the matrix of all distances between two sets of atoms.
+	 *
+	 * @param atoms1 the atoms of the rows
+	 * @param atoms2 the atoms of the columns
+	 * @return the distances, atoms1.length x atoms2.length
+	 */
+	public static double[][] getDistanceMatrix(Atom[] atoms1, Atom[] atoms2){
+		int n1 = atoms1.length;
+		int n2 = atoms2.length;
+		double[] x = new double[n2];
+		double[] y = new double[n2];
+		double[] z = new double[n2];
+		copyCoordinates(atoms2, x, y, z);
+
+		double[][] dist = new double[n1][n2];
+		for (int i = 0; i < n1; i++){
+			double[] row = dist[i];
+			double ax = atoms1[i].getX();
+			double ay = atoms1[i].getY();
+			double az = atoms1[i].getZ();
+			for (int j = 0; j < n2; j++){
+				double dx = ax - x[j];
+				double dy = ay - y[j];
+				double dz = az - z[j];
+				row[j] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+			}
+		}
+		return dist;
+	}
+
+	private static void copyCoordinates(Atom[] atoms, double[] x, double[] y, double[] z){
+		for (int i = 0; i < atoms.length; i++){
+			x[i] = atoms[i].getX();
+			y[i] = atoms[i].getY();
+			z[i] = atoms[i].getZ();
+		}
+	}
+
+	/** Returns the atom that represents a group for a contact type: its CA, or its CB.
+	 * Groups without CB get a virtual CB if they are amino acids with N, CA and C atoms,
+	 * otherwise their CA is used.
+	 *
+	 * @param group the group
+	 * @param type CA or CB
+	 * @return the atom, or null if the group has no CA
+	 */
+	public static Atom getRepresentativeAtom(Group group, ContactType type){
+		if ( type == ContactType.ALL_ATOM)
+			throw new IllegalArgumentException("ALL_ATOM has no representative atom");
+
+		if ( type == ContactType.CB) {
+			try {
+				return group.getAtom(StructureTools.cbAtomName);
+			} catch (StructureException e){
+				if ( group instanceof AminoAcid) {
+					try {
+						return Calc.createVirtualCBAtom((AminoAcid) group);
+					} catch (StructureException e1){
+						// fall back to the CA
+					}
+				}
+			}
+		}
+		try {
+			return group.getAtom(StructureTools.caAtomName);
+		} catch (StructureException e){
+			return null;
+		}
+	}
+
+	/** Calculates the contacts between the atoms of one set, excluding the contacts of an atom with itself.
+	 *
+	 * @param atoms the atoms
+	 * @param cutoff the maximum distance of atoms in contact, inclusive
+	 * @param dense true for a {@link DenseContactMap}, false for a {@link SparseContactMap}
+	 * @return a symmetric contact map
+	 */
+	public static ContactMap getContactMap(Atom[] atoms, double cutoff, boolean dense){
+		return getContactMap(atoms, null, atoms.length, atoms, null, atoms.length, true, cutoff, dense);
+	}
+
+	/** Calculates the contacts between two sets of atoms.
+	 *
+	 * @param atoms1 the atoms of the rows
+	 * @param atoms2 the atoms of the columns
+	 * @param cutoff the maximum distance of atoms in contact, inclusive
+	 * @param dense true for a {@link DenseContactMap}, false for a {@link SparseContactMap}
+	 * @return the contact map
+	 */
+	public static ContactMap getContactMap(Atom[] atoms1, Atom[] atoms2, double cutoff, boolean dense){
+		return getContactMap(atoms1, null, atoms1.length, atoms2, null, atoms2.length, false, cutoff, dense);
+	}
+
+	/** Calculates the contacts between the residues of one set, excluding the contacts of a residue with itself.
+	 *
+	 * @param groups the residues
+	 * @param type the atoms used for the distances
+	 * @param cutoff the maximum distance of residues in contact, inclusive
+	 * @param dense true for a {@link DenseContactMap}, false for a {@link SparseContactMap}
+	 * @return a symmetric contact map. For {@link ContactType#ALL_ATOM} the map also
+	 * contains the number of atom pairs in contact.
+	 */
+	public static ContactMap getResidueContactMap(List<Group> groups, ContactType type, double cutoff, boolean dense){
+		ResidueAtoms residues = new ResidueAtoms(groups, type);
+		return getContactMap(residues.atoms, residues.owners, groups.size(),
+				residues.atoms, residues.owners, groups.size(), true, cutoff, dense);
+	}
+
+	/** Calculates the contacts between two sets of residues, e.g. the interface between two chains.
+	 *
+	 * @param groups1 the residues of the rows
+	 * @param groups2 the residues of the columns
+	 * @param type the atoms used for the distances
+	 * @param cutoff the maximum distance of residues in contact, inclusive
+	 * @param dense true for a {@link DenseContactMap}, false for a {@link SparseContactMap}
+	 * @return the contact map. For {@link ContactType#ALL_ATOM} the map also
+	 * contains the number of atom pairs in contact.
+	 */
+	public static ContactMap getResidueContactMap(List<Group> groups1, List<Group> groups2, ContactType type, double cutoff, boolean dense){
+		ResidueAtoms residues1 = new ResidueAtoms(groups1, type);
+		ResidueAtoms residues2 = new ResidueAtoms(groups2, type);
+		return getContactMap(residues1.atoms, residues1.owners, groups1.size(),
+				residues2.atoms, residues2.owners, groups2.size(), false, cutoff, dense);
+	}
+
+	/** the atoms of a list of residues and the index of the residue of each atom */
+	private static class ResidueAtoms {
+		Atom[] atoms;
+		int[] owners;
+
+		ResidueAtoms(List<Group> groups, ContactType type){
+			int n = 0;
+			if ( type == ContactType.ALL_ATOM) {
+				for (Group g : groups)
+					n += g.getAtoms().size();
+			} else {
+				n = groups.size();
+			}
+
+			atoms = new Atom[n];
+			owners = new int[n];
+			n = 0;
+			for (int i = 0; i < groups.size(); i++){
+				Group g = groups.get(i);
+				if ( type == ContactType.ALL_ATOM) {
+					for (Atom a : g.getAtoms()){
+						atoms[n] = a;
+						owners[n++] = i;
+					}
+				} else {
+					Atom a = getRepresentativeAtom(g, type);
+					if ( a != null) {
+						atoms[n] = a;
+						owners[n++] = i;
+					}
+				}
+			}
+			if ( n < atoms.length) {
+				atoms = Arrays.copyOf(atoms, n);
+				owners = Arrays.copyOf(owners, n);
+			}
+		}
+	}
+
+	/** Calculates a contact map, one row at a time, so that only the contacts are kept in memory.
+	 *
+	 * @param owners1 the row of each atom of atoms1, must be ascending. null if each atom is a row.
+	 * @param owners2 the column of each atom of atoms2. null if each atom is a column.
+	 * @param symmetric true if both sets are the same, to skip the contacts of a row with itself
+	 */
+	private static ContactMap getContactMap(Atom[] atoms1, int[] owners1, int rows,
+			Atom[] atoms2, int[] owners2, int columns, boolean symmetric, double cutoff, boolean dense){
+
+		if ( cutoff <= 0)
+			throw new IllegalArgumentException("the cutoff has to be positive: " + cutoff);
+
+		AtomGrid grid = new AtomGrid(atoms2, cutoff);
+		double cutoffSq = cutoff * cutoff;
+
+		int[] rowStart = new int[rows + 1];
+		int size = 0;
+		int[] contactColumns = new int[Math.max(16, atoms1.length)];
+		double[] distancesSq = new double[contactColumns.length];
+		int[] atomContacts = new int[contactColumns.length];
+
+		// the position of a column in the current row, or -1
+		int[] slot = new int[columns];
+		Arrays.fill(slot, -1);
+
+		int a = 0;
+		for (int row = 0; row < rows; row++){
+			int start = size;
+			for ( ; a < atoms1.length && (owners1 == null ? a : owners1[a]) == row ; a++){
+				Atom atom = atoms1[a];
+				double x = atom.getX();
+				double y = atom.getY();
+				double z = atom.getZ();
+				for (int b : grid.getNeighbors(x, y, z, cutoff)){
+					int column = owners2 == null ? b : owners2[b];
+					if ( symmetric && column == row)
+						continue;
+					Atom other = atoms2[b];
+					double dx = x - other.getX();
+					double dy = y - other.getY();
+					double dz = z - other.getZ();
+					double dSq = dx * dx + dy * dy + dz * dz;
+					if ( dSq > cutoffSq)
+						continue;
+
+					int k = slot[column];
+					if ( k < 0) {
+						if ( size == contactColumns.length) {
+							int capacity = 2 * size;
+							contactColumns = Arrays.copyOf(contactColumns, capacity);
+							distancesSq = Arrays.copyOf(distancesSq, capacity);
+							atomContacts = Arrays.copyOf(atomContacts, capacity);
+						}
+						k = size++;
+						slot[column] = k;
+						contactColumns[k] = column;
+						distancesSq[k] = dSq;
+						atomContacts[k] = 1;
+					} else {
+						if ( dSq < distancesSq[k])
+							distancesSq[k] = dSq;
+						atomContacts[k]++;
+					}
+				}
+			}
+			for (int k = start; k < size; k++)
+				slot[contactColumns[k]] = -1;
+			sortRow(contactColumns, distancesSq, atomContacts, start, size);
+			rowStart[row + 1] = size;
+		}
+
+		float[] distances = new float[size];
+		boolean singleAtoms = true;
+		for (int k = 0; k < size; k++){
+			distances[k] = (float) Math.sqrt(distancesSq[k]);
+			if ( atomContacts[k] != 1)
+				singleAtoms = false;
+		}
+
+		SparseContactMap map = new SparseContactMap(rows, columns, rowStart,
+				Arrays.copyOf(contactColumns, size), distances,
+				singleAtoms ? null : Arrays.copyOf(atomContacts, size));
+		if ( dense)
+			return map.toDense();
+		return map;
+	}
+
+	/** sorts the contacts of a row by column (insertion sort, rows are short) */
+	private static void sortRow(int[] columns, double[] distancesSq, int[] atomContacts, int from, int to){
+		for (int i = from + 1; i < to; i++){
+			int c = columns[i];
+			double d = distancesSq[i];
+			int n = atomContacts[i];
+			int j = i - 1;
+			while ( j >= from && columns[j] > c) {
+				columns[j + 1] = columns[j];
+				distancesSq[j + 1] = distancesSq[j];
+				atomContacts[j + 1] = atomContacts[j];
+				j--;
+			}
+			columns[j + 1] = c;
+			distancesSq[j + 1] = d;
+			atomContacts[j + 1] = n;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.contact;
+
+/** The atoms that are used to decide if two residues are in contact.
+ *
+ * @since 3.0.6
+ */
+public enum ContactType {
+
+	/** the distance between the CA atoms */
+	CA,
+
+	/** the distance between the CB atoms. Residues without CB (e.g. GLY) use a virtual CB
+	 * if possible, their CA atom otherwise.
+	 */
+	CB,
+
+	/** the shortest distance between any two atoms of the residues */
+	ALL_ATOM
+}
@@ -0,0 +1,111 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.contact;
+
+/** A {@link ContactMap} that stores a float for every cell, Float.NaN for the cells that are not
+ * in contact. Lookups are faster than in a {@link SparseContactMap}, but the memory use grows
+ * with the number of cells.
+ *
+ * @see ContactTools
+ * @since 3.0.6
+ */
+public class DenseContactMap implements ContactMap {
+
+	private final int rows;
+	private final int columns;
+
+	/** the distance of cell i,j is at i*columns+j */
+	private final float[] distances;
+
+	/** null if all contacts are between single atoms */
+	private final int[] atomContacts;
+
+	private final int contactCount;
+
+	DenseContactMap(int rows, int columns, float[] distances, int[] atomContacts, int contactCount){
+		this.rows = rows;
+		this.columns = columns;
+		this.distances = distances;
+		this.atomContacts = atomContacts;
+		this.contactCount = contactCount;
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public int getContactCount() {
+		return contactCount;
+	}
+
+	public boolean isContact(int i, int j) {
+		return ! Float.isNaN(distances[cell(i, j)]);
+	}
+
+	public float getDistance(int i, int j) {
+		return distances[cell(i, j)];
+	}
+
+	public int getAtomContactCount(int i, int j) {
+		int cell = cell(i, j);
+		if ( Float.isNaN(distances[cell]))
+			return 0;
+		return atomContacts == null ? 1 : atomContacts[cell];
+	}
+
+	public int[] getContacts(int i) {
+		if ( columns == 0) {
+			if ( i < 0 || i >= rows)
+				throw new IndexOutOfBoundsException("no row " + i + " in a " + rows + "x" + columns + " contact map");
+			return new int[0];
+		}
+		int start = cell(i, 0);
+		int n = 0;
+		for ( int j = 0 ; j < columns ; j++){
+			if ( ! Float.isNaN(distances[start + j]))
+				n++;
+		}
+		int[] contacts = new int[n];
+		n = 0;
+		for ( int j = 0 ; j < columns ; j++){
+			if ( ! Float.isNaN(distances[start + j]))
+				contacts[n++] = j;
+		}
+		return contacts;
+	}
+
+	private int cell(int i, int j){
+		if ( i < 0 || i >= rows || j < 0 || j >= columns)
+			throw new IndexOutOfBoundsException("no cell " + i + "," + j + " in a " + rows + "x" + columns + " contact map");
+		return i * columns + j;
+	}
+
+	public String toString(){
+		return "DenseContactMap " + rows + "x" + columns + " contacts: " + contactCount;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.contact;
+
+import java.util.Arrays;
+
+/** A {@link ContactMap} in compressed sparse row (CSR) format: for each row, the columns in
+ * contact and their distances are stored in ascending order of the column. The memory use is
+ * proportional to the number of contacts, so this works for large complexes where a dense
+ * matrix would not fit into memory.
+ *
+ * @see ContactTools
+ * @since 3.0.6
+ */
+public class SparseContactMap implements ContactMap {
+
+	private final int rows;
+	private final int columns;
+
+	/** the contacts of row i are at rowStart[i] .. rowStart[i+1]-1 */
+	private final int[] rowStart;
+	private final int[] contactColumns;
+	private final float[] distances;
+
+	/** null if all contacts are between single atoms */
+	private final int[] atomContacts;
+
+	SparseContactMap(int rows, int columns, int[] rowStart, int[] contactColumns, float[] distances, int[] atomContacts){
+		this.rows = rows;
+		this.columns = columns;
+		this.rowStart = rowStart;
+		this.contactColumns = contactColumns;
+		this.distances = distances;
+		this.atomContacts = atomContacts;
+	}
+
+	public int getRowCount() {
+		return rows;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	public int getContactCount() {
+		return rowStart[rows];
+	}
+
+	public boolean isContact(int i, int j) {
+		return indexOf(i, j) >= 0;
+	}
+
+	public float getDistance(int i, int j) {
+		int k = indexOf(i, j);
+		return k < 0 ? Float.NaN : distances[k];
+	}
+
+	public int getAtomContactCount(int i, int j) {
+		int k = indexOf(i, j);
+		if ( k < 0)
+			return 0;
+		return atomContacts == null ? 1 : atomContacts[k];
+	}
+
+	public int[] getContacts(int i) {
+		return Arrays.copyOfRange(contactColumns, rowStart[i], rowStart[i + 1]);
+	}
+
+	/** Returns the number of contacts of a row, without copying them.
+	 *
+	 * @param i the row
+	 * @return the number of columns in contact with row i
+	 */
+	public int getContactCount(int i) {
+		return rowStart[i + 1] - rowStart[i];
+	}
+
+	private int indexOf(int i, int j){
+		if ( i < 0 || i >= rows || j < 0 || j >= columns)
+			throw new IndexOutOfBoundsException("no cell " + i + "," + j + " in a " + rows + "x" + columns + " contact map");
+		int k = Arrays.binarySearch(contactColumns, rowStart[i], rowStart[i + 1], j);
+		return k < 0 ? -1 : k;
+	}
+
+	/** Converts this map into a dense one.
+	 *
+	 * @return a dense map with the same contacts
+	 */
+	public DenseContactMap toDense(){
+		if ( (long) rows * columns > Integer.MAX_VALUE)
+			throw new IllegalStateException("a " + rows + "x" + columns + " contact map is too large for a dense matrix");
+		float[] cells = new float[rows * columns];
+		Arrays.fill(cells, Float.NaN);
+		int[] counts = atomContacts == null ? null : new int[rows * columns];
+		for ( int i = 0 ; i < rows ; i++){
+			for ( int k = rowStart[i] ; k < rowStart[i + 1] ; k++){
+				int cell = i * columns + contactColumns[k];
+				cells[cell] = distances[k];
+				if ( counts != null)
+					counts[cell] = atomContacts[k];
+			}
+		}
+		return new DenseContactMap(rows, columns, cells, counts, getContactCount());
+	}
+
+	public String toString(){
+		return "SparseContactMap " + rows + "x" + columns + " contacts: " + getContactCount();
+	}
+}
@@ -6,6 +6,8 @@ import org.biojava.bio.structure.Calc;
 import org.biojava.bio.structure.Group;
 
 import org.biojava.bio.structure.StructureException;
+import org.biojava.bio.structure.contact.ContactTools;
+import org.biojava.bio.structure.contact.SparseContactMap;
 
 
 public class GetDistanceMatrix {
@@ -20,53 +22,42 @@ public class GetDistanceMatrix {
 		int i,j;
 		double d,dt1,dt2,dt3,dt4;
 		int nclose=0;
-		int[] iclose = new int[protein.length*protein.length];
-		int[] jclose= new int[protein.length*protein.length];
 		
 		if(protein.length >= PDPParameters.MAXLEN) {
 			System.err.println(String.format("%d protein.len > MAXLEN %d\n",protein.length,PDPParameters.MAXLEN));
 			return null;
 		}
+
+		// the C-beta of each residue, or its C-alpha if it has none
+		Atom[] cb = new Atom[protein.length];
 		for(i=0;i<protein.length;i++) {
-			for(j=i;j<protein.length;j++) { 
-				dist[i][j]=0;
-				dist[j][i]=0;
-
-				d=0;
-
-				Atom ca1 = protein[i];
-				Atom ca2 = protein[j];
-				Group g1 = ca1.getGroup();
-				Group g2 = ca2.getGroup();
-
-				Atom cb1 = getCBeta(g1);
-				Atom cb2 = getCBeta(g2);
-				boolean hasCbeta1 = cb1 != null;
-				boolean hasCbeta2 = cb2 != null;
-
-				dt1=81;
-				dt2=64;
-				dt3=49;
-				dt4=36;
-				
-				if(hasCbeta1 && hasCbeta2) {
-					double distance = Calc.getDistance(cb1,cb2);
-					d+= distance*distance;
-				}
-				else if(hasCbeta1 && ! hasCbeta2) {
-					double distance = 999;
-					
-					distance = Calc.getDistance(cb1, ca2);
-					d += distance * distance;
-				}
-				else if(!hasCbeta1&&hasCbeta2) {
-					double distance = Calc.getDistance(ca1, cb2);
-					d += distance * distance;
-				}
-				else if( ! hasCbeta1&&!hasCbeta2) {
-					double distance = Calc.getDistance(ca1, ca2);
-					d += distance * distance;
-				}
+			cb[i] = getCBeta(protein[i].getGroup());
+			if ( cb[i] == null)
+				cb[i] = protein[i];
+		}
+
+		dt1=81;
+		dt2=64;
+		dt3=49;
+		dt4=36;
+
+		// only residues closer than sqrt(dt1) get a value > 0. Get them from a sparse
+		// contact map, with a small margin for the rounding of the squared distances.
+		SparseContactMap contacts = (SparseContactMap) ContactTools.getContactMap(cb, Math.sqrt(dt1) + 0.01, false);
+		int[] iclose = new int[contacts.getContactCount()/2];
+		int[] jclose = new int[contacts.getContactCount()/2];
+
+		for(i=0;i<protein.length;i++) {
+			// a residue has distance 0 to itself
+			dist[i][i]=6;
+
+			for(int jContact : contacts.getContacts(i)) { 
+				j = jContact;
+				if ( j < i)
+					continue;
+
+				double distance = Calc.getDistance(cb[i], cb[j]);
+				d = distance * distance;
 				
 				if(d<dt1) {
 					dist[i][j]=1;
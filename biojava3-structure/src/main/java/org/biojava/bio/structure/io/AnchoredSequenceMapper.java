@@ -0,0 +1,340 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Maps the sequence of the ATOM records of a chain onto its SEQRES sequence without
+ * a full dynamic programming alignment.
+ * 
+ * <p>The ATOM sequence is first anchored on k-mers that occur exactly once in the SEQRES
+ * and the anchors are extended as long as both sequences are identical. The short stretches between two anchors
+ * (missing loops, point mutations) are then aligned with a small dynamic programming matrix that is restricted
+ * to a band around the diagonal between the anchors. The ends of the chain are aligned against a window of the SEQRES
+ * next to the first and last anchor.</p>
+ * 
+ * <p>If too little of the ATOM sequence can be anchored, or a gap between two anchors is too large,
+ * no mapping is returned and the caller should fall back to a full alignment.</p>
+ * 
+ * @since 3.0.6
+ */
+class AnchoredSequenceMapper {
+
+	/** the minimum fraction of the ATOM sequence that needs to be covered by anchors */
+	static final double MIN_ANCHORED_FRACTION = 0.5;
+
+	/** the maximum size of the matrix that is used to fill a single gap */
+	static final int MAX_GAP_CELLS = 250000;
+
+	/** the width of the band around the diagonal between two anchors, also the margin of the
+	 *  SEQRES window that the ends of the chain are aligned against.
+	 */
+	static final int BAND = 16;
+
+	// the gap penalties are the same as for the full alignment
+	private static final int MATCH      =  5;
+	private static final int MISMATCH   = -2;
+	private static final int GAP_OPEN   =  8;
+	private static final int GAP_EXTEND =  1;
+
+	private static final int NEG_INF  = Integer.MIN_VALUE / 2;
+
+	private final int k;
+
+	private long anchorTime;
+
+	private long gapFillTime;
+
+	/**
+	 * 
+	 * @param k the length of the k-mers used as anchors, at most 10
+	 */
+	AnchoredSequenceMapper(int k){
+		if ( k < 1 || k > 10)
+			throw new IllegalArgumentException("k needs to be between 1 and 10, but is " + k);
+		this.k = k;
+	}
+
+	/** the time spent finding anchors during the last call to map, in nanoseconds */
+	long getAnchorTime() {
+		return anchorTime;
+	}
+
+	/** the time spent filling the gaps between anchors during the last call to map, in nanoseconds */
+	long getGapFillTime() {
+		return gapFillTime;
+	}
+
+	/** Maps the ATOM sequence onto the SEQRES sequence.
+	 * 
+	 * @param seqRes the SEQRES sequence
+	 * @param atom the ATOM sequence
+	 * @return for every position in the ATOM sequence the position of the identical residue in the SEQRES, or -1.
+	 * 	null if the sequences could not be anchored reliably.
+	 */
+	int[] map(String seqRes, String atom){
+		anchorTime  = 0;
+		gapFillTime = 0;
+
+		long start = System.nanoTime();
+
+		char[] s = seqRes.toUpperCase().toCharArray();
+		char[] a = atom.toUpperCase().toCharArray();
+		int n = s.length;
+		int m = a.length;
+
+		List<int[]> anchors = null;
+		if ( n >= k && m >= k)
+			anchors = findAnchors(s, a);
+
+		anchorTime = System.nanoTime() - start;
+
+		if ( anchors == null)
+			return null;
+
+		start = System.nanoTime();
+		try {
+			return fillGaps(s, a, anchors);
+		} finally {
+			gapFillTime = System.nanoTime() - start;
+		}
+	}
+
+	/** chains unique k-mer hits into colinear anchors {atomStart, seqResStart, length}
+	 * 
+	 * @return the anchors or null if they do not cover enough of the ATOM sequence
+	 */
+	private List<int[]> findAnchors(char[] s, char[] a){
+		int n = s.length;
+		int m = a.length;
+
+		// k-mers that occur more than once are marked with -1
+		Map<Long,Integer> index = new HashMap<Long,Integer>(2 * n);
+		for ( int i = 0 ; i + k <= n ; i++){
+			long key = getKey(s, i);
+			if ( key < 0)
+				continue;
+			Integer previous = index.put(key, i);
+			if ( previous != null)
+				index.put(key, -1);
+		}
+
+		List<int[]> anchors = new ArrayList<int[]>();
+		int anchored = 0;
+		int lastA = 0;
+		int lastS = 0;
+		int j = 0;
+		while ( j + k <= m){
+			long key = getKey(a, j);
+			Integer pos = key < 0 ? null : index.get(key);
+			if ( pos == null || pos < lastS || ! regionMatches(a, j, s, pos, k)){
+				j++;
+				continue;
+			}
+			int i = pos;
+			int len = k;
+			while ( j > lastA && i > lastS && a[j-1] == s[i-1]){
+				j--;
+				i--;
+				len++;
+			}
+			while ( j + len < m && i + len < n && a[j+len] == s[i+len])
+				len++;
+
+			anchors.add(new int[]{j, i, len});
+			anchored += len;
+			lastA = j + len;
+			lastS = i + len;
+			j = lastA;
+		}
+
+		if ( anchors.isEmpty() || anchored < MIN_ANCHORED_FRACTION * m)
+			return null;
+
+		return anchors;
+	}
+
+	private int[] fillGaps(char[] s, char[] a, List<int[]> anchors){
+		int n = s.length;
+		int m = a.length;
+
+		int[] map = new int[m];
+		Arrays.fill(map, -1);
+
+		int prevA = -1;
+		int prevS = -1;
+		for ( int[] anchor : anchors){
+			int aStart = anchor[0];
+			int sStart = anchor[1];
+			int len    = anchor[2];
+
+			boolean ok;
+			if ( prevA < 0){
+				// the start of the chain, the SEQRES may continue further to the left
+				ok = fill(a, 0, aStart, s, Math.max(0, sStart - getWindow(aStart)), sStart, true, false, map);
+			} else {
+				ok = fill(a, prevA, aStart, s, prevS, sStart, false, false, map);
+			}
+			if ( ! ok)
+				return null;
+
+			for ( int t = 0 ; t < len ; t++)
+				map[aStart + t] = sStart + t;
+
+			prevA = aStart + len;
+			prevS = sStart + len;
+		}
+
+		// the end of the chain
+		if ( ! fill(a, prevA, m, s, prevS, Math.min(n, prevS + getWindow(m - prevA)), false, true, map))
+			return null;
+
+		return map;
+	}
+
+	/** the part of the SEQRES that the unanchored end of a chain is aligned against. Beyond that,
+	 * the gap costs more than all the residues could score.
+	 */
+	private static int getWindow(int length){
+		return length + (length * MATCH - GAP_OPEN) / GAP_EXTEND + BAND;
+	}
+
+	/** aligns a[a0,a1) to s[s0,s1) with affine gap penalties and records the identical pairs in map.
+	 * 
+	 * @param freeStart flag if the alignment is local at its start, i.e. leading gaps are free
+	 * @param freeEnd flag if the alignment is local at its end, i.e. trailing gaps are free
+	 * @return false if the region is too large
+	 */
+	private boolean fill(char[] a, int a0, int a1, char[] s, int s0, int s1, boolean freeStart, boolean freeEnd, int[] map){
+		int la = a1 - a0;
+		int ls = s1 - s0;
+		if ( la == 0 || ls == 0)
+			return true;
+		if ( (long) la * ls > MAX_GAP_CELLS)
+			return false;
+
+		// between two anchors the path has to stay close to the diagonal that joins them
+		boolean banded = ! freeStart && ! freeEnd;
+		int d = ls - la;
+		int bandLow  = Math.min(0, d) - BAND;
+		int bandHigh = Math.max(0, d) + BAND;
+
+		// aligned pair, gap in a (a SEQRES residue without atoms), gap in s
+		int[][] match = new int[la + 1][ls + 1];
+		int[][] gapA  = new int[la + 1][ls + 1];
+		int[][] gapS  = new int[la + 1][ls + 1];
+
+		for ( int i = 0 ; i <= la ; i++){
+			for ( int j = 0 ; j <= ls ; j++){
+				match[i][j] = NEG_INF;
+				gapA[i][j]  = NEG_INF;
+				gapS[i][j]  = NEG_INF;
+
+				if ( banded && ( j < i + bandLow || j > i + bandHigh))
+					continue;
+
+				if ( i == 0 && j == 0){
+					match[i][j] = 0;
+				} else if ( i == 0){
+					gapA[i][j] = freeStart ? 0 : -GAP_OPEN - (j - 1) * GAP_EXTEND;
+				} else if ( j == 0){
+					gapS[i][j] = freeStart ? 0 : -GAP_OPEN - (i - 1) * GAP_EXTEND;
+				} else {
+					int sub = a[a0+i-1] == s[s0+j-1] ? MATCH : MISMATCH;
+					match[i][j] = max(match[i-1][j-1], gapA[i-1][j-1], gapS[i-1][j-1]) + sub;
+
+					int openA   = freeEnd && i == la ? 0 : GAP_OPEN;
+					int extendA = freeEnd && i == la ? 0 : GAP_EXTEND;
+					gapA[i][j] = max(match[i][j-1] - openA, gapA[i][j-1] - extendA, gapS[i][j-1] - openA);
+
+					int openS   = freeEnd && j == ls ? 0 : GAP_OPEN;
+					int extendS = freeEnd && j == ls ? 0 : GAP_EXTEND;
+					gapS[i][j] = max(match[i-1][j] - openS, gapS[i-1][j] - extendS, gapA[i-1][j] - openS);
+				}
+			}
+		}
+
+		int i = la;
+		int j = ls;
+		int[][] state = match;
+		if ( gapA[i][j] > state[i][j])
+			state = gapA;
+		if ( gapS[i][j] > state[i][j])
+			state = gapS;
+
+		while ( i > 0 && j > 0){
+			int score = state[i][j];
+			if ( state == match){
+				boolean same = a[a0+i-1] == s[s0+j-1];
+				if ( same)
+					map[a0+i-1] = s0+j-1;
+				score -= same ? MATCH : MISMATCH;
+				i--;
+				j--;
+				state = match[i][j] == score ? match : gapA[i][j] == score ? gapA : gapS;
+			} else if ( state == gapA){
+				int open   = freeEnd && i == la ? 0 : GAP_OPEN;
+				int extend = freeEnd && i == la ? 0 : GAP_EXTEND;
+				j--;
+				state = match[i][j] - open == score ? match : gapA[i][j] - extend == score ? gapA : gapS;
+			} else {
+				int open   = freeEnd && j == ls ? 0 : GAP_OPEN;
+				int extend = freeEnd && j == ls ? 0 : GAP_EXTEND;
+				i--;
+				state = match[i][j] - open == score ? match : gapS[i][j] - extend == score ? gapS : gapA;
+			}
+		}
+		return true;
+	}
+
+	private static int max(int x, int y, int z){
+		return Math.max(x, Math.max(y, z));
+	}
+
+	private static boolean regionMatches(char[] a, int aPos, char[] s, int sPos, int len){
+		for ( int t = 0 ; t < len ; t++){
+			if ( a[aPos + t] != s[sPos + t])
+				return false;
+		}
+		return true;
+	}
+
+	/** packs the k-mer at pos into a long, 6 bits per residue. Returns -1 if the k-mer contains an unknown residue.
+	 * 
+	 */
+	private long getKey(char[] seq, int pos){
+		long key = 0;
+		for ( int t = 0 ; t < k ; t++){
+			char c = seq[pos + t];
+			if ( c == 'X')
+				return -1;
+			key = (key << 6) | (c & 0x3F);
+		}
+		return key;
+	}
+}
@@ -27,6 +27,9 @@ package org.biojava.bio.structure.io;
 import java.io.Serializable;
 
 import org.biojava.bio.structure.AminoAcid;
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.compact.CompactAtomStore;
+import org.biojava3.core.util.ConcurrencyTools;
 
 /** A class that configures parameters that can be sent to the PDB file parsers
  * 
@@ -99,6 +102,21 @@ public class FileParsingParameters implements Serializable
 	 */
 	boolean parseBioAssembly;
 
+	/** should the atoms be stored in a compact, columnar form?
+	 * 
+	 */
+	boolean compactAtoms;
+
+	/** should the full ATOM/HETATM record be stored with each atom?
+	 * 
+	 */
+	boolean storePDBLines;
+
+	/** should the models (PDB files) or atom_site records (mmCIF files) be parsed on several threads?
+	 * 
+	 */
+	boolean parallelParsing;
+
 	/**  the maximum number of atoms we will add to a structure
     this protects from memory overflows in the few really big protein structures.
 	 */
@@ -135,6 +153,12 @@ public class FileParsingParameters implements Serializable
 		atomCaThreshold = ATOM_CA_THRESHOLD;
 
 		parseBioAssembly = false;
+
+		compactAtoms = false;
+
+		storePDBLines = false;
+
+		parallelParsing = false;
 	}
 
 	/** is secondary structure assignment being parsed from the file?
@@ -339,6 +363,61 @@ public class FileParsingParameters implements Serializable
 		this.parseBioAssembly = parseBioAssembly;
 	}
 
+	/** Are the atoms of parsed structures stored in a {@link CompactAtomStore}?
+	 * 
+	 * @return boolean flag yes/no
+	 */
+	public boolean isCompactAtoms() {
+		return compactAtoms;
+	}
+
+	/** Should the atoms of parsed structures be stored in a {@link CompactAtomStore}, with
+	 * coordinates, B-factors and names in shared primitive arrays instead of one AtomImpl per atom?
+	 * This takes much less memory for large structures. Default: no
+	 * 
+	 * @param compactAtoms  boolean flag yes/no
+	 */
+	public void setCompactAtoms(boolean compactAtoms) {
+		this.compactAtoms = compactAtoms;
+	}
+
+	/** Is the ATOM or HETATM record of each atom kept, accessible through {@link Atom#getPDBline()}?
+	 * 
+	 * @return boolean flag yes/no
+	 */
+	public boolean isStorePDBLines() {
+		return storePDBLines;
+	}
+
+	/** Should the ATOM or HETATM record of each atom be kept, accessible through {@link Atom#getPDBline()}?
+	 * This keeps the whole file in memory for the lifetime of the atoms. Default: no
+	 * 
+	 * @param storePDBLines  boolean flag yes/no
+	 */
+	public void setStorePDBLines(boolean storePDBLines) {
+		this.storePDBLines = storePDBLines;
+	}
+
+	/** Are files parsed on several threads of the {@link ConcurrencyTools} thread pool?
+	 * 
+	 * @return boolean flag yes/no
+	 */
+	public boolean isParallelParsing() {
+		return parallelParsing;
+	}
+
+	/** Should files be parsed on several threads of the {@link ConcurrencyTools} thread pool?
+	 * In PDB files every MODEL is parsed separately, which speeds up NMR ensembles and other
+	 * multi-model files. In mmCIF files the atom_site records are converted in chunks.
+	 * The resulting structure is the same. PDB files are parsed on one thread if the atom limits 
+	 * ({@link #setAtomCaThreshold(int)}, {@link #setMaxAtoms(int)}) are reached. Default: no
+	 * 
+	 * @param parallelParsing  boolean flag yes/no
+	 */
+	public void setParallelParsing(boolean parallelParsing) {
+		this.parallelParsing = parallelParsing;
+	}
+
 
 
 
@@ -0,0 +1,223 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.io;
+
+/** Reads the fixed width columns of PDB records without creating substrings.
+ * 
+ * <p>
+ * Numbers are parsed directly from the line. Plain decimals like the coordinates and B-factors
+ * of ATOM records are read into a long and divided by a power of ten; since both are exact
+ * doubles the result is the same correctly rounded value that {@link Double#parseDouble(String)} returns.
+ * Anything else, e.g. exponents or very long numbers, is passed on to {@link Double#parseDouble(String)},
+ * so the results and exceptions are always the same as for <code>Double.parseDouble(line.substring(start,end).trim())</code>.
+ * </p>
+ * <p>
+ * Short strings that repeat in every record, like residue, atom and chain names, are interned in a
+ * small dictionary, so all atoms share the same String instances. A dictionary belongs to one parser
+ * and is not thread safe.
+ * </p>
+ * 
+ * @since 3.0.6
+ */
+class FixedColumnParser {
+
+	/** the dictionary stops growing at this size, further names are returned as new strings */
+	static final int MAX_DICTIONARY_SIZE = 8192;
+
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++)
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+	}
+
+	/** mantissas up to this value are exactly representable as doubles */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	private String[] dictionary;
+	private int size;
+
+	FixedColumnParser(){
+		dictionary = new String[256];
+		size = 0;
+	}
+
+	/** returns the string in the given columns of the line, from the dictionary if possible.
+	 * 
+	 * @param line the line
+	 * @param start the first column, inclusive
+	 * @param end the last column, exclusive
+	 * @return a string equal to <code>line.substring(start,end)</code>
+	 * @throws StringIndexOutOfBoundsException if the line is shorter than end
+	 */
+	String intern(String line, int start, int end){
+		if ( end > line.length())
+			throw new StringIndexOutOfBoundsException(end);
+
+		int hash = 0;
+		for (int i = start; i < end; i++)
+			hash = 31 * hash + line.charAt(i);
+
+		int len = end - start;
+		int mask = dictionary.length - 1;
+		int slot = mix(hash) & mask;
+		String s;
+		while ( (s = dictionary[slot]) != null) {
+			if ( s.length() == len && s.regionMatches(0, line, start, len))
+				return s;
+			slot = (slot + 1) & mask;
+		}
+
+		s = line.substring(start, end);
+		if ( size >= MAX_DICTIONARY_SIZE)
+			return s;
+
+		dictionary[slot] = s;
+		size++;
+		if ( size * 2 > dictionary.length)
+			rehash();
+		return s;
+	}
+
+	/** returns the trimmed string in the given columns of the line, from the dictionary if possible.
+	 * 
+	 * @return a string equal to <code>line.substring(start,end).trim()</code>
+	 * @throws StringIndexOutOfBoundsException if the line is shorter than end
+	 */
+	String internTrimmed(String line, int start, int end){
+		if ( end > line.length())
+			throw new StringIndexOutOfBoundsException(end);
+		while ( start < end && line.charAt(start) <= ' ')
+			start++;
+		while ( end > start && line.charAt(end - 1) <= ' ')
+			end--;
+		return intern(line, start, end);
+	}
+
+	private void rehash(){
+		String[] old = dictionary;
+		dictionary = new String[old.length * 2];
+		int mask = dictionary.length - 1;
+		for (String s : old){
+			if ( s == null)
+				continue;
+			int slot = mix(s.hashCode()) & mask;
+			while ( dictionary[slot] != null)
+				slot = (slot + 1) & mask;
+			dictionary[slot] = s;
+		}
+	}
+
+	private static int mix(int hash){
+		hash ^= (hash >>> 16);
+		return hash * 0x45d9f3b;
+	}
+
+	/** parses an integer from the given columns, surrounded by white space.
+	 * 
+	 * @return the same as <code>Integer.parseInt(line.substring(start,end).trim())</code>
+	 * @throws NumberFormatException if the columns do not contain an integer
+	 * @throws StringIndexOutOfBoundsException if the line is shorter than end
+	 */
+	static int parseInt(String line, int start, int end){
+		if ( end > line.length())
+			throw new StringIndexOutOfBoundsException(end);
+
+		int s = start;
+		int e = end;
+		while ( s < e && line.charAt(s) <= ' ')
+			s++;
+		while ( e > s && line.charAt(e - 1) <= ' ')
+			e--;
+
+		int i = s;
+		boolean negative = false;
+		if ( i < e && line.charAt(i) == '-') {
+			negative = true;
+			i++;
+		}
+		// more than 9 digits could overflow
+		if ( i == e || e - i > 9)
+			return Integer.parseInt(line.substring(s, e));
+
+		int value = 0;
+		for ( ; i < e; i++){
+			char c = line.charAt(i);
+			if ( c < '0' || c > '9')
+				return Integer.parseInt(line.substring(s, e));
+			value = value * 10 + (c - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/** parses a decimal number from the given columns, surrounded by white space.
+	 * 
+	 * @return the same as <code>Double.parseDouble(line.substring(start,end).trim())</code>
+	 * @throws NumberFormatException if the columns do not contain a number
+	 * @throws StringIndexOutOfBoundsException if the line is shorter than end
+	 */
+	static double parseDouble(String line, int start, int end){
+		if ( end > line.length())
+			throw new StringIndexOutOfBoundsException(end);
+
+		int s = start;
+		int e = end;
+		while ( s < e && line.charAt(s) <= ' ')
+			s++;
+		while ( e > s && line.charAt(e - 1) <= ' ')
+			e--;
+
+		int i = s;
+		boolean negative = false;
+		if ( i < e && line.charAt(i) == '-') {
+			negative = true;
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		for ( ; i < e; i++){
+			char c = line.charAt(i);
+			if ( c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+				if ( fractionDigits >= 0)
+					fractionDigits++;
+			} else if ( c == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+			} else {
+				// exponents, signs, etc.
+				return Double.parseDouble(line.substring(s, e));
+			}
+		}
+
+		if ( digits == 0 || digits > 18 || mantissa > MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length)
+			return Double.parseDouble(line.substring(s, e));
+
+		double value = mantissa;
+		if ( fractionDigits > 0)
+			value = value / POWERS_OF_TEN[fractionDigits];
+		return negative ? -value : value;
+	}
+}
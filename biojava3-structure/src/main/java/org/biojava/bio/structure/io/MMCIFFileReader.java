@@ -37,7 +37,6 @@ import java.util.zip.GZIPOutputStream;
 import org.biojava.bio.structure.Structure;
 import org.biojava.bio.structure.align.util.UserConfiguration;
 import org.biojava.bio.structure.io.StructureIOFile;
-import org.biojava.bio.structure.io.mmcif.MMcifParser;
 import org.biojava.bio.structure.io.mmcif.SimpleMMcifConsumer;
 import org.biojava.bio.structure.io.mmcif.SimpleMMcifParser;
 import org.biojava3.core.util.InputStreamProvider;
@@ -138,6 +137,14 @@ public class MMCIFFileReader implements StructureIOFile {
 	 */
 	public Structure getStructure(File filename) throws IOException {
 
+		String name = filename.getName();
+		if ( name.endsWith(".cif") || name.endsWith(".mmcif")){
+			// uncompressed files are mapped into memory
+			SimpleMMcifParser parser = getParser();
+			parser.parse(filename);
+			return consumer.getStructure();
+		}
+
 		InputStreamProvider isp = new InputStreamProvider();
 
 		InputStream inStream = isp.getInputStream(filename);
@@ -149,24 +156,38 @@ public class MMCIFFileReader implements StructureIOFile {
 
 	private Structure parseFromInputStream(InputStream inStream) throws IOException{
 
-		MMcifParser parser = new SimpleMMcifParser();
+		SimpleMMcifParser parser = getParser();
+
+		parser.parse(inStream);
+
+
+		// now get the protein structure.
+		Structure cifStructure = consumer.getStructure();
+
+		return cifStructure;
+	}
+
+	/** creates a parser with a new consumer, which only reads the categories and fields the consumer needs */
+	private SimpleMMcifParser getParser(){
+
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		parser.setParallelAtomSites(params.isParallelParsing());
+		// the consumer copies the values of each AtomSite
+		parser.setReuseAtomSites(true);
 
 		consumer = new SimpleMMcifConsumer();
 		   
 		consumer.setFileParsingParameters(params);
+
+		parser.setCategories(consumer.getCategories());
+		parser.setCategoryFields("_atom_site", consumer.getAtomSiteFields());
 		
 		
 		// The Consumer builds up the BioJava - structure object.
 		// you could also hook in your own and build up you own data model.
 		parser.addMMcifConsumer(consumer);
 
-		parser.parse(new BufferedReader(new InputStreamReader(inStream)));
-
-
-		// now get the protein structure.
-		Structure cifStructure = consumer.getStructure();
-
-		return cifStructure;
+		return parser;
 	}
 
 	public void setPath(String path) {
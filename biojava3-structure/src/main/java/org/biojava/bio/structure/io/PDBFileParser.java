@@ -39,6 +39,11 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.logging.Level;
 
 import java.util.logging.Logger;
@@ -67,8 +72,10 @@ import org.biojava.bio.structure.Structure;
 import org.biojava.bio.structure.StructureException;
 import org.biojava.bio.structure.StructureImpl;
 import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.compact.CompactAtomStore;
 import org.biojava.bio.structure.io.mmcif.ChemCompGroupFactory;
 import org.biojava.bio.structure.io.mmcif.ReducedChemCompProvider;
+import org.biojava3.core.util.ConcurrencyTools;
 
 
 /**
@@ -258,6 +265,18 @@ public class PDBFileParser  {
 	/** flag to tell parser to only read Calpha coordinates **/
 	boolean parseCAonly;
 
+	/** reads the columns of ATOM records and interns residue, atom and chain names */
+	private final FixedColumnParser columns = new FixedColumnParser();
+
+	/** the 1 letter codes of the residue names seen so far, including null for nucleotides */
+	private final Map<String,Character> aminoCodes = new HashMap<String,Character>();
+
+	/** the elements of the element symbols seen so far */
+	private final Map<String,Element> elements = new HashMap<String,Element>();
+
+	/** holds the atoms of the structure if {@link FileParsingParameters#isCompactAtoms()} */
+	private CompactAtomStore atomStore;
+
 	static {
 
 		NEWLINE = System.getProperty("line.separator");
@@ -1613,8 +1632,12 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 	 77 - 78        LString(2)      element       Element symbol, right-justified.
 	 79 - 80        LString(2)      charge        Charge on the atom.
 	 </pre>
+	 * <p>
+	 * The columns are read directly from the line, without creating substrings, and the names are interned,
+	 * since large structures have millions of these records.
+	 * </p>
 	 */
-	private void  pdb_ATOM_Handler(String line)
+	private void  pdb_ATOM_Handler(String line, String recordName)
 			throws PDBParseException
 			{
 		// build up chains first.
@@ -1622,7 +1645,7 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 
 		boolean startOfNewChain = false;
 
-		String chain_id      = line.substring(21,22);
+		String chain_id      = columns.intern(line, 21, 22);
 
 		if (current_chain == null) {
 			current_chain = new ChainImpl();
@@ -1670,16 +1693,16 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 
 		// process group data:
 		// join residue numbers and insertion codes together
-		String recordName     = line.substring (0, 6).trim ();
 		//String pdbCode = line.substring(22,27).trim();
-		String groupCode3     = line.substring(17,20);
+		String groupCode3     = columns.intern(line, 17, 20);
 		// pdbCode is the old way of doing things...it's a concatenation
 		//of resNum and iCode which are now defined explicitly
-		String resNum  = line.substring(22,26).trim();
-		Character iCode = line.substring(26,27).charAt(0);
+		int resNum  = FixedColumnParser.parseInt(line, 22, 26);
+		Character iCode = Character.valueOf(line.charAt(26));
 		if ( iCode == ' ')
 			iCode = null;
-		ResidueNumber residueNumber = new ResidueNumber(chain_id, Integer.valueOf(resNum), iCode);
+		// only created when a new group starts
+		ResidueNumber residueNumber = null;
 
 		//recordName      groupCode3
 		//|                |    resNum
@@ -1688,15 +1711,12 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		//ATOM      1  N   ASP A  15     110.964  24.941  59.191  1.00 83.44           N
 		//ATOM   1964  N   ARG H 221A      5.963 -16.715  27.669  1.00 28.59           N
 
-		Character aminoCode1 = null;
+		Character aminoCode1 = get1LetterCode(groupCode3);
 
-		if ( recordName.equals("ATOM") ){
-			aminoCode1 = StructureTools.get1LetterCode(groupCode3);
-		} else {
+		if ( ! recordName.equals("ATOM") ){
 			// HETATOM RECORDS are treated slightly differently
 			// some modified amino acids that we want to treat as amino acids
 			// can be found as HETATOM records
-			aminoCode1 = StructureTools.get1LetterCode(groupCode3);
 			if ( aminoCode1 != null)
 				if ( aminoCode1.equals(StructureTools.UNKNOWN_GROUP_LABEL))
 					aminoCode1 = null;
@@ -1704,6 +1724,7 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 
 		if (current_group == null) {
 
+			residueNumber = new ResidueNumber(chain_id, resNum, iCode);
 			current_group = getNewGroup(recordName,aminoCode1,groupCode3);
 			//               current_group.setPDBCode(pdbCode);
 			current_group.setPDBName(groupCode3);
@@ -1716,6 +1737,8 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		if ( startOfNewChain) {
 			//System.out.println("end of chain: "+current_chain.getName()+" >"+chain_id+"<");
 
+			if ( residueNumber == null)
+				residueNumber = new ResidueNumber(chain_id, resNum, iCode);
 			current_group = getNewGroup(recordName,aminoCode1,groupCode3);
 			//current_group.setPDBCode(pdbCode);
 			current_group.setPDBName(groupCode3);
@@ -1725,17 +1748,18 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		}
 
 
-		Character altLoc   = new Character(line.substring (16, 17).charAt(0));
+		Character altLoc   = Character.valueOf(line.charAt(16));
 		Group altGroup = null;
 
 		//System.out.println(current_group + " " + residueNumber);
 
 		// check if residue number is the same ...
 		// insertion code is part of residue number
-		if ( ! residueNumber.equals(current_group.getResidueNumber())) {
+		if ( ! isResidueNumber(current_group.getResidueNumber(), chain_id, resNum, iCode)) {
 
 			current_chain.addGroup(current_group);
 
+			residueNumber = new ResidueNumber(chain_id, resNum, iCode);
 			current_group = getNewGroup(recordName,aminoCode1,groupCode3);
 
 			//current_group.setPDBCode(pdbCode);
@@ -1796,7 +1820,7 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		//ATOM    112  CA  ASP   112      37.613  26.621  33.571     0     0
 
 
-		String fullname = line.substring (12, 16);
+		String fullname = columns.intern(line, 12, 16);
 
 		// check for CA only if requested
 		if ( parseCAonly ){
@@ -1827,41 +1851,28 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		}
 		// create new atom
 
-		int pdbnumber = Integer.parseInt (line.substring (6, 11).trim ());
-		AtomImpl atom = new AtomImpl() ;
-		atom.setPDBserial(pdbnumber) ;
-
-		atom.setAltLoc(altLoc);
-		atom.setFullName(fullname) ;
-		atom.setName(fullname.trim());
+		int pdbnumber = FixedColumnParser.parseInt(line, 6, 11);
+		String name = columns.internTrimmed(line, 12, 16);
 
-		double x = Double.parseDouble (line.substring (30, 38).trim());
-		double y = Double.parseDouble (line.substring (38, 46).trim());
-		double z = Double.parseDouble (line.substring (46, 54).trim());
-
-		double[] coords = new double[3];
-		coords[0] = x ;
-		coords[1] = y ;
-		coords[2] = z ;
-		atom.setCoords(coords);
+		double x = FixedColumnParser.parseDouble(line, 30, 38);
+		double y = FixedColumnParser.parseDouble(line, 38, 46);
+		double z = FixedColumnParser.parseDouble(line, 46, 54);
 
 		double occu  = 1.0;
 		if ( line.length() > 59 ) {
 			try {
 				// occu and tempf are sometimes not used :-/
-				occu = Double.parseDouble (line.substring (54, 60).trim());
+				occu = FixedColumnParser.parseDouble(line, 54, 60);
 			}  catch (NumberFormatException e){}
 		}
 
 		double tempf = 0.0;
 		if ( line.length() > 65) {
 			try {
-				tempf = Double.parseDouble (line.substring (60, 66).trim());
+				tempf = FixedColumnParser.parseDouble(line, 60, 66);
 			}  catch (NumberFormatException e){}
 		}
 
-		atom.setOccupancy(  occu  );
-		atom.setTempFactor( tempf );
 
 
 
@@ -1872,9 +1883,7 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		Element element = Element.R;
 		if ( line.length() > 77 ) {
 			// parse element from element field
-			try {
-				element = Element.valueOfIgnoreCase(line.substring (76, 78).trim());
-			}  catch (IllegalArgumentException e){}
+			element = getElement(columns.internTrimmed(line, 76, 78));
 		} else {
 			// parse the name from the atom name
 			String elementSymbol = null;
@@ -1889,11 +1898,28 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 				elementSymbol = "R";
 			}
 
-			try {
-				element = Element.valueOfIgnoreCase(elementSymbol);
-			}  catch (IllegalArgumentException e){}
+			element = getElement(elementSymbol);
+		}
+
+		Atom atom;
+		if ( params.isCompactAtoms()) {
+			// the atom only exists as an entry of the store
+			if ( atomStore == null)
+				atomStore = new CompactAtomStore();
+			atom = atomStore.add(x, y, z, occu, tempf, element, altLoc, pdbnumber, name, fullname);
+		} else {
+			atom = new AtomImpl();
+			atom.setPDBserial(pdbnumber);
+			atom.setAltLoc(altLoc);
+			atom.setFullName(fullname);
+			atom.setName(name);
+			if ( params.isStorePDBLines())
+				setPDBline(atom, line);
+			atom.setCoords(new double[]{x, y, z});
+			atom.setOccupancy(occu);
+			atom.setTempFactor(tempf);
+			atom.setElement(element);
 		}
-		atom.setElement(element);
 
 
 		//see if chain_id is one of the previous chains ...
@@ -1910,6 +1936,160 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 			}
 
 
+	/** parses an ATOM or HETATM record and reports badly formatted lines, like the main loop of the parser does */
+	private void parseAtomLine(String line){
+		try {
+			pdb_ATOM_Handler(line, line.startsWith("HETATM") ? "HETATM" : "ATOM");
+		} catch (Exception e){
+			// the line is badly formatted, ignore it!
+			e.printStackTrace();
+			System.err.println("badly formatted line ... " +pdbId +": " + line);
+		}
+	}
+
+	/** builds the models from their ATOM and HETATM records. Each model is parsed by its own
+	 * PDBFileParser on the {@link ConcurrencyTools} thread pool; this thread parses the
+	 * models that have not been started yet, so this does not wait for a busy pool. 
+	 * The models and their het groups are added in the order of the file, the result is the same 
+	 * as parsing the models one after the other. 
+	 * 
+	 * @param modelAtomLines the ATOM and HETATM records of each MODEL, in the order of the file
+	 * @throws IOException
+	 */
+	private void parseModels(List<List<String>> modelAtomLines) throws IOException {
+
+		int atomLines = 0;
+		for (List<String> lines : modelAtomLines)
+			atomLines += lines.size();
+
+		if ( (long) atomCount + atomLines >= Math.min(my_ATOM_CA_THRESHOLD, load_max_atoms)) {
+			// the atom limits apply to the whole file, so the models have to be parsed in order
+			for (List<String> lines : modelAtomLines){
+				pdb_MODEL_Handler("MODEL");
+				for (String line : lines)
+					parseAtomLine(line);
+			}
+			return;
+		}
+
+		ThreadPoolExecutor pool = ConcurrencyTools.getThreadPool();
+		List<FutureTask<Structure>> tasks = new ArrayList<FutureTask<Structure>>(modelAtomLines.size());
+		for (final List<String> lines : modelAtomLines){
+			FutureTask<Structure> task = new FutureTask<Structure>(new Callable<Structure>() {
+				public Structure call() {
+					return parseModel(lines);
+				}
+			});
+			tasks.add(task);
+			try {
+				pool.execute(task);
+			} catch (RejectedExecutionException e){
+				// the pool is shutting down, the task is run below
+			}
+		}
+
+		for (int i = 0; i < tasks.size(); i++){
+			FutureTask<Structure> task = tasks.get(i);
+			// does nothing if a pool thread has started the task already
+			task.run();
+			Structure modelStructure;
+			try {
+				modelStructure = task.get();
+			} catch (InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while parsing the models of " + pdbId);
+			} catch (ExecutionException e){
+				e.getCause().printStackTrace();
+				throw new IOException("Error while parsing the models of " + pdbId + ": " + e.getCause().getMessage());
+			}
+
+			// a MODEL without atoms does not start a new model, unless it is the last one
+			if ( modelStructure.nrModels() == 0)
+				continue;
+
+			if ( i < tasks.size() - 1)
+				structure.addModel(modelStructure.getModel(0));
+			else
+				current_model = modelStructure.getModel(0);
+
+			for (Group group : modelStructure.getHetGroups()){
+				if ( ! structure.getHetGroups().contains(group))
+					structure.getHetGroups().add(group);
+			}
+		}
+	}
+
+	/** parses the ATOM and HETATM records of one model with a new parser.
+	 * 
+	 * @return a structure with the model and its het groups, or without a model if there are no atoms
+	 */
+	private Structure parseModel(List<String> lines){
+		PDBFileParser parser = new PDBFileParser();
+		// not setFileParsingParameters, that would also reset the chem comp provider
+		parser.params = params;
+		parser.load_max_atoms = load_max_atoms;
+		parser.my_ATOM_CA_THRESHOLD = my_ATOM_CA_THRESHOLD;
+		parser.structure = new StructureImpl();
+		parser.parseCAonly = parseCAonly;
+		parser.pdbId = pdbId;
+
+		for (String line : lines)
+			parser.parseAtomLine(line);
+
+		// the same as at the start of the next model
+		parser.pdb_MODEL_Handler("MODEL");
+		if ( parser.atomStore != null)
+			parser.atomStore.trimToSize();
+		return parser.structure;
+	}
+
+	/** the same as {@link StructureTools#get1LetterCode(String)}, but remembers the codes, since
+	 * looking up a non standard group (e.g. every water atom) throws an exception internally.
+	 */
+	private Character get1LetterCode(String groupCode3){
+		Character aminoCode1 = aminoCodes.get(groupCode3);
+		if ( aminoCode1 == null && ! aminoCodes.containsKey(groupCode3)) {
+			aminoCode1 = StructureTools.get1LetterCode(groupCode3);
+			aminoCodes.put(groupCode3, aminoCode1);
+		}
+		return aminoCode1;
+	}
+
+	/** keeps the record of an atom, if {@link FileParsingParameters#isStorePDBLines()} is requested.
+	 * The deprecated setter is the only way to store it, so the warning is suppressed here.
+	 */
+	@SuppressWarnings("deprecation")
+	private static void setPDBline(Atom atom, String line){
+		atom.setPDBline(line);
+	}
+
+	/** returns the element for a symbol, or {@link Element#R} if the symbol is unknown */
+	private Element getElement(String symbol){
+		Element element = elements.get(symbol);
+		if ( element == null) {
+			try {
+				element = Element.valueOfIgnoreCase(symbol);
+			}  catch (IllegalArgumentException e){
+				element = Element.R;
+			}
+			elements.put(symbol, element);
+		}
+		return element;
+	}
+
+	/** the same as comparing a new ResidueNumber(chainId, seqNum, insCode) to the given one,
+	 * without creating it
+	 */
+	private static boolean isResidueNumber(ResidueNumber residueNumber, String chainId, int seqNum, Character insCode){
+		if ( residueNumber == null || residueNumber.getClass() != ResidueNumber.class)
+			return false;
+		if ( ! chainId.equals(residueNumber.getChainId()))
+			return false;
+		if ( insCode == null ? residueNumber.getInsCode() != null : ! insCode.equals(residueNumber.getInsCode()))
+			return false;
+		return residueNumber.getSeqNum() != null && residueNumber.getSeqNum().intValue() == seqNum;
+	}
+
 	private Group getCorrectAltLocGroup( Character altLoc,
 			String recordName, Character aminoCode1, String groupCode3) {
 
@@ -2543,9 +2723,16 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		lengthCheck = -1;
 		atomCount = 0;
 		atomOverflow = false;
+		atomStore = null;
 
 		parseCAonly = params.isParseCAOnly();
 
+		// the ATOM and HETATM records of each model, if the models are parsed in parallel
+		List<List<String>> modelAtomLines = null;
+		List<String> currentModelAtomLines = null;
+		if ( params.isParallelParsing())
+			modelAtomLines = new ArrayList<List<String>>();
+
 		String line = null;
 		try {
 
@@ -2601,14 +2788,21 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 				//System.out.println(recordName);
 
 				try {
-					if (recordName.equals("ATOM"))
-						pdb_ATOM_Handler(line);
+					if ( currentModelAtomLines != null && (recordName.equals("ATOM") || recordName.equals("HETATM")))
+						currentModelAtomLines.add(line);
+					else if (recordName.equals("ATOM"))
+						pdb_ATOM_Handler(line, "ATOM");
 					else if (recordName.equals("SEQRES"))
 						pdb_SEQRES_Handler(line);
 					else if (recordName.equals("HETATM"))
-						pdb_ATOM_Handler(line);
-					else if (recordName.equals("MODEL"))
+						pdb_ATOM_Handler(line, "HETATM");
+					else if (recordName.equals("MODEL")) {
 						pdb_MODEL_Handler(line);
+						if ( modelAtomLines != null) {
+							currentModelAtomLines = new ArrayList<String>();
+							modelAtomLines.add(currentModelAtomLines);
+						}
+					}
 					else if (recordName.equals("HEADER"))
 						pdb_HEADER_Handler(line);
 					else if (recordName.equals("AUTHOR"))
@@ -2654,6 +2848,9 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 				line = buf.readLine ();
 			}
 
+			if ( modelAtomLines != null && modelAtomLines.size() > 0)
+				parseModels(modelAtomLines);
+
 			makeCompounds(compndLines, sourceLines);
 
 			triggerEndFileChecks();
@@ -2667,6 +2864,8 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		if ( params.isParseSecStruc())
 			setSecStruc();
 
+		if ( atomStore != null)
+			atomStore.trimToSize();
 
 		return structure;
 
@@ -3357,7 +3556,9 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		load_max_atoms = params.getMaxAtoms();
 		my_ATOM_CA_THRESHOLD = params.getAtomCaThreshold();
 
-		if ( !params.isLoadChemCompInfo()) {
+		if ( !params.isLoadChemCompInfo() &&
+				! (ChemCompGroupFactory.getChemCompProvider() instanceof ReducedChemCompProvider)) {
+			// keep the current instance, a new provider clears the cache of the factory
 			ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
 		}
 
@@ -937,7 +937,9 @@ public class PDBFileReader implements StructureIOFile {
 
 	public void setFileParsingParameters(FileParsingParameters params){
 		this.params= params;
-		if ( ! params.isLoadChemCompInfo()) {
+		if ( ! params.isLoadChemCompInfo() &&
+				! (ChemCompGroupFactory.getChemCompProvider() instanceof ReducedChemCompProvider)) {
+			// keep the current instance, a new provider clears the cache of the factory
 			ChemCompGroupFactory.setChemCompProvider(new ReducedChemCompProvider());
 		}
 	}
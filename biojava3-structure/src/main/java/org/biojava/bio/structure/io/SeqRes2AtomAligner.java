@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 
 import org.biojava.bio.structure.AminoAcid;
@@ -69,6 +70,11 @@ import org.biojava3.core.sequence.template.Sequence;
 /** Aligns the SEQRES residues to the ATOM residues.
  * The AminoAcids that can be matched between the two of them will be set in the SEQRES
  * chains
+ * 
+ * <p>If the residue numbers of the ATOM records do not simply point into the SEQRES, the ATOM sequence is
+ * anchored on the SEQRES with exact k-mer matches first (see {@link #setAnchoredMapping(boolean)}).
+ * A full Smith-Waterman alignment is only calculated if that fails. The time spent in each of these phases
+ * is summed up over all chains, see {@link #getTime(Phase)}.</p>
  *
  *
  * @author Andreas Prlic
@@ -76,8 +82,31 @@ import org.biojava3.core.sequence.template.Sequence;
  */
 public class SeqRes2AtomAligner {
 
+	/** the phases of mapping a SEQRES chain to its ATOM records, for the timing counters
+	 * 
+	 * @since 3.0.6
+	 */
+	public enum Phase {
+		/** trying to use the residue numbers of the ATOM records as positions in the SEQRES */
+		SIMPLE_MATCH,
+		/** finding exact k-mer anchors between the two sequences */
+		ANCHORING,
+		/** aligning the stretches between the anchors, for the chains that could be anchored */
+		GAP_FILLING,
+		/** the full Smith-Waterman alignment, for the chains that could not be anchored */
+		FULL_ALIGNMENT
+	}
+
+	private static final AtomicLongArray phaseTimes  = new AtomicLongArray(Phase.values().length);
+	private static final AtomicLongArray phaseCounts = new AtomicLongArray(Phase.values().length);
+
+	private static final int PROTEIN_ANCHOR_LENGTH    = 6;
+	private static final int NUCLEOTIDE_ANCHOR_LENGTH = 8;
+
 	boolean DEBUG = false;
 
+	boolean anchoredMapping = true;
+
 	static final List<String> excludeTypes;
 
 
@@ -108,6 +137,62 @@ public class SeqRes2AtomAligner {
 		DEBUG = debug;
 	}
 
+	/** flag if the ATOM sequence is anchored on the SEQRES with exact k-mer matches
+	 * before a full alignment is calculated. Default: true
+	 * 
+	 * @return flag
+	 * @since 3.0.6
+	 */
+	public boolean isAnchoredMapping() {
+		return anchoredMapping;
+	}
+
+	/** Set to false to always map the residues with a full Smith-Waterman alignment
+	 * when the simple match of the residue numbers fails.
+	 * 
+	 * @param anchoredMapping
+	 * @since 3.0.6
+	 */
+	public void setAnchoredMapping(boolean anchoredMapping) {
+		this.anchoredMapping = anchoredMapping;
+	}
+
+	/** the time spent in a phase, summed up over all chains and all instances since the last reset
+	 * 
+	 * @param phase
+	 * @return time in nanoseconds
+	 * @since 3.0.6
+	 */
+	public static long getTime(Phase phase) {
+		return phaseTimes.get(phase.ordinal());
+	}
+
+	/** the number of chains that went through a phase since the last reset
+	 * 
+	 * @param phase
+	 * @return number of chains
+	 * @since 3.0.6
+	 */
+	public static long getCount(Phase phase) {
+		return phaseCounts.get(phase.ordinal());
+	}
+
+	/** sets all timing counters back to 0
+	 * 
+	 * @since 3.0.6
+	 */
+	public static void resetCounters() {
+		for ( int i = 0 ; i < phaseTimes.length() ; i++){
+			phaseTimes.set(i, 0);
+			phaseCounts.set(i, 0);
+		}
+	}
+
+	private static void addTime(Phase phase, long time) {
+		phaseTimes.addAndGet(phase.ordinal(), time);
+		phaseCounts.incrementAndGet(phase.ordinal());
+	}
+
 	public Chain getMatchingAtomRes(Chain seqRes, List<Chain> atomList)
 			throws StructureException {
 		Iterator<Chain> iter = atomList.iterator();
@@ -164,7 +249,9 @@ public class SeqRes2AtomAligner {
 		}
 		
 		
+		long start = System.nanoTime();
 		boolean simpleMatchSuccessful = trySimpleMatch(seqResGroups, atmResGroups);
+		addTime(Phase.SIMPLE_MATCH, System.nanoTime() - start);
 
 		if ( simpleMatchSuccessful) {
 			// update the new SEQRES list
@@ -442,6 +529,23 @@ public class SeqRes2AtomAligner {
 		}
 
 
+		if ( anchoredMapping ) {
+			int[] positions = getAnchoredMapping(seq1, seq2, NUCLEOTIDE_ANCHOR_LENGTH);
+			if ( positions != null)
+				return mapPositions(seqRes, atomRes, positions, seqresIndexPosition, atomIndexPosition);
+		}
+
+		long start = System.nanoTime();
+		try {
+			return alignNucleotideSequences(seqRes, atomRes, seq1, seq2, seqresIndexPosition, atomIndexPosition);
+		} finally {
+			addTime(Phase.FULL_ALIGNMENT, System.nanoTime() - start);
+		}
+	}
+
+	private boolean alignNucleotideSequences(List<Group> seqRes, List<Group> atomRes, String seq1, String seq2,
+			Map<Integer,Integer> seqresIndexPosition, Map<Integer,Integer> atomIndexPosition) {
+
 		Sequence s1;
 		Sequence s2;
 
@@ -530,6 +634,23 @@ public class SeqRes2AtomAligner {
 			System.out.println("align seq1 ("+ seq1.length()+") " + seq1);
 			System.out.println("align seq2 ("+ seq2.length()+") " + seq2);
 		}
+		if ( anchoredMapping ) {
+			int[] positions = getAnchoredMapping(seq1, seq2, PROTEIN_ANCHOR_LENGTH);
+			if ( positions != null)
+				return mapPositions(seqRes, atomRes, positions, seqresIndexPosition, atomIndexPosition);
+		}
+
+		long start = System.nanoTime();
+		try {
+			return alignProteinSequences(seqRes, atomRes, seq1, seq2, seqresIndexPosition, atomIndexPosition);
+		} finally {
+			addTime(Phase.FULL_ALIGNMENT, System.nanoTime() - start);
+		}
+	}
+
+	private boolean alignProteinSequences(List<Group> seqRes, List<Group> atomRes, String seq1, String seq2,
+			Map<Integer,Integer> seqresIndexPosition, Map<Integer,Integer> atomIndexPosition) {
+
 		ProteinSequence s1 = new ProteinSequence(seq1);
 		ProteinSequence s2 = new ProteinSequence(seq2);
 
@@ -570,6 +691,92 @@ public class SeqRes2AtomAligner {
 	}
 
 
+	/** Runs the anchored mapping and updates the timing counters.
+	 * 
+	 * @return the SEQRES position for every ATOM position, or null if a full alignment is needed
+	 */
+	private int[] getAnchoredMapping(String seqResSequence, String atomSequence, int anchorLength){
+		AnchoredSequenceMapper mapper = new AnchoredSequenceMapper(anchorLength);
+		int[] positions = mapper.map(seqResSequence, atomSequence);
+		addTime(Phase.ANCHORING, mapper.getAnchorTime());
+		if ( positions != null)
+			addTime(Phase.GAP_FILLING, mapper.getGapFillTime());
+		else if ( DEBUG )
+			System.out.println("could not anchor ATOM sequence, falling back to full alignment");
+		return positions;
+	}
+
+	private boolean mapPositions(List<Group> seqResGroups, List<Group> atomRes, int[] positions,
+			Map<Integer,Integer> seqresIndexPosition,
+			Map<Integer,Integer> atomIndexPosition
+			) throws StructureException{
+
+		boolean noMatchFound = true;
+		for ( int posAtom = 0 ; posAtom < positions.length ; posAtom++){
+			int posSeq = positions[posAtom];
+			if ( posSeq < 0)
+				continue;
+			if ( replaceSeqResGroup(seqResGroups, atomRes, posSeq, posAtom, seqresIndexPosition, atomIndexPosition))
+				noMatchFound = false;
+		}
+
+		if ( noMatchFound && DEBUG )
+			System.out.println("no alignment found!");
+
+		return noMatchFound;
+	}
+
+	/** replaces the SEQRES group at an aligned position with the group that contains the atoms.
+	 * 
+	 * @return true if the group has been replaced
+	 */
+	private boolean replaceSeqResGroup(List<Group> seqResGroups, List<Group> atomRes, int posSeq, int posAtom,
+			Map<Integer,Integer> seqresIndexPosition,
+			Map<Integer,Integer> atomIndexPosition
+			) throws StructureException{
+
+		Group s1 = seqResGroups.get(seqresIndexPosition.get(posSeq));
+		Group a1 = atomRes.get(atomIndexPosition.get(posAtom));
+
+		if ( s1 == null || a1 == null){
+			/// can't map this position...
+			System.err.println("can't map " + posSeq +" " + s1 + " atom: " + posAtom + " " + a1 );
+			return false;
+		}
+
+		// need to trim the names to allow matching e.g in
+		// pdb1b2m
+		String pdbNameS = s1.getPDBName();
+		String pdbNameA = a1.getPDBName();
+		if ( pdbNameS == null || pdbNameA == null ){
+			System.err.println("null value found at " + posSeq + " when trying to align " + s1 + " and " + a1 + " " + posAtom);
+			throw new StructureException("null value found at group.getPDBName()");
+		}
+		if (! pdbNameA.equals(pdbNameS)){
+			if ( ! pdbNameA.trim().equals(pdbNameS.trim())) {
+				System.err.println(s1 + " " + posSeq + " does not align with " + a1+ " " + posAtom);
+				if ( s1.getType().equals(HetatomImpl.type) && a1.getType().equals(HetatomImpl.type)){
+					System.err.println("they seem to be hetatoms, so ignoring mismatch.");
+				}
+				else {
+					//  System.exit(0);// for debug only
+					//System.out.println(lst1.seqString());
+					//System.out.println(lst2.seqString());
+					System.err.println("could not match residues " + s1 + " " + a1);
+					//throw new StructureException("could not match residues " + s1 + " " + a1);
+				}
+
+			}
+		}
+
+		// do the actual replacing of the SEQRES group with the ATOM group
+		//					if ( s1.getChain().getChainID().equals("A")) {
+		//						System.out.println(" setting " + posSeq +" " + a1);
+		//					}
+		seqResGroups.set(seqresIndexPosition.get(posSeq),a1);
+		return true;
+	}
+
 	private boolean mapChains(List<Group> seqResGroups, List<Group> atomRes,
 			SequencePair<ProteinSequence, AminoAcidCompound> pair,
 			Map<Integer,Integer> seqresIndexPosition,
@@ -593,67 +800,28 @@ public class SeqRes2AtomAligner {
 
 		Compound gapSymbol =  AminoAcidCompoundSet.getAminoAcidCompoundSet().getCompoundForString("-");
 
-		mainLoop:
-			for (int i = 1; i <= aligLength ; i++) {
-
-				Compound s =  pair.getCompoundAt(1, i);
-				Compound a =  pair.getCompoundAt(2,i);
-
-				// alignment is using internal index start at 1...
-				int posSeq = pair.getIndexInQueryAt(i)  -1;
-				int posAtom = pair.getIndexInTargetAt(i) -1;
-
-				if (  s.equals(gapSymbol) || a.equals(gapSymbol)){
-					continue;				
-				}
+		for (int i = 1; i <= aligLength ; i++) {
 
-				if ( s.equals(a)){
+			Compound s =  pair.getCompoundAt(1, i);
+			Compound a =  pair.getCompoundAt(2,i);
 
-					// the atom record can be aligned to the SeqRes record!
-					// replace the SeqRes group with the Atom group!
+			// alignment is using internal index start at 1...
+			int posSeq = pair.getIndexInQueryAt(i)  -1;
+			int posAtom = pair.getIndexInTargetAt(i) -1;
 
-					Group s1 = seqResGroups.get(seqresIndexPosition.get(posSeq));
-					Group a1 = atomRes.get(atomIndexPosition.get(posAtom));
+			if (  s.equals(gapSymbol) || a.equals(gapSymbol)){
+				continue;				
+			}
 
-					if ( s1 == null || a1 == null){
-						/// can't map this position...
-						System.err.println("can't map " + i + ":" + s + " " + posSeq +" " + s1 + " atom: " + posAtom + " " + a1 );
-						continue mainLoop;
-					}
+			if ( s.equals(a)){
 
-					// need to trim the names to allow matching e.g in
-					// pdb1b2m
-					String pdbNameS = s1.getPDBName();
-					String pdbNameA = a1.getPDBName();
-					if ( pdbNameS == null || pdbNameA == null ){
-						System.err.println("null value found at " + posSeq + " when trying to align " + s1 + " and " + a1 + " " + posAtom);
-						throw new StructureException("null value found at group.getPDBName()");
-					}
-					if (! pdbNameA.equals(pdbNameS)){
-						if ( ! pdbNameA.trim().equals(pdbNameS.trim())) {
-							System.err.println(s1 + " " + posSeq + " does not align with " + a1+ " " + posAtom + " should be: " + s + " : " + a);
-							if ( s1.getType().equals(HetatomImpl.type) && a1.getType().equals(HetatomImpl.type)){
-								System.err.println("they seem to be hetatoms, so ignoring mismatch.");
-							}
-							else {
-								//  System.exit(0);// for debug only
-								//System.out.println(lst1.seqString());
-								//System.out.println(lst2.seqString());
-								System.err.println("could not match residues " + s1 + " " + a1);
-								//throw new StructureException("could not match residues " + s1 + " " + a1);
-							}
-
-						}
-					}
+				// the atom record can be aligned to the SeqRes record!
+				// replace the SeqRes group with the Atom group!
 
-					// do the actual replacing of the SEQRES group with the ATOM group
-					//					if ( s1.getChain().getChainID().equals("A")) {
-					//						System.out.println(" setting " + posSeq +" " + a1);
-					//					}
-					seqResGroups.set(seqresIndexPosition.get(posSeq),a1);
+				if ( replaceSeqResGroup(seqResGroups, atomRes, posSeq, posAtom, seqresIndexPosition, atomIndexPosition))
 					noMatchFound = false;
-				}
 			}
+		}
 
 
 		// now we merge the two chains into one
@@ -691,67 +859,28 @@ public class SeqRes2AtomAligner {
 
 		Compound gapSymbol =  DNACompoundSet.getDNACompoundSet().getCompoundForString("-");
 
-		mainLoop:
-			for (int i = 1; i <= aligLength ; i++) {
-
-				Compound s =  pair.getCompoundAt(1, i);
-				Compound a =  pair.getCompoundAt(2,i);
-
-				// alignment is using internal index start at 1...
-				int posSeq = pair.getIndexInQueryAt(i)  -1;
-				int posAtom = pair.getIndexInTargetAt(i) -1;
+		for (int i = 1; i <= aligLength ; i++) {
 
-				if (  s.equals(gapSymbol) || a.equals(gapSymbol)){
-					continue;				
-				}
+			Compound s =  pair.getCompoundAt(1, i);
+			Compound a =  pair.getCompoundAt(2,i);
 
-				if ( s.equals(a)){
+			// alignment is using internal index start at 1...
+			int posSeq = pair.getIndexInQueryAt(i)  -1;
+			int posAtom = pair.getIndexInTargetAt(i) -1;
 
-					// the atom record can be aligned to the SeqRes record!
-					// replace the SeqRes group with the Atom group!
+			if (  s.equals(gapSymbol) || a.equals(gapSymbol)){
+				continue;				
+			}
 
-					Group s1 = seqResGroups.get(seqresIndexPosition.get(posSeq));
-					Group a1 = atomRes.get(atomIndexPosition.get(posAtom));
+			if ( s.equals(a)){
 
-					if ( s1 == null || a1 == null){
-						/// can't map this position...
-						System.err.println("can't map " + i + ":" + s + " " + posSeq +" " + s1 + " atom: " + posAtom + " " + a1 );
-						continue mainLoop;
-					}
+				// the atom record can be aligned to the SeqRes record!
+				// replace the SeqRes group with the Atom group!
 
-					// need to trim the names to allow matching e.g in
-					// pdb1b2m
-					String pdbNameS = s1.getPDBName();
-					String pdbNameA = a1.getPDBName();
-					if ( pdbNameS == null || pdbNameA == null ){
-						System.err.println("null value found at " + posSeq + " when trying to align " + s1 + " and " + a1 + " " + posAtom);
-						throw new StructureException("null value found at group.getPDBName()");
-					}
-					if (! pdbNameA.equals(pdbNameS)){
-						if ( ! pdbNameA.trim().equals(pdbNameS.trim())) {
-							System.err.println(s1 + " " + posSeq + " does not align with " + a1+ " " + posAtom + " should be: " + s + " : " + a);
-							if ( s1.getType().equals(HetatomImpl.type) && a1.getType().equals(HetatomImpl.type)){
-								System.err.println("they seem to be hetatoms, so ignoring mismatch.");
-							}
-							else {
-								//  System.exit(0);// for debug only
-								//System.out.println(lst1.seqString());
-								//System.out.println(lst2.seqString());
-								System.err.println("could not match residues " + s1 + " " + a1);
-								//throw new StructureException("could not match residues " + s1 + " " + a1);
-							}
-
-						}
-					}
-
-					// do the actual replacing of the SEQRES group with the ATOM group
-					//					if ( s1.getChain().getChainID().equals("A")) {
-					//						System.out.println(" setting " + posSeq +" " + a1);
-					//					}
-					seqResGroups.set(seqresIndexPosition.get(posSeq),a1);
+				if ( replaceSeqResGroup(seqResGroups, atomRes, posSeq, posAtom, seqresIndexPosition, atomIndexPosition))
 					noMatchFound = false;
-				}
 			}
+		}
 
 
 		// now we merge the two chains into one
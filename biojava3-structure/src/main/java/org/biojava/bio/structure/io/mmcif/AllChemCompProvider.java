@@ -1,12 +1,10 @@
 package org.biojava.bio.structure.io.mmcif;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -151,7 +149,7 @@ public class AllChemCompProvider implements ChemCompProvider, Runnable{
 			// you could also hook in your own and build up you own data model.
 			parser.addMMcifConsumer(consumer);
 
-			parser.parse(new BufferedReader(new InputStreamReader(inStream)));
+			parser.parse(inStream);
 
 			dict = consumer.getDictionary();
 
@@ -0,0 +1,161 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.io.mmcif;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava.bio.structure.io.mmcif.model.AtomSite;
+
+/** Sets the fields of {@link AtomSite} beans without reflection. 
+ * 
+ * <p>
+ * The field names of the loop are mapped to setter numbers once, each record then only needs 
+ * one switch per value. Fields are matched the same way as by the reflective binder,
+ * so there has to be a case for every String setter of AtomSite.
+ * </p>
+ * 
+ * @since 3.0.6
+ */
+class AtomSiteBinder extends CategoryBinder {
+
+	static final String CLASS_NAME = AtomSite.class.getName();
+
+	private static final int UNKNOWN = -1;
+
+	private static final int GROUP_PDB = 0;
+	private static final int ID = 1;
+	private static final int TYPE_SYMBOL = 2;
+	private static final int LABEL_ALT_ID = 3;
+	private static final int LABEL_COMP_ID = 4;
+	private static final int LABEL_ENTITY_ID = 5;
+	private static final int LABEL_SEQ_ID = 6;
+	private static final int PDBX_PDB_INS_CODE = 7;
+	private static final int CARTN_X = 8;
+	private static final int CARTN_Y = 9;
+	private static final int CARTN_Z = 10;
+	private static final int OCCUPANCY = 11;
+	private static final int B_ISO_OR_EQUIV = 12;
+	private static final int CARTN_X_ESD = 13;
+	private static final int CARTN_Y_ESD = 14;
+	private static final int CARTN_Z_ESD = 15;
+	private static final int AUTH_SEQ_ID = 16;
+	private static final int AUTH_COMP_ID = 17;
+	private static final int AUTH_ASYM_ID = 18;
+	private static final int AUTH_ATOM_ID = 19;
+	private static final int PDBX_PDB_MODEL_NUM = 20;
+	private static final int LABEL_ATOM_ID = 21;
+	private static final int LABEL_ASYM_ID = 22;
+	private static final int OCCUPANCY_ESD = 23;
+	private static final int B_ISO_OR_EQUIV_ESD = 24;
+	private static final int PDBX_FORMAL_CHARGE = 25;
+
+	private static final Map<String,Integer> SETTERS = new HashMap<String,Integer>();
+	static {
+		SETTERS.put("Group_PDB", GROUP_PDB);
+		SETTERS.put("Id", ID);
+		SETTERS.put("Type_symbol", TYPE_SYMBOL);
+		SETTERS.put("Label_alt_id", LABEL_ALT_ID);
+		SETTERS.put("Label_comp_id", LABEL_COMP_ID);
+		SETTERS.put("Label_entity_id", LABEL_ENTITY_ID);
+		SETTERS.put("Label_seq_id", LABEL_SEQ_ID);
+		SETTERS.put("Pdbx_PDB_ins_code", PDBX_PDB_INS_CODE);
+		SETTERS.put("Cartn_x", CARTN_X);
+		SETTERS.put("Cartn_y", CARTN_Y);
+		SETTERS.put("Cartn_z", CARTN_Z);
+		SETTERS.put("Occupancy", OCCUPANCY);
+		SETTERS.put("B_iso_or_equiv", B_ISO_OR_EQUIV);
+		SETTERS.put("Cartn_x_esd", CARTN_X_ESD);
+		SETTERS.put("Cartn_y_esd", CARTN_Y_ESD);
+		SETTERS.put("Cartn_z_esd", CARTN_Z_ESD);
+		SETTERS.put("Auth_seq_id", AUTH_SEQ_ID);
+		SETTERS.put("Auth_comp_id", AUTH_COMP_ID);
+		SETTERS.put("Auth_asym_id", AUTH_ASYM_ID);
+		SETTERS.put("Auth_atom_id", AUTH_ATOM_ID);
+		SETTERS.put("Pdbx_PDB_model_num", PDBX_PDB_MODEL_NUM);
+		SETTERS.put("Label_atom_id", LABEL_ATOM_ID);
+		SETTERS.put("Label_asym_id", LABEL_ASYM_ID);
+		SETTERS.put("Occupancy_esd", OCCUPANCY_ESD);
+		SETTERS.put("B_iso_or_equiv_esd", B_ISO_OR_EQUIV_ESD);
+		SETTERS.put("Pdbx_formal_charge", PDBX_FORMAL_CHARGE);
+	}
+
+	private final int[] setters;
+
+	AtomSiteBinder(List<String> fields){
+		super(fields);
+		setters = new int[fields.size()];
+		for (int i = 0; i < setters.length; i++){
+			Integer setter = SETTERS.get(getSetterSuffix(fields.get(i)));
+			setters[i] = setter == null ? UNKNOWN : setter.intValue();
+		}
+	}
+
+	@Override
+	Object bind(List<String> values) {
+		AtomSite atom = new AtomSite();
+		bind(atom, values);
+		return atom;
+	}
+
+	/** sets the fields of an existing AtomSite, which can be reused for all records of a loop
+	 * 
+	 * @param atom the AtomSite
+	 * @param values the values, in the order of the fields
+	 */
+	void bind(AtomSite atom, List<String> values){
+		for (int i = 0; i < setters.length; i++){
+			String value = values.get(i);
+			switch (setters[i]) {
+			case GROUP_PDB: atom.setGroup_PDB(value); break;
+			case ID: atom.setId(value); break;
+			case TYPE_SYMBOL: atom.setType_symbol(value); break;
+			case LABEL_ALT_ID: atom.setLabel_alt_id(value); break;
+			case LABEL_COMP_ID: atom.setLabel_comp_id(value); break;
+			case LABEL_ENTITY_ID: atom.setLabel_entity_id(value); break;
+			case LABEL_SEQ_ID: atom.setLabel_seq_id(value); break;
+			case PDBX_PDB_INS_CODE: atom.setPdbx_PDB_ins_code(value); break;
+			case CARTN_X: atom.setCartn_x(value); break;
+			case CARTN_Y: atom.setCartn_y(value); break;
+			case CARTN_Z: atom.setCartn_z(value); break;
+			case OCCUPANCY: atom.setOccupancy(value); break;
+			case B_ISO_OR_EQUIV: atom.setB_iso_or_equiv(value); break;
+			case CARTN_X_ESD: atom.setCartn_x_esd(value); break;
+			case CARTN_Y_ESD: atom.setCartn_y_esd(value); break;
+			case CARTN_Z_ESD: atom.setCartn_z_esd(value); break;
+			case AUTH_SEQ_ID: atom.setAuth_seq_id(value); break;
+			case AUTH_COMP_ID: atom.setAuth_comp_id(value); break;
+			case AUTH_ASYM_ID: atom.setAuth_asym_id(value); break;
+			case AUTH_ATOM_ID: atom.setAuth_atom_id(value); break;
+			case PDBX_PDB_MODEL_NUM: atom.setPdbx_PDB_model_num(value); break;
+			case LABEL_ATOM_ID: atom.setLabel_atom_id(value); break;
+			case LABEL_ASYM_ID: atom.setLabel_asym_id(value); break;
+			case OCCUPANCY_ESD: atom.setOccupancy_esd(value); break;
+			case B_ISO_OR_EQUIV_ESD: atom.setB_iso_or_equiv_esd(value); break;
+			case PDBX_FORMAL_CHARGE: atom.setPdbx_formal_charge(value); break;
+			default: reportUnknownField(CLASS_NAME, getFields().get(i), value);
+			}
+		}
+	}
+}
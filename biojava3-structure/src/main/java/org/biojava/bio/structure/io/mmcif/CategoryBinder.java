@@ -0,0 +1,144 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.io.mmcif;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Creates the bean of an mmCIF category and sets its fields from the values of a record.
+ * 
+ * <p>
+ * A binder is compiled once for the fields of a loop and then used for all of its records, so 
+ * the class and the setters are only looked up once per loop instead of once per record. 
+ * The atom_site category has its own binder, {@link AtomSiteBinder}, that calls the setters
+ * directly. Binders are immutable and can be used by several threads.
+ * </p>
+ * 
+ * @since 3.0.6
+ */
+abstract class CategoryBinder {
+
+	private final List<String> fields;
+
+	CategoryBinder(List<String> fields){
+		this.fields = new ArrayList<String>(fields);
+	}
+
+	/** returns a binder for the fields of a category.
+	 * 
+	 * @param className the name of the bean class of the category
+	 * @param fields the field names, in the order of the values
+	 * @return the binder, or null if the class can not be found
+	 */
+	static CategoryBinder getBinder(String className, List<String> fields){
+		if ( className.equals(AtomSiteBinder.CLASS_NAME))
+			return new AtomSiteBinder(fields);
+
+		try {
+			return new ReflectionBinder(Class.forName(className), fields);
+		} catch (ClassNotFoundException e){
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/** the name of the setter for a field, as in the io.mmcif.model beans */
+	static String getSetterSuffix(String field){
+		if ( field.length() == 0)
+			return field;
+		return field.substring(0,1).toUpperCase() + field.substring(1);
+	}
+
+	/** is this binder compiled for these fields?
+	 * 
+	 * @param fields field names
+	 * @return true if the fields are the same, in the same order
+	 */
+	boolean hasFields(List<String> fields){
+		return this.fields.equals(fields);
+	}
+
+	List<String> getFields(){
+		return fields;
+	}
+
+	/** creates a new bean with the values of a record
+	 * 
+	 * @param values the values, in the order of the fields
+	 * @return the bean, or null if it can not be created
+	 */
+	abstract Object bind(List<String> values);
+
+	/** reports a field that has no setter, like the reflective parser always did */
+	void reportUnknownField(String className, String field, String value){
+		if ( field.indexOf("[") > -1) {
+			// setting of arrays is not supported at the present
+			return;
+		}
+		System.err.println("Trying to set field " + field + " in "+ className +", but not found! (value:" + value + ")");
+	}
+
+	/** binds any bean with a String setter for each field */
+	private static class ReflectionBinder extends CategoryBinder {
+
+		private final Class<?> c;
+		private final Method[] setters;
+
+		ReflectionBinder(Class<?> c, List<String> fields){
+			super(fields);
+			this.c = c;
+			setters = new Method[fields.size()];
+			for (int i = 0; i < setters.length; i++){
+				try {
+					setters[i] = c.getMethod("set" + getSetterSuffix(fields.get(i)), String.class);
+				} catch (NoSuchMethodException e){
+					setters[i] = null;
+				}
+			}
+		}
+
+		@Override
+		Object bind(List<String> values) {
+			Object o = null;
+			try {
+				o = c.newInstance();
+				for (int i = 0; i < setters.length; i++){
+					String val = values.get(i);
+					if ( setters[i] != null)
+						setters[i].invoke(o, val);
+					else
+						reportUnknownField(c.getName(), getFields().get(i), val);
+				}
+			} catch (InstantiationException eix){
+				eix.printStackTrace();
+			} catch (InvocationTargetException etx){
+				etx.printStackTrace();
+			} catch (IllegalAccessException eax){
+				eax.printStackTrace();
+			}
+			return o;
+		}
+	}
+}
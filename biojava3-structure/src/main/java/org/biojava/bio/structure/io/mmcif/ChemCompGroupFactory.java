@@ -22,6 +22,18 @@
  */
 package org.biojava.bio.structure.io.mmcif;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
 import org.biojava.bio.structure.AminoAcid;
 import org.biojava.bio.structure.AminoAcidImpl;
 import org.biojava.bio.structure.Group;
@@ -30,32 +42,154 @@ import org.biojava.bio.structure.NucleotideImpl;
 
 import org.biojava.bio.structure.io.mmcif.chem.PolymerType;
 import org.biojava.bio.structure.io.mmcif.model.ChemComp;
-import org.biojava3.core.util.SoftHashMap;
 
 
+/** Creates groups from their chemical component definitions, which are loaded from a {@link ChemCompProvider}.
+ * 
+ * <p>
+ * The definitions are cached: the standard amino acids and nucleotides are loaded together on the first request 
+ * and kept for as long as the provider is used, all other components are kept in a least recently used cache. 
+ * Each component is loaded only once, if several threads request it at the same time the others wait for 
+ * the result. All methods are thread safe, so the parser threads can share the cache.
+ * </p>
+ */
 public class ChemCompGroupFactory {
 
-	static ChemCompProvider chemCompProvider = new DownloadChemCompProvider();
+	/** the components that are loaded together on the first request and never evicted */
+	public static final List<String> STANDARD_RESIDUES = Collections.unmodifiableList(Arrays.asList(
+			"ALA", "ARG", "ASN", "ASP", "CYS", "GLN", "GLU", "GLY", "HIS", "ILE",
+			"LEU", "LYS", "MET", "PHE", "PRO", "SER", "THR", "TRP", "TYR", "VAL",
+			"A", "C", "G", "U", "DA", "DC", "DG", "DT", "HOH"));
+
+	private static final int DEFAULT_CACHE_SIZE = 1000;
+
+	static volatile ChemCompProvider chemCompProvider = new DownloadChemCompProvider();
+
+	private static final ConcurrentMap<String, ChemComp> standardResidues = new ConcurrentHashMap<String, ChemComp>();
+
+	private static volatile boolean warm = false;
+
+	private static int cacheSize = DEFAULT_CACHE_SIZE;
+
+	@SuppressWarnings("serial")
+	private static final Map<String, ChemComp> cache = Collections.synchronizedMap(new LinkedHashMap<String, ChemComp>(16, 0.75f, true){
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ChemComp> eldest) {
+			return size() > cacheSize;
+		}
+	});
 
-	static SoftHashMap<String, ChemComp> cache = new SoftHashMap<String, ChemComp>(0);
+	/** the components that are currently loaded by a thread, other threads wait for the result */
+	private static final ConcurrentMap<String, FutureTask<ChemComp>> loading = new ConcurrentHashMap<String, FutureTask<ChemComp>>();
 
 	public static ChemComp getChemComp(String recordName){
 
 		recordName = recordName.toUpperCase().trim();
 
+		if ( ! warm)
+			warmCache();
+
+		ChemComp cc = standardResidues.get(recordName);
+		if ( cc != null)
+			return cc;
+
 		// we are using the cache, to avoid hitting the file system too often.
-		ChemComp cc = cache.get(recordName);
+		cc = cache.get(recordName);
 		if ( cc != null)
 			return cc;
 
 		// not cached, get the chem comp from the provider 
-		cc = chemCompProvider.getChemComp(recordName);
-		
-		cache.put(recordName, cc);
-		return cc;
+		return load(recordName);
+	}
+
+	private static ChemComp load(final String recordName){
+		final ChemCompProvider provider = chemCompProvider;
+		FutureTask<ChemComp> task = new FutureTask<ChemComp>(new Callable<ChemComp>() {
+			public ChemComp call() {
+				ChemComp cc = provider.getChemComp(recordName);
+				if ( cc != null && provider == chemCompProvider)
+					cache.put(recordName, cc);
+				return cc;
+			}
+		});
+
+		FutureTask<ChemComp> running = loading.putIfAbsent(recordName, task);
+		if ( running == null) {
+			running = task;
+			task.run();
+		}
+
+		try {
+			return running.get();
+		} catch (InterruptedException e){
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e){
+			e.getCause().printStackTrace();
+			return null;
+		} finally {
+			if ( running == task)
+				loading.remove(recordName, task);
+		}
+	}
+
+	/** Loads the standard amino acids and nucleotides from the current provider, if that has not been done yet.
+	 * Called on the first request for a chemical component.
+	 */
+	public static synchronized void warmCache(){
+		if ( warm)
+			return;
+		ChemCompProvider provider = chemCompProvider;
+		for (String id : STANDARD_RESIDUES){
+			ChemComp cc = provider.getChemComp(id);
+			if ( cc != null)
+				standardResidues.put(id, cc);
+		}
+		warm = true;
+	}
+
+	/** Removes all cached chemical components, including the standard residues.
+	 */
+	public static synchronized void clearCache(){
+		standardResidues.clear();
+		cache.clear();
+		warm = false;
+	}
+
+	/** Returns how many non-standard chemical components are cached at most.
+	 * 
+	 * @return the maximum number of cached components
+	 */
+	public static int getCacheSize(){
+		return cacheSize;
+	}
+
+	/** Sets the number of non-standard chemical components that are cached. The standard residues are always kept.
+	 * 
+	 * @param size the maximum number of cached components, 0 disables the cache
+	 */
+	public static void setCacheSize(int size){
+		if ( size < 0)
+			throw new IllegalArgumentException("the cache size must not be negative: " + size);
+		synchronized (cache) {
+			cacheSize = size;
+			Iterator<String> iter = cache.keySet().iterator();
+			while ( cache.size() > cacheSize && iter.hasNext()){
+				iter.next();
+				iter.remove();
+			}
+		}
 	}
 
-	public static void setChemCompProvider(ChemCompProvider provider){
+	/** Sets the provider of the chemical component definitions. The cache is cleared if the provider 
+	 * changes, since another instance may be configured differently, e.g. read another file.
+	 * 
+	 * @param provider the provider
+	 */
+	public static synchronized void setChemCompProvider(ChemCompProvider provider){
+		ChemCompProvider old = chemCompProvider;
+		if ( old != provider)
+			clearCache();
 		chemCompProvider = provider;
 	}
 
@@ -0,0 +1,348 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.io.mmcif;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/** Splits the bytes of a CIF file into tokens: data_ headers, loop_ keywords, tags and values.
+ * 
+ * <p>
+ * Values can be bare words, quoted with ' or " (the closing quote has to be followed by white space), or 
+ * text fields between two lines that start with a ;. Comments are skipped. The lexer works directly
+ * on the bytes, either of a whole (mapped) file or of a window that is refilled from a stream, and
+ * creates a String only if the parser asks for the current token with {@link #getString()}. 
+ * Whole categories can be passed over with {@link #skipCategory()}, which only looks at the start of each line.
+ * </p>
+ * 
+ * @since 3.0.6
+ */
+final class CifLexer {
+
+	static final int EOF   = 0;
+	static final int DATA  = 1;
+	static final int LOOP  = 2;
+	static final int TAG   = 3;
+	static final int VALUE = 4;
+
+	/** the save_, global_ and stop_ keywords, which are not used in mmCIF files */
+	static final int OTHER = 5;
+
+	private static final int BUFFER_SIZE = 65536;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private ByteBuffer buffer;
+
+	/** the stream the buffer is refilled from, null if the buffer holds the whole file */
+	private final InputStream stream;
+
+	/** the end of the valid bytes in the buffer */
+	private int limit;
+
+	private int pos;
+
+	private int type;
+	private int start;
+	private int end;
+
+	/** is the current token a text field, whose line breaks are removed? */
+	private boolean textField;
+
+	private boolean pushedBack;
+
+	private char[] chars;
+
+	/** lexes the remaining bytes of a buffer, e.g. a mapped file
+	 * 
+	 * @param buffer the bytes of the file
+	 */
+	CifLexer(ByteBuffer buffer){
+		this.buffer = buffer.slice();
+		this.stream = null;
+		limit = this.buffer.limit();
+		init();
+	}
+
+	/** lexes a stream, with a buffer that grows to the size of the largest token
+	 * 
+	 * @param stream the uncompressed stream
+	 */
+	CifLexer(InputStream stream){
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		this.stream = stream;
+		limit = 0;
+		init();
+	}
+
+	private void init(){
+		pos = 0;
+		type = EOF;
+		start = 0;
+		end = 0;
+		textField = false;
+		pushedBack = false;
+		chars = new char[256];
+	}
+
+	/** moves to the next token.
+	 * 
+	 * @return the type of the token, EOF at the end of the input
+	 * @throws IOException
+	 */
+	int next() throws IOException {
+		if ( pushedBack){
+			pushedBack = false;
+			return type;
+		}
+		if ( stream != null && pos >= buffer.capacity() / 2)
+			compact();
+
+		textField = false;
+		int b;
+		while ( (b = byteAt(pos)) >= 0){
+			if ( isWhitespace(b)) {
+				pos++;
+			} else if ( b == '#') {
+				pos = nextLine(pos);
+			} else if ( b == ';' && isLineStart(pos)) {
+				return readTextField();
+			} else if ( b == '\'' || b == '"') {
+				return readQuoted(b);
+			} else {
+				return readWord();
+			}
+		}
+		start = pos;
+		end = pos;
+		type = EOF;
+		return type;
+	}
+
+	/** lets the next call of {@link #next()} return the current token again */
+	void pushBack(){
+		pushedBack = true;
+	}
+
+	int getType(){
+		return type;
+	}
+
+	/** returns the current token. Values are returned without their quotes, and text fields 
+	 * without their line breaks.
+	 * 
+	 * @return the token as a String
+	 */
+	String getString(){
+		int length = end - start;
+		if ( chars.length < length)
+			chars = new char[Math.max(length, 2 * chars.length)];
+		int n = 0;
+		for ( int i = start ; i < end ; i++){
+			byte b = buffer.get(i);
+			if ( b < 0)
+				return decode();
+			if ( textField && ( b == '\n' || b == '\r'))
+				continue;
+			chars[n++] = (char) b;
+		}
+		return new String(chars, 0, n);
+	}
+
+	/** the slow path of getString for tokens with non ASCII characters */
+	private String decode(){
+		ByteBuffer token = buffer.duplicate();
+		token.limit(end);
+		token.position(start);
+		String s = UTF8.decode(token).toString();
+		if ( textField)
+			s = s.replace("\r", "").replace("\n", "");
+		return s;
+	}
+
+	/** skips all tokens up to the next line that starts with a tag, a loop_ or a data_ header. 
+	 * Used to pass over the values of a category without looking at each of them, 
+	 * since values can not start with an underscore unless they are quoted.
+	 * 
+	 * @throws IOException
+	 */
+	void skipCategory() throws IOException {
+		pushedBack = false;
+		int p = nextLine(pos);
+		int b;
+		while ( (b = byteAt(p)) >= 0){
+			if ( stream != null && p >= buffer.capacity() / 2){
+				pos = p;
+				compact();
+				p = pos;
+			}
+			if ( b == ';') {
+				// the lines of a text field end at the next line that starts with a ;
+				p = nextLine(p);
+				while ( (b = byteAt(p)) >= 0 && b != ';')
+					p = nextLine(p);
+				p = nextLine(p);
+				continue;
+			}
+			int q = p;
+			while ( b == ' ' || b == '\t')
+				b = byteAt(++q);
+			if ( b == '_' || isKeyword(q, "loop_") || isKeyword(q, "data_"))
+				break;
+			p = nextLine(q);
+		}
+		pos = p;
+		start = p;
+		end = p;
+	}
+
+	private int readTextField() throws IOException {
+		start = pos + 1;
+		int p = start;
+		int b;
+		// the field ends with a line that starts with a ;
+		while ( (b = byteAt(p)) >= 0){
+			if ( b == '\n' && byteAt(p + 1) == ';')
+				break;
+			p++;
+		}
+		end = p;
+		pos = b < 0 ? p : p + 2;
+		textField = true;
+		type = VALUE;
+		return type;
+	}
+
+	private int readQuoted(int quote) throws IOException {
+		start = pos + 1;
+		int p = start;
+		int b;
+		while ( (b = byteAt(p)) >= 0 && b != '\n' && b != '\r'){
+			if ( b == quote){
+				int next = byteAt(p + 1);
+				if ( next < 0 || isWhitespace(next))
+					break;
+			}
+			p++;
+		}
+		end = p;
+		// without a closing quote, the value goes up to the end of the line
+		pos = b == quote ? p + 1 : p;
+		type = VALUE;
+		return type;
+	}
+
+	private int readWord() throws IOException {
+		start = pos;
+		int b;
+		while ( (b = byteAt(pos)) >= 0 && ! isWhitespace(b))
+			pos++;
+		end = pos;
+
+		int first = buffer.get(start);
+		if ( first == '_')
+			type = TAG;
+		else if ( end - start == 5 && isKeyword(start, "loop_"))
+			type = LOOP;
+		else if ( isKeyword(start, "data_"))
+			type = DATA;
+		else if ( isKeyword(start, "save_") || isKeyword(start, "global_") || isKeyword(start, "stop_"))
+			type = OTHER;
+		else
+			type = VALUE;
+		return type;
+	}
+
+	/** does the input at position p start with a (case insensitive) keyword? */
+	private boolean isKeyword(int p, String keyword) throws IOException {
+		for ( int i = 0 ; i < keyword.length() ; i++){
+			int b = byteAt(p + i);
+			if ( b < 0 || Character.toLowerCase((char) b) != keyword.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean isLineStart(int p){
+		if ( p == 0)
+			return true;
+		byte b = buffer.get(p - 1);
+		return b == '\n' || b == '\r';
+	}
+
+	/** returns the position after the end of the line of p */
+	private int nextLine(int p) throws IOException {
+		int b;
+		while ( (b = byteAt(p)) >= 0){
+			p++;
+			if ( b == '\n')
+				break;
+		}
+		return p;
+	}
+
+	private static boolean isWhitespace(int b){
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	/** returns the byte at position p, or -1 at the end of the input */
+	private int byteAt(int p) throws IOException {
+		if ( p >= limit && ! fill(p))
+			return -1;
+		return buffer.get(p) & 0xff;
+	}
+
+	/** reads from the stream until the byte at position p is available. 
+	 * Grows the buffer if needed, but does not move the bytes, so all positions stay valid.
+	 */
+	private boolean fill(int p) throws IOException {
+		if ( stream == null)
+			return false;
+		while ( p >= limit){
+			if ( limit == buffer.capacity()){
+				ByteBuffer larger = ByteBuffer.allocate(2 * buffer.capacity());
+				larger.put(buffer.array(), 0, limit);
+				buffer = larger;
+			}
+			int n = stream.read(buffer.array(), limit, buffer.capacity() - limit);
+			if ( n < 0)
+				return false;
+			limit += n;
+		}
+		return true;
+	}
+
+	/** moves the unread bytes to the start of the buffer, keeping the byte before them 
+	 * to tell if the current position is at the start of a line. 
+	 */
+	private void compact(){
+		int offset = pos - 1;
+		System.arraycopy(buffer.array(), offset, buffer.array(), 0, limit - offset);
+		limit -= offset;
+		pos -= offset;
+		start = Math.max(0, start - offset);
+		end = Math.max(0, end - offset);
+	}
+}
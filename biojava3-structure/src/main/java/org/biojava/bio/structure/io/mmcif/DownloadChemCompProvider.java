@@ -228,7 +228,7 @@ public class DownloadChemCompProvider implements ChemCompProvider {
 			// you could also hook in your own and build up you own data model.
 			parser.addMMcifConsumer(consumer);
 
-			parser.parse(new BufferedReader(new InputStreamReader(inStream)));
+			parser.parse(inStream);
 
 			ChemicalComponentDictionary dict = consumer.getDictionary();
 
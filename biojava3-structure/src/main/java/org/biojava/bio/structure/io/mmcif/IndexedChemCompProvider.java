@@ -0,0 +1,350 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.io.mmcif;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.biojava.bio.structure.align.util.UserConfiguration;
+import org.biojava.bio.structure.io.mmcif.model.ChemComp;
+import org.biojava3.core.util.InputStreamProvider;
+
+/** A ChemComp provider that reads the chemical components from an index of the components.cif file.
+ * 
+ * <p>
+ * The first time the provider is used, the components.cif.gz file is split into its data blocks, 
+ * which are compressed one by one and written to a binary index file, together with a table of the 
+ * offsets of the blocks. Later, only the offset table is loaded into memory and each component is 
+ * read and parsed when it is requested. The index is rebuilt if the components.cif.gz file changes.
+ * Compared to the {@link AllChemCompProvider} this needs little memory and starts quickly, compared to 
+ * the {@link DownloadChemCompProvider} it does not need a file per component.
+ * </p>
+ * 
+ * <p>
+ * The provider can be used by several threads at the same time, {@link #close()} waits until the reads 
+ * in progress are done. Requests are usually cached by the {@link ChemCompGroupFactory}.
+ * </p>
+ * 
+ * @since 3.0.6
+ */
+public class IndexedChemCompProvider implements ChemCompProvider {
+
+	public static final String INDEX_FILE_NAME = "components.idx";
+
+	private static final int MAGIC = 0x424a4343;
+	private static final int VERSION = 1;
+
+	/** the position of the offset of the table in the header */
+	private static final int TABLE_POSITION = 24;
+
+	private final File componentsFile;
+	private final File indexFile;
+
+	private volatile boolean initialized;
+
+	/** held for reading while the index is used, and for writing while it is closed */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private RandomAccessFile file;
+	private FileChannel channel;
+
+	/** the sorted component IDs, and the positions and lengths of their compressed blocks */
+	private String[] ids;
+	private long[] offsets;
+	private int[] lengths;
+
+	/** Uses the components.cif.gz file in the chemcomp directory of the cache path, which is downloaded if 
+	 * it does not exist yet, and keeps the index next to it.
+	 */
+	public IndexedChemCompProvider(){
+		UserConfiguration config = new UserConfiguration();
+		File dir = new File(config.getCacheFilePath() + DownloadChemCompProvider.CHEM_COMP_CACHE_DIRECTORY);
+		componentsFile = new File(dir, "components.cif.gz");
+		indexFile = new File(dir, INDEX_FILE_NAME);
+	}
+
+	/** Uses the given files.
+	 * 
+	 * @param componentsFile the components.cif file, optionally compressed
+	 * @param indexFile the index, which is created if it does not exist or does not match the components file
+	 */
+	public IndexedChemCompProvider(File componentsFile, File indexFile){
+		this.componentsFile = componentsFile;
+		this.indexFile = indexFile;
+	}
+
+	/** {@inheritDoc}
+	 * 
+	 */
+	public ChemComp getChemComp(String recordName) {
+
+		// make sure we work with upper case records		
+		String name = recordName.toUpperCase().trim();
+
+		try {
+			byte[] block;
+			lock.readLock().lock();
+			try {
+				init();
+
+				int i = Arrays.binarySearch(ids, name);
+				if ( i < 0)
+					return null;
+				block = readBlock(i);
+			} finally {
+				lock.readLock().unlock();
+			}
+
+			MMcifParser parser = new SimpleMMcifParser();
+			ChemCompConsumer consumer = new ChemCompConsumer();
+			parser.addMMcifConsumer(consumer);
+
+			InputStream inStream = new InflaterInputStream(new ByteArrayInputStream(block));
+			try {
+				parser.parse(inStream);
+			} finally {
+				inStream.close();
+			}
+
+			return consumer.getDictionary().getChemComp(name);
+
+		} catch (IOException e){
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/** Returns the number of chemical components in the index.
+	 * 
+	 * @return the number of components
+	 * @throws IOException if the index can not be read or created
+	 */
+	public int size() throws IOException {
+		lock.readLock().lock();
+		try {
+			init();
+			return ids.length;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/** Closes the index file, after the components that are being read. It is opened again if another 
+	 * component is requested.
+	 * 
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		// the lock is always taken before the monitor of init, so this can not deadlock with a reader
+		lock.writeLock().lock();
+		try {
+			synchronized (this) {
+				if ( file != null)
+					file.close();
+				file = null;
+				channel = null;
+				initialized = false;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/** opens the index and loads the offset table, the index is created first if needed. 
+	 * Must be called with the read lock held, so the index is not closed while it is used.
+	 */
+	private void init() throws IOException {
+		if ( initialized)
+			return;
+		synchronized (this) {
+			if ( initialized)
+				return;
+
+			if ( ! isIndexValid()) {
+				if ( ! componentsFile.exists()) {
+					AllChemCompProvider.checkPath();
+					AllChemCompProvider.downloadFile();
+				}
+				System.out.println("indexing " + componentsFile + " to " + indexFile);
+				buildIndex(componentsFile, indexFile);
+			}
+
+			file = new RandomAccessFile(indexFile, "r");
+			channel = file.getChannel();
+
+			file.seek(TABLE_POSITION);
+			long tablePosition = file.readLong();
+			byte[] table = new byte[(int) (file.length() - tablePosition)];
+			file.seek(tablePosition);
+			file.readFully(table);
+
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(table));
+			int size = in.readInt();
+			ids = new String[size];
+			offsets = new long[size];
+			lengths = new int[size];
+			for ( int i = 0 ; i < size ; i++){
+				ids[i] = in.readUTF();
+				offsets[i] = in.readLong();
+				lengths[i] = in.readInt();
+			}
+
+			initialized = true;
+		}
+	}
+
+	/** does the index file exist and was it created from the current components file? */
+	private boolean isIndexValid() throws IOException {
+		if ( ! indexFile.exists())
+			return false;
+
+		RandomAccessFile in = new RandomAccessFile(indexFile, "r");
+		try {
+			if ( in.length() < TABLE_POSITION + 8 || in.readInt() != MAGIC || in.readInt() != VERSION)
+				return false;
+			long length = in.readLong();
+			long lastModified = in.readLong();
+			// without the components file, the existing index is used
+			return ! componentsFile.exists() || 
+				( length == componentsFile.length() && lastModified == componentsFile.lastModified());
+		} finally {
+			in.close();
+		}
+	}
+
+	/** reads the compressed block of a component. Positional reads do not change the state of the channel, 
+	 * so several threads can read at the same time.
+	 */
+	private byte[] readBlock(int i) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(lengths[i]);
+		while ( block.hasRemaining()){
+			if ( channel.read(block, offsets[i] + block.position()) < 0)
+				throw new EOFException("the index " + indexFile + " is truncated");
+		}
+		return block.array();
+	}
+
+	/** Creates the index of a components.cif file. The index is written to a temporary file first, 
+	 * so other processes never see an incomplete index.
+	 * 
+	 * @param componentsFile the components.cif file, optionally compressed
+	 * @param indexFile the index file to create
+	 * @throws IOException
+	 */
+	public static void buildIndex(File componentsFile, File indexFile) throws IOException {
+
+		File tmpFile = new File(indexFile.getPath() + ".tmp");
+
+		InputStream inStream = new InputStreamProvider().getInputStream(componentsFile);
+		RandomAccessFile out = new RandomAccessFile(tmpFile, "rw");
+
+		// the positions and lengths of the blocks, sorted by ID
+		Map<String, long[]> entries = new TreeMap<String, long[]>();
+
+		try {
+			out.setLength(0);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(componentsFile.length());
+			out.writeLong(componentsFile.lastModified());
+			out.writeLong(0);
+
+			// ISO-8859-1 keeps the bytes of the file unchanged
+			BufferedReader buf = new BufferedReader(new InputStreamReader(inStream, "ISO-8859-1"));
+			ByteArrayOutputStream block = new ByteArrayOutputStream();
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			Deflater deflater = new Deflater();
+
+			String id = null;
+			String line;
+			while ( (line = buf.readLine()) != null){
+				if ( line.startsWith("data_")){
+					if ( id != null)
+						writeBlock(out, id, block, compressed, deflater, entries);
+					id = line.substring(5).trim().toUpperCase();
+					block.reset();
+				}
+				block.write(line.getBytes("ISO-8859-1"));
+				block.write('\n');
+			}
+			if ( id != null)
+				writeBlock(out, id, block, compressed, deflater, entries);
+			deflater.end();
+
+			// the offset table at the end of the file
+			ByteArrayOutputStream table = new ByteArrayOutputStream();
+			DataOutputStream tableOut = new DataOutputStream(table);
+			tableOut.writeInt(entries.size());
+			for (Map.Entry<String, long[]> entry : entries.entrySet()){
+				tableOut.writeUTF(entry.getKey());
+				tableOut.writeLong(entry.getValue()[0]);
+				tableOut.writeInt((int) entry.getValue()[1]);
+			}
+			tableOut.flush();
+
+			long tablePosition = out.getFilePointer();
+			out.write(table.toByteArray());
+			out.seek(TABLE_POSITION);
+			out.writeLong(tablePosition);
+		} finally {
+			out.close();
+			inStream.close();
+		}
+
+		if ( indexFile.exists() && ! indexFile.delete())
+			throw new IOException("could not replace " + indexFile);
+		if ( ! tmpFile.renameTo(indexFile))
+			throw new IOException("could not rename " + tmpFile + " to " + indexFile);
+	}
+
+	private static void writeBlock(RandomAccessFile out, String id, ByteArrayOutputStream block, 
+			ByteArrayOutputStream compressed, Deflater deflater, Map<String, long[]> entries) throws IOException {
+		compressed.reset();
+		deflater.reset();
+		DeflaterOutputStream deflaterOut = new DeflaterOutputStream(compressed, deflater);
+		block.writeTo(deflaterOut);
+		deflaterOut.finish();
+
+		entries.put(id, new long[] { out.getFilePointer(), compressed.size() });
+		out.write(compressed.toByteArray());
+	}
+}
@@ -1,8 +1,6 @@
 package org.biojava.bio.structure.io.mmcif;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.zip.GZIPInputStream;
 
 import org.biojava.bio.structure.io.mmcif.chem.PolymerType;
@@ -54,7 +52,7 @@ public class ReducedChemCompProvider implements ChemCompProvider {
 		parser.addMMcifConsumer(consumer);
 
 		try {
-			parser.parse(new BufferedReader(new InputStreamReader(new GZIPInputStream(inStream))));
+			parser.parse(new GZIPInputStream(inStream));
 
 			ChemicalComponentDictionary dict = consumer.getDictionary();
 
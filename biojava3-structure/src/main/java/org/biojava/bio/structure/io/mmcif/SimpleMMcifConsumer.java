@@ -24,6 +24,7 @@ package org.biojava.bio.structure.io.mmcif;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -79,6 +80,7 @@ import org.biojava.bio.structure.io.mmcif.model.StructAsym;
 import org.biojava.bio.structure.io.mmcif.model.StructKeywords;
 import org.biojava.bio.structure.io.mmcif.model.StructRef;
 import org.biojava.bio.structure.io.mmcif.model.StructRefSeq;
+import org.biojava.bio.structure.compact.CompactAtomStore;
 import org.biojava.bio.structure.quaternary.BiologicalAssemblyBuilder;
 import org.biojava.bio.structure.quaternary.ModelTransformationMatrix;
 
@@ -115,13 +117,54 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 
 	FileParsingParameters params;
 
+	/** the 1 letter codes of the residue names seen so far, including null for nucleotides */
+	private final Map<String,Character> aminoCodes = new HashMap<String,Character>();
+
+	/** the elements of the type symbols seen so far */
+	private final Map<String,Element> elements = new HashMap<String,Element>();
+
+	/** holds the atoms of the structure if {@link FileParsingParameters#isCompactAtoms()} */
+	private CompactAtomStore atomStore;
+
 	public static Logger logger =  Logger.getLogger("org.biojava.bio.structure");
 
+	/** the categories the structure is built from */
+	private static final List<String> CATEGORIES = Arrays.asList(
+			"_entity", "_struct", "_atom_site", "_database_PDB_rev", "_database_PDB_remark",
+			"_exptl", "_struct_ref", "_struct_ref_seq", "_entity_poly_seq", "_struct_asym",
+			"_pdbx_poly_seq_scheme", "_pdbx_nonpoly_scheme", "_struct_keywords", "_refine",
+			"_audit_author", "_pdbx_struct_oper_list", "_pdbx_struct_assembly", "_pdbx_struct_assembly_gen");
+
+	/** the fields of the atom_site category that define the chains and groups */
+	private static final List<String> HEADER_ATOM_SITE_FIELDS = Arrays.asList(
+			"group_PDB", "label_atom_id", "label_alt_id", "label_comp_id", "label_asym_id",
+			"label_seq_id", "pdbx_PDB_ins_code", "auth_seq_id", "pdbx_PDB_model_num");
+
 	public  SimpleMMcifConsumer(){
 		params = new FileParsingParameters();
 		documentStart();
 	}
 
+	/** Returns the categories this consumer builds the structure from. The parser can skip all 
+	 * other categories, see {@link SimpleMMcifParser#setCategories(java.util.Collection)}.
+	 * 
+	 * @return the category names
+	 */
+	public List<String> getCategories(){
+		return CATEGORIES;
+	}
+
+	/** Returns the fields of the atom_site category this consumer reads with the current FileParsingParameters.
+	 * If only the header is parsed, the atoms are not created and only the fields that define the chains and groups are needed.
+	 * 
+	 * @return the field names, or null if all fields are read
+	 */
+	public List<String> getAtomSiteFields(){
+		if ( params.isHeaderOnly())
+			return HEADER_ATOM_SITE_FIELDS;
+		return null;
+	}
+
 	public void newEntity(Entity entity) {
 		if (DEBUG)
 			System.out.println(entity);
@@ -316,9 +359,9 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 		}
 		Character aminoCode1 = null;
 		if ( recordName.equals("ATOM") )
-			aminoCode1 = StructureTools.get1LetterCode(groupCode3);
+			aminoCode1 = get1LetterCode(groupCode3);
 		else {
-			aminoCode1 = StructureTools.get1LetterCode(groupCode3);
+			aminoCode1 = get1LetterCode(groupCode3);
 			// for nucleotides this will be null..
 			if (aminoCode1 != null &&  aminoCode1.equals(StructureTools.UNKNOWN_GROUP_LABEL)) 
 				aminoCode1 = null;
@@ -515,45 +558,80 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 	 */
 	private Atom convertAtom(AtomSite atom){
 
-
-		Atom a = new AtomImpl();
-
-		a.setPDBserial(Integer.parseInt(atom.getId()));
-		a.setName(atom.getLabel_atom_id());
-
-		a.setFullName(fixFullAtomName(atom.getLabel_atom_id()));
-
+		int serial = Integer.parseInt(atom.getId());
+		String name = atom.getLabel_atom_id();
+		String fullName = fixFullAtomName(name);
 
 		double x = Double.parseDouble (atom.getCartn_x());
 		double y = Double.parseDouble (atom.getCartn_y());
 		double z = Double.parseDouble (atom.getCartn_z());
-		a.setX(x);
-		a.setY(y);
-		a.setZ(z);
 
 		double occupancy = Double.parseDouble(atom.getOccupancy());
-		a.setOccupancy(occupancy);
 
 		double temp = Double.parseDouble(atom.getB_iso_or_equiv());
-		a.setTempFactor(temp);
 
+		Character altLoc;
 		String alt = atom.getLabel_alt_id();
 		if (( alt != null ) && ( alt.length() > 0) && (! alt.equals("."))){
-			a.setAltLoc(new Character(alt.charAt(0)));
+			altLoc = Character.valueOf(alt.charAt(0));
 		} else {
-			a.setAltLoc(new Character(' '));
+			altLoc = Character.valueOf(' ');
 		}
 
-		Element element = Element.R;
-		try {
-			element = Element.valueOfIgnoreCase(atom.getType_symbol());
-		}  catch (IllegalArgumentException e){}
+		Element element = getElement(atom.getType_symbol());
+
+		if ( params.isCompactAtoms()) {
+			// the atom only exists as an entry of the store
+			if ( atomStore == null)
+				atomStore = new CompactAtomStore();
+			return atomStore.add(x, y, z, occupancy, temp, element, altLoc, serial, name, fullName);
+		}
+
+		Atom a = new AtomImpl();
+
+		a.setPDBserial(serial);
+		a.setName(name);
+		a.setFullName(fullName);
+		a.setX(x);
+		a.setY(y);
+		a.setZ(z);
+		a.setOccupancy(occupancy);
+		a.setTempFactor(temp);
+		a.setAltLoc(altLoc);
 		a.setElement(element);
 
 		return a;
 
 	}
 
+	/** the same as {@link StructureTools#get1LetterCode(String)}, but remembers the codes, since
+	 * looking up a non standard group (e.g. every water atom) throws an exception internally.
+	 */
+	private Character get1LetterCode(String groupCode3){
+		Character aminoCode1 = aminoCodes.get(groupCode3);
+		if ( aminoCode1 == null && ! aminoCodes.containsKey(groupCode3)) {
+			aminoCode1 = StructureTools.get1LetterCode(groupCode3);
+			aminoCodes.put(groupCode3, aminoCode1);
+		}
+		return aminoCode1;
+	}
+
+	/** returns the element for a type symbol, or {@link Element#R} if the symbol is unknown */
+	private Element getElement(String symbol){
+		if ( symbol == null)
+			return Element.R;
+		Element element = elements.get(symbol);
+		if ( element == null) {
+			try {
+				element = Element.valueOfIgnoreCase(symbol);
+			}  catch (IllegalArgumentException e){
+				element = Element.R;
+			}
+			elements.put(symbol, element);
+		}
+		return element;
+	}
+
 
 	private Group getCorrectAltLocGroup( Character altLoc,
 			String recordName, Character aminoCode1, String groupCode3, long seq_id) {
@@ -618,6 +696,7 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 		current_group 		= null;
 		current_nmr_model 	= null;
 		atomCount     		= 0;
+		atomStore     		= null;
 
 		current_model = new ArrayList<Chain>();
 		entities      = new ArrayList<Entity>();
@@ -757,6 +836,11 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 		}
 		structure.getPDBHeader().setBioUnitTranformationMap(transformationMap);
 
+		if ( atomStore != null) {
+			// the atoms of cloned alternate location groups, and the residue names
+			atomStore.addAll(structure);
+			atomStore.trimToSize();
+		}
 
 	}
 
@@ -22,13 +22,25 @@
 package org.biojava.bio.structure.io.mmcif;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Logger;
 
 import org.biojava.bio.structure.Structure;
@@ -60,6 +72,7 @@ import org.biojava.bio.structure.io.mmcif.model.StructKeywords;
 import org.biojava.bio.structure.io.mmcif.model.StructRef;
 import org.biojava.bio.structure.io.mmcif.model.StructRefSeq;
 import org.biojava.bio.structure.jama.Matrix;
+import org.biojava3.core.util.ConcurrencyTools;
 
 
 /** A simple mmCif file parser
@@ -91,16 +104,119 @@ public class SimpleMMcifParser implements MMcifParser {
 	public static final String FIELD_LINE = "_";
 	public static final String STRING_LIMIT = ";";
 
-	private static final char s1 = '\'';
-	private static final char s2 = '\"';
-
 	Struct struct ;
 
+	/** the number of atom_site records that are converted to AtomSite objects by one task */
+	private static final int ATOM_SITE_CHUNK_SIZE = 2048;
+
+	private boolean parallelAtomSites;
+
+	/** the fields and the records of the atom_site loop that have not been submitted yet */
+	private List<String> atomSiteFields;
+	private List<List<String>> atomSiteRecords;
+
+	/** the submitted chunks of atom_site records, in the order of the file */
+	private LinkedList<FutureTask<List<AtomSite>>> atomSiteChunks;
+
+	/** the binders of the categories, by bean class name */
+	private final Map<String,CategoryBinder> binders;
+
+	private boolean reuseAtomSites;
+
+	/** the AtomSite that is passed to the consumers for every record, if they are reused */
+	private AtomSite atomSite;
+
+	/** the binder that has set the fields of atomSite */
+	private AtomSiteBinder atomSiteBinder;
+
+	/** the categories that are passed on to the consumers, null for all of them */
+	private Set<String> categories;
+
+	/** the fields that are passed on for a category, if not all of them */
+	private final Map<String,Set<String>> categoryFields;
+
+	/** the categories that have not been found yet in the current file */
+	private Set<String> remainingCategories;
+
 	public static Logger logger =  Logger.getLogger("org.biojava.bio.structure");
 
 	public SimpleMMcifParser(){
 		consumers = new ArrayList<MMcifConsumer>();
 		struct = null;
+		parallelAtomSites = false;
+		atomSiteRecords = new ArrayList<List<String>>();
+		atomSiteChunks = new LinkedList<FutureTask<List<AtomSite>>>();
+		binders = new HashMap<String, CategoryBinder>();
+		reuseAtomSites = false;
+		categories = null;
+		categoryFields = new HashMap<String, Set<String>>();
+	}
+
+	/** Returns the categories that are passed on to the consumers.
+	 * 
+	 * @return the category names, or null if all categories are parsed
+	 */
+	public Set<String> getCategories() {
+		return categories;
+	}
+
+	/** Restricts the parser to some categories, named like in the file, e.g. _atom_site or _entity. 
+	 * The values of all other categories are skipped without being converted to Strings, and 
+	 * the parser stops reading the file once it has seen all requested categories.
+	 * 
+	 * @param categories the category names, or null to parse all categories (the default)
+	 */
+	public void setCategories(Collection<String> categories) {
+		this.categories = categories == null ? null : new HashSet<String>(categories);
+	}
+
+	/** Restricts a category to some of its fields. The beans of the category only get these fields, 
+	 * and the values of the other fields are never converted to Strings.
+	 * 
+	 * @param category the category name, e.g. _atom_site
+	 * @param fields the field names, e.g. label_asym_id, or null to parse all fields (the default)
+	 */
+	public void setCategoryFields(String category, Collection<String> fields) {
+		if ( fields == null)
+			categoryFields.remove(category);
+		else
+			categoryFields.put(category, new HashSet<String>(fields));
+	}
+
+	/** Is the same AtomSite object passed to the consumers for all atom_site records?
+	 * 
+	 * @return boolean flag yes/no
+	 */
+	public boolean isReuseAtomSites() {
+		return reuseAtomSites;
+	}
+
+	/** Should the same AtomSite object be passed to the consumers for all atom_site records, with 
+	 * the values of the current record? This saves creating an object per atom, but can only be
+	 * used if none of the consumers keeps a reference to the AtomSite, like {@link SimpleMMcifConsumer}. 
+	 * Not used for atom_site records that are converted in parallel.
+	 * 
+	 * @param reuseAtomSites boolean flag yes/no
+	 */
+	public void setReuseAtomSites(boolean reuseAtomSites) {
+		this.reuseAtomSites = reuseAtomSites;
+	}
+
+	/** Are the atom_site records converted to AtomSite objects on several threads?
+	 * 
+	 * @return boolean flag yes/no
+	 */
+	public boolean isParallelAtomSites() {
+		return parallelAtomSites;
+	}
+
+	/** Should the atom_site records be converted to AtomSite objects in chunks, on the {@link ConcurrencyTools} 
+	 * thread pool? The consumers still get the atoms in the order of the file, on the thread that called parse.
+	 * 
+	 * @param parallelAtomSites boolean flag yes/no
+	 */
+	public void setParallelAtomSites(boolean parallelAtomSites) {
+		this.parallelAtomSites = parallelAtomSites;
 	}
 
 	public void addMMcifConsumer(MMcifConsumer consumer) {
@@ -137,138 +253,102 @@ public class SimpleMMcifParser implements MMcifParser {
 	}
 
 	public void parse(InputStream inStream) throws IOException {
-		parse(new BufferedReader(new InputStreamReader(inStream)));
+		parse(new CifLexer(inStream));
 
 	}
 
 	public void parse(BufferedReader buf)
 	throws IOException {
+		parse(new CifLexer(new ReaderInputStream(buf)));
+	}
 
-		triggerDocumentStart();
-
-
-		// init container objects...
-		struct = new Struct();
-		String line = null;
+	/** Parses an uncompressed mmCIF file, which is mapped into memory instead of being read through a stream.
+	 *
+	 * @param file an uncompressed mmCIF file
+	 * @throws IOException
+	 */
+	public void parse(File file) throws IOException {
+		FileInputStream inStream = new FileInputStream(file);
+		try {
+			FileChannel channel = inStream.getChannel();
+			parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			inStream.close();
+		}
+	}
 
-		boolean inLoop = false;
+	/** Parses the remaining bytes of a buffer.
+	 *
+	 * @param buffer the bytes of an mmCIF file
+	 * @throws IOException
+	 */
+	public void parse(ByteBuffer buffer) throws IOException {
+		parse(new CifLexer(buffer));
+	}
 
-		List<String> loopFields = new ArrayList<String>();
-		List<String> lineData   = new ArrayList<String>();
+	private void parse(CifLexer lexer)
+	throws IOException {
 
-		String category = null;
+		triggerDocumentStart();
 
 
-		// the first line is a data_PDBCODE line, test if this looks like a mmcif file
-		line = buf.readLine();
-		if (!line.startsWith("data_")){
-			System.err.println("this does not look like a valid MMcif file! The first line should be data_1XYZ, but is " + line);
+		// init container objects...
+		struct = new Struct();
+		atomSiteFields = null;
+		atomSiteRecords.clear();
+		atomSiteChunks.clear();
+		atomSite = null;
+		atomSiteBinder = null;
+		remainingCategories = categories == null ? null : new HashSet<String>(categories);
+
+		// the first token is a data_PDBCODE header, test if this looks like a mmcif file
+		if ( lexer.next() != CifLexer.DATA){
+			System.err.println("this does not look like a valid MMcif file! The first line should be data_1XYZ, but is " + lexer.getString());
 			triggerDocumentEnd();
 			return;
 		}
 
-		while ( (line = buf.readLine ()) != null ){
-			//System.out.println(inLoop + " " + line);
-
-
-			if ( inLoop){
-
-				if (line.startsWith(LOOP_END)){
-					// reset all data
-					inLoop = false;
-					lineData.clear();
-					category=null;
-					loopFields.clear();
-					continue;
-
-
+		// the category of the key/value pairs outside of loops
+		String category = null;
+		List<String> fields = new ArrayList<String>();
+		List<String> values = new ArrayList<String>();
+
+		int type;
+		while ( ! isDone() && (type = lexer.next()) != CifLexer.EOF){
+
+			if ( type == CifLexer.TAG){
+				String tag = lexer.getString();
+				int pos = tag.indexOf('.');
+				String tagCategory = pos < 0 ? tag : tag.substring(0, pos);
+				if ( ! tagCategory.equals(category)){
+					endCategory(category, fields, values);
+					category = tagCategory;
 				}
 
-				if ( line.startsWith(FIELD_LINE)){
-					// found another field.
-					String txt = line.trim();
-					//System.out.println("line: " + txt);
-					if ( txt.indexOf('.') > -1){
-
-						String[] spl = txt.split("\\.");
-						//System.out.println(spl.length);
-						category = spl[0];
-						String attribute = spl[1];
-						loopFields.add(attribute);
-						if ( spl.length > 2){
-							System.err.println("found nested attribute, not supported, yet!");
-						}
-					} else {
-						category = txt;
-					}
-
-
-				} else {
-
-					// in loop and we found a data line
-					lineData = processLine(line, buf, loopFields.size());
-					if ( lineData.size() != loopFields.size()){
-						System.err.println("did not find enough data fields...");
-
-					}
-
-					endLineChecks(category, loopFields,lineData);
-
-					lineData.clear();
+				if ( lexer.next() != CifLexer.VALUE)
+					throw new IOException("no value found for " + tag);
 
+				String field = tag.substring(pos + 1);
+				if ( isParsed(category, field)){
+					fields.add(field);
+					values.add(lexer.getString());
 				}
-
 			} else {
-				// not in loop
-
-				if ( line.startsWith(LOOP_START)){
-					loopFields.clear();
-					inLoop = true;
-					category=null;
-					lineData.clear();
-					continue;
-				} else if (line.startsWith(LOOP_END)){
-					inLoop = false;
-					if ( category != null)
-						endLineChecks(category, loopFields, lineData);
-					category = null;
-					loopFields.clear();
-					lineData.clear();
-				} else {
-					// a boring normal line
-					//System.out.println("boring data line: " + line + " " + inLoop + " " );
-					List<String> data = processLine(line, buf, 2);
-					//System.out.println("got a single line " + data);
-					if ( data.size() < 1){
-						// this can happen if empty lines at end of file
-						lineData.clear();
-						continue;
-					}
-					String key = data.get(0);
-					int pos = key.indexOf(".");
-					if ( pos < 0 ) {
-						// looks like a chem_comp file
-						// line should start with data, otherwise something is wrong!
-						if (! line.startsWith("data_")){
-							System.err.println("this does not look like a valid MMcif file! The first line should be data_1XYZ, but is " + line);
-							triggerDocumentEnd();
-							return;
-						}
-						// ignore the first line...
-						category=null;
-						lineData.clear();
-						continue;
-					}
-					category = key.substring(0,pos);
-					String value = data.get(1);
-					loopFields.add(key.substring(pos+1,key.length()));
-					lineData.add(value);
-
-
-				}
+				endCategory(category, fields, values);
+				category = null;
+
+				if ( type == CifLexer.LOOP)
+					parseLoop(lexer);
+				else if ( type == CifLexer.VALUE)
+					System.err.println("found a value without a field: " + lexer.getString());
+				// further data_ blocks (chemical component files) just continue the document
 			}
 		}
 
+		endCategory(category, fields, values);
+
+		flushAtomSites();
+
 		if (struct != null){
 			triggerStructData(struct);
 		}
@@ -277,191 +357,163 @@ public class SimpleMMcifParser implements MMcifParser {
 
 	}
 
-	private List<String> processSingleLine(String line){
-		//System.out.println("SS processSingleLine " + line);
-		List<String> data = new ArrayList<String>();
-
-		if ( line.trim().length() == 0){
-			return data;
+	/** parses the tags and values of a loop_. The values of skipped categories and fields are never converted to Strings. */
+	private void parseLoop(CifLexer lexer) throws IOException {
+		String category = null;
+		List<String> tags = new ArrayList<String>();
+
+		int type;
+		while ( (type = lexer.next()) == CifLexer.TAG){
+			String tag = lexer.getString();
+			int pos = tag.indexOf('.');
+			if ( pos < 0){
+				category = tag;
+				tags.add("");
+			} else {
+				category = tag.substring(0, pos);
+				tags.add(tag.substring(pos + 1));
+			}
 		}
-		
-		if ( line.trim().length() == 1){
-			if ( line.startsWith(STRING_LIMIT))
-				return data;
-		}
-		boolean inString = false;
-		boolean inS1     = false;
-		boolean inS2     = false;
-		String word 	 = "";
-
-		//System.out.println(line);
-		for (int i=0; i< line.length(); i++ ){
-			//System.out.println(word);
-			Character c = line.charAt(i);
-
-			Character nextC = null;
-			if (i < line.length() - 1)
-				nextC = line.charAt(i+1);
-			if  (c == ' ') {
-
-				if ( ! inString){
-					if ( ! word.equals(""))
-						data.add(word.trim());
-					word = "";
-				} else {
-					// we are in a string, add the space
-					word += c;
-				}
-
-			} else if (c == s1 )  {
-
-				if ( inString){
-
-					boolean wordEnd = false;
-					if (! inS2) {
-						if (nextC != null){
-							//System.out.println("nextC: >"+nextC+"<");
-							if ( Character.isWhitespace(nextC)){
-								i++;
-								wordEnd = true;
-							}
-						}
-					}
 
+		if ( category == null || ! isParsed(category)){
+			if ( type == CifLexer.VALUE)
+				lexer.skipCategory();
+			else
+				lexer.pushBack();
+			return;
+		}
 
-					if ( wordEnd ) {
+		boolean[] parsed = new boolean[tags.size()];
+		List<String> loopFields = new ArrayList<String>();
+		for ( int i = 0 ; i < tags.size() ; i++){
+			parsed[i] = isParsed(category, tags.get(i));
+			if ( parsed[i])
+				loopFields.add(tags.get(i));
+		}
 
-						// at end of string
-						if ( ! word.equals(""))
-							data.add(word.trim());
-						word     = "";
-						inString = false;
-						inS1     = false;
-					} else {
-						word += c;
-					}
+		boolean atomSites = parallelAtomSites && "_atom_site".equals(category);
+		List<String> lineData = new ArrayList<String>(loopFields.size());
+
+		while ( type == CifLexer.VALUE){
+			for ( int i = 0 ; i < tags.size() ; i++){
+				if ( i > 0 && lexer.next() != CifLexer.VALUE)
+					throw new IOException("data length ("+ i +
+							") != fields length ("+tags.size()+
+							") category: " +category + " fields: "+
+							tags + " DATA: " +
+							lineData );
+				if ( parsed[i])
+					lineData.add(lexer.getString());
+			}
 
-				} else {
-					// the beginning of a new string
-					inString = true;
-					inS1     = true;
-				}
-			} else if ( c == s2 ){
-				if ( inString){
-
-					boolean wordEnd = false;
-					if (! inS1) {
-						if (nextC != null){
-							//System.out.println("nextC: >"+nextC+"<");
-							if ( Character.isWhitespace(nextC)){
-								i++;
-								wordEnd = true;
-							}
-						}
-					}
-
-					if ( wordEnd ) {
-
-						// at end of string
-						if ( ! word.equals(""))
-							data.add(word.trim());
-						word     = "";
-						inString = false;
-						inS2     = false;
-					} else {
-						word += c;
-					}
-				} else {
-					// the beginning of a new string
-					inString = true;
-					inS2     = true;
-				}
+			if ( atomSites){
+				// converted in the background, the list must not be cleared
+				addAtomSite(loopFields, lineData);
+				lineData = new ArrayList<String>(loopFields.size());
 			} else {
-				word += c;
+				endLineChecks(category, loopFields, lineData);
+				lineData.clear();
 			}
 
+			type = lexer.next();
 		}
-		if ( ! word.trim().equals(""))
-			data.add(word);
-
-		
-		return data;
+		lexer.pushBack();
 
+		flushAtomSites();
+		if ( remainingCategories != null)
+			remainingCategories.remove(category);
 	}
 
-	/** get the content of a cif entry
-	 *
-	 * @param line
-	 * @param buf
-	 * @return
-	 */
-	private List<String> processLine(String line,
-			BufferedReader buf,
-			int fieldLength)
-			throws IOException{
-
-		//System.out.println("XX processLine " + fieldLength + " " + line);
-		// go through the line and process each character
-		List<String> lineData = new ArrayList<String>();
-
-		boolean inString = false;
-
-		String bigWord = null;
-
-		while ( true ){
-
-			if ( line.startsWith(STRING_LIMIT)){
-				if (! inString){
-
-					inString = true;
-					if ( line.length() > 1)
-						bigWord = line.substring(1);
-					else
-						bigWord = "";
-
+	/** passes the key/value pairs of a category outside of a loop on to the consumers */
+	private void endCategory(String category, List<String> fields, List<String> values) throws IOException {
+		if ( category != null && isParsed(category)){
+			endLineChecks(category, fields, values);
+			if ( remainingCategories != null)
+				remainingCategories.remove(category);
+		}
+		fields.clear();
+		values.clear();
+	}
 
-				} else {
-					// the end of a word
-					lineData.add(bigWord);
-					bigWord = null;
-					inString = false;
+	/** have all categories that should be parsed been found? */
+	private boolean isDone(){
+		return remainingCategories != null && remainingCategories.isEmpty();
+	}
 
-				}
-			} else {
-				if ( inString )
-					//TODO: make bigWord a stringbuffer...
-					bigWord += (line);
-				else {
+	private boolean isParsed(String category){
+		return categories == null || categories.contains(category);
+	}
 
-					List<String> dat = processSingleLine(line);
+	private boolean isParsed(String category, String field){
+		if ( ! isParsed(category))
+			return false;
+		Set<String> selected = categoryFields.get(category);
+		return selected == null || selected.contains(field);
+	}
 
-					for (String d : dat){
-						lineData.add(d);
-					}
-				}
-			}
+	/** queues an atom_site record. Full chunks are submitted to the thread pool, and the oldest chunks are
+	 * passed on to the consumers, so only a few chunks are kept in memory.
+	 */
+	private void addAtomSite(List<String> loopFields, List<String> lineData) throws IOException {
+		if ( atomSiteFields == null)
+			atomSiteFields = new ArrayList<String>(loopFields);
+		atomSiteRecords.add(lineData);
+		if ( atomSiteRecords.size() < ATOM_SITE_CHUNK_SIZE)
+			return;
 
-			//System.out.println("in process line : " + lineData.size() + " " + fieldLength);
+		submitAtomSites();
 
-			if ( lineData.size() > fieldLength){
+		int maxChunks = 2 * ConcurrencyTools.getThreadPool().getMaximumPoolSize();
+		while ( atomSiteChunks.size() > maxChunks)
+			triggerAtomSites(atomSiteChunks.removeFirst());
+	}
 
-				System.err.println("wrong data length ("+lineData.size()+
-						") should be ("+fieldLength+") at line " + line + " got lineData: " + lineData);
-				return lineData;
+	private void submitAtomSites(){
+		// the binders are shared between threads, but only looked up by this one
+		final CategoryBinder binder = getBinder(AtomSiteBinder.CLASS_NAME, atomSiteFields);
+		final List<List<String>> records = atomSiteRecords;
+		atomSiteRecords = new ArrayList<List<String>>();
+
+		FutureTask<List<AtomSite>> chunk = new FutureTask<List<AtomSite>>(new Callable<List<AtomSite>>() {
+			public List<AtomSite> call() {
+				List<AtomSite> atoms = new ArrayList<AtomSite>(records.size());
+				for (List<String> record : records)
+					atoms.add((AtomSite) binder.bind(record));
+				return atoms;
 			}
-
-			if ( lineData.size() == fieldLength)
-				return lineData;
-
-
-			line = buf.readLine();
-			if ( line == null)
-				break;
+		});
+		atomSiteChunks.add(chunk);
+		try {
+			ConcurrencyTools.getThreadPool().execute(chunk);
+		} catch (RejectedExecutionException e){
+			// the pool is shutting down, the chunk is converted in triggerAtomSites
 		}
-		return lineData;
+	}
 
+	/** passes all queued atom_site records on to the consumers */
+	private void flushAtomSites() throws IOException {
+		if ( atomSiteRecords.size() > 0)
+			submitAtomSites();
+		while ( ! atomSiteChunks.isEmpty())
+			triggerAtomSites(atomSiteChunks.removeFirst());
+		atomSiteFields = null;
 	}
 
+	private void triggerAtomSites(FutureTask<List<AtomSite>> chunk) throws IOException {
+		// does nothing if a pool thread has started the chunk already, 
+		// otherwise this thread does it, so a busy pool can not block the parser
+		chunk.run();
+		try {
+			for (AtomSite atom : chunk.get())
+				triggerNewAtomSite(atom);
+		} catch (InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while parsing the atom_site records");
+		} catch (ExecutionException e){
+			e.getCause().printStackTrace();
+			throw new IOException("Error while parsing the atom_site records: " + e.getCause().getMessage());
+		}
+	}
 
 	private void endLineChecks(String category,List<String> loopFields, List<String> lineData ) throws IOException{
 
@@ -496,10 +548,21 @@ public class SimpleMMcifParser implements MMcifParser {
 
 		} else if ( category.equals("_atom_site")){
 
-			AtomSite a = (AtomSite) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.AtomSite",
-					loopFields, lineData);
-			triggerNewAtomSite(a);
+			if ( reuseAtomSites) {
+				AtomSiteBinder binder = (AtomSiteBinder) getBinder(AtomSiteBinder.CLASS_NAME, loopFields);
+				if ( atomSite == null || binder != atomSiteBinder) {
+					// a loop with other columns would keep the values of the fields it does not set
+					atomSite = new AtomSite();
+					atomSiteBinder = binder;
+				}
+				binder.bind(atomSite, lineData);
+				triggerNewAtomSite(atomSite);
+			} else {
+				AtomSite a = (AtomSite) buildObject(
+						"org.biojava.bio.structure.io.mmcif.model.AtomSite",
+						loopFields, lineData);
+				triggerNewAtomSite(a);
+			}
 
 		} else if ( category.equals("_database_PDB_rev")){
 			DatabasePDBrev dbrev = (DatabasePDBrev) buildObject(
@@ -740,69 +803,24 @@ public class SimpleMMcifParser implements MMcifParser {
 		
 	}
 
-	@SuppressWarnings("rawtypes")
-	private void setArray(Class c, Object o, String key, String val){
-
-
-		// TODO: not implemented yet!
-			//logger.info("Setting of array not implemented at the present for " + key + " " + val);
-		/*
-		int pos = key.indexOf("[");
-		String varName = key.substring(0,pos);
-		String u = varName.substring(0,1).toUpperCase();
-		try {
-			Method m = c.getMethod("set" + u + varName.substring(1,varName.length()) , String.class);
-			m.invoke(o,val);
-		} catch (Exception e){
-			e.printStackTrace();
-		}
-		 */
-
-	}
-
-	@SuppressWarnings({ "rawtypes", "unchecked" })
+	/** creates the bean of a category and sets its fields. The binder for the fields is compiled once 
+	 * and reused for all records of a loop. 
+	 */
 	private Object buildObject(String className, List<String> loopFields, List<String> lineData) {
-		Object o = null;
-		try {
-			// build up the Entity object from the line data...
-			Class c = Class.forName(className);
-
-			o = c.newInstance();
-
-
-			int pos = -1 ;
-			for (String key: loopFields){
-				pos++;
-
-				String val = lineData.get(pos);
-				//System.out.println(key + " " + val);
-				String u = key.substring(0,1).toUpperCase();
-
-				try {
-					Method m = c.getMethod("set" + u + key.substring(1,key.length()) , String.class);
-					m.invoke(o,val);
-				}
-				catch( NoSuchMethodException nex){
-
-					if (key.indexOf("[") > -1) {
-						setArray(c,o,key,val);
+		CategoryBinder binder = getBinder(className, loopFields);
+		if ( binder == null)
+			return null;
+		return binder.bind(lineData);
+	}
 
-					} else {
-						System.err.println("Trying to set field " + key + " in "+ c.getName() +", but not found! (value:" + val + ")");
-						//System.err.println(lineData);
-					}
-				}
-			}
-		} catch (InstantiationException eix){
-			eix.printStackTrace();
-		} catch (InvocationTargetException etx){
-			etx.printStackTrace();
-		} catch (IllegalAccessException eax){
-			eax.printStackTrace();
-		} catch (ClassNotFoundException ex){
-			ex.printStackTrace();
+	private CategoryBinder getBinder(String className, List<String> loopFields){
+		CategoryBinder binder = binders.get(className);
+		if ( binder == null || ! binder.hasFields(loopFields)) {
+			binder = CategoryBinder.getBinder(className, loopFields);
+			if ( binder != null)
+				binders.put(className, binder);
 		}
-		return o;
+		return binder;
 	}
 
 	public void triggerGeneric(String category, List<String> loopFields, List<String> lineData){
@@ -953,4 +971,86 @@ public class SimpleMMcifParser implements MMcifParser {
 			c.newPdbxChemCompDescriptor(id);
 		}
 	}
+
+	/** the UTF-8 bytes of the characters of a reader, for the byte based lexer */
+	private static class ReaderInputStream extends InputStream {
+
+		private final Reader reader;
+		private final char[] chars;
+
+		/** a high surrogate at the end of the last chunk, which is encoded with the next one */
+		private char pending;
+
+		/** at most three bytes per char */
+		private final byte[] bytes;
+		private int pos;
+		private int limit;
+
+		ReaderInputStream(Reader reader){
+			this.reader = reader;
+			chars = new char[8192];
+			bytes = new byte[3 * chars.length];
+			pos = 0;
+			limit = 0;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if ( pos >= limit && ! fill())
+				return -1;
+			return bytes[pos++] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if ( len == 0)
+				return 0;
+			if ( pos >= limit && ! fill())
+				return -1;
+			int n = Math.min(len, limit - pos);
+			System.arraycopy(bytes, pos, b, off, n);
+			pos += n;
+			return n;
+		}
+
+		private boolean fill() throws IOException {
+			int offset = 0;
+			if ( pending != 0){
+				chars[0] = pending;
+				pending = 0;
+				offset = 1;
+			}
+			int n = reader.read(chars, offset, chars.length - offset);
+			if ( n < 0){
+				if ( offset == 0)
+					return false;
+				n = 0;
+			}
+			n += offset;
+			if ( n > 1 && Character.isHighSurrogate(chars[n - 1])){
+				pending = chars[n - 1];
+				n--;
+			}
+			limit = 0;
+			for ( int i = 0 ; i < n ; i++){
+				char c = chars[i];
+				if ( c < 0x80) {
+					bytes[limit++] = (byte) c;
+				} else {
+					int length = Character.isHighSurrogate(c) && i + 1 < n ? 2 : 1;
+					byte[] encoded = new String(chars, i, length).getBytes("UTF-8");
+					System.arraycopy(encoded, 0, bytes, limit, encoded.length);
+					limit += encoded.length;
+					i += length - 1;
+				}
+			}
+			pos = 0;
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
 }
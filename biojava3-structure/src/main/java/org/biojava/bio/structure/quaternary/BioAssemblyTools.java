@@ -5,7 +5,6 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.biojava.bio.structure.Atom;
-import org.biojava.bio.structure.AtomImpl;
 import org.biojava.bio.structure.Calc;
 import org.biojava.bio.structure.Chain;
 import org.biojava.bio.structure.ChainImpl;
@@ -13,7 +12,6 @@ import org.biojava.bio.structure.Group;
 import org.biojava.bio.structure.Structure;
 import org.biojava.bio.structure.StructureImpl;
 import org.biojava.bio.structure.StructureTools;
-import org.biojava.bio.structure.jama.Matrix;
 
 
 
@@ -119,63 +117,8 @@ public class BioAssemblyTools {
 	}
 
 	public static double[][]  getBiologicalMoleculeBounds(Structure asymStructure,List<ModelTransformationMatrix> transformations) {
-		final double coordinateBounds[][] = new double[2][3];
-		coordinateBounds[0][0] = Double.MAX_VALUE;  // min x
-		coordinateBounds[0][1] = Double.MAX_VALUE;  // min y
-		coordinateBounds[0][2] = Double.MAX_VALUE;  // min z
-		coordinateBounds[1][0] = Double.MIN_VALUE;  // max x
-		coordinateBounds[1][1] = Double.MIN_VALUE;  // max y
-		coordinateBounds[1][2] = Double.MIN_VALUE;  // max z
-
-
-		Atom[] atoms = StructureTools.getAllAtomArray(asymStructure);
-
-		for ( Atom a : atoms) {
-
-			Chain c = a.getGroup().getChain();
-			String intChainID = c.getInternalChainID();
-			if ( intChainID == null)
-				intChainID = c.getChainID();
-
-			for (ModelTransformationMatrix m: transformations) {
-				if ( ! m.ndbChainId.equals(intChainID))
-					continue;
-				Atom na = (Atom)a.clone();
-				//m.transformPoint(atom.coordinate, transformedCoordinate);
-				Matrix max = m.getMatrix();
-				Atom vector = new AtomImpl();
-				vector.setCoords(m.getVector());
-				Calc.rotate(na, max);
-				Calc.shift(na, vector);
-
-				double[] transformedCoordinate = new double[3];
-				transformedCoordinate = na.getCoords();
-				if (transformedCoordinate[0] < coordinateBounds[0][0] ) {
-					coordinateBounds[0][0] = transformedCoordinate[0];  // min x
-				}
-
-				if (transformedCoordinate[1] < coordinateBounds[0][1] ) {
-					coordinateBounds[0][1] = transformedCoordinate[1];  // min y
-				}
-
-				if (transformedCoordinate[2] < coordinateBounds[0][2] ) {
-					coordinateBounds[0][2] = transformedCoordinate[2];  // min z
-				}
-
-				if (transformedCoordinate[0] > coordinateBounds[1][0] ) {
-					coordinateBounds[1][0] = transformedCoordinate[0];  // max x
-				}
-
-				if (transformedCoordinate[1] > coordinateBounds[1][1] ) {
-					coordinateBounds[1][1] = transformedCoordinate[1];  // max y
-				}
-
-				if (transformedCoordinate[2] > coordinateBounds[1][2] ) {
-					coordinateBounds[1][2] = transformedCoordinate[2];  // max z
-				}
-			}
-		}
-		return coordinateBounds;
+		double[] xyz = new BiologicalAssembly(asymStructure, transformations).getCoordinates();
+		return Calc.getBounds(xyz);
 	}
 	public static double[][] getAtomCoordinateBounds(Structure s){
 
@@ -280,37 +223,12 @@ public class BioAssemblyTools {
 
 
 
-		int count = 0;
-		double[] transformedCoordinate = new double[3];
-
-		for (int i = 0; i < atomCount; i++)
-		{
-			Atom atom = atoms[i];
-			Chain chain = atom.getGroup().getChain();
-			String intChainID = chain.getInternalChainID();
-			if ( intChainID == null)
-				intChainID = chain.getChainID();
-
-
-			for (ModelTransformationMatrix m: transformations) {
-				if (!  m.ndbChainId.equals(intChainID))
-					continue;
-
-				m.transformPoint(atom.getCoords(), transformedCoordinate);
-				centroid[0] += transformedCoordinate[0];
-				centroid[1] += transformedCoordinate[1];
-				centroid[2] += transformedCoordinate[2];
-				count++;
-			}
+		double[] xyz = new BiologicalAssembly(asymUnit, transformations).getCoordinates();
+		if ( xyz.length == 0) {
+			return centroid;
 		}
 
-
-
-		centroid[0] /= count;
-		centroid[1] /= count;
-		centroid[2] /= count;
-
-		return centroid;
+		return Calc.getCentroid(xyz);
 	}
 	
 	/** reduce a structure to a Calpha representation only
@@ -0,0 +1,322 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+package org.biojava.bio.structure.quaternary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Calc;
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.Structure;
+
+
+/** A biological assembly that keeps the asymmetric unit only once, together with
+ * the list of operators that generate the assembly from it.
+ * <p>
+ * Every operator is paired with the asymmetric unit chain it applies to (matched by
+ * internal chain ID, as in {@link BiologicalAssemblyBuilder#rebuildQuaternaryStructure(Structure, List)}).
+ * Each such pair is one transformed chain of the assembly. Transformed coordinates are
+ * computed on request, either in bulk into primitive arrays via {@link #getCoordinates(double[])}
+ * or one chain at a time via {@link #getTransformedChain(int)}, so large assemblies such as virus
+ * capsids do not need to be kept in memory as cloned chains. {@link #toStructure()} still
+ * provides the fully materialized assembly.
+ * <p>
+ * Coordinates are laid out as x,y,z triples in the order of the transformed chains, and
+ * within a chain in the order of its atom groups and their atoms.
+ * <p>
+ * The view does not copy the asymmetric unit; changing its coordinates after the first
+ * coordinate request is not reflected in later requests.
+ *
+ * @since 3.0.6
+ */
+public class BiologicalAssembly {
+
+	private final Structure asymUnit;
+
+	private final List<ModelTransformationMatrix> transformations;
+
+	/** the transformation of each transformed chain */
+	private final List<ModelTransformationMatrix> chainTransformations;
+
+	/** the asym unit chain of each transformed chain */
+	private final List<Chain> chains;
+
+	/** atoms of the asym unit chains, flattened once on first use */
+	private Map<Chain, Atom[]> chainAtoms;
+
+	/** coordinates of the asym unit chains, flattened once on first use */
+	private Map<Chain, double[]> chainCoords;
+
+	private int atomCount = -1;
+
+	/** Creates a view of the assembly generated by applying the transformations to the
+	 * asymmetric unit.
+	 *
+	 * @param asymUnit the asymmetric unit
+	 * @param transformations the transformations, each applying to the chain with a matching internal chain ID
+	 */
+	public BiologicalAssembly(Structure asymUnit, List<ModelTransformationMatrix> transformations){
+		this.asymUnit = asymUnit;
+		this.transformations = Collections.unmodifiableList(new ArrayList<ModelTransformationMatrix>(transformations));
+
+		chainTransformations = new ArrayList<ModelTransformationMatrix>();
+		chains = new ArrayList<Chain>();
+
+		for (ModelTransformationMatrix max : transformations){
+			for ( Chain c : asymUnit.getChains()){
+				if ( max.ndbChainId.equals(getInternalChainID(c))){
+					chainTransformations.add(max);
+					chains.add(c);
+				}
+			}
+		}
+	}
+
+	private static String getInternalChainID(Chain c){
+		String intChainID = c.getInternalChainID();
+		if ( intChainID == null)
+			intChainID = c.getChainID();
+		return intChainID;
+	}
+
+	/** The asymmetric unit this assembly is generated from.
+	 *
+	 * @return the asymmetric unit
+	 */
+	public Structure getAsymUnit() {
+		return asymUnit;
+	}
+
+	/** The transformations this assembly is generated with.
+	 *
+	 * @return an unmodifiable list of transformations
+	 */
+	public List<ModelTransformationMatrix> getTransformations() {
+		return transformations;
+	}
+
+	/** The number of chains in the assembly, i.e. the number of transformations that matched a chain
+	 * of the asymmetric unit.
+	 *
+	 * @return number of transformed chains
+	 */
+	public int getChainCount() {
+		return chains.size();
+	}
+
+	/** The untransformed asymmetric unit chain of a transformed chain.
+	 *
+	 * @param i index of the transformed chain
+	 * @return the chain of the asymmetric unit
+	 */
+	public Chain getChain(int i) {
+		return chains.get(i);
+	}
+
+	/** The transformation that generates a transformed chain.
+	 *
+	 * @param i index of the transformed chain
+	 * @return the transformation
+	 */
+	public ModelTransformationMatrix getTransformation(int i) {
+		return chainTransformations.get(i);
+	}
+
+	/** The untransformed atoms of a transformed chain, in coordinate order.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @param i index of the transformed chain
+	 * @return the atoms of the asymmetric unit chain
+	 */
+	public Atom[] getAtoms(int i) {
+		init();
+		return chainAtoms.get(chains.get(i));
+	}
+
+	/** The number of atoms of a transformed chain.
+	 *
+	 * @param i index of the transformed chain
+	 * @return number of atoms
+	 */
+	public int getAtomCount(int i) {
+		return getAtoms(i).length;
+	}
+
+	/** The total number of atoms in the assembly.
+	 *
+	 * @return number of atoms
+	 */
+	public int getAtomCount() {
+		init();
+		return atomCount;
+	}
+
+	private synchronized void init() {
+		if ( chainAtoms != null)
+			return;
+
+		Map<Chain, Atom[]> atoms = new IdentityHashMap<Chain, Atom[]>();
+		Map<Chain, double[]> coords = new IdentityHashMap<Chain, double[]>();
+		int count = 0;
+		for ( Chain c : chains){
+			Atom[] chainAtomArray = atoms.get(c);
+			if ( chainAtomArray == null) {
+				List<Atom> list = new ArrayList<Atom>();
+				for ( Group g : c.getAtomGroups()) {
+					list.addAll(g.getAtoms());
+				}
+				chainAtomArray = list.toArray(new Atom[list.size()]);
+				double[] xyz = new double[chainAtomArray.length * 3];
+				for ( int j = 0 ; j < chainAtomArray.length ; j++){
+					Atom a = chainAtomArray[j];
+					xyz[j * 3    ] = a.getX();
+					xyz[j * 3 + 1] = a.getY();
+					xyz[j * 3 + 2] = a.getZ();
+				}
+				atoms.put(c, chainAtomArray);
+				coords.put(c, xyz);
+			}
+			count += chainAtomArray.length;
+		}
+		chainCoords = coords;
+		atomCount = count;
+		chainAtoms = atoms;
+	}
+
+	/** Writes the transformed coordinates of one chain as x,y,z triples.
+	 *
+	 * @param i index of the transformed chain
+	 * @param xyz the destination array
+	 * @param offset the index in xyz to start writing at
+	 * @return the index in xyz after the last written coordinate
+	 */
+	public int getCoordinates(int i, double[] xyz, int offset) {
+		init();
+		double[] src = chainCoords.get(chains.get(i));
+		int length = src.length / 3;
+		Calc.transform(src, 0, xyz, offset, length, toAffine(chainTransformations.get(i)));
+		return offset + 3 * length;
+	}
+
+	/** Writes the transformed coordinates of all chains as x,y,z triples.
+	 *
+	 * @param xyz the destination array, at least 3 * {@link #getAtomCount()} long
+	 * @return xyz
+	 */
+	public double[] getCoordinates(double[] xyz) {
+		int offset = 0;
+		for ( int i = 0 ; i < chains.size() ; i++){
+			offset = getCoordinates(i, xyz, offset);
+		}
+		return xyz;
+	}
+
+	/** Returns the transformed coordinates of all chains as x,y,z triples.
+	 *
+	 * @return a new array of 3 * {@link #getAtomCount()} coordinates
+	 */
+	public double[] getCoordinates() {
+		return getCoordinates(new double[getAtomCount() * 3]);
+	}
+
+	/** Returns the transformation in the layout of {@link Calc#getTransformation(org.biojava.bio.structure.jama.Matrix, Atom)}.
+	 * Uses the same convention as {@link BiologicalAssemblyBuilder#rebuildQuaternaryStructure(Structure, List)},
+	 * i.e. {@link Calc#rotate(Atom, org.biojava.bio.structure.jama.Matrix)} followed by {@link Calc#shift(Atom, Atom)}.
+	 */
+	private static double[] toAffine(ModelTransformationMatrix max) {
+		float[] v = max.values;
+		return new double[]{
+				v[0], v[1], v[2],  v[12],
+				v[4], v[5], v[6],  v[13],
+				v[8], v[9], v[10], v[14]};
+	}
+
+	/** Materializes a single transformed chain. The chain is a new clone of the asymmetric unit
+	 * chain each time this is called, so assemblies can be processed one chain at a time.
+	 *
+	 * @param i index of the transformed chain
+	 * @return a transformed copy of the asymmetric unit chain
+	 */
+	public Chain getTransformedChain(int i) {
+		Chain newChain = (Chain) chains.get(i).clone();
+
+		List<Atom> atoms = new ArrayList<Atom>();
+		for ( Group g : newChain.getAtomGroups()) {
+			atoms.addAll(g.getAtoms());
+		}
+
+		double[] xyz = new double[getAtomCount(i) * 3];
+		getCoordinates(i, xyz, 0);
+		for ( int j = 0 ; j < atoms.size() ; j++){
+			Atom a = atoms.get(j);
+			a.setX(xyz[j * 3    ]);
+			a.setY(xyz[j * 3 + 1]);
+			a.setZ(xyz[j * 3 + 2]);
+		}
+		return newChain;
+	}
+
+	/** Materializes the whole assembly as a Structure, with one chain per transformed chain.
+	 * Chains with the same chain ID are placed in separate models.
+	 *
+	 * @return the biological assembly
+	 */
+	public Structure toStructure() {
+		Structure s = asymUnit.clone();
+		s.setChains(new ArrayList<Chain>());
+
+		for ( int i = 0 ; i < chains.size() ; i++){
+			addCheckChainModel(s, getTransformedChain(i));
+		}
+
+		s.setBiologicalAssembly(true);
+		return s;
+	}
+
+	private static void addCheckChainModel(Structure s, Chain newChain) {
+		for ( int i = 0 ; i < s.nrModels() ; i ++){
+			List<Chain> model = s.getModel(i);
+			boolean found = false;
+			for ( Chain c : model){
+				if ( c.getChainID().equals(newChain.getChainID())) {
+					found = true;
+					break;
+				}
+			}
+			if ( ! found){
+				model.add(newChain);
+				return;
+			}
+		}
+
+		// all existing models contain already a chain with the same ID. add a new model
+		List<Chain> newModel = new ArrayList<Chain>();
+		newModel.add(newChain);
+		s.addModel(newModel);
+	}
+}
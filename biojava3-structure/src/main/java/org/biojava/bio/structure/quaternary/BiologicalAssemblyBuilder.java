@@ -4,16 +4,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import org.biojava.bio.structure.Atom;
-import org.biojava.bio.structure.AtomImpl;
-import org.biojava.bio.structure.Calc;
-import org.biojava.bio.structure.Chain;
-import org.biojava.bio.structure.Group;
 import org.biojava.bio.structure.Structure;
 import org.biojava.bio.structure.io.mmcif.model.PdbxStructAssembly;
 import org.biojava.bio.structure.io.mmcif.model.PdbxStructAssemblyGen;
 import org.biojava.bio.structure.io.mmcif.model.PdbxStructOperList;
-import org.biojava.bio.structure.jama.Matrix;
 
 
 
@@ -49,100 +43,30 @@ public class BiologicalAssemblyBuilder {
 
 
 
+	/** Rebuilds the biological assembly as a Structure, with one cloned and transformed chain
+	 * per transformation. For large assemblies consider {@link #getBiologicalAssembly(Structure, List)},
+	 * which does not clone the asymmetric unit.
+	 * 
+	 * @param asymUnit the asymmetric unit
+	 * @param transformations the transformations to apply
+	 * @return the biological assembly
+	 */
 	public Structure rebuildQuaternaryStructure(Structure asymUnit, List<ModelTransformationMatrix> transformations){
 
-		Structure s = asymUnit.clone();
-		List<Chain> transformedChains = new ArrayList<Chain>();
-		s.setChains(transformedChains);
-		//System.out.print("rebuilding " + s.getPDBCode() + " ");
-		//for (Chain c : s.getChains()) {
-			//System.out.print(c.getChainID());
-			//if ( c.getInternalChainID() != null) {
-				//System.out.print("("+c.getInternalChainID()+")");
-			//}
-
-		//}
-
-		//asymUnit.getPDBHeader().setBioUnitTranformations(transformations);
-
-
-		//double[] tmpcoords = new double[3]; 
-		for (ModelTransformationMatrix max : transformations){
-			boolean foundChain = false;
-			for ( Chain c : asymUnit.getChains()){
-
-				String intChainID = c.getInternalChainID();
-				if ( intChainID == null) {
-					//System.err.println("no internal chain ID found, using " + c.getChainID() + " ( while looking for " + max.ndbChainId+")");
-					intChainID = c.getChainID();
-				}
-
-				if ( max.ndbChainId.equals(intChainID)){
-
-					/*System.out.println("transforming " + max.ndbChainId + " " + c.getChainID());
-					System.out.println(max );
-					System.out.println();
-					 */
-					foundChain = true;
-					Chain newChain = (Chain)c.clone();
-					Matrix m = max.getMatrix();
-					//m = m.transpose();
-					double[] vector = max.getVector();
-					Atom v = new AtomImpl();
-					v.setCoords(vector);
-					for ( Group g :newChain.getAtomGroups()) {
-						for ( Atom a : g.getAtoms()) {
-							//max.transformPoint(a.getCoords(), tmpcoords);
-							//a.setX(tmpcoords[0]);
-							//a.setY(tmpcoords[1]);
-							//a.setZ(tmpcoords[2]);
-							Calc.rotate(a, m);
-							Calc.shift(a, v);
-						}
-					}
-
-					
-					addCheckChainModel(s,newChain);
-
-				}								
-			}
-			if (! foundChain){
-				//System.err.println("could not transform chain: " + max.ndbChainId);
-			}
-		}
-
-		//s.setChains(transformedChains);
-		s.setBiologicalAssembly(true);
-		return s;
-
+		return getBiologicalAssembly(asymUnit, transformations).toStructure();
 
 	}
 
-
-	private void addCheckChainModel(Structure s, Chain newChain) {
-		for ( int i = 0 ; i < s.nrModels() ; i ++){
-			List<Chain> model = s.getModel(i);
-			boolean found = false;
-			for ( Chain c : model){
-				if ( c.getChainID().equals(newChain.getChainID())) {
-					found = true;
-					break;
-				}
-			}
-			if ( ! found){
-			
-				model.add(newChain);
-				return;
-			}
-			
-		}
-		
-		// all existing models contain already a chain with the same ID. add a new model
-		List<Chain> newModel = new ArrayList<Chain>();
-		newModel.add(newChain);
-		s.addModel(newModel);
-		
-		
+	/** Returns a view of the biological assembly that keeps the asymmetric unit once, together with
+	 * the transformations, and computes transformed coordinates on request.
+	 * 
+	 * @param asymUnit the asymmetric unit
+	 * @param transformations the transformations to apply
+	 * @return the biological assembly
+	 * @since 3.0.6
+	 */
+	public BiologicalAssembly getBiologicalAssembly(Structure asymUnit, List<ModelTransformationMatrix> transformations){
+		return new BiologicalAssembly(asymUnit, transformations);
 	}
 
 	/**
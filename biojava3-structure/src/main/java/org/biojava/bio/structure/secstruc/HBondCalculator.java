@@ -0,0 +1,238 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2026
+ *
+ */
+
+package org.biojava.bio.structure.secstruc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.contact.AtomGrid;
+import org.biojava3.core.util.ConcurrencyTools;
+
+/** Finds the candidate H-bonds of the backbone of a protein and calculates their energies,
+ * as done by {@link SecStruc#calculateHBondEnergy(SecStrucGroup, SecStrucGroup)}, but on
+ * primitive coordinates.
+ *
+ * <p>
+ * Only residues whose CA atoms are closer than {@link SecStruc#CA_MIN_DIST} can form H-bonds.
+ * These pairs are found with an {@link AtomGrid} of the CA atoms instead of comparing all pairs
+ * of residues. The energies of large structures are calculated in parallel on the
+ * {@link ConcurrencyTools} thread pool.
+ * </p>
+ *
+ * @since 3.0.6
+ */
+class HBondCalculator {
+
+	/** with fewer candidate pairs the energies are not calculated in parallel */
+	private static final int PARALLEL_THRESHOLD = 20000;
+
+	/** the number of pairs per parallel task */
+	private static final int CHUNK_SIZE = 4096;
+
+	private final int length;
+	private final Atom[] ca;
+
+	// the backbone coordinates, xyz of residue i at [3*i] .. [3*i+2]
+	private final double[] n;
+	private final double[] h;
+	private final double[] c;
+	private final double[] o;
+
+	private final boolean[] hasH;
+
+	HBondCalculator(SecStrucGroup[] groups){
+		length = groups.length;
+		ca = new Atom[length];
+		n = new double[3 * length];
+		h = new double[3 * length];
+		c = new double[3 * length];
+		o = new double[3 * length];
+		hasH = new boolean[length];
+
+		for ( int i = 0 ; i < length ; i++){
+			SecStrucGroup g = groups[i];
+			ca[i] = g.getCA();
+			copy(g.getN(), n, i);
+			copy(g.getC(), c, i);
+			copy(g.getO(), o, i);
+			hasH[i] = g.hasAtom("H");
+			if ( hasH[i])
+				copy(g.getH(), h, i);
+		}
+	}
+
+	private static void copy(Atom a, double[] coords, int i){
+		coords[3 * i]     = a.getX();
+		coords[3 * i + 1] = a.getY();
+		coords[3 * i + 2] = a.getZ();
+	}
+
+	/** Returns true if the group has an H atom attached to its N.
+	 *
+	 * @param i the index of the group
+	 * @return true if H is available
+	 */
+	boolean hasH(int i){
+		return hasH[i];
+	}
+
+	/** Returns the pairs of residues whose CA atoms are closer than {@link SecStruc#CA_MIN_DIST}.
+	 *
+	 * @return pairs of residue indices i &lt; j, stored as i0, j0, i1, j1, ..., sorted by i and then by j
+	 */
+	int[] getCandidatePairs(){
+		double minDist = SecStruc.CA_MIN_DIST;
+		int[] pairs = new AtomGrid(ca, minDist).getPairs(minDist);
+
+		// the grid includes pairs at exactly minDist, which can not form H-bonds
+		int size = 0;
+		for ( int k = 0 ; k < pairs.length ; k += 2){
+			Atom a = ca[pairs[k]];
+			Atom b = ca[pairs[k + 1]];
+			double x = a.getX() - b.getX();
+			double y = a.getY() - b.getY();
+			double z = a.getZ() - b.getZ();
+			if ( Math.sqrt(x * x + y * y + z * z) >= minDist)
+				continue;
+			pairs[size++] = pairs[k];
+			pairs[size++] = pairs[k + 1];
+		}
+		int[] result = new int[size];
+		System.arraycopy(pairs, 0, result, 0, size);
+		return result;
+	}
+
+	/** Calculates the energies of the H-bonds between the pairs of residues, in both directions.
+	 * The energy of a pair with a residue without H is set to 0.
+	 *
+	 * @param pairs pairs of residues as returned by {@link #getCandidatePairs()}
+	 * @return the energies. [k] is the energy of the bond from N-H of residue pairs[k] to C=O of
+	 * residue pairs[k^1], i.e. [2m] is i to j and [2m+1] is j to i.
+	 */
+	double[] getEnergies(final int[] pairs){
+		final double[] energies = new double[pairs.length];
+
+		final int nrChunks = (pairs.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		if ( pairs.length < 2 * PARALLEL_THRESHOLD || nrChunks < 2) {
+			calculateEnergies(pairs, energies, 0, pairs.length);
+			return energies;
+		}
+
+		ExecutorService pool = ConcurrencyTools.getThreadPool();
+		final AtomicInteger nextChunk = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(nrChunks);
+		Runnable worker = new Runnable() {
+			public void run() {
+				int chunk;
+				while ( (chunk = nextChunk.getAndIncrement()) < nrChunks) {
+					try {
+						int from = chunk * CHUNK_SIZE;
+						calculateEnergies(pairs, energies, from, Math.min(pairs.length, from + CHUNK_SIZE));
+					} finally {
+						done.countDown();
+					}
+				}
+			}
+		};
+
+		int helpers = Math.min(nrChunks, Runtime.getRuntime().availableProcessors()) - 1;
+		try {
+			for (int i = 0; i < helpers; i++)
+				pool.execute(worker);
+		} catch (RejectedExecutionException e){
+			// the pool is shutting down, do the rest in this thread
+		}
+		// work in this thread too, so all chunks get done even if the pool is busy
+		worker.run();
+
+		boolean interrupted = false;
+		while (true) {
+			try {
+				done.await();
+				break;
+			} catch (InterruptedException e){
+				interrupted = true;
+			}
+		}
+		if ( interrupted)
+			Thread.currentThread().interrupt();
+
+		return energies;
+	}
+
+	/** from and to are even */
+	private void calculateEnergies(int[] pairs, double[] energies, int from, int to){
+		for ( int k = from ; k < to ; k += 2){
+			int i = pairs[k];
+			int j = pairs[k + 1];
+			energies[k]     = hasH[i] ? getEnergy(i, j) : 0;
+			energies[k + 1] = hasH[j] ? getEnergy(j, i) : 0;
+		}
+	}
+
+	/** Calculates the energy of an H-bond from N-H of the donor to C=O of the acceptor,
+	 * in the same way as {@link SecStruc#calculateHBondEnergy(SecStrucGroup, SecStrucGroup)}.
+	 *
+	 * @param donor the residue that provides N and H
+	 * @param acceptor the residue that provides C and O
+	 * @return the energy in cal/mol
+	 */
+	double getEnergy(int donor, int acceptor){
+		int d = 3 * donor;
+		int a = 3 * acceptor;
+
+		double dno = distance(o, a, n, d);
+		double dhc = distance(c, a, h, d);
+		double dho = distance(o, a, h, d);
+		double dnc = distance(c, a, n, d);
+
+		double contact = SecStruc.MINDIST;
+
+		// there seems to be a contact!
+		if ( (dno < contact) || (dhc < contact) || (dnc < contact))
+			return SecStruc.HBONDLOWENERGY;
+
+		double q = SecStruc.Q;
+		double e1 = q / dho - q / dhc;
+		double e2 = q / dnc - q / dno;
+
+		double energy = e1 + e2;
+
+		// test to avoid bond too strong
+		if ( energy > SecStruc.HBONDLOWENERGY)
+			return energy;
+
+		return SecStruc.HBONDLOWENERGY;
+	}
+
+	private static double distance(double[] p, int i, double[] q, int j){
+		double x = p[i]     - q[j];
+		double y = p[i + 1] - q[j + 1];
+		double z = p[i + 2] - q[j + 2];
+		return Math.sqrt(x * x + y * y + z * z);
+	}
+}
@@ -27,6 +27,7 @@ package org.biojava.bio.structure.secstruc;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -85,6 +86,9 @@ public class SecStruc {
 
 	private SecStrucGroup[] groups;
 
+	/** the backbone coordinates of the groups, for the HBond calculation */
+	private HBondCalculator hBonds;
+
 	List<DistEn> distVsEnergy;
 	List<Ladder> ladders;
 
@@ -144,6 +148,8 @@ public class SecStruc {
 
 		calculateHAtoms();
 
+		hBonds = new HBondCalculator(groups);
+
 		/*for (int j=0 ; j<3;j++ ) {
          Group g = groups[j];
          System.out.println(g);
@@ -166,8 +172,9 @@ public class SecStruc {
 
 	private void detectStrands() {
 
+		int[][] donors = getBondedDonors();
 		for (int i =1 ; i < groups.length -1 ;i++){
-			testBridge(i);
+			testBridge(i, donors);
 		}
 
 		// detect beta bulges
@@ -385,10 +392,68 @@ public class SecStruc {
 
 	}
 
-	private void testBridge(int i) {
+	/** for each group j, the groups i that are bonded to it, i.e. isBonded(i,j) */
+	private int[][] getBondedDonors() {
+		int l = groups.length;
+		int[] count = new int[l];
+		for (int i = 0 ; i < l ; i++) {
+			SecStrucState state = getSecStrucState(i);
+			if ( state.getAccept1().getEnergy() < HBONDHIGHENERGY)
+				count[state.getAccept1().getPartner()]++;
+			if ( state.getAccept2().getEnergy() < HBONDHIGHENERGY)
+				count[state.getAccept2().getPartner()]++;
+		}
+		int[][] donors = new int[l][];
+		for (int j = 0 ; j < l ; j++) {
+			donors[j] = new int[count[j]];
+			count[j] = 0;
+		}
+		for (int i = 0 ; i < l ; i++) {
+			SecStrucState state = getSecStrucState(i);
+			if ( state.getAccept1().getEnergy() < HBONDHIGHENERGY) {
+				int j = state.getAccept1().getPartner();
+				donors[j][count[j]++] = i;
+			}
+			if ( state.getAccept2().getEnergy() < HBONDHIGHENERGY) {
+				int j = state.getAccept2().getPartner();
+				donors[j][count[j]++] = i;
+			}
+		}
+		return donors;
+	}
 
-		int currpos = i + 3;
-		for ( int foundNrBridges = 0 ; foundNrBridges < 2 && ( currpos < groups.length-1); currpos++){
+	/** adds the bonded partners of group i, shifted by offset, to the candidates */
+	private int addBondedPartners(int i, int offset, int[] candidates, int size) {
+		SecStrucState state = getSecStrucState(i);
+		if ( state.getAccept1().getEnergy() < HBONDHIGHENERGY)
+			candidates[size++] = state.getAccept1().getPartner() + offset;
+		if ( state.getAccept2().getEnergy() < HBONDHIGHENERGY)
+			candidates[size++] = state.getAccept2().getPartner() + offset;
+		return size;
+	}
+
+	private void testBridge(int i, int[][] donors) {
+
+		// every bridge pattern below requires isBonded(i+1,currpos), isBonded(currpos+1,i),
+		// isBonded(i,currpos) or isBonded(i+1,currpos-1), so only those positions are tested, 
+		// in ascending order like a scan over all positions.
+		int[] candidates = new int[6 + donors[i].length];
+		int size = 0;
+		size = addBondedPartners(i + 1, 0, candidates, size);
+		size = addBondedPartners(i + 1, 1, candidates, size);
+		size = addBondedPartners(i, 0, candidates, size);
+		for (int donor : donors[i])
+			candidates[size++] = donor - 1;
+		Arrays.sort(candidates, 0, size);
+
+		int foundNrBridges = 0;
+		for ( int k = 0 ; foundNrBridges < 2 && k < size ; k++){
+
+			int currpos = candidates[k];
+			if ( currpos < i + 3 || ( k > 0 && currpos == candidates[k-1]))
+				continue;
+			if ( currpos >= groups.length-1)
+				break;
 
 
 
@@ -681,36 +746,30 @@ public class SecStruc {
 
 		// skip the first residue , unable to calc H for it ...
 		for (int i=1 ; i < groups.length ;  i++){
-
-			SecStrucGroup one = groups[i];
-
-			if ( ! one.hasAtom("H")) {
+			if ( ! hBonds.hasH(i)) 
 				System.out.println(" no H at " + i);
-				continue;
-			}
-
-			for ( int j = i+1 ; j < groups.length ; j++){
+		}
 
-				SecStrucGroup two = groups[j];
+		// only residues with CA atoms closer than CA_MIN_DIST can form HBonds.
+		// The candidate pairs are sorted by i and j, so the bonds are tracked in the 
+		// same order as by a loop over all pairs.
+		int[] pairs = hBonds.getCandidatePairs();
+		double[] energies = hBonds.getEnergies(pairs);
 
-				// check if distance is  too large.
-				// if too big - for sure no HBonds ...
-				double dist = Calc.getDistance(one.getCA(),two.getCA());
+		for ( int k = 0 ; k < pairs.length ; k += 2){
+			int i = pairs[k];
+			int j = pairs[k+1];
 
-				// speed up...
-				if ( dist >= CA_MIN_DIST  )
-					continue;
-				//System.out.println("calc " + i + " " + j + " "+  dist);
+			if ( i == 0 || ! hBonds.hasH(i))
+				continue;
 
-				checkAddHBond(i,j);
+			checkAddHBond(i,j,energies[k]);
 
-				// "backwards" hbonds are not allowed
-				if ( j != (i+1) ) {
+			// "backwards" hbonds are not allowed
+			if ( j != (i+1) ) {
 
-					checkAddHBond(j,i);
+				checkAddHBond(j,i,energies[k+1]);
 
-				}
-				//System.out.println(" ");
 			}
 		}
 
@@ -718,7 +777,7 @@ public class SecStruc {
 			}
 
 
-	private void checkAddHBond(int i, int j){
+	private void checkAddHBond(int i, int j, double energy){
 		SecStrucGroup one = groups[i];
 
 		if (one.getPDBName().equals("PRO")){
@@ -727,23 +786,11 @@ public class SecStruc {
 			return ;
 		}
 
-		SecStrucGroup two = groups[j];
-		if ( ! two.hasAtom("H")) {
+		if ( ! hBonds.hasH(j)) {
 			System.err.println("two has no H " + j);
 			return;
 		}
 
-
-
-		double energy = 0;
-		try {
-			energy = calculateHBondEnergy(one,two);
-		} catch (Exception e){
-			e.printStackTrace();
-			return;
-		}
-		//System.out.println(" " + energy);
-
 		trackHBondEnergy(i,j,energy);
 
 	}
@@ -822,7 +869,10 @@ public class SecStruc {
 	 * @param b  an Atom object
 	 * @return a double
 	 * @throws StructureException ...
+	 * @deprecated the secondary structure assignment does not need arbitrary precision, 
+	 *  use {@link Calc#getDistance(Atom, Atom)}
 	 */
+	@Deprecated
 	public static BigDecimal getPreciseDistance(Atom a, Atom b)
 			throws StructureException
 			{
@@ -0,0 +1,118 @@
+package org.biojava.bio.structure;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.io.PDBFileParser;
+import org.biojava.bio.structure.jama.Matrix;
+
+public class CalcTest extends TestCase {
+
+	Atom[] atoms;
+
+	@Override
+	protected void setUp() throws IOException {
+		InputStream inStream = new GZIPInputStream(CalcTest.class.getResourceAsStream("/4hhb.pdb.gz"));
+		try {
+			PDBFileParser parser = new PDBFileParser();
+			atoms = StructureTools.getAtomCAArray(parser.parsePDBFile(inStream));
+		} finally {
+			inStream.close();
+		}
+	}
+
+	public void testTransform() throws StructureException {
+		Matrix rotation = Calc.matrixFromEuler(30, 20, 10);
+		Atom shift = new AtomImpl();
+		shift.setCoords(new double[]{1.5, -2.5, 3.0});
+		double[] transformation = Calc.getTransformation(rotation, shift);
+
+		double[] xyz = Calc.getCoordinates(atoms);
+		float[] xyzf = new float[xyz.length];
+		for ( int i = 0 ; i < xyz.length ; i++)
+			xyzf[i] = (float) xyz[i];
+
+		// into another array, with offsets
+		double[] dest = new double[xyz.length + 3];
+		Calc.transform(xyz, 3, dest, 6, atoms.length - 1, transformation);
+
+		Calc.transform(xyz, transformation);
+		Calc.transform(xyzf, transformation);
+
+		Atom[] copy = StructureTools.cloneCAArray(atoms);
+		Calc.transform(copy, transformation);
+
+		for ( int i = 0 ; i < atoms.length ; i++){
+			Atom a = (Atom) atoms[i].clone();
+			Calc.rotate(a, rotation);
+			Calc.shift(a, shift);
+
+			assertEquals(a.getX(), xyz[3 * i], 0);
+			assertEquals(a.getY(), xyz[3 * i + 1], 0);
+			assertEquals(a.getZ(), xyz[3 * i + 2], 0);
+
+			assertEquals(a.getX(), copy[i].getX(), 0);
+			assertEquals(a.getY(), copy[i].getY(), 0);
+			assertEquals(a.getZ(), copy[i].getZ(), 0);
+
+			assertEquals(a.getX(), xyzf[3 * i], 1e-3);
+			assertEquals(a.getY(), xyzf[3 * i + 1], 1e-3);
+			assertEquals(a.getZ(), xyzf[3 * i + 2], 1e-3);
+
+			if ( i > 0){
+				assertEquals(a.getX(), dest[3 * i + 3], 0);
+				assertEquals(a.getZ(), dest[3 * i + 5], 0);
+			}
+		}
+	}
+
+	public void testTransformColumnVectors(){
+		double[][] rotation = Calc.matrixFromEuler(10, 40, 70).getArray();
+		double[] transformation = Calc.getTransformation(rotation, null);
+		double[] xyz = Calc.getCoordinates(atoms);
+		Calc.transform(xyz, transformation);
+
+		for ( int i = 0 ; i < atoms.length ; i++){
+			Atom a = (Atom) atoms[i].clone();
+			Calc.rotate(a, rotation);
+			assertEquals(a.getX(), xyz[3 * i], 1e-12);
+			assertEquals(a.getY(), xyz[3 * i + 1], 1e-12);
+			assertEquals(a.getZ(), xyz[3 * i + 2], 1e-12);
+		}
+
+		// set the coordinates back
+		Calc.setCoordinates(atoms, xyz);
+		assertEquals(xyz[0], atoms[0].getX(), 0);
+		assertEquals(xyz[xyz.length - 1], atoms[atoms.length - 1].getZ(), 0);
+	}
+
+	public void testStatistics() throws StructureException {
+		double[] xyz = Calc.getCoordinates(atoms);
+
+		double[] centroid = Calc.getCentroid(xyz);
+		Atom expected = Calc.getCentroid(atoms);
+		assertEquals(expected.getX(), centroid[0], 1e-9);
+		assertEquals(expected.getY(), centroid[1], 1e-9);
+		assertEquals(expected.getZ(), centroid[2], 1e-9);
+
+		double sum = 0;
+		for ( Atom a : atoms){
+			double d = Calc.getDistance(a, expected);
+			sum += d * d;
+		}
+		assertEquals(Math.sqrt(sum / atoms.length), Calc.getRadiusOfGyration(xyz), 1e-9);
+
+		double[][] bounds = Calc.getBounds(xyz);
+		for ( Atom a : atoms){
+			double[] c = a.getCoords();
+			for ( int i = 0 ; i < 3 ; i++){
+				assertTrue(bounds[0][i] <= c[i]);
+				assertTrue(bounds[1][i] >= c[i]);
+			}
+		}
+		assertEquals(0, Calc.getBounds(new double[0])[1][2], 0);
+	}
+}
@@ -0,0 +1,105 @@
+package org.biojava.bio.structure;
+
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.io.PDBFileParser;
+import org.biojava.bio.structure.jama.Matrix;
+
+public class SuperPositionQCPTest extends TestCase {
+
+	private Atom[] ca1;
+	private Atom[] ca2;
+
+	protected void setUp() throws Exception {
+		InputStream inStream = new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.pdb.gz"));
+		Structure s = new PDBFileParser().parsePDBFile(inStream);
+		ca1 = StructureTools.getAtomCAArray(s.getChain(0));
+		ca2 = StructureTools.getAtomCAArray(s.getChain(2));
+	}
+
+	private static Atom[] fragment(Atom[] ca, int start, int length) {
+		Atom[] atoms = new Atom[length];
+		for (int i = 0; i < length; i++) {
+			atoms[i] = (Atom) ca[start + i].clone();
+		}
+		return atoms;
+	}
+
+	private static double svdRmsd(Atom[] a1, Atom[] a2, SVDSuperimposer svd) throws StructureException {
+		for (Atom a : a2) {
+			Calc.rotate(a, svd.getRotation());
+			Calc.shift(a, svd.getTranslation());
+		}
+		return SVDSuperimposer.getRMS(a1, a2);
+	}
+
+	public void testSameAsSVD() throws StructureException {
+		double[] coords1 = SuperPositionQCP.getCoordinates(ca1);
+		double[] coords2 = SuperPositionQCP.getCoordinates(ca2);
+		SuperPositionQCP qcp = new SuperPositionQCP();
+
+		int[] lengths = { 3, 8, 30, 120 };
+		for (int length : lengths) {
+			for (int p1 = 0; p1 + length <= ca1.length; p1 += 7) {
+				int p2 = (p1 * 3) % (ca2.length - length);
+				Atom[] f1 = fragment(ca1, p1, length);
+				Atom[] f2 = fragment(ca2, p2, length);
+
+				SVDSuperimposer svd = new SVDSuperimposer(f1, f2);
+				double expected = svdRmsd(f1, f2, svd);
+
+				assertEquals(expected, qcp.getRmsd(coords1, p1, coords2, p2, length), 1e-6);
+				assertEquals(expected, qcp.superpose(coords1, p1, coords2, p2, length), 1e-6);
+
+				Matrix rot = qcp.getRotation();
+				for (int i = 0; i < 3; i++) {
+					for (int j = 0; j < 3; j++) {
+						assertEquals(svd.getRotation().get(i, j), rot.get(i, j), 1e-5);
+					}
+				}
+			}
+		}
+	}
+
+	public void testAtomConstructor() throws StructureException {
+		// a rotated and shifted copy superimposes with RMSD 0
+		Atom[] moved = fragment(ca1, 0, ca1.length);
+		Random random = new Random(42);
+		Matrix m = Matrix.identity(3, 3);
+		double angle = random.nextDouble() * Math.PI;
+		m.set(0, 0, Math.cos(angle));
+		m.set(0, 1, -Math.sin(angle));
+		m.set(1, 0, Math.sin(angle));
+		m.set(1, 1, Math.cos(angle));
+		Atom shift = new AtomImpl();
+		shift.setCoords(new double[] { 10.0, -5.0, 3.0 });
+		for (Atom a : moved) {
+			Calc.rotate(a, m);
+			Calc.shift(a, shift);
+		}
+
+		SuperPositionQCP qcp = new SuperPositionQCP(ca1, moved);
+		assertEquals(0.0, qcp.getRmsd(), 1e-6);
+		for (Atom a : moved) {
+			Calc.rotate(a, qcp.getRotation());
+			Calc.shift(a, qcp.getTranslation());
+		}
+		assertEquals(0.0, SVDSuperimposer.getRMS(ca1, moved), 1e-6);
+		assertEquals(0.0, SuperPositionQCP.calcRmsd(ca1, moved), 1e-4);
+	}
+
+	public void testDifferentLengths() {
+		try {
+			new SuperPositionQCP(ca1, ca2);
+			if (ca1.length != ca2.length) {
+				fail("different lengths not detected");
+			}
+		} catch (StructureException e) {
+			// expected
+		}
+	}
+}
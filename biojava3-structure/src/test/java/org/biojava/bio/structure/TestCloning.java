@@ -24,9 +24,13 @@
  */
 package org.biojava.bio.structure;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.biojava.bio.structure.align.util.AtomCache;
 import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava.bio.structure.io.PDBFileParser;
 import org.biojava3.structure.StructureIO;
 import org.junit.Test;
 
@@ -116,6 +120,48 @@ public class TestCloning extends TestCase{
 		
 	}
 
+	public void testCloneIsIndependent() throws Exception {
+
+		InputStream inStream = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.pdb.gz"));
+		PDBFileParser parser = new PDBFileParser();
+		FileParsingParameters params = new FileParsingParameters();
+		params.setAlignSeqRes(true);
+		parser.setFileParsingParameters(params);
+		Structure s = parser.parsePDBFile(inStream);
+		String description = s.getPDBHeader().getDescription();
+
+		Structure c = s.clone();
+		compareCloned(s, c);
+		assertEquals(s.getCompounds().size(), c.getCompounds().size());
+		assertNotSame(s.getPDBHeader(), c.getPDBHeader());
+		assertEquals(s.getPDBHeader().getTitle(), c.getPDBHeader().getTitle());
+		assertFalse(s.getHetGroups().isEmpty());
+		assertEquals(s.getHetGroups().size(), c.getHetGroups().size());
+		for ( Group g : c.getHetGroups())
+			assertTrue(g.getChain().getParent() == c);
+
+		// reducing the clone must not change the original
+		StructureTools.getReducedStructure(c, -1);
+		StructureTools.getReducedStructure(c, "A");
+		assertEquals(description, s.getPDBHeader().getDescription());
+
+		for ( Chain chain : s.getChains()) {
+			Chain test = c.getChainByPDB(chain.getChainID());
+			for ( Group g : chain.getSeqResGroups())
+				assertSame(chain, g.getChain());
+
+			List<Group> seqRes = test.getSeqResGroups();
+			for ( int i = 0 ; i < seqRes.size(); i++) {
+				Group g = seqRes.get(i);
+				assertSame(test, g.getChain());
+				assertEquals(chain.getSeqResGroups().get(i).getPDBName(), g.getPDBName());
+				// seqres groups with atoms are the cloned atom groups
+				if ( chain.getAtomGroups().contains(chain.getSeqResGroups().get(i)))
+					assertTrue(test.getAtomGroups().contains(g));
+			}
+		}
+	}
+
 	private void compareCloned(Structure s, Structure c) throws StructureException {
 
 		assertEquals(s.getChains().size(), c.getChains().size());
@@ -0,0 +1,149 @@
+package org.biojava.bio.structure.align;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.align.ce.CeMain;
+import org.biojava.bio.structure.align.util.AtomCache;
+
+public class MultiQueryDBSearchTest extends TestCase {
+
+	private File dir;
+
+	private AtomCache cache;
+
+	@Override
+	protected void setUp() throws Exception {
+		dir = File.createTempFile("dbsearch", "");
+		dir.delete();
+		File pdbDir = new File(dir, "hh");
+		pdbDir.mkdirs();
+
+		InputStream in = getClass().getResourceAsStream("/4hhb.pdb.gz");
+		OutputStream out = new FileOutputStream(new File(pdbDir, "pdb4hhb.ent.gz"));
+		byte[] buf = new byte[8192];
+		int n;
+		while ( (n = in.read(buf)) > 0)
+			out.write(buf, 0, n);
+		out.close();
+		in.close();
+
+		cache = new AtomCache(dir.getAbsolutePath(), true);
+		cache.setAutoFetch(false);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(dir);
+	}
+
+	private static void delete(File f) {
+		File[] files = f.listFiles();
+		if ( files != null) {
+			for (File child : files)
+				delete(child);
+		}
+		f.delete();
+	}
+
+	private MultiQueryDBSearch getSearch() throws Exception {
+		MultiQueryDBSearch search = new MultiQueryDBSearch(StructureAlignmentFactory.getAlgorithm(CeMain.algorithmName), cache);
+		search.addQuery("4hhb.A");
+		search.addQuery("4hhb.B");
+		search.addTarget("4hhb.A");
+		search.addTarget("4hhb.B");
+		search.addTarget("4hhb.C");
+		search.addTarget("4hhb.D");
+		search.setQueriesPerTile(1);
+		search.setTargetsPerTile(2);
+		search.setNrCPUs(3);
+		return search;
+	}
+
+	private static List<String> readLines(File f, boolean results) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new FileReader(f));
+		String line;
+		while ( (line = reader.readLine()) != null) {
+			if ( results && line.startsWith("#"))
+				continue;
+			lines.add(line);
+		}
+		reader.close();
+		return lines;
+	}
+
+	public void testSearch() throws Exception {
+		File outFile = new File(dir, "results.out");
+		File checkpointFile = new File(dir, "results.checkpoint");
+
+		MultiQueryDBSearch search = getSearch();
+		assertEquals(4, search.getTileCount());
+		search.run(outFile, checkpointFile);
+		assertEquals(4, search.getCompletedTileCount());
+
+		List<String> results = readLines(outFile, true);
+		assertEquals(8, results.size());
+		for (String query : new String[] { "4hhb.A", "4hhb.B" }) {
+			for (String target : new String[] { "4hhb.A", "4hhb.B", "4hhb.C", "4hhb.D" }) {
+				boolean found = false;
+				for (String result : results)
+					found |= result.startsWith(query + "\t" + target + "\t");
+				assertTrue(query + " " + target, found);
+			}
+		}
+
+		List<String> checkpoint = readLines(checkpointFile, false);
+		assertEquals(5, checkpoint.size());
+		assertTrue(checkpoint.get(0).startsWith("#checkpoint"));
+
+		// everything is done, a restart does not add anything
+		search = getSearch();
+		search.run(outFile, checkpointFile);
+		assertEquals(0, search.getCompletedTileCount());
+		assertEquals(results, readLines(outFile, true));
+	}
+
+	public void testResume() throws Exception {
+		File outFile = new File(dir, "results.out");
+		File checkpointFile = new File(dir, "results.checkpoint");
+
+		getSearch().run(outFile, checkpointFile);
+		String signature = readLines(checkpointFile, false).get(0);
+
+		// pretend that only tile 1 (4hhb.B against 4hhb.A and 4hhb.B) was done
+		outFile.delete();
+		FileWriter writer = new FileWriter(checkpointFile);
+		writer.write(signature + "\n1\n");
+		writer.close();
+
+		MultiQueryDBSearch search = getSearch();
+		search.run(outFile, checkpointFile);
+		assertEquals(3, search.getCompletedTileCount());
+
+		List<String> results = readLines(outFile, true);
+		assertEquals(6, results.size());
+		for (String result : results)
+			assertFalse(result, result.startsWith("4hhb.B\t4hhb.A\t") || result.startsWith("4hhb.B\t4hhb.B\t"));
+
+		// a checkpoint of a different search is rejected
+		search = getSearch();
+		search.addTarget("4hhb");
+		try {
+			search.run(outFile, checkpointFile);
+			fail("a checkpoint of a different search must not be used");
+		} catch (IOException e){
+			// expected
+		}
+	}
+}
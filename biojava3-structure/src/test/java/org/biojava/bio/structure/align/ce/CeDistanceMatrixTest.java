@@ -0,0 +1,86 @@
+package org.biojava.bio.structure.align.ce;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+
+public class CeDistanceMatrixTest extends TestCase {
+
+	private static Atom[] randomChain(Random random, int length) {
+		Atom[] ca = new Atom[length];
+		double x = 0, y = 0, z = 0;
+		for (int i = 0; i < length; i++) {
+			x += random.nextGaussian() * 2.2;
+			y += random.nextGaussian() * 2.2;
+			z += random.nextGaussian() * 2.2;
+			ca[i] = new AtomImpl();
+			ca[i].setCoords(new double[] { x, y, z });
+		}
+		return ca;
+	}
+
+	/** the original CE implementation */
+	private static double[][] naiveSumOfDistances(double[][] dist1, double[][] dist2, int winSize, int winSizeComb1) {
+		int nse1 = dist1.length;
+		int nse2 = dist2.length;
+		double[][] mat = new double[nse1][nse2];
+		for (int ise1 = 0; ise1 < nse1; ise1++) {
+			for (int ise2 = 0; ise2 < nse2; ise2++) {
+				mat[ise1][ise2] = -1.0;
+				if (ise1 > nse1 - winSize || ise2 > nse2 - winSize) continue;
+				double d = 0.0;
+				for (int is1 = 0; is1 < winSize - 2; is1++)
+					for (int is2 = is1 + 2; is2 < winSize; is2++)
+						d += Math.abs(dist1[ise1 + is1][ise1 + is2] - dist2[ise2 + is1][ise2 + is2]);
+				mat[ise1][ise2] = d / winSizeComb1;
+			}
+		}
+		return mat;
+	}
+
+	private void assertSameMatrix(int length1, int length2, int winSize) {
+		Random random = new Random(length1 * 31 + length2);
+		double[][] dist1 = CeDistanceMatrix.getIntraDistances(randomChain(random, length1));
+		double[][] dist2 = CeDistanceMatrix.getIntraDistances(randomChain(random, length2));
+		int winSizeComb1 = (winSize - 1) * (winSize - 2) / 2;
+
+		double[][] expected = naiveSumOfDistances(dist1, dist2, winSize, winSizeComb1);
+		double[][] mat = CeDistanceMatrix.getSumOfDistances(dist1, dist2, winSize, winSizeComb1);
+
+		assertEquals(length1, mat.length);
+		for (int i = 0; i < length1; i++) {
+			assertEquals(length2, mat[i].length);
+			for (int j = 0; j < length2; j++) {
+				assertEquals(expected[i][j], mat[i][j], 1e-9);
+			}
+		}
+	}
+
+	public void testSmall() {
+		assertSameMatrix(30, 45, 8);
+		assertSameMatrix(8, 8, 8);
+		assertSameMatrix(5, 20, 8);
+	}
+
+	public void testParallel() {
+		assertSameMatrix(400, 350, 8);
+		assertSameMatrix(300, 310, 12);
+	}
+
+	public void testIntraDistances() {
+		Atom[] ca = randomChain(new Random(1), 20);
+		double[][] dist = CeDistanceMatrix.getIntraDistances(ca);
+		for (int i = 0; i < ca.length; i++) {
+			assertEquals(0.0, dist[i][i], 0.0);
+			for (int j = 0; j < ca.length; j++) {
+				double dx = ca[i].getX() - ca[j].getX();
+				double dy = ca[i].getY() - ca[j].getY();
+				double dz = ca[i].getZ() - ca[j].getZ();
+				assertEquals(Math.sqrt(dx * dx + dy * dy + dz * dz), dist[i][j], 0.0);
+			}
+		}
+	}
+}
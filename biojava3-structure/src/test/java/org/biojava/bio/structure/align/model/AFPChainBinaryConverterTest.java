@@ -0,0 +1,123 @@
+package org.biojava.bio.structure.align.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.align.StructureAlignmentFactory;
+import org.biojava.bio.structure.align.ce.CeMain;
+import org.biojava.bio.structure.align.fatcat.FatCatFlexible;
+import org.biojava.bio.structure.align.fatcat.FatCatRigid;
+import org.biojava.bio.structure.align.xml.AFPChainXMLConverter;
+import org.biojava.bio.structure.io.PDBFileParser;
+
+public class AFPChainBinaryConverterTest extends TestCase {
+
+	Atom[] ca1;
+	Atom[] ca2;
+
+	@Override
+	protected void setUp() throws Exception {
+		InputStream inStream = new GZIPInputStream(AFPChainBinaryConverterTest.class.getResourceAsStream("/4hhb.pdb.gz"));
+		Structure s;
+		try {
+			s = new PDBFileParser().parsePDBFile(inStream);
+		} finally {
+			inStream.close();
+		}
+		ca1 = StructureTools.getAtomCAArray(s.getChain(0));
+		ca2 = StructureTools.getAtomCAArray(s.getChain(1));
+	}
+
+	private AFPChain align(String algorithmName) throws Exception {
+		AFPChain afpChain = StructureAlignmentFactory.getAlgorithm(algorithmName).align(
+				StructureTools.cloneCAArray(ca1), StructureTools.cloneCAArray(ca2));
+		afpChain.setName1("4hhb.A");
+		afpChain.setName2("4hhb.B");
+		return afpChain;
+	}
+
+	public void testRoundTrip() throws Exception {
+		String[] algorithms = new String[]{CeMain.algorithmName, FatCatRigid.algorithmName, FatCatFlexible.algorithmName};
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		List<AFPChain> originals = new ArrayList<AFPChain>();
+		for ( String algorithmName : algorithms){
+			AFPChain afpChain = align(algorithmName);
+			originals.add(afpChain);
+			AFPChainBinaryConverter.write(afpChain, bytes);
+		}
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		for ( AFPChain original : originals){
+			AFPChain copy = AFPChainBinaryConverter.read(in, ca1, ca2);
+
+			assertEquals(original.getAlgorithmName(), copy.getAlgorithmName());
+			assertEquals(original.getBlockNum(), copy.getBlockNum());
+			assertEquals(original.getTotalRmsdOpt(), copy.getTotalRmsdOpt(), 0.0);
+			assertEquals(AFPChainXMLConverter.toXML(original, ca1, ca2), AFPChainXMLConverter.toXML(copy, ca1, ca2));
+			assertEquals(AfpChainWriter.toFatCat(original, ca1, ca2), AfpChainWriter.toFatCat(copy, ca1, ca2));
+		}
+		assertEquals(-1, in.read());
+	}
+
+	public void testStreamingWriters() throws Exception {
+		AFPChain afpChain = align(FatCatFlexible.algorithmName);
+
+		StringWriter xml = new StringWriter();
+		AFPChainXMLConverter.toXML(afpChain, xml, ca1, ca2);
+		assertEquals(AFPChainXMLConverter.toXML(afpChain, ca1, ca2), xml.toString());
+
+		StringBuilder txt = new StringBuilder();
+		AfpChainWriter.toFatCat(afpChain, ca1, ca2, txt);
+		assertEquals(AfpChainWriter.toFatCat(afpChain, ca1, ca2), txt.toString());
+
+		StringBuilder scores = new StringBuilder();
+		AfpChainWriter.toScoresList(afpChain, scores);
+		assertEquals(AfpChainWriter.toScoresList(afpChain), scores.toString());
+	}
+
+	public void testConcurrentXML() throws Exception {
+		final AFPChain afpChain = align(CeMain.algorithmName);
+		final String expected = AFPChainXMLConverter.toXML(afpChain, ca1, ca2);
+
+		final List<String> results = new ArrayList<String>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for ( int t = 0 ; t < 4 ; t++){
+			Thread thread = new Thread(){
+				public void run(){
+					for ( int i = 0 ; i < 10 ; i++){
+						try {
+							String xml = AFPChainXMLConverter.toXML(afpChain, ca1, ca2);
+							synchronized (results){
+								results.add(xml);
+							}
+						} catch (Exception e){
+							e.printStackTrace();
+						}
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+		}
+		for ( Thread thread : threads){
+			thread.join();
+		}
+
+		assertEquals(40, results.size());
+		for ( String xml : results){
+			assertEquals(expected, xml);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package org.biojava.bio.structure.align.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Structure;
+
+public class AtomCacheTest extends TestCase {
+
+	private File dir;
+
+	private CountingCache cache;
+
+	/** counts the loaded structures and makes loading slow enough for other threads to wait */
+	private static class CountingCache extends AtomCache {
+		final AtomicInteger loads = new AtomicInteger();
+		volatile long delay;
+
+		CountingCache(String path){
+			super(path, true);
+		}
+
+		@Override
+		protected void flagLoading(String name){
+			loads.incrementAndGet();
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e){
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		dir = File.createTempFile("atomcache", "");
+		dir.delete();
+		File pdbDir = new File(dir, "hh");
+		pdbDir.mkdirs();
+
+		InputStream in = getClass().getResourceAsStream("/4hhb.pdb.gz");
+		OutputStream out = new FileOutputStream(new File(pdbDir, "pdb4hhb.ent.gz"));
+		byte[] buf = new byte[8192];
+		int n;
+		while ( (n = in.read(buf)) > 0)
+			out.write(buf, 0, n);
+		out.close();
+		in.close();
+
+		cache = new CountingCache(dir.getAbsolutePath());
+		cache.setAutoFetch(false);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(dir);
+	}
+
+	private static void delete(File f) {
+		File[] files = f.listFiles();
+		if ( files != null) {
+			for (File child : files)
+				delete(child);
+		}
+		f.delete();
+	}
+
+	public void testWithoutMemoryCache() throws Exception {
+		Structure s1 = cache.getStructure("4hhb");
+		Structure s2 = cache.getStructure("4hhb");
+		assertNotSame(s1, s2);
+		assertEquals(2, cache.loads.get());
+	}
+
+	public void testMemoryCacheHandsOutCopies() throws Exception {
+		cache.setMaxCachedAtoms(1000000);
+		Structure s1 = cache.getStructure("4hhb");
+		String description = cache.getStructure("4hhb.A").getPDBHeader().getDescription();
+		assertEquals(description, cache.getStructure("4hhb.A").getPDBHeader().getDescription());
+
+		Structure s2 = cache.getStructure("4hhb");
+		assertNotSame(s1, s2);
+		assertNotSame(s1.getChain(0), s2.getChain(0));
+		assertSame(s2, s2.getChain(0).getParent());
+		assertEquals(1, cache.loads.get());
+
+		// other parameters give other structures
+		cache.getFileParsingParams().setParseCAOnly(true);
+		Structure ca = cache.getStructure("4hhb");
+		assertEquals(2, cache.loads.get());
+		assertEquals(1, ca.getChain(0).getAtomGroup(0).size());
+	}
+
+	public void testConcurrentLoads() throws Exception {
+		cache.delay = 500;
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Structure>> futures = new ArrayList<Future<Structure>>();
+			for (int i = 0; i < 4; i++) {
+				futures.add(executor.submit(new Callable<Structure>() {
+					public Structure call() throws Exception {
+						return cache.getStructure("4hhb");
+					}
+				}));
+			}
+			List<Structure> structures = new ArrayList<Structure>();
+			for (Future<Structure> future : futures) {
+				Structure s = future.get();
+				for (Structure other : structures)
+					assertNotSame(other, s);
+				structures.add(s);
+			}
+			assertEquals(1, cache.loads.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package org.biojava.bio.structure.align.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import junit.framework.TestCase;
+
+public class ConcurrentResultWriterTest extends TestCase {
+
+	/** a writer that fails once the disk is "full" */
+	private static class FailingWriter extends Writer {
+		boolean fail;
+		boolean closed;
+		StringBuilder written = new StringBuilder();
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			if ( fail)
+				throw new IOException("disk full");
+			written.append(cbuf, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+		}
+	}
+
+	public void testCheckpoint() throws Exception {
+		StringWriter out = new StringWriter();
+		StringWriter checkpoint = new StringWriter();
+		ConcurrentResultWriter writer = new ConcurrentResultWriter(out, checkpoint);
+		writer.write("# header\n");
+		writer.writeTile("a\n", 3);
+		writer.writeTile("", 1);
+		writer.close();
+		assertEquals("# header\na\n", out.toString());
+		assertEquals("3\n1\n", checkpoint.toString());
+	}
+
+	public void testFailingWriter() throws Exception {
+		FailingWriter out = new FailingWriter();
+		StringWriter checkpoint = new StringWriter();
+		ConcurrentResultWriter writer = new ConcurrentResultWriter(out, checkpoint);
+		writer.writeTile("a\n", 0);
+
+		out.fail = true;
+		try {
+			writer.writeTile("b\n", 1);
+			fail("the write should fail");
+		} catch (IOException e){
+			// expected
+		}
+
+		// later writes and the close report the error instead of waiting for the queue
+		out.fail = false;
+		try {
+			writer.writeTile("c\n", 2);
+			fail("the earlier error should be reported");
+		} catch (IOException e){
+			assertEquals("disk full", e.getMessage());
+		}
+		try {
+			writer.close();
+			fail("the earlier error should be reported");
+		} catch (IOException e){
+			assertEquals("disk full", e.getMessage());
+		}
+		assertTrue(out.closed);
+		assertEquals("a\n", out.written.toString());
+		assertEquals("0\n", checkpoint.toString());
+	}
+}
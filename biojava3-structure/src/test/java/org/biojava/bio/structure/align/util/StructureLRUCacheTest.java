@@ -0,0 +1,69 @@
+package org.biojava.bio.structure.align.util;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+
+public class StructureLRUCacheTest extends TestCase {
+
+	private static Atom[] atoms(int n) {
+		Atom[] atoms = new Atom[n];
+		for (int i = 0; i < n; i++) {
+			atoms[i] = new AtomImpl();
+		}
+		return atoms;
+	}
+
+	public void testEviction() {
+		StructureLRUCache cache = new StructureLRUCache(100);
+		Atom[] a = atoms(40);
+		Atom[] b = atoms(40);
+		cache.putCAAtoms("a", a);
+		cache.putCAAtoms("b", b);
+		assertEquals(80, cache.getAtomCount());
+
+		// touch a, so b is the least recently used entry
+		assertSame(a, cache.getCAAtoms("a"));
+		cache.putCAAtoms("c", atoms(40));
+
+		assertEquals(2, cache.size());
+		assertEquals(80, cache.getAtomCount());
+		assertEquals(1, cache.getEvictionCount());
+		assertNull(cache.getCAAtoms("b"));
+		assertSame(a, cache.getCAAtoms("a"));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	public void testTooLarge() {
+		StructureLRUCache cache = new StructureLRUCache(10);
+		cache.putCAAtoms("a", atoms(11));
+		assertEquals(0, cache.size());
+		assertNull(cache.getCAAtoms("a"));
+	}
+
+	public void testDisabled() {
+		StructureLRUCache cache = new StructureLRUCache(0);
+		cache.putCAAtoms("a", atoms(1));
+		assertNull(cache.getCAAtoms("a"));
+		assertEquals(1, cache.getMissCount());
+	}
+
+	public void testShrink() {
+		StructureLRUCache cache = new StructureLRUCache(100);
+		cache.putCAAtoms("a", atoms(40));
+		cache.putCAAtoms("b", atoms(40));
+		cache.setMaxAtoms(50);
+		assertEquals(1, cache.size());
+		assertNotNull(cache.getCAAtoms("b"));
+	}
+
+	public void testReplace() {
+		StructureLRUCache cache = new StructureLRUCache(100);
+		cache.putCAAtoms("a", atoms(40));
+		cache.putCAAtoms("a", atoms(30));
+		assertEquals(1, cache.size());
+		assertEquals(30, cache.getAtomCount());
+	}
+}
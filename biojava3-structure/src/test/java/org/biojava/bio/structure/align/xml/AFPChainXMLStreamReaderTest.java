@@ -0,0 +1,82 @@
+package org.biojava.bio.structure.align.xml;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.align.StructureAlignmentFactory;
+import org.biojava.bio.structure.align.ce.CeMain;
+import org.biojava.bio.structure.align.fatcat.FatCatFlexible;
+import org.biojava.bio.structure.align.fatcat.FatCatRigid;
+import org.biojava.bio.structure.align.model.AFPChain;
+import org.biojava.bio.structure.io.PDBFileParser;
+
+public class AFPChainXMLStreamReaderTest extends TestCase {
+
+	Atom[] ca1;
+	Atom[] ca2;
+
+	String xml;
+
+	@Override
+	protected void setUp() throws Exception {
+		InputStream inStream = new GZIPInputStream(AFPChainXMLStreamReaderTest.class.getResourceAsStream("/4hhb.pdb.gz"));
+		Structure s;
+		try {
+			s = new PDBFileParser().parsePDBFile(inStream);
+		} finally {
+			inStream.close();
+		}
+		ca1 = StructureTools.getAtomCAArray(s.getChain(0));
+		ca2 = StructureTools.getAtomCAArray(s.getChain(1));
+
+		StringBuilder results = new StringBuilder("<AFPChains>\n");
+		for ( String algorithmName : new String[]{CeMain.algorithmName, FatCatRigid.algorithmName, FatCatFlexible.algorithmName}){
+			AFPChain afpChain = StructureAlignmentFactory.getAlgorithm(algorithmName).align(
+					StructureTools.cloneCAArray(ca1), StructureTools.cloneCAArray(ca2));
+			afpChain.setName1("4hhb.A");
+			afpChain.setName2("4hhb.B");
+			results.append(AFPChainXMLConverter.toXML(afpChain, ca1, ca2));
+		}
+		results.append("</AFPChains>\n");
+		xml = results.toString();
+	}
+
+	public void testSameAsDOMParser() throws Exception {
+		AFPChain[] expected = AFPChainXMLParser.parseMultiXML(xml);
+		assertEquals(3, expected.length);
+
+		AFPChainXMLStreamReader reader = new AFPChainXMLStreamReader(new StringReader(xml));
+		for ( AFPChain e : expected){
+			AFPChain afpChain = reader.next();
+			assertNotNull(afpChain);
+			AFPChainXMLParser.rebuildAFPChain(e, ca1, ca2);
+			AFPChainXMLParser.rebuildAFPChain(afpChain, ca1, ca2);
+			assertEquals(AFPChainXMLConverter.toXML(e, ca1, ca2), AFPChainXMLConverter.toXML(afpChain, ca1, ca2));
+		}
+		assertNull(reader.next());
+		reader.close();
+	}
+
+	public void testScoresOnly() throws Exception {
+		AFPChain[] expected = AFPChainXMLParser.parseMultiXML(xml);
+
+		AFPChainXMLStreamReader reader = new AFPChainXMLStreamReader(new StringReader(xml), true);
+		for ( AFPChain e : expected){
+			AFPChain afpChain = reader.next();
+			assertEquals(e.getAlgorithmName(), afpChain.getAlgorithmName());
+			assertEquals(e.getBlockNum(), afpChain.getBlockNum());
+			assertEquals(e.getOptLength(), afpChain.getOptLength());
+			assertEquals(e.getProbability(), afpChain.getProbability(), 0.0);
+			assertEquals(e.getTotalRmsdOpt(), afpChain.getTotalRmsdOpt(), 0.0);
+			assertNull(afpChain.getOptLen());
+		}
+		assertNull(reader.next());
+		reader.close();
+	}
+}
@@ -0,0 +1,144 @@
+package org.biojava.bio.structure.compact;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Calc;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava.bio.structure.io.PDBFileParser;
+import org.biojava.bio.structure.io.mmcif.SimpleMMcifConsumer;
+import org.biojava.bio.structure.io.mmcif.SimpleMMcifParser;
+
+public class CompactAtomStoreTest extends TestCase {
+
+	private Structure parse(boolean compact) throws Exception {
+		InputStream inStream = new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.pdb.gz"));
+		PDBFileParser pdbpars = new PDBFileParser();
+		FileParsingParameters params = new FileParsingParameters();
+		params.setCompactAtoms(compact);
+		pdbpars.setFileParsingParameters(params);
+		return pdbpars.parsePDBFile(inStream);
+	}
+
+	private Structure parseCif(boolean compact) throws Exception {
+		InputStream inStream = new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.cif.gz"));
+		SimpleMMcifParser pdbpars = new SimpleMMcifParser();
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer();
+		FileParsingParameters params = new FileParsingParameters();
+		params.setCompactAtoms(compact);
+		consumer.setFileParsingParameters(params);
+		pdbpars.addMMcifConsumer(consumer);
+		pdbpars.parse(inStream);
+		return consumer.getStructure();
+	}
+
+	public void testSameAtoms() throws Exception {
+		Atom[] expected = StructureTools.getAllAtomArray(parse(false));
+		Atom[] atoms = StructureTools.getAllAtomArray(parse(true));
+
+		assertEquals(expected.length, atoms.length);
+		CompactAtomStore store = CompactAtomStore.getStore(atoms);
+		assertNotNull(store);
+		assertEquals(atoms.length, store.size());
+
+		for (int i = 0; i < atoms.length; i++) {
+			assertTrue(atoms[i] instanceof CompactAtom);
+			assertEquals(expected[i].toPDB(), atoms[i].toPDB());
+			assertEquals(expected[i].getElement(), atoms[i].getElement());
+			assertEquals(expected[i].getAltLoc(), atoms[i].getAltLoc());
+			assertSame(atoms[i], atoms[i].getGroup().getAtom(atoms[i].getFullName()));
+		}
+		assertEquals(Calc.getCentroid(expected).getX(), Calc.getCentroid(atoms).getX(), 1e-9);
+	}
+
+	public void testSameAtomsCif() throws Exception {
+		Atom[] expected = StructureTools.getAllAtomArray(parseCif(false));
+		Atom[] atoms = StructureTools.getAllAtomArray(parseCif(true));
+
+		assertEquals(expected.length, atoms.length);
+		CompactAtomStore store = CompactAtomStore.getStore(atoms);
+		assertNotNull(store);
+		for (int i = 0; i < atoms.length; i++) {
+			assertEquals(expected[i].toPDB(), atoms[i].toPDB());
+			assertSame(atoms[i].getGroup(), atoms[i].getGroup().getAtom(atoms[i].getFullName()).getGroup());
+		}
+	}
+
+	public void testCalcUsesStore() throws Exception {
+		Atom[] expected = StructureTools.getAllAtomArray(parse(false));
+		Atom[] atoms = StructureTools.getAllAtomArray(parse(true));
+		CompactAtomStore store = CompactAtomStore.getStore(atoms);
+
+		double[] t = Calc.getTransformation(new double[][] { { 0, -1, 0 }, { 1, 0, 0 }, { 0, 0, 1 } },
+				new double[] { 1.0, 2.0, 3.0 });
+		Calc.transform(expected, t);
+		Calc.transform(atoms, t);
+
+		double[] xyz = Calc.getCoordinates(atoms);
+		for (int i = 0; i < atoms.length; i++) {
+			int k = ((CompactAtom) atoms[i]).getIndex();
+			assertEquals(expected[i].getX(), store.getXs()[k], 1e-9);
+			assertEquals(expected[i].getY(), xyz[3 * i + 1], 1e-9);
+			assertEquals(expected[i].getZ(), atoms[i].getZ(), 1e-9);
+		}
+
+		xyz[0] = 42.0;
+		Calc.setCoordinates(atoms, xyz);
+		assertEquals(42.0, atoms[0].getX(), 0.0);
+	}
+
+	public void testAddAllKeepsStoredAtoms() throws Exception {
+		Structure s = parse(true);
+		Atom[] atoms = StructureTools.getAllAtomArray(s);
+		CompactAtomStore store = CompactAtomStore.getStore(atoms);
+		int size = store.size();
+
+		store.addAll(s);
+		assertEquals(size, store.size());
+		Atom[] again = StructureTools.getAllAtomArray(s);
+		for (int i = 0; i < atoms.length; i++)
+			assertSame(atoms[i], again[i]);
+	}
+
+	public void testNamesInterned() throws Exception {
+		Atom[] atoms = StructureTools.getAllAtomArray(parse(true));
+		Group first = atoms[0].getGroup();
+		for (Atom a : atoms) {
+			Group g = a.getGroup();
+			if (g != first && g.getPDBName().equals(first.getPDBName())) {
+				assertSame(first.getPDBName(), g.getPDBName());
+			}
+			if (a.getName().equals(atoms[0].getName())) {
+				assertSame(atoms[0].getName(), a.getName());
+			}
+		}
+	}
+
+	public void testWriteThrough() throws Exception {
+		Atom[] atoms = StructureTools.getAllAtomArray(parse(true));
+		CompactAtomStore store = CompactAtomStore.getStore(atoms);
+
+		Atom a = atoms[10];
+		a.setCoords(new double[] { 1.0, 2.0, 3.0 });
+		assertEquals(2.0, store.getYs()[10], 0.0);
+		store.getZs()[10] = 4.0;
+		assertEquals(4.0, a.getZ(), 0.0);
+		a.setName("XX");
+		assertEquals("XX", a.getName());
+
+		Atom copy = (Atom) a.clone();
+		assertFalse(copy instanceof CompactAtom);
+		copy.setX(5.0);
+		assertEquals(1.0, a.getX(), 0.0);
+
+		List<Atom> groupAtoms = a.getGroup().getAtoms();
+		assertTrue(groupAtoms.contains(a));
+	}
+}
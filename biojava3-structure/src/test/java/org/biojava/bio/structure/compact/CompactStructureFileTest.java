@@ -0,0 +1,179 @@
+package org.biojava.bio.structure.compact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.Site;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava.bio.structure.io.PDBFileParser;
+
+public class CompactStructureFileTest extends TestCase {
+
+	private Structure parse() throws Exception {
+		return parse(false);
+	}
+
+	private Structure parse(boolean storeSeqRes) throws Exception {
+		InputStream inStream = new GZIPInputStream(this.getClass().getResourceAsStream("/4hhb.pdb.gz"));
+		PDBFileParser pdbpars = new PDBFileParser();
+		FileParsingParameters params = new FileParsingParameters();
+		params.setAlignSeqRes(false);
+		params.setStoreEmptySeqRes(storeSeqRes);
+		pdbpars.setFileParsingParameters(params);
+		return pdbpars.parsePDBFile(inStream);
+	}
+
+	private static Structure roundTrip(Structure structure) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompactStructureFile.write(structure, out);
+		return CompactStructureFile.read(ByteBuffer.wrap(out.toByteArray()), false);
+	}
+
+	private void assertSameStructure(Structure expected, Structure s) {
+		assertEquals(expected.getPDBCode(), s.getPDBCode());
+		assertEquals(expected.getPDBHeader().getTitle(), s.getPDBHeader().getTitle());
+		assertEquals(expected.getPDBHeader().getDepDate(), s.getPDBHeader().getDepDate());
+		assertEquals(expected.getCompounds().size(), s.getCompounds().size());
+		assertEquals(expected.getChains().size(), s.getChains().size());
+		for (int i = 0; i < expected.getChains().size(); i++) {
+			Chain c = s.getChains().get(i);
+			assertEquals(expected.getChains().get(i).getChainID(), c.getChainID());
+			assertEquals(expected.getChains().get(i).getAtomLength(), c.getAtomLength());
+			assertNotNull(c.getHeader());
+		}
+
+		Atom[] expectedAtoms = StructureTools.getAllAtomArray(expected);
+		Atom[] atoms = StructureTools.getAllAtomArray(s);
+		assertEquals(expectedAtoms.length, atoms.length);
+		for (int i = 0; i < atoms.length; i++) {
+			assertEquals(expectedAtoms[i].toPDB(), atoms[i].toPDB());
+			assertEquals(expectedAtoms[i].getElement(), atoms[i].getElement());
+		}
+	}
+
+	public void testRoundTrip() throws Exception {
+		Structure expected = parse();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompactStructureFile.write(expected, out);
+
+		Structure s = CompactStructureFile.read(ByteBuffer.wrap(out.toByteArray()), false);
+		assertSameStructure(expected, s);
+
+		Structure compact = CompactStructureFile.read(ByteBuffer.wrap(out.toByteArray()), true);
+		assertSameStructure(expected, compact);
+		assertNotNull(CompactAtomStore.getStore(StructureTools.getAllAtomArray(compact)));
+	}
+
+	@SuppressWarnings("deprecation")
+	public void testRecords() throws Exception {
+		Structure expected = parse(true);
+		Structure s = roundTrip(expected);
+
+		assertEquals(expected.getPDBHeader().toPDB(), s.getPDBHeader().toPDB());
+		assertEquals(expected.getPDBHeader().getAuthors(), s.getPDBHeader().getAuthors());
+		assertEquals(expected.getHeader(), s.getHeader());
+		assertEquals(expected.getJournalArticle().toString(), s.getJournalArticle().toString());
+		assertEquals(expected.getCrystallographicInfo().getA(), s.getCrystallographicInfo().getA(), 0f);
+		assertEquals(expected.getCrystallographicInfo().getGamma(), s.getCrystallographicInfo().getGamma(), 0f);
+		assertEquals(expected.getCrystallographicInfo().getSpaceGroup(), s.getCrystallographicInfo().getSpaceGroup());
+		assertEquals(expected.getCrystallographicInfo().getZ(), s.getCrystallographicInfo().getZ());
+		assertEquals(expected.getConnections(), s.getConnections());
+		for (int i = 0; i < expected.getCompounds().size(); i++)
+			assertEquals(expected.getCompounds().get(i).toString(), s.getCompounds().get(i).toString());
+
+		assertTrue(expected.getDBRefs().size() > 0);
+		assertEquals(expected.getDBRefs().size(), s.getDBRefs().size());
+		for (int i = 0; i < expected.getDBRefs().size(); i++)
+			assertEquals(expected.getDBRefs().get(i).toPDB(), s.getDBRefs().get(i).toPDB());
+
+		assertEquals(expected.getSSBonds().size(), s.getSSBonds().size());
+		for (int i = 0; i < expected.getSSBonds().size(); i++)
+			assertEquals(expected.getSSBonds().get(i).toPDB(), s.getSSBonds().get(i).toPDB());
+
+		assertTrue(expected.getSites().size() > 0);
+		assertEquals(expected.getSites().size(), s.getSites().size());
+		for (int i = 0; i < expected.getSites().size(); i++) {
+			Site site = s.getSites().get(i);
+			assertEquals(expected.getSites().get(i).toPDB(), site.toPDB());
+			for (Group g : site.getGroups())
+				assertTrue(g.getChain().getAtomGroups().contains(g));
+		}
+
+		assertTrue(expected.getHetGroups().size() > 0);
+		assertEquals(expected.getHetGroups().size(), s.getHetGroups().size());
+		for (int i = 0; i < expected.getHetGroups().size(); i++)
+			assertEquals(expected.getHetGroups().get(i).getResidueNumber(), s.getHetGroups().get(i).getResidueNumber());
+
+		for (int i = 0; i < expected.getChains().size(); i++) {
+			Chain c = s.getChains().get(i);
+			assertTrue(c.getSeqResLength() > 0);
+			assertEquals(expected.getChains().get(i).getSeqResSequence(), c.getSeqResSequence());
+		}
+	}
+
+	public void testInexactCoordinates() throws Exception {
+		Structure expected = parse();
+		Atom a = StructureTools.getAllAtomArray(expected)[0];
+		a.setCoords(new double[] { Math.PI, -Math.E, 1e-7 });
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompactStructureFile.write(expected, out);
+		Structure s = CompactStructureFile.read(ByteBuffer.wrap(out.toByteArray()), false);
+
+		Atom b = StructureTools.getAllAtomArray(s)[0];
+		assertEquals(Math.PI, b.getX(), 0.0);
+		assertEquals(-Math.E, b.getY(), 0.0);
+		assertEquals(1e-7, b.getZ(), 0.0);
+	}
+
+	public void testFile() throws Exception {
+		Structure expected = parse();
+		File file = File.createTempFile("4hhb", ".bjs");
+		try {
+			CompactStructureFile.write(expected, file);
+			assertSameStructure(expected, CompactStructureFile.read(file, false));
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testTruncated() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompactStructureFile.write(parse(), out);
+		byte[] bytes = out.toByteArray();
+		try {
+			CompactStructureFile.read(ByteBuffer.wrap(bytes, 0, bytes.length / 2).slice(), false);
+			fail("truncated data not detected");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	public void testDamaged() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompactStructureFile.write(parse(), out);
+		byte[] bytes = out.toByteArray();
+		int step = Math.max(1, bytes.length / 300);
+		for (int i = 0; i < bytes.length; i += step) {
+			byte[] damaged = bytes.clone();
+			damaged[i] ^= 1 << (i % 8);
+			try {
+				CompactStructureFile.read(ByteBuffer.wrap(damaged), false);
+				fail("damaged byte " + i + " not detected");
+			} catch (IOException e) {
+				// expected
+			}
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package org.biojava.bio.structure.contact;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+import org.biojava.bio.structure.Calc;
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava.bio.structure.io.PDBFileParser;
+
+public class AtomGridTest extends TestCase {
+
+	private static Atom[] randomAtoms(Random random, int n, double boxSize) {
+		Atom[] atoms = new Atom[n];
+		for (int i = 0; i < n; i++) {
+			atoms[i] = new AtomImpl();
+			atoms[i].setCoords(new double[] { random.nextDouble() * boxSize,
+					random.nextDouble() * boxSize, random.nextDouble() * boxSize });
+		}
+		return atoms;
+	}
+
+	private static double distSq(Atom a, Atom b) {
+		double dx = a.getX() - b.getX();
+		double dy = a.getY() - b.getY();
+		double dz = a.getZ() - b.getZ();
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	public void testNeighbors() {
+		Random random = new Random(1);
+		Atom[] atoms = randomAtoms(random, 2000, 40);
+		AtomGrid grid = new AtomGrid(atoms, 5);
+		assertEquals(2000, grid.size());
+
+		for (int q = 0; q < 50; q++) {
+			Atom query = randomAtoms(random, 1, 50)[0];
+			double radius = 1 + random.nextDouble() * 10;
+			List<Integer> expected = new ArrayList<Integer>();
+			for (int i = 0; i < atoms.length; i++) {
+				if (distSq(query, atoms[i]) <= radius * radius)
+					expected.add(i);
+			}
+			int[] found = grid.getNeighbors(query, radius);
+			assertEquals(expected.size(), found.length);
+			for (int i = 0; i < found.length; i++)
+				assertEquals(expected.get(i).intValue(), found[i]);
+		}
+	}
+
+	public void testPairs() {
+		Random random = new Random(2);
+		Atom[] atoms = randomAtoms(random, 1000, 30);
+		double cutoff = 3.5;
+		int[] pairs = new AtomGrid(atoms, cutoff).getPairs(cutoff);
+
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < atoms.length; i++) {
+			for (int j = i + 1; j < atoms.length; j++) {
+				if (distSq(atoms[i], atoms[j]) <= cutoff * cutoff) {
+					expected.add(i);
+					expected.add(j);
+				}
+			}
+		}
+		assertEquals(expected.size(), pairs.length);
+		for (int i = 0; i < pairs.length; i++)
+			assertEquals(expected.get(i).intValue(), pairs[i]);
+	}
+
+	public void testPairsBetweenGrids() {
+		Random random = new Random(3);
+		Atom[] atoms1 = randomAtoms(random, 500, 30);
+		Atom[] atoms2 = randomAtoms(random, 700, 30);
+		double cutoff = 4;
+		// different cell sizes on purpose
+		int[] pairs = new AtomGrid(atoms1, 2).getPairs(new AtomGrid(atoms2, 7), cutoff);
+
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < atoms1.length; i++) {
+			for (int j = 0; j < atoms2.length; j++) {
+				if (distSq(atoms1[i], atoms2[j]) <= cutoff * cutoff) {
+					expected.add(i);
+					expected.add(j);
+				}
+			}
+		}
+		assertEquals(expected.size(), pairs.length);
+		for (int i = 0; i < pairs.length; i++)
+			assertEquals(expected.get(i).intValue(), pairs[i]);
+	}
+
+	public void testSparseAndEmpty() {
+		// two atoms far apart must not create a huge grid
+		Atom[] atoms = randomAtoms(new Random(4), 2, 1);
+		atoms[1].setCoords(new double[] { 10000, -10000, 10000 });
+		AtomGrid grid = new AtomGrid(atoms, 1);
+		assertTrue(grid.getCellSize() > 1);
+		assertTrue(Arrays.equals(new int[] { 0 }, grid.getNeighbors(atoms[0], 1)));
+		assertEquals(0, grid.getPairs(100).length);
+
+		AtomGrid empty = new AtomGrid(new Atom[0]);
+		assertEquals(0, empty.getNeighbors(atoms[0], 10).length);
+		assertEquals(0, empty.getPairs(10).length);
+		assertEquals(0, grid.getPairs(empty, 10).length);
+	}
+
+	public void testOutsideGrid() {
+		Atom[] atoms = randomAtoms(new Random(5), 200, 10);
+		AtomGrid grid = new AtomGrid(atoms, 4);
+
+		for (int axis = 0; axis < 3; axis++) {
+			for (double offset : new double[] { -50, 60, -3, 13 }) {
+				double[] p = new double[] { 5, 5, 5 };
+				p[axis] = offset;
+				List<Integer> expected = new ArrayList<Integer>();
+				for (int i = 0; i < atoms.length; i++) {
+					double dx = p[0] - atoms[i].getX();
+					double dy = p[1] - atoms[i].getY();
+					double dz = p[2] - atoms[i].getZ();
+					if (dx * dx + dy * dy + dz * dz <= 16)
+						expected.add(i);
+				}
+				int[] found = grid.getNeighbors(p[0], p[1], p[2], 4);
+				assertEquals(expected.size(), found.length);
+				for (int i = 0; i < found.length; i++)
+					assertEquals(expected.get(i).intValue(), found[i]);
+			}
+		}
+	}
+
+	/** the original implementation of StructureTools.getGroupsWithinShell */
+	private static List<Group> naiveGroupsWithinShell(Structure structure, Group group, double distance) throws Exception {
+		Set<Group> returnSet = new LinkedHashSet<Group>();
+		distance = distance * distance;
+		for (Atom atomA : group.getAtoms()) {
+			for (Chain chain : structure.getChains()) {
+				for (Group chainGroup : chain.getAtomGroups()) {
+					if (chainGroup.getResidueNumber().equals(group.getResidueNumber()))
+						continue;
+					for (Atom atomB : chainGroup.getAtoms()) {
+						if (Calc.getDistanceFast(atomA, atomB) <= distance) {
+							returnSet.add(chainGroup);
+							break;
+						}
+					}
+				}
+			}
+		}
+		return new ArrayList<Group>(returnSet);
+	}
+
+	public void testGroupsWithinShell() throws Exception {
+		InputStream inStream = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.pdb.gz"));
+		PDBFileParser parser = new PDBFileParser();
+		FileParsingParameters params = new FileParsingParameters();
+		params.setAlignSeqRes(false);
+		parser.setFileParsingParameters(params);
+		Structure structure = parser.parsePDBFile(inStream);
+
+		// the HEM groups and some residues
+		List<Group> queries = new ArrayList<Group>();
+		for (Chain chain : structure.getChains()) {
+			for (Group group : chain.getAtomGroups()) {
+				if (group.getPDBName().equals("HEM") || group.getResidueNumber().getSeqNum() % 40 == 0)
+					queries.add(group);
+			}
+		}
+		assertTrue(queries.size() > 4);
+
+		for (Group query : queries) {
+			List<Group> expected = naiveGroupsWithinShell(structure, query, 5.0);
+			List<Group> found = StructureTools.getGroupsWithinShell(structure, query, 5.0, true);
+			assertEquals(expected, found);
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package org.biojava.bio.structure.contact;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+import org.biojava.bio.structure.Calc;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava.bio.structure.io.PDBFileParser;
+
+public class ContactToolsTest extends TestCase {
+
+	private static Structure structure;
+
+	private static Structure getStructure() throws Exception {
+		if (structure == null) {
+			InputStream inStream = new GZIPInputStream(ContactToolsTest.class.getResourceAsStream("/4hhb.pdb.gz"));
+			PDBFileParser parser = new PDBFileParser();
+			FileParsingParameters params = new FileParsingParameters();
+			params.setAlignSeqRes(false);
+			parser.setFileParsingParameters(params);
+			structure = parser.parsePDBFile(inStream);
+		}
+		return structure;
+	}
+
+	private static Atom[] randomAtoms(Random random, int n, double boxSize) {
+		Atom[] atoms = new Atom[n];
+		for (int i = 0; i < n; i++) {
+			atoms[i] = new AtomImpl();
+			atoms[i].setCoords(new double[] { random.nextDouble() * boxSize,
+					random.nextDouble() * boxSize, random.nextDouble() * boxSize });
+		}
+		return atoms;
+	}
+
+	public void testDistanceMatrix() throws Exception {
+		Atom[] atoms1 = randomAtoms(new Random(1), 50, 20);
+		Atom[] atoms2 = randomAtoms(new Random(2), 30, 20);
+
+		double[][] dist = ContactTools.getDistanceMatrix(atoms1);
+		double[][] dist12 = ContactTools.getDistanceMatrix(atoms1, atoms2);
+		for (int i = 0; i < atoms1.length; i++) {
+			for (int j = 0; j < atoms1.length; j++)
+				assertEquals(Calc.getDistance(atoms1[i], atoms1[j]), dist[i][j], 1e-12);
+			for (int j = 0; j < atoms2.length; j++)
+				assertEquals(Calc.getDistance(atoms1[i], atoms2[j]), dist12[i][j], 1e-12);
+		}
+	}
+
+	private static void assertSameMap(ContactMap expected, ContactMap map) {
+		assertEquals(expected.getRowCount(), map.getRowCount());
+		assertEquals(expected.getColumnCount(), map.getColumnCount());
+		assertEquals(expected.getContactCount(), map.getContactCount());
+		for (int i = 0; i < map.getRowCount(); i++) {
+			assertTrue(Arrays.equals(expected.getContacts(i), map.getContacts(i)));
+			for (int j = 0; j < map.getColumnCount(); j++) {
+				assertEquals(expected.isContact(i, j), map.isContact(i, j));
+				assertEquals(expected.getAtomContactCount(i, j), map.getAtomContactCount(i, j));
+				if (expected.isContact(i, j))
+					assertEquals(expected.getDistance(i, j), map.getDistance(i, j), 0);
+			}
+		}
+	}
+
+	public void testAtomContactMap() throws Exception {
+		Atom[] atoms1 = randomAtoms(new Random(3), 400, 25);
+		Atom[] atoms2 = randomAtoms(new Random(4), 300, 25);
+		double cutoff = 4.5;
+
+		ContactMap map = ContactTools.getContactMap(atoms1, atoms2, cutoff, false);
+		int contacts = 0;
+		for (int i = 0; i < atoms1.length; i++) {
+			for (int j = 0; j < atoms2.length; j++) {
+				double d = Calc.getDistance(atoms1[i], atoms2[j]);
+				assertEquals(d <= cutoff, map.isContact(i, j));
+				if (d <= cutoff) {
+					contacts++;
+					assertEquals((float) d, map.getDistance(i, j), 1e-5);
+					assertEquals(1, map.getAtomContactCount(i, j));
+				} else {
+					assertTrue(Float.isNaN(map.getDistance(i, j)));
+				}
+			}
+		}
+		assertEquals(contacts, map.getContactCount());
+
+		assertSameMap(map, ContactTools.getContactMap(atoms1, atoms2, cutoff, true));
+
+		// symmetric, without the diagonal
+		ContactMap self = ContactTools.getContactMap(atoms1, cutoff, false);
+		for (int i = 0; i < atoms1.length; i++) {
+			assertFalse(self.isContact(i, i));
+			for (int j = 0; j < atoms1.length; j++) {
+				if (i != j)
+					assertEquals(Calc.getDistance(atoms1[i], atoms1[j]) <= cutoff, self.isContact(i, j));
+			}
+		}
+	}
+
+	public void testNoColumns() throws Exception {
+		Atom[] atoms = randomAtoms(new Random(5), 10, 25);
+
+		ContactMap dense = ContactTools.getContactMap(atoms, new Atom[0], 4.5, true);
+		assertEquals(0, dense.getColumnCount());
+		assertSameMap(ContactTools.getContactMap(atoms, new Atom[0], 4.5, false), dense);
+		for (int i = 0; i < atoms.length; i++)
+			assertEquals(0, dense.getContacts(i).length);
+	}
+
+	public void testResidueContactMap() throws Exception {
+		Structure s = getStructure();
+		List<Group> groups1 = s.getChain(0).getAtomGroups();
+		List<Group> groups2 = s.getChain(1).getAtomGroups();
+		double cutoff = 5;
+
+		ContactMap map = ContactTools.getResidueContactMap(groups1, groups2, ContactType.ALL_ATOM, cutoff, false);
+		int contacts = 0;
+		for (int i = 0; i < groups1.size(); i++) {
+			for (int j = 0; j < groups2.size(); j++) {
+				double min = Double.MAX_VALUE;
+				int count = 0;
+				for (Atom a : groups1.get(i).getAtoms()) {
+					for (Atom b : groups2.get(j).getAtoms()) {
+						double d = Calc.getDistance(a, b);
+						if (d <= cutoff)
+							count++;
+						min = Math.min(min, d);
+					}
+				}
+				assertEquals(count, map.getAtomContactCount(i, j));
+				if (count > 0) {
+					contacts++;
+					assertEquals((float) min, map.getDistance(i, j), 1e-5);
+				}
+			}
+		}
+		assertEquals(contacts, map.getContactCount());
+		assertTrue(contacts > 0);
+
+		assertSameMap(map, ContactTools.getResidueContactMap(groups1, groups2, ContactType.ALL_ATOM, cutoff, true));
+	}
+
+	public void testSeparatedChains() throws Exception {
+		Structure s = getStructure();
+		List<Group> groups1 = s.getChain(0).getAtomGroups();
+
+		for (int axis = 0; axis < 3; axis++) {
+			for (double offset : new double[] { -200, 200 }) {
+				double[] v = new double[3];
+				v[axis] = offset;
+				Atom shift = new AtomImpl();
+				shift.setCoords(v);
+
+				// the second chain lies entirely on one side of the first
+				List<Group> groups2 = new ArrayList<Group>();
+				for (Group g : s.getChain(1).getAtomGroups()) {
+					Group moved = (Group) g.clone();
+					Calc.shift(moved, shift);
+					groups2.add(moved);
+				}
+
+				for (boolean dense : new boolean[] { false, true }) {
+					ContactMap map = ContactTools.getResidueContactMap(groups1, groups2, ContactType.ALL_ATOM, 5, dense);
+					assertEquals(groups1.size(), map.getRowCount());
+					assertEquals(groups2.size(), map.getColumnCount());
+					assertEquals(0, map.getContactCount());
+
+					map = ContactTools.getResidueContactMap(groups2, groups1, ContactType.ALL_ATOM, 5, dense);
+					assertEquals(0, map.getContactCount());
+				}
+
+				Atom[] atoms1 = randomAtoms(new Random(6), 100, 25);
+				Atom[] atoms2 = randomAtoms(new Random(7), 100, 25);
+				for (Atom a : atoms2)
+					Calc.shift(a, shift);
+				assertEquals(0, ContactTools.getContactMap(atoms1, atoms2, 4.5, false).getContactCount());
+				assertEquals(0, ContactTools.getContactMap(atoms2, atoms1, 4.5, true).getContactCount());
+			}
+		}
+	}
+
+	public void testCBContactMap() throws Exception {
+		List<Group> groups = getStructure().getChain(0).getAtomGroups();
+		ContactMap map = ContactTools.getResidueContactMap(groups, ContactType.CB, 8, false);
+		for (int i = 0; i < groups.size(); i++) {
+			Atom a = ContactTools.getRepresentativeAtom(groups.get(i), ContactType.CB);
+			for (int j = 0; j < groups.size(); j++) {
+				Atom b = ContactTools.getRepresentativeAtom(groups.get(j), ContactType.CB);
+				boolean expected = i != j && a != null && b != null && Calc.getDistance(a, b) <= 8;
+				assertEquals(expected, map.isContact(i, j));
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package org.biojava.bio.structure.io;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class FixedColumnParserTest extends TestCase {
+
+	private static final String LINE = "ATOM   1964  N   ARG H 221A      5.963 -16.715  27.669  1.00 28.59           N  ";
+
+	public void testColumns() {
+		assertEquals(1964, FixedColumnParser.parseInt(LINE, 6, 11));
+		assertEquals(221, FixedColumnParser.parseInt(LINE, 22, 26));
+		assertEquals(5.963, FixedColumnParser.parseDouble(LINE, 30, 38));
+		assertEquals(-16.715, FixedColumnParser.parseDouble(LINE, 38, 46));
+		assertEquals(27.669, FixedColumnParser.parseDouble(LINE, 46, 54));
+		assertEquals(1.0, FixedColumnParser.parseDouble(LINE, 54, 60));
+		assertEquals(28.59, FixedColumnParser.parseDouble(LINE, 60, 66));
+	}
+
+	public void testSameAsParseDouble() {
+		String[] numbers = { "0", "-0.000", "1.", ".5", "-12345.678", "1e3", "-1.5E-2", "+2.5",
+				"123456789012345678901234", "0.00000000000000000000000001", "NaN" };
+		for (String n : numbers) {
+			String line = "  " + n + "  ";
+			assertEquals(Double.doubleToLongBits(Double.parseDouble(n)),
+					Double.doubleToLongBits(FixedColumnParser.parseDouble(line, 0, line.length())));
+		}
+
+		Random random = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			String n = String.format("%8.3f", (random.nextDouble() - 0.5) * 2000);
+			assertEquals(Double.parseDouble(n.trim()), FixedColumnParser.parseDouble(n, 0, n.length()));
+		}
+	}
+
+	public void testInvalid() {
+		String[] invalid = { "", "   ", "-", ".", "1.2.3", "12a" };
+		for (String n : invalid) {
+			try {
+				FixedColumnParser.parseDouble(n, 0, n.length());
+				fail("not a number: " + n);
+			} catch (NumberFormatException e) {
+				// expected
+			}
+			try {
+				FixedColumnParser.parseInt(n, 0, n.length());
+				fail("not a number: " + n);
+			} catch (NumberFormatException e) {
+				// expected
+			}
+		}
+		assertEquals(-42, FixedColumnParser.parseInt(" -42", 0, 4));
+		assertEquals(Integer.MAX_VALUE, FixedColumnParser.parseInt("2147483647", 0, 10));
+
+		try {
+			FixedColumnParser.parseDouble(LINE, 60, LINE.length() + 1);
+			fail("the line is too short");
+		} catch (StringIndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	public void testIntern() {
+		FixedColumnParser parser = new FixedColumnParser();
+		String ca = parser.intern("ATOM      2  CA  MET A   1", 12, 16);
+		assertEquals(" CA ", ca);
+		assertSame(ca, parser.intern("ATOM      9  CA  GLY A   2", 12, 16));
+		assertEquals("CA", parser.internTrimmed("ATOM      2  CA  MET A   1", 12, 16));
+		assertEquals("", parser.internTrimmed(LINE, 66, 76));
+
+		// many different names still work after the dictionary is full
+		for (int i = 0; i < FixedColumnParser.MAX_DICTIONARY_SIZE + 100; i++) {
+			String name = "X" + i;
+			assertEquals(name, parser.intern(name, 0, name.length()));
+		}
+		assertSame(ca, parser.intern(" CA ", 0, 4));
+	}
+}
@@ -0,0 +1,107 @@
+package org.biojava.bio.structure.io;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureException;
+
+public class SeqRes2AtomAlignerTest extends TestCase {
+
+	static final String SEQRES = "VLSPADKTNVKAAWGKVGAHAGEYGAEALERMFLSFPTTKTYFPHFDLSHGSAQVKGHGKKVADALTNAVAHVDDMPNALSALSDLHAHKL";
+
+	public void testAnchoredMapping() {
+		AnchoredSequenceMapper mapper = new AnchoredSequenceMapper(6);
+
+		// identical
+		int[] map = mapper.map(SEQRES, SEQRES);
+		for ( int i = 0 ; i < map.length ; i++)
+			assertEquals(i, map[i]);
+
+		// a missing loop, a point mutation and missing termini
+		String atom = SEQRES.substring(3, 30) + SEQRES.substring(40, 60) + "W" + SEQRES.substring(61, 85);
+		map = mapper.map(SEQRES, atom);
+		assertNotNull(map);
+		assertEquals(atom.length(), map.length);
+		for ( int i = 0 ; i < 27 ; i++)
+			assertEquals(3 + i, map[i]);
+		for ( int i = 27 ; i < 47 ; i++)
+			assertEquals(13 + i, map[i]);
+		assertEquals(-1, map[47]);
+		for ( int i = 48 ; i < atom.length() ; i++)
+			assertEquals(13 + i, map[i]);
+
+		// nothing in common
+		assertNull(mapper.map(SEQRES, "WWWWWWWWWWWWWWWWWWWW"));
+	}
+
+	public void testSameAsFullAlignment() throws Exception {
+		InputStream inStream = new GZIPInputStream(SeqRes2AtomAlignerTest.class.getResourceAsStream("/4hhb.pdb.gz"));
+		Structure s;
+		try {
+			s = new PDBFileParser().parsePDBFile(inStream);
+		} finally {
+			inStream.close();
+		}
+
+		for ( Chain chain : s.getChains()) {
+			List<Group> atomGroups = new ArrayList<Group>(chain.getAtomGroups("amino"));
+
+			// remove a loop and the first residues, so that the residue numbers can not be used directly
+			List<Group> atomRes = new ArrayList<Group>(atomGroups);
+			atomRes.subList(40, 52).clear();
+			atomRes.subList(0, 3).clear();
+
+			List<Group> anchored = align(atomGroups, atomRes, true);
+			List<Group> full     = align(atomGroups, atomRes, false);
+
+			// the same ATOM group, or no ATOM group at all, at every SEQRES position
+			assertEquals(full.size(), anchored.size());
+			for ( int i = 0 ; i < full.size() ; i++){
+				assertEquals(atomRes.indexOf(full.get(i)), atomRes.indexOf(anchored.get(i)));
+			}
+			assertSame(atomRes.get(0), anchored.get(3));
+			assertSame(atomRes.get(37), anchored.get(40 + 12));
+		}
+	}
+
+	public void testCounters() throws Exception {
+		SeqRes2AtomAligner.resetCounters();
+		assertEquals(0, SeqRes2AtomAligner.getCount(SeqRes2AtomAligner.Phase.ANCHORING));
+
+		InputStream inStream = new GZIPInputStream(SeqRes2AtomAlignerTest.class.getResourceAsStream("/4hhb.pdb.gz"));
+		Structure s;
+		try {
+			s = new PDBFileParser().parsePDBFile(inStream);
+		} finally {
+			inStream.close();
+		}
+		List<Group> atomGroups = s.getChain(0).getAtomGroups("amino");
+		List<Group> atomRes = new ArrayList<Group>(atomGroups);
+		atomRes.subList(40, 52).clear();
+		align(atomGroups, atomRes, true);
+
+		assertEquals(1, SeqRes2AtomAligner.getCount(SeqRes2AtomAligner.Phase.ANCHORING));
+		assertEquals(1, SeqRes2AtomAligner.getCount(SeqRes2AtomAligner.Phase.GAP_FILLING));
+		assertEquals(0, SeqRes2AtomAligner.getCount(SeqRes2AtomAligner.Phase.FULL_ALIGNMENT));
+		assertTrue(SeqRes2AtomAligner.getTime(SeqRes2AtomAligner.Phase.ANCHORING) > 0);
+	}
+
+	/** aligns copies of the groups, that play the role of the SEQRES, to the ATOM groups */
+	private List<Group> align(List<Group> groups, List<Group> atomRes, boolean anchoredMapping) throws StructureException {
+		List<Group> seqRes = new ArrayList<Group>();
+		for ( Group g : groups)
+			seqRes.add((Group) g.clone());
+
+		SeqRes2AtomAligner aligner = new SeqRes2AtomAligner();
+		aligner.setAnchoredMapping(anchoredMapping);
+		assertFalse(aligner.align(seqRes, atomRes));
+		return seqRes;
+	}
+}
@@ -0,0 +1,65 @@
+package org.biojava.bio.structure.io.mmcif;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.io.mmcif.model.AtomSite;
+import org.biojava.bio.structure.io.mmcif.model.Entity;
+
+public class CategoryBinderTest extends TestCase {
+
+	/** every String setter of AtomSite has to be handled by the AtomSiteBinder */
+	public void testAtomSiteSetters() throws Exception {
+		List<String> fields = new ArrayList<String>();
+		List<Method> getters = new ArrayList<Method>();
+		for (Method m : AtomSite.class.getMethods()) {
+			if ( m.getName().startsWith("set") && Arrays.equals(m.getParameterTypes(), new Class[] { String.class })) {
+				String suffix = m.getName().substring(3);
+				fields.add(suffix);
+				getters.add(AtomSite.class.getMethod("get" + suffix));
+			}
+		}
+		assertTrue(fields.size() > 20);
+
+		CategoryBinder binder = CategoryBinder.getBinder(AtomSite.class.getName(), fields);
+		assertTrue(binder instanceof AtomSiteBinder);
+
+		List<String> values = new ArrayList<String>();
+		for (String field : fields)
+			values.add("value of " + field);
+
+		AtomSite atom = (AtomSite) binder.bind(values);
+		for (int i = 0; i < fields.size(); i++)
+			assertEquals(values.get(i), getters.get(i).invoke(atom));
+	}
+
+	public void testReuse() {
+		List<String> fields = Arrays.asList("group_PDB", "id", "Cartn_x", "unknown_field");
+		AtomSiteBinder binder = (AtomSiteBinder) CategoryBinder.getBinder(AtomSite.class.getName(), fields);
+		assertTrue(binder.hasFields(new ArrayList<String>(fields)));
+		assertFalse(binder.hasFields(fields.subList(0, 3)));
+
+		AtomSite atom = new AtomSite();
+		binder.bind(atom, Arrays.asList("ATOM", "1", "1.5", "x"));
+		assertEquals("ATOM", atom.getGroup_PDB());
+		binder.bind(atom, Arrays.asList("HETATM", "2", "-3.25", "x"));
+		assertEquals("HETATM", atom.getGroup_PDB());
+		assertEquals("2", atom.getId());
+		assertEquals("-3.25", atom.getCartn_x());
+	}
+
+	public void testReflection() {
+		List<String> fields = Arrays.asList("id", "type", "src_method");
+		CategoryBinder binder = CategoryBinder.getBinder(Entity.class.getName(), fields);
+		Entity entity = (Entity) binder.bind(Arrays.asList("1", "polymer", "man"));
+		assertEquals("1", entity.getId());
+		assertEquals("polymer", entity.getType());
+		assertEquals("man", entity.getSrc_method());
+
+		assertNull(CategoryBinder.getBinder("org.biojava.NoSuchClass", fields));
+	}
+}
@@ -0,0 +1,95 @@
+package org.biojava.bio.structure.io.mmcif;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class CifLexerTest extends TestCase {
+
+	private static final String CIF = "data_TEST\n" +
+			"# a comment\n" +
+			"_struct.title 'it''s a title'\n" +
+			"_struct.pdbx_descriptor \"5'-D(*CP*GP)-3'\"\n" +
+			"loop_\n" +
+			"_foo.a\n" +
+			"_foo.b\n" +
+			"1 \"O5'\"\n" +
+			"2 ''\n" +
+			"3\n" +
+			";first line\n" +
+			"second line\n" +
+			";\n" +
+			"#\n" +
+			"loop_\n" +
+			"_bar.x\n" +
+			"'_not a tag' 2.0\n" +
+			";\n" +
+			"_also not a tag\n" +
+			";\n" +
+			"_baz.y ?\n";
+
+	private static List<String> tokens(CifLexer lexer) throws IOException {
+		List<String> tokens = new ArrayList<String>();
+		int type;
+		while ( (type = lexer.next()) != CifLexer.EOF)
+			tokens.add(type + ":" + lexer.getString());
+		return tokens;
+	}
+
+	public void testTokens() throws IOException {
+		List<String> tokens = tokens(new CifLexer(ByteBuffer.wrap(CIF.getBytes("UTF-8"))));
+		assertEquals(Arrays.asList(
+				"1:data_TEST",
+				"3:_struct.title", "4:it''s a title",
+				"3:_struct.pdbx_descriptor", "4:5'-D(*CP*GP)-3'",
+				"2:loop_", "3:_foo.a", "3:_foo.b",
+				"4:1", "4:O5'", "4:2", "4:", "4:3", "4:first linesecond line",
+				"2:loop_", "3:_bar.x", "4:_not a tag", "4:2.0", "4:_also not a tag",
+				"3:_baz.y", "4:?"), tokens);
+	}
+
+	public void testStream() throws IOException {
+		// larger than the buffer, so it has to be refilled and compacted
+		StringBuilder cif = new StringBuilder("data_TEST\nloop_\n_foo.a\n_foo.b\n");
+		for ( int i = 0 ; i < 20000 ; i++)
+			cif.append(i).append(" 'value ").append(i).append("'\n");
+		cif.append(";\n").append(cif.length()).append("\n;\n");
+
+		byte[] bytes = cif.toString().getBytes("UTF-8");
+		List<String> fromBuffer = tokens(new CifLexer(ByteBuffer.wrap(bytes)));
+		List<String> fromStream = tokens(new CifLexer(new ByteArrayInputStream(bytes)));
+		assertEquals(4 + 2 * 20000 + 1, fromStream.size());
+		assertEquals("4:value 19999", fromStream.get(fromStream.size() - 2));
+		assertEquals(fromBuffer, fromStream);
+	}
+
+	public void testSkipCategory() throws IOException {
+		CifLexer lexer = new CifLexer(ByteBuffer.wrap(CIF.getBytes("UTF-8")));
+		while ( lexer.next() != CifLexer.LOOP)
+			;
+		assertEquals(CifLexer.TAG, lexer.next());
+		assertEquals(CifLexer.TAG, lexer.next());
+		assertEquals(CifLexer.VALUE, lexer.next());
+		lexer.skipCategory();
+
+		assertEquals(CifLexer.LOOP, lexer.next());
+		assertEquals(CifLexer.TAG, lexer.next());
+		assertEquals(CifLexer.VALUE, lexer.next());
+		// the quoted value and the text field that start with an underscore are skipped as well
+		lexer.skipCategory();
+
+		assertEquals(CifLexer.TAG, lexer.next());
+		assertEquals("_baz.y", lexer.getString());
+	}
+
+	public void testNonAscii() throws IOException {
+		String cif = "data_TEST\n_audit_author.name 'M\u00fcller, J.'\n;\u00c5ngstr\u00f6m\n;\n";
+		List<String> tokens = tokens(new CifLexer(new ByteArrayInputStream(cif.getBytes("UTF-8"))));
+		assertEquals(Arrays.asList("1:data_TEST", "3:_audit_author.name", "4:M\u00fcller, J.", "4:\u00c5ngstr\u00f6m"), tokens);
+	}
+}
@@ -0,0 +1,170 @@
+package org.biojava.bio.structure.io.mmcif;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.io.mmcif.model.ChemComp;
+
+public class IndexedChemCompProviderTest extends TestCase {
+
+	private static final String[] IDS = { "ALA", "GLY", "HOH", "DA", "U", "SF4", "MSE", "ATP_MISSING" };
+
+	private File dir;
+	private File components;
+	private File index;
+
+	@Override
+	protected void setUp() throws Exception {
+		dir = File.createTempFile("chemcomp", "");
+		dir.delete();
+		dir.mkdir();
+		components = new File(dir, "components.cif.gz");
+		index = new File(dir, IndexedChemCompProvider.INDEX_FILE_NAME);
+
+		// a small components file made of the definitions of the ReducedChemCompProvider
+		OutputStream out = new GZIPOutputStream(new FileOutputStream(components));
+		try {
+			for (String id : IDS){
+				InputStream in = getClass().getResourceAsStream("/chemcomp/" + id + ".cif.gz");
+				if ( in == null)
+					continue;
+				in = new GZIPInputStream(in);
+				byte[] buf = new byte[4096];
+				int n;
+				while ( (n = in.read(buf)) > 0)
+					out.write(buf, 0, n);
+				in.close();
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (File f : dir.listFiles())
+			f.delete();
+		dir.delete();
+	}
+
+	public void testProvider() throws IOException {
+		IndexedChemCompProvider provider = new IndexedChemCompProvider(components, index);
+		ReducedChemCompProvider reduced = new ReducedChemCompProvider();
+		try {
+			assertEquals(IDS.length - 1, provider.size());
+			assertTrue(index.exists());
+
+			for (String id : IDS){
+				ChemComp cc = provider.getChemComp(id.toLowerCase());
+				if ( id.equals("ATP_MISSING")) {
+					assertNull(cc);
+					continue;
+				}
+				ChemComp expected = reduced.getChemComp(id);
+				assertEquals(expected.getId(), cc.getId());
+				assertEquals(expected.getName(), cc.getName());
+				assertEquals(expected.getFormula(), cc.getFormula());
+				assertEquals(expected.getOne_letter_code(), cc.getOne_letter_code());
+				assertEquals(expected.getPolymerType(), cc.getPolymerType());
+			}
+		} finally {
+			provider.close();
+		}
+
+		// the existing index is reused, and rebuilt if the components file changes
+		long created = index.lastModified();
+		provider = new IndexedChemCompProvider(components, index);
+		assertEquals("ALA", provider.getChemComp("ALA").getId());
+		provider.close();
+		assertEquals(created, index.lastModified());
+
+		assertTrue(components.setLastModified(components.lastModified() - 10000));
+		provider = new IndexedChemCompProvider(components, index);
+		assertEquals("GLY", provider.getChemComp("GLY").getId());
+		provider.close();
+	}
+
+	public void testCloseWhileReading() throws Exception {
+		final IndexedChemCompProvider provider = new IndexedChemCompProvider(components, index);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for ( int t = 0 ; t < 4 ; t++){
+				results.add(pool.submit(new Callable<Integer>() {
+					public Integer call() {
+						int found = 0;
+						for ( int i = 0 ; i < 200 ; i++){
+							if ( provider.getChemComp(i % 2 == 0 ? "SF4" : "MSE") != null)
+								found++;
+						}
+						return found;
+					}
+				}));
+			}
+			for ( int i = 0 ; i < 50 ; i++){
+				provider.close();
+				Thread.yield();
+			}
+			// closing only makes the next read open the index again
+			for (Future<Integer> result : results)
+				assertEquals(Integer.valueOf(200), result.get());
+		} finally {
+			pool.shutdown();
+			provider.close();
+		}
+	}
+
+	public void testSharedCache() throws Exception {
+		ChemCompProvider old = ChemCompGroupFactory.getChemCompProvider();
+		final IndexedChemCompProvider provider = new IndexedChemCompProvider(components, index);
+		ChemCompGroupFactory.setChemCompProvider(provider);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<ChemComp>> results = new ArrayList<Future<ChemComp>>();
+			for ( int i = 0 ; i < 100 ; i++){
+				final String id = i % 2 == 0 ? "SF4" : "MSE";
+				results.add(pool.submit(new Callable<ChemComp>() {
+					public ChemComp call() {
+						return ChemCompGroupFactory.getChemComp(id);
+					}
+				}));
+			}
+			// every thread gets the same cached instance
+			for ( int i = 2 ; i < results.size() ; i++)
+				assertSame(results.get(i % 2).get(), results.get(i).get());
+
+			// standard residues are loaded up front and never evicted
+			ChemComp ala = ChemCompGroupFactory.getChemComp("ALA");
+			int size = ChemCompGroupFactory.getCacheSize();
+			ChemCompGroupFactory.setCacheSize(0);
+			assertSame(ala, ChemCompGroupFactory.getChemComp("ALA"));
+			assertNotSame(results.get(0).get(), ChemCompGroupFactory.getChemComp("SF4"));
+			ChemCompGroupFactory.setCacheSize(size);
+
+			// another instance of the same provider class may read another file
+			ChemComp sf4 = ChemCompGroupFactory.getChemComp("SF4");
+			IndexedChemCompProvider other = new IndexedChemCompProvider(components, index);
+			ChemCompGroupFactory.setChemCompProvider(other);
+			assertNotSame(sf4, ChemCompGroupFactory.getChemComp("SF4"));
+			ChemCompGroupFactory.setChemCompProvider(provider);
+			other.close();
+		} finally {
+			pool.shutdown();
+			ChemCompGroupFactory.setChemCompProvider(old);
+			provider.close();
+		}
+	}
+}
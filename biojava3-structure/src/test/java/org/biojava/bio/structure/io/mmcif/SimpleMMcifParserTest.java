@@ -0,0 +1,134 @@
+package org.biojava.bio.structure.io.mmcif;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava.bio.structure.io.mmcif.model.AtomSite;
+import org.biojava.bio.structure.io.mmcif.model.Entity;
+import org.biojava.bio.structure.io.mmcif.model.Struct;
+
+public class SimpleMMcifParserTest extends TestCase {
+
+	/** counts the records it gets, without building the atoms */
+	private static class CountingConsumer extends SimpleMMcifConsumer {
+		int entities;
+		int atoms;
+		AtomSite lastAtom;
+		int generic;
+
+		@Override
+		public void newEntity(Entity entity) {
+			entities++;
+			super.newEntity(entity);
+		}
+
+		@Override
+		public void newAtomSite(AtomSite atom) {
+			atoms++;
+			lastAtom = atom;
+		}
+
+		@Override
+		public void newGenericData(String category, java.util.List<String> loopFields, java.util.List<String> lineData) {
+			generic++;
+		}
+	}
+
+	private static CountingConsumer parse(SimpleMMcifParser parser) throws IOException {
+		CountingConsumer consumer = new CountingConsumer();
+		parser.addMMcifConsumer(consumer);
+		InputStream inStream = new GZIPInputStream(SimpleMMcifParserTest.class.getResourceAsStream("/4hhb.cif.gz"));
+		try {
+			parser.parse(inStream);
+		} finally {
+			inStream.close();
+		}
+		return consumer;
+	}
+
+	public void testCategories() throws IOException {
+		CountingConsumer all = parse(new SimpleMMcifParser());
+		assertEquals(4779, all.atoms);
+		assertTrue(all.entities > 0);
+		assertTrue(all.generic > 0);
+		assertNotNull(all.lastAtom.getCartn_x());
+
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		parser.setCategories(Arrays.asList("_entity", "_atom_site"));
+		parser.setCategoryFields("_atom_site", Arrays.asList("label_asym_id", "label_seq_id"));
+		CountingConsumer some = parse(parser);
+		assertEquals(all.atoms, some.atoms);
+		assertEquals(all.entities, some.entities);
+		assertEquals(0, some.generic);
+		assertEquals(all.lastAtom.getLabel_asym_id(), some.lastAtom.getLabel_asym_id());
+		assertEquals(all.lastAtom.getLabel_seq_id(), some.lastAtom.getLabel_seq_id());
+		assertNull(some.lastAtom.getCartn_x());
+	}
+
+	public void testHeaderOnly() throws IOException {
+		FileParsingParameters params = new FileParsingParameters();
+		params.setHeaderOnly(true);
+		params.setAlignSeqRes(false);
+
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer();
+		consumer.setFileParsingParameters(params);
+		parser.setCategories(consumer.getCategories());
+		parser.setCategoryFields("_atom_site", consumer.getAtomSiteFields());
+		parser.addMMcifConsumer(consumer);
+
+		InputStream inStream = new GZIPInputStream(SimpleMMcifParserTest.class.getResourceAsStream("/4hhb.cif.gz"));
+		parser.parse(new BufferedReader(new InputStreamReader(inStream)));
+		Structure s = consumer.getStructure();
+
+		assertEquals(4, s.getChains().size());
+		for ( Chain c : s.getChains()){
+			assertTrue(c.getAtomGroups().size() > 0);
+			assertEquals(0, c.getAtomGroup(0).getAtoms().size());
+		}
+		assertTrue(s.getPDBHeader().getTitle().startsWith("THE CRYSTAL STRUCTURE OF HUMAN DEOXYHAEMOGLOBIN"));
+	}
+
+	public void testQuotedValues() throws IOException {
+		String cif = "data_TEST\n_struct.entry_id TEST\n_struct.title 'a quoted title'\n#\n";
+		final String[] title = new String[1];
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		parser.addMMcifConsumer(new SimpleMMcifConsumer(){
+			@Override
+			public void setStruct(Struct struct) {
+				title[0] = struct.getTitle();
+			}
+		});
+		parser.parse(new BufferedReader(new StringReader(cif)));
+		// the closing quote at the end of the line is not part of the value
+		assertEquals("a quoted title", title[0]);
+	}
+
+	public void testReusedAtomSiteLoops() throws IOException {
+		String cif = "data_TEST\n"
+				+ "loop_\n_atom_site.id\n_atom_site.Cartn_x\n1 1.0\n#\n"
+				+ "loop_\n_atom_site.id\n_atom_site.Cartn_y\n2 2.0\n#\n";
+		final java.util.List<String> xs = new java.util.ArrayList<String>();
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		parser.setReuseAtomSites(true);
+		parser.addMMcifConsumer(new SimpleMMcifConsumer(){
+			@Override
+			public void newAtomSite(AtomSite atom) {
+				xs.add(atom.getCartn_x());
+			}
+		});
+		parser.parse(new BufferedReader(new StringReader(cif)));
+		// the second loop has no x coordinates, the value of the first loop must not leak into it
+		assertEquals(Arrays.asList("1.0", null), xs);
+	}
+}
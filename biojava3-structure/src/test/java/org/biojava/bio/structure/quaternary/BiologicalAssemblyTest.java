@@ -0,0 +1,189 @@
+package org.biojava.bio.structure.quaternary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+import org.biojava.bio.structure.Calc;
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.io.mmcif.SimpleMMcifConsumer;
+import org.biojava.bio.structure.io.mmcif.SimpleMMcifParser;
+import org.biojava.bio.structure.jama.Matrix;
+
+public class BiologicalAssemblyTest extends TestCase {
+
+	Structure asymUnit;
+
+	List<ModelTransformationMatrix> transformations;
+
+	@Override
+	protected void setUp() throws IOException {
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer();
+		parser.addMMcifConsumer(consumer);
+		InputStream inStream = new GZIPInputStream(BiologicalAssemblyTest.class.getResourceAsStream("/4hhb.cif.gz"));
+		try {
+			parser.parse(inStream);
+		} finally {
+			inStream.close();
+		}
+		asymUnit = consumer.getStructure();
+
+		// an identity and a rotation of 30 degrees around (1,2,3) plus a shift, for every chain
+		double angle = Math.toRadians(30);
+		double[] axis = new double[]{1, 2, 3};
+		double len = Math.sqrt(14);
+		double x = axis[0] / len, y = axis[1] / len, z = axis[2] / len;
+		double c = Math.cos(angle), s = Math.sin(angle), t = 1 - c;
+		Matrix rot = new Matrix(new double[][]{
+				{t*x*x + c,   t*x*y - s*z, t*x*z + s*y},
+				{t*x*y + s*z, t*y*y + c,   t*y*z - s*x},
+				{t*x*z - s*y, t*y*z + s*x, t*z*z + c}});
+
+		transformations = new ArrayList<ModelTransformationMatrix>();
+		for ( Chain chain : asymUnit.getChains()){
+			ModelTransformationMatrix identity = new ModelTransformationMatrix();
+			identity.id = "1";
+			identity.ndbChainId = chain.getInternalChainID();
+			transformations.add(identity);
+
+			ModelTransformationMatrix rotation = new ModelTransformationMatrix();
+			rotation.setTransformationMatrix(rot, new double[]{10.5, -3.25, 7});
+			rotation.id = "2";
+			rotation.ndbChainId = chain.getInternalChainID();
+			transformations.add(rotation);
+		}
+		// does not match any chain
+		ModelTransformationMatrix unmatched = new ModelTransformationMatrix();
+		unmatched.id = "3";
+		unmatched.ndbChainId = "not a chain";
+		transformations.add(unmatched);
+	}
+
+	public void testCoordinates(){
+		BiologicalAssembly assembly = new BiologicalAssembly(asymUnit, transformations);
+
+		assertEquals(8, assembly.getChainCount());
+		int nrAtoms = StructureTools.getAllAtomArray(asymUnit).length;
+		assertEquals(2 * nrAtoms, assembly.getAtomCount());
+
+		double[] xyz = assembly.getCoordinates();
+		assertEquals(3 * assembly.getAtomCount(), xyz.length);
+
+		// compare to rotating and shifting every atom separately
+		int pos = 0;
+		for ( ModelTransformationMatrix max : transformations){
+			for ( Chain c : asymUnit.getChains()){
+				if ( ! max.ndbChainId.equals(c.getInternalChainID()))
+					continue;
+				Atom v = new AtomImpl();
+				v.setCoords(max.getVector());
+				for ( Group g : c.getAtomGroups()){
+					for ( Atom a : g.getAtoms()){
+						Atom na = (Atom) a.clone();
+						Calc.rotate(na, max.getMatrix());
+						Calc.shift(na, v);
+						assertEquals(na.getX(), xyz[pos++], 1e-9);
+						assertEquals(na.getY(), xyz[pos++], 1e-9);
+						assertEquals(na.getZ(), xyz[pos++], 1e-9);
+					}
+				}
+			}
+		}
+		assertEquals(xyz.length, pos);
+
+		// the identity leaves the asym unit as it is
+		Atom[] atoms = assembly.getAtoms(0);
+		double[] first = new double[3 * atoms.length];
+		assertEquals(first.length, assembly.getCoordinates(0, first, 0));
+		for ( int i = 0 ; i < atoms.length ; i++){
+			assertEquals(atoms[i].getX(), first[3 * i], 1e-6);
+			assertEquals(atoms[i].getY(), first[3 * i + 1], 1e-6);
+			assertEquals(atoms[i].getZ(), first[3 * i + 2], 1e-6);
+		}
+	}
+
+	public void testToStructure(){
+		BiologicalAssembly assembly = new BiologicalAssemblyBuilder().getBiologicalAssembly(asymUnit, transformations);
+		double[] before = StructureTools.getAllAtomArray(asymUnit)[0].getCoords();
+
+		Structure bioUnit = assembly.toStructure();
+		assertTrue(bioUnit.isBiologicalAssembly());
+		assertEquals(2, bioUnit.nrModels());
+
+		double[] xyz = assembly.getCoordinates();
+		int pos = 0;
+		for ( int model = 0 ; model < bioUnit.nrModels() ; model++){
+			for ( int i = 0 ; i < 4 ; i++){
+				// transformed chains alternate between the identity and the rotation
+				Chain c = bioUnit.getModel(model).get(i);
+				Chain expected = assembly.getTransformedChain(2 * i + model);
+				assertEquals(expected.getChainID(), c.getChainID());
+				pos = 3 * offset(assembly, 2 * i + model);
+				for ( Group g : c.getAtomGroups()){
+					for ( Atom a : g.getAtoms()){
+						assertEquals(xyz[pos++], a.getX(), 0);
+						assertEquals(xyz[pos++], a.getY(), 0);
+						assertEquals(xyz[pos++], a.getZ(), 0);
+					}
+				}
+			}
+		}
+
+		// the asym unit is not modified
+		double[] after = StructureTools.getAllAtomArray(asymUnit)[0].getCoords();
+		assertEquals(before[0], after[0], 0);
+		assertEquals(before[1], after[1], 0);
+		assertEquals(before[2], after[2], 0);
+	}
+
+	private static int offset(BiologicalAssembly assembly, int chain){
+		int offset = 0;
+		for ( int i = 0 ; i < chain ; i++){
+			offset += assembly.getAtomCount(i);
+		}
+		return offset;
+	}
+
+	public void testBoundsAndCentroid(){
+		Structure bioUnit = new BiologicalAssemblyBuilder().rebuildQuaternaryStructure(asymUnit, transformations);
+
+		double[] centroid = new double[3];
+		double[][] bounds = new double[][]{
+				{Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE},
+				{-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE}};
+		int count = 0;
+		for ( int model = 0 ; model < bioUnit.nrModels() ; model++){
+			for ( Chain c : bioUnit.getModel(model)){
+				for ( Group g : c.getAtomGroups()){
+					for ( Atom a : g.getAtoms()){
+						double[] coords = a.getCoords();
+						for ( int i = 0 ; i < 3 ; i++){
+							centroid[i] += coords[i];
+							bounds[0][i] = Math.min(bounds[0][i], coords[i]);
+							bounds[1][i] = Math.max(bounds[1][i], coords[i]);
+						}
+						count++;
+					}
+				}
+			}
+		}
+
+		double[] actual = BioAssemblyTools.getBiologicalMoleculeCentroid(asymUnit, transformations);
+		double[][] actualBounds = BioAssemblyTools.getBiologicalMoleculeBounds(asymUnit, transformations);
+		for ( int i = 0 ; i < 3 ; i++){
+			assertEquals(centroid[i] / count, actual[i], 1e-6);
+			assertEquals(bounds[0][i], actualBounds[0][i], 0);
+			assertEquals(bounds[1][i], actualBounds[1][i], 0);
+		}
+	}
+}
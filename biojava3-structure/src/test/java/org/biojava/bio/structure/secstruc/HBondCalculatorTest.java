@@ -0,0 +1,60 @@
+package org.biojava.bio.structure.secstruc;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.Calc;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava.bio.structure.io.PDBFileParser;
+
+public class HBondCalculatorTest extends TestCase {
+
+	private SecStrucGroup[] getGroups() throws Exception {
+		InputStream inStream = new GZIPInputStream(getClass().getResourceAsStream("/4hhb.pdb.gz"));
+		PDBFileParser parser = new PDBFileParser();
+		FileParsingParameters params = new FileParsingParameters();
+		params.setAlignSeqRes(false);
+		parser.setFileParsingParameters(params);
+		Structure structure = parser.parsePDBFile(inStream);
+
+		SecStruc secStruc = new SecStruc();
+		secStruc.assign(structure);
+		return secStruc.getGroups();
+	}
+
+	public void testCandidatesAndEnergies() throws Exception {
+		SecStrucGroup[] groups = getGroups();
+		HBondCalculator calculator = new HBondCalculator(groups);
+		SecStruc secStruc = new SecStruc();
+
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < groups.length; i++) {
+			for (int j = i + 1; j < groups.length; j++) {
+				if (Calc.getDistance(groups[i].getCA(), groups[j].getCA()) < SecStruc.CA_MIN_DIST) {
+					expected.add(i);
+					expected.add(j);
+				}
+			}
+		}
+
+		int[] pairs = calculator.getCandidatePairs();
+		assertEquals(expected.size(), pairs.length);
+		for (int k = 0; k < pairs.length; k++)
+			assertEquals(expected.get(k).intValue(), pairs[k]);
+
+		double[] energies = calculator.getEnergies(pairs);
+		for (int k = 0; k < pairs.length; k += 2) {
+			int i = pairs[k];
+			int j = pairs[k + 1];
+			if (i == 0)
+				continue;
+			assertEquals(secStruc.calculateHBondEnergy(groups[i], groups[j]), energies[k], 0);
+			assertEquals(secStruc.calculateHBondEnergy(groups[j], groups[i]), energies[k + 1], 0);
+		}
+	}
+}
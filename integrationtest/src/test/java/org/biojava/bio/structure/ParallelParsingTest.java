@@ -0,0 +1,75 @@
+package org.biojava.bio.structure;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava.bio.structure.io.PDBFileParser;
+import org.biojava.bio.structure.io.mmcif.SimpleMMcifConsumer;
+import org.biojava.bio.structure.io.mmcif.SimpleMMcifParser;
+
+public class ParallelParsingTest extends TestCase {
+
+	private Structure parsePDB(String file, boolean parallel, int atomCaThreshold) throws Exception {
+		InputStream inStream = getClass().getResourceAsStream(file);
+		assertNotNull(inStream);
+
+		FileParsingParameters params = new FileParsingParameters();
+		params.setAlignSeqRes(false);
+		params.setParallelParsing(parallel);
+		params.setAtomCaThreshold(atomCaThreshold);
+
+		PDBFileParser parser = new PDBFileParser();
+		parser.setFileParsingParameters(params);
+		return parser.parsePDBFile(inStream);
+	}
+
+	private Structure parseMMcif(String file, boolean parallel) throws Exception {
+		InputStream inStream = getClass().getResourceAsStream(file);
+		assertNotNull(inStream);
+
+		FileParsingParameters params = new FileParsingParameters();
+		params.setAlignSeqRes(false);
+
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		parser.setParallelAtomSites(parallel);
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer();
+		consumer.setFileParsingParameters(params);
+		parser.addMMcifConsumer(consumer);
+		parser.parse(new BufferedReader(new InputStreamReader(inStream)));
+		return consumer.getStructure();
+	}
+
+	private static void assertSameStructure(Structure expected, Structure s) {
+		assertEquals(expected.nrModels(), s.nrModels());
+		assertEquals(expected.getHetGroups().size(), s.getHetGroups().size());
+		for (int i = 0; i < expected.nrModels(); i++) {
+			assertEquals(expected.getModel(i).size(), s.getModel(i).size());
+			for (Chain c : s.getModel(i))
+				assertSame(s, c.getParent());
+		}
+		assertEquals(expected.toPDB(), s.toPDB());
+	}
+
+	public void testNMRModels() throws Exception {
+		for (String file : new String[] { "/2kc9.pdb", "/1tap.pdb", "/1a4w.pdb" }) {
+			Structure s = parsePDB(file, true, FileParsingParameters.ATOM_CA_THRESHOLD);
+			assertSameStructure(parsePDB(file, false, FileParsingParameters.ATOM_CA_THRESHOLD), s);
+		}
+		assertEquals(20, parsePDB("/2kc9.pdb", true, FileParsingParameters.ATOM_CA_THRESHOLD).nrModels());
+	}
+
+	public void testAtomCaThreshold() throws Exception {
+		// the threshold applies to the whole file, so the models are parsed one after the other
+		assertSameStructure(parsePDB("/2kc9.pdb", false, 5000), parsePDB("/2kc9.pdb", true, 5000));
+	}
+
+	public void testAtomSites() throws Exception {
+		for (String file : new String[] { "/2kc9.cif", "/1a4w.cif" }) {
+			assertSameStructure(parseMMcif(file, false), parseMMcif(file, true));
+		}
+	}
+}